@@ -0,0 +1,38 @@
+package Bean;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link CouponType#getEnum(String)}, which runs once per Coupon row
+ * read, over the stored spellings, a mixed-case spelling and an unknown value.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CouponTypeBenchmark {
+	private final String[] values = { "FOOD", "ELECTRONICS", "Travelling", "UNSPECIFIED", "no such type" };
+	private int next;
+
+	@Benchmark
+	public CouponType getEnum() {
+		String value = values[next];
+		next = next + 1 == values.length ? 0 : next + 1;
+		return CouponType.getEnum(value);
+	}
+}
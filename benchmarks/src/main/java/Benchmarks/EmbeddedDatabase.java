@@ -0,0 +1,198 @@
+package Benchmarks;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+import Bean.CouponType;
+import Dialect.SQLDialect;
+
+/**
+ * An in-memory H2 database (MySQL mode) with the {@link SQLDialect#H2} schema and a
+ * fixed data set, so the benchmarks run offline and every run sees the same
+ * rows.<br>
+ * <br>
+ * {@link #start()} must run before anything touches the connection pool: it
+ * points the <strong>couponsystem.db.*</strong> system properties at the
+ * in-memory database, which the pool reads once when it's created; the H2
+ * dialect is picked by the URL.<br>
+ * <br>
+ * The data set: {@value #COMPANIES} Companies, {@value #CUSTOMERS} Customers and
+ * {@value #COUPONS} Coupons, ids starting at 1. Each Coupon belongs to a
+ * Company and has a stock that never runs out within a run. The first half of
+ * the Customers ({@link #OWNERS}) own {@value #OWNED_PER_CUSTOMER} Coupons
+ * each; the second half own none, and are left to the purchase benchmarks.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public final class EmbeddedDatabase {
+	/**
+	 * The JDBC URL of the benchmark database
+	 */
+	public static final String URL = "jdbc:h2:mem:coupon_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	/**
+	 * The number of Companies
+	 */
+	public static final int COMPANIES = 10;
+	/**
+	 * The number of Customers
+	 */
+	public static final int CUSTOMERS = 1000;
+	/**
+	 * The number of Customers that own Coupons, ids 1 to OWNERS
+	 */
+	public static final int OWNERS = CUSTOMERS / 2;
+	/**
+	 * The number of Coupons
+	 */
+	public static final int COUPONS = 2000;
+	/**
+	 * The number of Coupons each owning Customer has
+	 */
+	public static final int OWNED_PER_CUSTOMER = 20;
+	/**
+	 * The password of every account
+	 */
+	public static final String PASSWORD = "1234";
+	private static final String USER = "sa";
+	private static final long SEED = 42;
+	private static boolean started = false;
+	private static Connection keepAlive;
+
+	// a private constructor - no instances
+	private EmbeddedDatabase() {
+	}
+
+	/**
+	 * Creates and fills the database, once per JVM, and points the Coupon System
+	 * at it.
+	 *
+	 * @throws SQLException
+	 *             if the database couldn't be created
+	 * @throws IOException
+	 *             if the schema couldn't be read
+	 */
+	public static synchronized void start() throws SQLException, IOException {
+		if (started)
+			return;
+
+		System.setProperty("couponsystem.db.url", URL);
+		System.setProperty("couponsystem.db.user", USER);
+		System.setProperty("couponsystem.db.password", "");
+
+		keepAlive = DriverManager.getConnection(URL, USER, "");
+		SQLDialect.H2.createSchema(keepAlive);
+		fill(keepAlive);
+		started = true;
+	}
+
+	/**
+	 * Runs a statement on the database, outside of the connection pool.
+	 *
+	 * @param sql
+	 *            the statement
+	 * @return the number of rows changed
+	 * @throws SQLException
+	 *             if the statement failed
+	 */
+	public static synchronized int execute(String sql) throws SQLException {
+		try (Statement statement = keepAlive.createStatement()) {
+			return statement.executeUpdate(sql);
+		}
+	}
+
+	/**
+	 * Gets the name of a Customer
+	 *
+	 * @param id
+	 *            the Customer's id
+	 * @return the name
+	 */
+	public static String customerName(long id) {
+		return "customer" + id;
+	}
+
+	/**
+	 * Gets the title of a Coupon
+	 *
+	 * @param id
+	 *            the Coupon's id
+	 * @return the title
+	 */
+	public static String couponTitle(long id) {
+		return "coupon" + id;
+	}
+
+	// Inserts the data set in batches
+	private static void fill(Connection conn) throws SQLException {
+		Random random = new Random(SEED);
+		CouponType[] types = CouponType.values();
+		Date start = Date.valueOf("2018-01-01"), end = Date.valueOf("2099-12-31");
+
+		conn.setAutoCommit(false);
+		try (PreparedStatement company = conn
+				.prepareStatement("INSERT INTO company (ID, COMP_NAME, PASSWORD, EMAIL) VALUES (?, ?, ?, ?)");
+				PreparedStatement customer = conn
+						.prepareStatement("INSERT INTO customer (ID, CUST_NAME, PASSWORD) VALUES (?, ?, ?)");
+				PreparedStatement coupon = conn.prepareStatement("INSERT INTO coupon (ID, TITLE, START_DATE, END_DATE, "
+						+ "AMOUNT, TYPE, MESSAGE, PRICE, IMAGE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+				PreparedStatement companyCoupon = conn
+						.prepareStatement("INSERT INTO company_coupon (COMP_ID, COUPON_ID) VALUES (?, ?)");
+				PreparedStatement customerCoupon = conn
+						.prepareStatement("INSERT INTO customer_coupon (CUST_ID, COUPON_ID) VALUES (?, ?)")) {
+			for (long id = 1; id <= COMPANIES; id++) {
+				company.setLong(1, id);
+				company.setString(2, "company" + id);
+				company.setString(3, PASSWORD);
+				company.setString(4, "company" + id + "@coupons.com");
+				company.addBatch();
+			}
+			company.executeBatch();
+
+			for (long id = 1; id <= CUSTOMERS; id++) {
+				customer.setLong(1, id);
+				customer.setString(2, customerName(id));
+				customer.setString(3, PASSWORD);
+				customer.addBatch();
+			}
+			customer.executeBatch();
+
+			for (long id = 1; id <= COUPONS; id++) {
+				coupon.setLong(1, id);
+				coupon.setString(2, couponTitle(id));
+				coupon.setDate(3, start);
+				coupon.setDate(4, end);
+				coupon.setInt(5, Integer.MAX_VALUE);
+				coupon.setString(6, types[random.nextInt(types.length)].toString());
+				coupon.setString(7, "a benchmark coupon");
+				coupon.setDouble(8, 1 + random.nextInt(50000) / 100.0);
+				coupon.setString(9, "coupon" + id + ".png");
+				coupon.addBatch();
+				companyCoupon.setLong(1, 1 + id % COMPANIES);
+				companyCoupon.setLong(2, id);
+				companyCoupon.addBatch();
+			}
+			coupon.executeBatch();
+			companyCoupon.executeBatch();
+
+			for (long id = 1; id <= OWNERS; id++) {
+				long first = random.nextInt(COUPONS);
+				for (int i = 0; i < OWNED_PER_CUSTOMER; i++) {
+					customerCoupon.setLong(1, id);
+					customerCoupon.setLong(2, 1 + (first + i) % COUPONS);
+					customerCoupon.addBatch();
+				}
+			}
+			customerCoupon.executeBatch();
+			conn.commit();
+		} finally {
+			conn.setAutoCommit(true);
+		}
+	}
+}
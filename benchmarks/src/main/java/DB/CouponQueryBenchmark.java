@@ -0,0 +1,67 @@
+package DB;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Bean.Coupon;
+import Bean.CouponType;
+import Benchmarks.EmbeddedDatabase;
+import Exceptions.General.UnexpectedError;
+
+/**
+ * Measures the Coupon browse queries of {@link CouponDBDAO}. With
+ * <strong>catalog=false</strong> every call runs the SQL and maps the rows
+ * into Coupons; with <strong>catalog=true</strong> the calls are served from
+ * the in-memory catalog. The catalog setting is read once per JVM, so each
+ * value runs in its own fork.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CouponQueryBenchmark {
+	private static final CouponType[] TYPES = { CouponType.FOOD, CouponType.HEALTH, CouponType.SPORTS };
+	@Param({ "false", "true" })
+	public String catalog;
+	private CouponDBDAO couponUtil;
+
+	/**
+	 * Starts the database with the catalog setting of this run.
+	 *
+	 * @throws Exception
+	 *             if the database couldn't be started
+	 */
+	@Setup
+	public void setUp() throws Exception {
+		System.setProperty("couponsystem.catalog.enabled", catalog);
+		EmbeddedDatabase.start();
+		couponUtil = new CouponDBDAO();
+	}
+
+	@Benchmark
+	public ArrayList<Coupon> allCoupons() throws UnexpectedError {
+		return couponUtil.getAllCoupons();
+	}
+
+	@Benchmark
+	public ArrayList<Coupon> byTypesAndPrice() throws UnexpectedError {
+		return couponUtil.getCoupons(TYPES, 100);
+	}
+}
@@ -0,0 +1,84 @@
+package DB;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Benchmarks.EmbeddedDatabase;
+import Exceptions.DBError.DBError;
+import Exceptions.General.ConnectionPoolError;
+
+/**
+ * Measures the statement helpers of {@link UtilDBDAO} on a held
+ * {@link Connection}, so the numbers leave out the pool: a single row read
+ * through {@link UtilDBDAO#getResult(Connection, String, Object[])} and a
+ * single row update through
+ * {@link UtilDBDAO#runStatement(Connection, String, Object[])}.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilDBDAOBenchmark {
+	private Connection conn;
+
+	/**
+	 * Starts the database and borrows a connection for this thread.
+	 *
+	 * @throws Exception
+	 *             if the database couldn't be started
+	 */
+	@Setup
+	public void setUp() throws Exception {
+		EmbeddedDatabase.start();
+		conn = UtilDBDAO.pool.getConnection();
+	}
+
+	/**
+	 * Returns the connection.
+	 *
+	 * @throws ConnectionPoolError
+	 *             if the connection couldn't be returned
+	 */
+	@TearDown
+	public void tearDown() throws ConnectionPoolError {
+		UtilDBDAO.pool.returnConnection(conn);
+	}
+
+	@Benchmark
+	public long getResult() throws DBError, SQLException {
+		try (QueryResult result = UtilDBDAO.getResult(conn, QueryTemplates.SELECT_COUPON,
+				new Object[] { randomCoupon() })) {
+			return result.next() ? result.getResultSet().getLong(UtilDBDAO.COUPON_KEY) : 0;
+		}
+	}
+
+	@Benchmark
+	public int runStatement() throws DBError {
+		// adds no units, so the row is written but the stock never changes
+		return UtilDBDAO.runStatement(conn, QueryTemplates.MOVE_COUPON_STOCK, new Object[] { 0, randomCoupon() });
+	}
+
+	// A random existing Coupon id
+	private static long randomCoupon() {
+		return 1 + ThreadLocalRandom.current().nextInt(EmbeddedDatabase.COUPONS);
+	}
+}
@@ -0,0 +1,141 @@
+package Facade;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Bean.Coupon;
+import Bean.CouponType;
+import Benchmarks.EmbeddedDatabase;
+import Exceptions.CouponSystemException;
+import Exceptions.AlreadyOwns.CustomerAlreadyOwnsCoupon;
+
+/**
+ * Measures the Customer facade end to end, from the session check down to the
+ * database: {@link CustomerFacade#purchaseCoupon(Coupon)} and
+ * {@link CustomerFacade#getPurchasedCoupons()}.<br>
+ * <br>
+ * Each purchasing thread walks every Coupon for one Customer, then moves to
+ * the next free Customer, so a purchase never hits a Coupon its Customer
+ * already owns. The purchases are deleted before every iteration. The reading
+ * threads each log in as a Customer that owns
+ * {@value Benchmarks.EmbeddedDatabase#OWNED_PER_CUSTOMER} Coupons.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerFacadeBenchmark {
+
+	/**
+	 * The database, and the Customers left for purchases
+	 */
+	@State(Scope.Benchmark)
+	public static class Shop {
+		private final AtomicLong nextBuyer = new AtomicLong();
+
+		/**
+		 * Starts the database.
+		 *
+		 * @throws Exception
+		 *             if the database couldn't be started
+		 */
+		@Setup(Level.Trial)
+		public void start() throws Exception {
+			EmbeddedDatabase.start();
+		}
+
+		/**
+		 * Deletes the purchases of the previous iteration.
+		 *
+		 * @throws Exception
+		 *             if the purchases couldn't be deleted
+		 */
+		@Setup(Level.Iteration)
+		public void clearPurchases() throws Exception {
+			EmbeddedDatabase.execute("DELETE FROM customer_coupon WHERE CUST_ID > " + EmbeddedDatabase.OWNERS);
+		}
+
+		// The next Customer that owns no Coupons, round robin
+		private long nextBuyer() {
+			int buyers = EmbeddedDatabase.CUSTOMERS - EmbeddedDatabase.OWNERS;
+			return EmbeddedDatabase.OWNERS + 1 + nextBuyer.getAndIncrement() % buyers;
+		}
+	}
+
+	/**
+	 * A purchasing thread: its Customer and the next Coupon to buy
+	 */
+	@State(Scope.Thread)
+	public static class Buyer {
+		private CustomerFacade facade;
+		private long nextCoupon = EmbeddedDatabase.COUPONS;
+
+		// Logs in as the next free Customer once every Coupon was bought
+		private Coupon nextCoupon(Shop shop) throws CouponSystemException {
+			if (nextCoupon == EmbeddedDatabase.COUPONS) {
+				facade = CustomerFacade.login(EmbeddedDatabase.customerName(shop.nextBuyer()),
+						EmbeddedDatabase.PASSWORD);
+				nextCoupon = 0;
+			}
+			long id = ++nextCoupon;
+			return new Coupon(id, EmbeddedDatabase.couponTitle(id), null, null, null, null, 0, CouponType.UNSPECIFIED,
+					0);
+		}
+	}
+
+	/**
+	 * A reading thread, logged in as a Customer that owns Coupons
+	 */
+	@State(Scope.Thread)
+	public static class Owner {
+		private CustomerFacade facade;
+
+		/**
+		 * Logs in as a random owning Customer.
+		 *
+		 * @param shop
+		 *            the started database
+		 * @throws CouponSystemException
+		 *             if the login failed
+		 */
+		@Setup(Level.Trial)
+		public void login(Shop shop) throws CouponSystemException {
+			long id = 1 + ThreadLocalRandom.current().nextInt(EmbeddedDatabase.OWNERS);
+			facade = CustomerFacade.login(EmbeddedDatabase.customerName(id), EmbeddedDatabase.PASSWORD);
+		}
+	}
+
+	@Benchmark
+	public boolean purchaseCoupon(Shop shop, Buyer buyer) throws CouponSystemException {
+		Coupon coupon = buyer.nextCoupon(shop);
+		try {
+			buyer.facade.purchaseCoupon(coupon);
+			return true;
+		} catch (CustomerAlreadyOwnsCoupon e) { // only after every Customer bought every Coupon in one iteration
+			return false;
+		}
+	}
+
+	@Benchmark
+	public ArrayList<Coupon> getPurchasedCoupons(Owner owner) throws CouponSystemException {
+		return owner.facade.getPurchasedCoupons();
+	}
+}
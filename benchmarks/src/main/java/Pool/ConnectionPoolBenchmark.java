@@ -0,0 +1,92 @@
+package Pool;
+
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Benchmarks.EmbeddedDatabase;
+import Exceptions.General.ConnectionPoolError;
+
+/**
+ * Measures a borrow and return of a pooled {@link Connection} under contention,
+ * from 1 to 64 threads. With more threads than pooled connections the borrowers
+ * queue, so the higher thread counts measure the pool's wait and hand-off.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+	private ConnectionPoolSingleton pool;
+
+	/**
+	 * Starts the database and fills the pool.
+	 *
+	 * @throws Exception
+	 *             if the database couldn't be started
+	 */
+	@Setup
+	public void setUp() throws Exception {
+		EmbeddedDatabase.start();
+		pool = ConnectionPoolSingleton.getInstance();
+	}
+
+	/**
+	 * Closes the pool.
+	 *
+	 * @throws ConnectionPoolError
+	 *             if the pool couldn't be closed
+	 */
+	@TearDown
+	public void tearDown() throws ConnectionPoolError {
+		ConnectionPoolSingleton.shutdown();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Connection borrowReturn1() throws ConnectionPoolError {
+		return borrowReturn();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Connection borrowReturn4() throws ConnectionPoolError {
+		return borrowReturn();
+	}
+
+	@Benchmark
+	@Threads(16)
+	public Connection borrowReturn16() throws ConnectionPoolError {
+		return borrowReturn();
+	}
+
+	@Benchmark
+	@Threads(64)
+	public Connection borrowReturn64() throws ConnectionPoolError {
+		return borrowReturn();
+	}
+
+	// One round trip through the pool
+	private Connection borrowReturn() throws ConnectionPoolError {
+		Connection conn = pool.getConnection();
+		pool.returnConnection(conn);
+		return conn;
+	}
+}
@@ -0,0 +1,38 @@
+package DB;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.h2.api.Trigger;
+
+/**
+ * Archives an active Coupon (as the one-by-one archive path would) right after
+ * a chunk's Coupons were copied to the archive, so the chunk's follow-up
+ * statements run with a newer archive row that isn't theirs.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public final class ConcurrentArchiveTrigger implements Trigger {
+	/**
+	 * The original id of the Coupon archived by the trigger
+	 */
+	static volatile long couponId;
+	private static final ThreadLocal<Boolean> firing = ThreadLocal.withInitial(() -> false);
+
+	@Override
+	public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+		if (couponId == 0 || firing.get())
+			return;
+		firing.set(true);
+		try (Statement statement = conn.createStatement()) {
+			statement.executeUpdate("INSERT INTO archive_coupon (OLD_ID, TITLE, START_DATE, END_DATE, AMOUNT, TYPE,"
+					+ " MESSAGE, PRICE, IMAGE) SELECT ID, TITLE, START_DATE, END_DATE, AMOUNT, TYPE, MESSAGE, PRICE,"
+					+ " IMAGE FROM coupon WHERE ID = " + couponId);
+			couponId = 0;
+		} finally {
+			firing.set(false);
+		}
+	}
+}
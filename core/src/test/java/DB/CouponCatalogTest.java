@@ -0,0 +1,105 @@
+package DB;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import Bean.Coupon;
+import Bean.CouponType;
+import Exceptions.MessageType;
+import Exceptions.General.UnexpectedError;
+
+/**
+ * {@link CouponCatalog} builds: writes made while a build reads the Coupons are
+ * replayed on the new snapshot, a failed first build leaves no catalog behind,
+ * and a stale catalog keeps answering while it's rebuilt in the background.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+class CouponCatalogTest {
+	private static final CouponType[] ALL_TYPES = new CouponType[0];
+
+	@Test
+	void replaysTheWritesRacingABuild() throws Exception {
+		CouponCatalog catalog = new CouponCatalog();
+
+		List<Coupon> found = catalog.find(ALL_TYPES, 100, action -> {
+			action.accept(coupon(1, 10, 5));
+			catalog.put(coupon(2, 5, 1)); // written while the build reads
+			catalog.addAmount(1, -1);
+			catalog.remove(3);
+			action.accept(coupon(3, 20, 5)); // read after it was removed
+		});
+
+		assertEquals(2, found.size());
+		assertCoupon(found.get(0), 2, 5, 1);
+		assertCoupon(found.get(1), 1, 10, 4);
+	}
+
+	@Test
+	void failedFirstBuildIsTriedAgain() throws Exception {
+		CouponCatalog catalog = new CouponCatalog();
+
+		assertThrows(UnexpectedError.class, () -> catalog.find(ALL_TYPES, 100, action -> {
+			action.accept(coupon(1, 10, 5));
+			throw new UnexpectedError(MessageType.ERR, "The database is down", "a test failure");
+		}));
+
+		List<Coupon> found = catalog.find(ALL_TYPES, 100, action -> action.accept(coupon(2, 10, 5)));
+		assertEquals(1, found.size());
+		assertCoupon(found.get(0), 2, 10, 5);
+	}
+
+	@Test
+	void staleCatalogAnswersWhileItIsRebuilt() throws Exception {
+		CouponCatalog catalog;
+		System.setProperty("couponsystem.catalog.maxAge", "0"); // stale right away
+		try {
+			catalog = new CouponCatalog();
+		} finally {
+			System.clearProperty("couponsystem.catalog.maxAge");
+		}
+		catalog.find(ALL_TYPES, 100, action -> action.accept(coupon(1, 10, 5)));
+
+		CountDownLatch release = new CountDownLatch(1);
+		CouponCatalog.Source slow = action -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			action.accept(coupon(2, 10, 5));
+		};
+		List<Coupon> found = catalog.find(ALL_TYPES, 100, slow); // starts the rebuild, doesn't wait for it
+		assertCoupon(found.get(0), 1, 10, 5);
+
+		release.countDown();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while ((found = catalog.find(ALL_TYPES, 100, slow)).get(0).getId() == 1 && System.nanoTime() < deadline)
+			Thread.sleep(10);
+		assertCoupon(found.get(0), 2, 10, 5);
+	}
+
+	// A Coupon with the fields the catalog cares about
+	private static Coupon coupon(long id, double price, int amount) {
+		return new Coupon(id, "coupon" + id, "a test coupon", "coupon" + id + ".png", Date.valueOf("2018-01-01"),
+				Date.valueOf("2099-12-31"), amount, CouponType.FOOD, price);
+	}
+
+	// Checks a found Coupon's id, price and amount
+	private static void assertCoupon(Coupon coupon, long id, double price, int amount) {
+		assertNotNull(coupon);
+		assertEquals(id, coupon.getId());
+		assertEquals(price, coupon.getPrice());
+		assertEquals(amount, coupon.getAmount());
+	}
+}
@@ -0,0 +1,102 @@
+package DB;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The chunked {@link CouponDBDAO#archiveExpiredCoupons(int)}: every chunk moves
+ * its expired Coupons and their relationships to the archive, and nothing else.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+class CouponDBDAOArchiveTest {
+	private static final LocalDate FUTURE = LocalDate.now().plusYears(1);
+	private static final LocalDate PAST = LocalDate.now().minusDays(1);
+	private static final long FIRST = 1201, LAST = 1230;
+	private final CouponDBDAO dao = new CouponDBDAO();
+
+	@BeforeEach
+	void reset() throws Exception {
+		TestDatabase.reset();
+		TestDatabase.customer(1201);
+		TestDatabase.company(1201);
+		for (long id = FIRST; id <= LAST; id++) { // every 6th Coupon is active
+			TestDatabase.coupon(id, id % 6 == 0 ? FUTURE : PAST, 5);
+			TestDatabase.execute("INSERT INTO customer_coupon (CUST_ID, COUPON_ID) VALUES (1201, " + id + ")");
+			TestDatabase.execute("INSERT INTO company_coupon (COMP_ID, COUPON_ID) VALUES (1201, " + id + ")");
+		}
+	}
+
+	@Test
+	void archivesExpiredCouponsInChunks() throws Exception {
+		assertEquals(25, dao.archiveExpiredCoupons(10));
+
+		assertEquals(5, TestDatabase.number("SELECT COUNT(*) FROM coupon"));
+		assertEquals(0, TestDatabase.number("SELECT COUNT(*) FROM coupon WHERE END_DATE < CURRENT_DATE"));
+		assertEquals(25, TestDatabase.number("SELECT COUNT(*) FROM archive_coupon"));
+		assertEquals(0, dao.archiveExpiredCoupons(10));
+	}
+
+	@Test
+	void movesRelationshipsToTheArchiveRows() throws Exception {
+		dao.archiveExpiredCoupons(7);
+
+		assertEquals(5, TestDatabase.number("SELECT COUNT(*) FROM customer_coupon"));
+		assertEquals(5, TestDatabase.number("SELECT COUNT(*) FROM company_coupon"));
+		assertEquals(25, TestDatabase.number("SELECT COUNT(*) FROM archive_customer_coupon j JOIN archive_coupon a"
+				+ " ON a.ID = j.COUPON_ID WHERE j.CUST_ID = 1201"));
+		assertEquals(25, TestDatabase.number("SELECT COUNT(*) FROM archive_company_coupon j JOIN archive_coupon a"
+				+ " ON a.ID = j.COUPON_ID WHERE j.COMP_ID = 1201"));
+	}
+
+	@Test
+	void leavesEarlierArchiveRowsAlone() throws Exception {
+		TestDatabase.execute("INSERT INTO archive_coupon (OLD_ID, TITLE, START_DATE, END_DATE, AMOUNT, TYPE, MESSAGE,"
+				+ " PRICE, IMAGE) VALUES (1201, 'an earlier coupon', '2017-01-01', '2017-12-31', 0, 'FOOD', '', 1,"
+				+ " '')");
+		long earlier = TestDatabase.number("SELECT MAX(ID) FROM archive_coupon");
+
+		dao.archiveExpiredCoupons(10);
+
+		assertEquals(0, TestDatabase.number("SELECT COUNT(*) FROM archive_customer_coupon WHERE COUPON_ID = "
+				+ earlier));
+		assertEquals(1, TestDatabase.number("SELECT COUNT(*) FROM archive_customer_coupon j JOIN archive_coupon a"
+				+ " ON a.ID = j.COUPON_ID WHERE a.OLD_ID = 1201"));
+	}
+
+	@Test
+	void leavesRowsArchivedDuringTheChunkAlone() throws Exception {
+		TestDatabase.execute("CREATE TRIGGER IF NOT EXISTS CONCURRENT_ARCHIVE AFTER INSERT ON archive_coupon"
+				+ " FOR EACH STATEMENT CALL \"" + ConcurrentArchiveTrigger.class.getName() + "\"");
+		try {
+			ConcurrentArchiveTrigger.couponId = 1206; // active, archived while the first chunk runs
+			dao.archiveExpiredCoupons(10);
+		} finally {
+			ConcurrentArchiveTrigger.couponId = 0;
+			TestDatabase.execute("DROP TRIGGER CONCURRENT_ARCHIVE");
+		}
+
+		assertEquals(1, TestDatabase.number("SELECT COUNT(*) FROM coupon WHERE ID = 1206"));
+		assertEquals(1, TestDatabase.number("SELECT COUNT(*) FROM customer_coupon WHERE COUPON_ID = 1206"));
+		assertEquals(0, TestDatabase.number("SELECT COUNT(*) FROM archive_customer_coupon j JOIN archive_coupon a"
+				+ " ON a.ID = j.COUPON_ID WHERE a.OLD_ID = 1206"));
+	}
+
+	@Test
+	void takesExpiredHotCouponsOutOfHotMode() throws Exception {
+		HotCoupons hotCoupons = HotCoupons.getInstance();
+		assertTrue(hotCoupons.enable(1201));
+
+		dao.archiveExpiredCoupons(10);
+
+		assertFalse(hotCoupons.isHot(1201));
+		assertEquals(1, TestDatabase.number("SELECT COUNT(*) FROM archive_coupon WHERE OLD_ID = 1201"));
+	}
+}
@@ -0,0 +1,91 @@
+package DB;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import Bean.Coupon;
+import Bean.Customer;
+import DAO.PurchaseOutcome;
+
+/**
+ * The {@link PurchaseOutcome} mapping of
+ * {@link CouponDBDAO#purchaseCoupon(Coupon, Customer)}, and the stock each
+ * outcome leaves.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+class CouponDBDAOPurchaseTest {
+	private static final LocalDate FUTURE = LocalDate.now().plusYears(1);
+	private static final LocalDate PAST = LocalDate.now().minusDays(1);
+	private final CouponDBDAO dao = new CouponDBDAO();
+	private Customer customer;
+
+	@BeforeEach
+	void reset() throws Exception {
+		TestDatabase.reset();
+		customer = TestDatabase.customer(1101);
+	}
+
+	@Test
+	void purchasedTakesOneFromStock() throws Exception {
+		Coupon coupon = TestDatabase.coupon(1101, FUTURE, 2);
+
+		assertEquals(PurchaseOutcome.PURCHASED, dao.purchaseCoupon(coupon, customer));
+		assertEquals(1, TestDatabase.amount(1101));
+		assertEquals(1, TestDatabase.number("SELECT COUNT(*) FROM customer_coupon WHERE CUST_ID = 1101"));
+	}
+
+	@Test
+	void alreadyOwnedKeepsStock() throws Exception {
+		Coupon coupon = TestDatabase.coupon(1102, FUTURE, 2);
+		dao.purchaseCoupon(coupon, customer);
+
+		assertEquals(PurchaseOutcome.ALREADY_OWNED, dao.purchaseCoupon(coupon, customer));
+		assertEquals(1, TestDatabase.amount(1102));
+	}
+
+	@Test
+	void stockEmpty() throws Exception {
+		Coupon coupon = TestDatabase.coupon(1103, FUTURE, 0);
+
+		assertEquals(PurchaseOutcome.STOCK_EMPTY, dao.purchaseCoupon(coupon, customer));
+		assertEquals(0, TestDatabase.amount(1103));
+	}
+
+	@Test
+	void expiredWithStock() throws Exception {
+		Coupon coupon = TestDatabase.coupon(1104, PAST, 5);
+
+		assertEquals(PurchaseOutcome.EXPIRED, dao.purchaseCoupon(coupon, customer));
+		assertEquals(5, TestDatabase.amount(1104));
+	}
+
+	@Test
+	void expiredBeatsStockEmpty() throws Exception {
+		Coupon coupon = TestDatabase.coupon(1105, PAST, 0);
+
+		assertEquals(PurchaseOutcome.EXPIRED, dao.purchaseCoupon(coupon, customer));
+	}
+
+	@Test
+	void couponNotFound() throws Exception {
+		Coupon coupon = TestDatabase.coupon(1106, FUTURE, 1);
+		TestDatabase.execute("DELETE FROM coupon WHERE ID = 1106");
+
+		assertEquals(PurchaseOutcome.NOT_FOUND, dao.purchaseCoupon(coupon, customer));
+	}
+
+	@Test
+	void customerNotFoundKeepsStock() throws Exception {
+		Coupon coupon = TestDatabase.coupon(1107, FUTURE, 1);
+		Customer nobody = new Customer("nobody", "1234", 1199);
+
+		assertEquals(PurchaseOutcome.CUSTOMER_NOT_FOUND, dao.purchaseCoupon(coupon, nobody));
+		assertEquals(1, TestDatabase.amount(1107));
+	}
+}
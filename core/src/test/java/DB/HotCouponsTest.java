@@ -0,0 +1,117 @@
+package DB;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import DAO.PurchaseOutcome;
+
+/**
+ * {@link HotCoupons}: a purchase is stored before it's reported, one that can't
+ * be stored hands its unit back, and taking a Coupon out of hot mode hands the
+ * unsold stock back to the database.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+class HotCouponsTest {
+	private static final long COUPON = 1301, CUSTOMERS = 40;
+	private final HotCoupons hotCoupons = HotCoupons.getInstance();
+
+	@BeforeEach
+	void reset() throws Exception {
+		TestDatabase.reset();
+		for (long id = 1; id <= CUSTOMERS; id++)
+			TestDatabase.customer(1300 + id);
+		TestDatabase.coupon(COUPON, LocalDate.now().plusYears(1), 30);
+		assertTrue(hotCoupons.enable(COUPON));
+	}
+
+	@AfterEach
+	void disable() {
+		hotCoupons.disable(COUPON);
+	}
+
+	@Test
+	void reservesTheStock() throws Exception {
+		assertEquals(30, hotCoupons.available(COUPON));
+		assertEquals(0, TestDatabase.amount(COUPON));
+	}
+
+	@Test
+	void storesThePurchaseBeforeReportingIt() throws Exception {
+		assertEquals(PurchaseOutcome.PURCHASED, hotCoupons.purchase(COUPON, 1301));
+
+		assertEquals(1, TestDatabase.number("SELECT COUNT(*) FROM customer_coupon WHERE CUST_ID = 1301"));
+		assertEquals(29, hotCoupons.available(COUPON));
+		assertEquals(PurchaseOutcome.ALREADY_OWNED, hotCoupons.purchase(COUPON, 1301));
+	}
+
+	@Test
+	void missingCustomerHandsTheUnitBack() throws Exception {
+		assertEquals(PurchaseOutcome.CUSTOMER_NOT_FOUND, hotCoupons.purchase(COUPON, 1399));
+
+		assertEquals(30, hotCoupons.available(COUPON));
+		assertEquals(0, TestDatabase.number("SELECT COUNT(*) FROM customer_coupon"));
+	}
+
+	@Test
+	void ownedThroughTheDatabaseHandsTheUnitBack() throws Exception {
+		TestDatabase.execute("INSERT INTO customer_coupon (CUST_ID, COUPON_ID) VALUES (1302, " + COUPON + ")");
+
+		assertEquals(PurchaseOutcome.ALREADY_OWNED, hotCoupons.purchase(COUPON, 1302));
+		assertEquals(30, hotCoupons.available(COUPON));
+	}
+
+	@Test
+	void disableHandsTheUnsoldStockBack() throws Exception {
+		for (long id = 1301; id <= 1303; id++)
+			hotCoupons.purchase(COUPON, id);
+
+		assertTrue(hotCoupons.disable(COUPON));
+		assertFalse(hotCoupons.isHot(COUPON));
+		assertNull(hotCoupons.purchase(COUPON, 1304)); // back to database purchases
+		assertEquals(27, TestDatabase.amount(COUPON));
+		assertEquals(3, TestDatabase.number("SELECT COUNT(*) FROM customer_coupon"));
+	}
+
+	@Test
+	void disableWaitsForThePurchasesInProgress() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<PurchaseOutcome>> outcomes = new ArrayList<>();
+		for (long id = 1; id <= CUSTOMERS; id++) {
+			long customerId = 1300 + id;
+			outcomes.add(executor.submit(() -> {
+				start.await();
+				return hotCoupons.purchase(COUPON, customerId);
+			}));
+		}
+		start.countDown();
+		hotCoupons.disable(COUPON);
+
+		long purchased = 0;
+		for (Future<PurchaseOutcome> outcome : outcomes)
+			if (outcome.get(30, TimeUnit.SECONDS) == PurchaseOutcome.PURCHASED)
+				purchased++;
+		executor.shutdown();
+
+		// every unit is either stored as a purchase or back in the database
+		assertEquals(purchased, TestDatabase.number("SELECT COUNT(*) FROM customer_coupon"));
+		assertEquals(30 - purchased, TestDatabase.amount(COUPON));
+	}
+}
@@ -0,0 +1,76 @@
+package DB;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link StripedStock}: every unit added is taken exactly once, by any number
+ * of takers, and the stock never goes below zero.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+class StripedStockTest {
+
+	@Test
+	void takesFromEverySlot() {
+		StripedStock stock = new StripedStock(4);
+		stock.add(3); // fewer units than slots
+
+		for (int i = 0; i < 3; i++)
+			assertTrue(stock.tryTake());
+		assertFalse(stock.tryTake());
+		assertEquals(0, stock.available());
+	}
+
+	@Test
+	void drainTakesTheRest() {
+		StripedStock stock = new StripedStock(4);
+		stock.add(10);
+		stock.tryTake();
+
+		assertEquals(9, stock.available());
+		assertEquals(9, stock.drain());
+		assertEquals(0, stock.available());
+		assertFalse(stock.tryTake());
+	}
+
+	@Test
+	void concurrentTakersNeverOversell() throws Exception {
+		final int units = 100000, takers = 8;
+		StripedStock stock = new StripedStock(4);
+		stock.add(units);
+
+		ExecutorService executor = Executors.newFixedThreadPool(takers);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> taken = new ArrayList<>();
+		for (int i = 0; i < takers; i++)
+			taken.add(executor.submit(() -> {
+				start.await();
+				int count = 0;
+				while (stock.tryTake())
+					count++;
+				return count;
+			}));
+		start.countDown();
+
+		int total = 0;
+		for (Future<Integer> count : taken)
+			total += count.get(30, TimeUnit.SECONDS);
+		executor.shutdown();
+
+		assertEquals(units, total);
+		assertEquals(0, stock.available());
+	}
+}
@@ -0,0 +1,145 @@
+package DB;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import Bean.Coupon;
+import Bean.CouponType;
+import Bean.Customer;
+import Dialect.SQLDialect;
+
+/**
+ * The in-memory H2 database of the tests, the one the connection pool is
+ * pointed at by the <strong>couponsystem.db.*</strong> system properties the
+ * build sets (see core/pom.xml).<br>
+ * <br>
+ * Rows are written straight through JDBC, outside of the pool and the DBDAOs'
+ * caches, so every test class uses ids of its own.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class TestDatabase {
+	private static Connection connection;
+
+	// a private constructor - no instances
+	private TestDatabase() {
+	}
+
+	/**
+	 * Creates the schema, once per JVM, and deletes all the rows.
+	 *
+	 * @throws SQLException
+	 *             if the database couldn't be reached
+	 * @throws IOException
+	 *             if the schema couldn't be read
+	 */
+	static synchronized void reset() throws SQLException, IOException {
+		if (connection == null) {
+			connection = DriverManager.getConnection(System.getProperty("couponsystem.db.url"),
+					System.getProperty("couponsystem.db.user"), System.getProperty("couponsystem.db.password"));
+			SQLDialect.H2.createSchema(connection);
+		}
+		for (String table : new String[] { "archive_customer_coupon", "archive_company_coupon", "archive_coupon",
+				"customer_coupon", "company_coupon", "coupon", "customer", "company" })
+			execute("DELETE FROM " + table);
+	}
+
+	/**
+	 * Runs a statement.
+	 *
+	 * @param sql
+	 *            the statement
+	 * @return the number of rows changed
+	 * @throws SQLException
+	 *             if the statement failed
+	 */
+	static synchronized int execute(String sql) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			return statement.executeUpdate(sql);
+		}
+	}
+
+	/**
+	 * Runs a query for a single number, e.g. a COUNT(*).
+	 *
+	 * @param sql
+	 *            the query
+	 * @return the first column of the first row
+	 * @throws SQLException
+	 *             if the query failed or returned no row
+	 */
+	static synchronized long number(String sql) throws SQLException {
+		try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+			if (!result.next())
+				throw new SQLException("No row for " + sql);
+			return result.getLong(1);
+		}
+	}
+
+	/**
+	 * Inserts a Customer.
+	 *
+	 * @param id
+	 *            the Customer's id
+	 * @return the Customer
+	 * @throws SQLException
+	 *             if it couldn't be inserted
+	 */
+	static Customer customer(long id) throws SQLException {
+		execute("INSERT INTO customer (ID, CUST_NAME, PASSWORD) VALUES (" + id + ", 'customer" + id + "', '1234')");
+		return new Customer("customer" + id, "1234", id);
+	}
+
+	/**
+	 * Inserts a Company.
+	 *
+	 * @param id
+	 *            the Company's id
+	 * @throws SQLException
+	 *             if it couldn't be inserted
+	 */
+	static void company(long id) throws SQLException {
+		execute("INSERT INTO company (ID, COMP_NAME, PASSWORD, EMAIL) VALUES (" + id + ", 'company" + id
+				+ "', '1234', 'company" + id + "@coupons.com')");
+	}
+
+	/**
+	 * Inserts a Coupon.
+	 *
+	 * @param id
+	 *            the Coupon's id
+	 * @param endDate
+	 *            the Coupon's end date
+	 * @param amount
+	 *            the Coupon's stock
+	 * @return the Coupon
+	 * @throws SQLException
+	 *             if it couldn't be inserted
+	 */
+	static Coupon coupon(long id, LocalDate endDate, int amount) throws SQLException {
+		execute("INSERT INTO coupon (ID, TITLE, START_DATE, END_DATE, AMOUNT, TYPE, MESSAGE, PRICE, IMAGE) VALUES ("
+				+ id + ", 'coupon" + id + "', '2018-01-01', '" + endDate + "', " + amount
+				+ ", 'FOOD', 'a test coupon', " + id + ", 'coupon" + id + ".png')");
+		return new Coupon(id, "coupon" + id, "a test coupon", "coupon" + id + ".png",
+				java.sql.Date.valueOf("2018-01-01"), java.sql.Date.valueOf(endDate), amount, CouponType.FOOD, id);
+	}
+
+	/**
+	 * Gets a Coupon's stock.
+	 *
+	 * @param id
+	 *            the Coupon's id
+	 * @return the AMOUNT column
+	 * @throws SQLException
+	 *             if the Coupon doesn't exist
+	 */
+	static long amount(long id) throws SQLException {
+		return number("SELECT AMOUNT FROM coupon WHERE ID = " + id);
+	}
+}
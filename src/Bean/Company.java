@@ -11,7 +11,7 @@ import java.util.ArrayList;
 public class Company {
 	private String name, password, email;
 	private final long id;
-	private ArrayList<Coupon> coupons;
+	private final LazyCoupons coupons = new LazyCoupons();
 
 	/**
 	 * Constructs a new Company
@@ -30,7 +30,6 @@ public class Company {
 		this.password = password;
 		this.email = email;
 		this.id = id;
-		this.coupons = new ArrayList<>();
 	}
 
 	/**
@@ -96,7 +95,21 @@ public class Company {
 	 * @return the Coupon(s)
 	 */
 	public ArrayList<Coupon> getCoupons() {
-		return coupons;
+		return coupons.get();
+	}
+
+	/**
+	 * Gets a page of the Coupon(s) this Company owns, ordered by id. Only the page
+	 * is fetched if the Coupon(s) weren't loaded yet.
+	 * 
+	 * @param offset
+	 *            the number of Coupon(s) to skip
+	 * @param limit
+	 *            the maximum number of Coupon(s)
+	 * @return the Coupon(s)
+	 */
+	public ArrayList<Coupon> getCoupons(long offset, int limit) {
+		return coupons.get(offset, limit);
 	}
 
 	/**
@@ -106,7 +119,27 @@ public class Company {
 	 *            the new Coupon(s)
 	 */
 	public void setCoupons(ArrayList<Coupon> coupons) {
-		this.coupons = coupons;
+		this.coupons.set(coupons);
+	}
+
+	/**
+	 * Sets a loader that fetches the Coupon(s) this Company owns on first access,
+	 * instead of holding them
+	 * 
+	 * @param loader
+	 *            the loader
+	 */
+	public void setCouponLoader(CouponLoader loader) {
+		this.coupons.setLoader(loader);
+	}
+
+	/**
+	 * Checks if the Coupon(s) this Company owns are in memory
+	 * 
+	 * @return true if they were set or already loaded
+	 */
+	public boolean isCouponsLoaded() {
+		return coupons.isLoaded();
 	}
 
 	/**
@@ -120,7 +153,6 @@ public class Company {
 
 	@Override
 	public String toString() {
-		return "Company [ID=" + this.id + "] " + this.name + " " + this.email + ", owns " + this.coupons.size()
-				+ " coupons";
+		return "Company [ID=" + this.id + "] " + this.name + " " + this.email + ", owns " + this.coupons;
 	}
 }
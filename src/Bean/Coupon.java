@@ -51,6 +51,22 @@ public class Coupon {
 		this.price = price;
 	}
 
+	/**
+	 * Constructs a copy of a Coupon, sharing no mutable state with it
+	 * 
+	 * @param coupon
+	 *            the Coupon to copy
+	 */
+	public Coupon(Coupon coupon) {
+		this(coupon.id, coupon.title, coupon.message, coupon.image, copy(coupon.startDate), copy(coupon.endDate),
+				coupon.amount, coupon.type, coupon.price);
+	}
+
+	// Copies a mutable date
+	private static Date copy(Date date) {
+		return date != null ? new Date(date.getTime()) : null;
+	}
+
 	/**
 	 * Gets the title of this Coupon
 	 * 
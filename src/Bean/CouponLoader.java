@@ -0,0 +1,26 @@
+package Bean;
+
+import java.util.ArrayList;
+
+/**
+ * Loads the {@link Coupon}s of an owner on demand, see
+ * {@link Customer#setCouponLoader(CouponLoader)} and
+ * {@link Company#setCouponLoader(CouponLoader)}.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@FunctionalInterface
+public interface CouponLoader {
+
+	/**
+	 * Loads a page of the owner's Coupons, ordered by id.
+	 *
+	 * @param offset
+	 *            the number of Coupons to skip
+	 * @param limit
+	 *            the maximum number of Coupons, less than 1 for all of them
+	 * @return the Coupons, or null if they couldn't be loaded
+	 */
+	ArrayList<Coupon> load(long offset, int limit);
+}
@@ -12,7 +12,7 @@ public class Customer {
 
 	private String name, password;
 	private final long id;
-	private ArrayList<Coupon> coupons;
+	private final LazyCoupons coupons = new LazyCoupons();
 
 	/**
 	 * Constructs a new Customer
@@ -28,7 +28,6 @@ public class Customer {
 		this.name = name;
 		this.password = password;
 		this.id = id;
-		coupons = new ArrayList<>();
 	}
 
 	/**
@@ -75,7 +74,21 @@ public class Customer {
 	 * @return the Coupon(s)
 	 */
 	public ArrayList<Coupon> getCoupons() {
-		return coupons;
+		return coupons.get();
+	}
+
+	/**
+	 * Gets a page of the Coupon(s) this Customer owns, ordered by id. Only the page
+	 * is fetched if the Coupon(s) weren't loaded yet.
+	 * 
+	 * @param offset
+	 *            the number of Coupon(s) to skip
+	 * @param limit
+	 *            the maximum number of Coupon(s)
+	 * @return the Coupon(s)
+	 */
+	public ArrayList<Coupon> getCoupons(long offset, int limit) {
+		return coupons.get(offset, limit);
 	}
 
 	/**
@@ -85,7 +98,27 @@ public class Customer {
 	 *            the new Coupon(s)
 	 */
 	public void setCoupons(ArrayList<Coupon> coupons) {
-		this.coupons = coupons;
+		this.coupons.set(coupons);
+	}
+
+	/**
+	 * Sets a loader that fetches the Coupon(s) this Customer owns on first access,
+	 * instead of holding them
+	 * 
+	 * @param loader
+	 *            the loader
+	 */
+	public void setCouponLoader(CouponLoader loader) {
+		this.coupons.setLoader(loader);
+	}
+
+	/**
+	 * Checks if the Coupon(s) this Customer owns are in memory
+	 * 
+	 * @return true if they were set or already loaded
+	 */
+	public boolean isCouponsLoaded() {
+		return coupons.isLoaded();
 	}
 
 	/**
@@ -99,7 +132,7 @@ public class Customer {
 
 	@Override
 	public String toString() {
-		return "Customer [ID=" + this.id + "] " + this.name + ", has " + this.coupons.size() + " coupons";
+		return "Customer [ID=" + this.id + "] " + this.name + ", has " + this.coupons;
 	}
 
 }
@@ -0,0 +1,91 @@
+package Bean;
+
+import java.util.ArrayList;
+
+/**
+ * The {@link Coupon}s of a {@link Customer} or {@link Company}, either set
+ * directly or fetched by a {@link CouponLoader} on first access.<br>
+ * <br>
+ * A failed load is not cached, the next access tries again.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class LazyCoupons {
+	private ArrayList<Coupon> coupons = new ArrayList<>();
+	private CouponLoader loader;
+
+	/**
+	 * Gets all the Coupons, loading them on first access
+	 *
+	 * @return the Coupons, empty if they couldn't be loaded
+	 */
+	synchronized ArrayList<Coupon> get() {
+		if (coupons == null) {
+			ArrayList<Coupon> loaded = loader.load(0, 0);
+			if (loaded == null)
+				return new ArrayList<>();
+			coupons = loaded;
+			loader = null;
+		}
+		return coupons;
+	}
+
+	/**
+	 * Gets a page of the Coupons, from memory if they were already loaded
+	 *
+	 * @param offset
+	 *            the number of Coupons to skip
+	 * @param limit
+	 *            the maximum number of Coupons
+	 * @return the Coupons, empty if they couldn't be loaded
+	 */
+	synchronized ArrayList<Coupon> get(long offset, int limit) {
+		if (offset < 0 || limit < 1)
+			throw new IllegalArgumentException("offset must be >= 0 and limit must be > 0");
+		if (coupons == null) {
+			ArrayList<Coupon> page = loader.load(offset, limit);
+			return page == null ? new ArrayList<>() : page;
+		}
+		int from = (int) Math.min(offset, coupons.size());
+		return new ArrayList<>(coupons.subList(from, (int) Math.min((long) from + limit, coupons.size())));
+	}
+
+	/**
+	 * Sets the Coupons, replacing any loader
+	 *
+	 * @param coupons
+	 *            the Coupons
+	 */
+	synchronized void set(ArrayList<Coupon> coupons) {
+		this.coupons = coupons != null ? coupons : new ArrayList<>();
+		this.loader = null;
+	}
+
+	/**
+	 * Drops the Coupons, they'll be loaded on next access
+	 *
+	 * @param loader
+	 *            the loader
+	 */
+	synchronized void setLoader(CouponLoader loader) {
+		if (loader == null)
+			throw new IllegalArgumentException("loader is null");
+		this.coupons = null;
+		this.loader = loader;
+	}
+
+	/**
+	 * Checks if the Coupons are in memory
+	 *
+	 * @return true if they were set or loaded
+	 */
+	synchronized boolean isLoaded() {
+		return coupons != null;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return coupons != null ? coupons.size() + " coupons" : "(not loaded) coupons";
+	}
+}
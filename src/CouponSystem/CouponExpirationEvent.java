@@ -0,0 +1,53 @@
+package CouponSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event of a {@link DailyCouponExpirationTask} run, with the
+ * number of Coupons archived.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@Name("CouponSystem.CouponExpiration")
+@Label("Coupon Expiration Run")
+@Category({ "Coupon System", "Tasks" })
+@Description("A run of the daily task archiving the expired Coupons")
+@StackTrace(false)
+final class CouponExpirationEvent extends Event {
+	@Label("Archived")
+	@Description("The expired Coupons archived")
+	long archived;
+
+	@Label("Chunk Size")
+	@Description("The Coupons archived per transaction, 0 for one by one")
+	int chunkSize;
+
+	@Label("Failed")
+	boolean failed;
+
+	/**
+	 * Ends the event and commits it if it's recorded.
+	 *
+	 * @param archived
+	 *            the Coupons archived
+	 * @param chunkSize
+	 *            the chunk size of the run
+	 * @param failed
+	 *            true if the run stopped on an error
+	 */
+	void ran(long archived, int chunkSize, boolean failed) {
+		end();
+		if (shouldCommit()) {
+			this.archived = archived;
+			this.chunkSize = chunkSize;
+			this.failed = failed;
+			commit();
+		}
+	}
+}
@@ -1,13 +1,25 @@
 package CouponSystem;
 
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import DB.HotCoupons;
 import Exceptions.General.BadUsernamePassword;
+import Exceptions.General.ConnectionPoolError;
 import Exceptions.General.UnexpectedError;
 import Facade.ClientType;
 import Facade.CouponClientFacade;
 import LogHandler.CouponLogHandler;
+import LogHandler.LogLevel;
+import Pool.ConnectionPoolSingleton;
 
 /**
- * The CouponSystem singleton, the mainframe of the program.
+ * The CouponSystem singleton, the mainframe of the program.<br>
+ * <br>
+ * With the <strong>couponsystem.db.createSchema=true</strong> system property
+ * it creates any missing tables, through the schema script of the configured
+ * SQL dialect, before its tasks start - e.g. for a new in-memory H2 database.
  * @author Gonen Matias
  * @version 1.0 02/02/2018
  */
@@ -29,6 +41,8 @@ public final class CouponSystem {
 	 * Constructs the CouponSystem and runs tasks.
 	 */
 	private CouponSystem() {
+		if (Boolean.getBoolean("couponsystem.db.createSchema"))
+			createSchema();
 		Thread dailyExpTask = new Thread(new DailyCouponExpirationTask());
 		dailyExpTask.start();
 	}
@@ -60,17 +74,44 @@ public final class CouponSystem {
 		} catch (UnexpectedError e) {
 			System.err.println(e.getMessage());
 			System.err.println(e.getDetails());
-			handler.log(e.getMessage() + ".\n"+e.getDetails());
+			handler.log(e);
 //			throw e;
 		}
 		return facade; // for now can be null.
 	}
 	
 	/**
-	 * Shuts down tasks
+	 * Shuts down tasks and closes the connection pool
 	 */
 	public void shutdown() {
 		
 			DailyCouponExpirationTask.stopTask();
+			HotCoupons.shutdown();
+			try {
+				ConnectionPoolSingleton.shutdown();
+			} catch (ConnectionPoolError e) {
+				handler.log(e);
+			}
+	}
+
+	// Creates the missing tables of the configured database
+	private static void createSchema() {
+		ConnectionPoolSingleton pool = ConnectionPoolSingleton.getInstance();
+		Connection conn = null;
+		try {
+			conn = pool.getConnection();
+			ConnectionPoolSingleton.getConfig().getDialect().createSchema(conn);
+		} catch (ConnectionPoolError e) {
+			handler.log(e);
+		} catch (SQLException | IOException e) {
+			handler.log(LogLevel.ERROR, "Couldn't create the database schema.\n{}", e.getMessage());
+		} finally {
+			try {
+				if (conn != null)
+					pool.returnConnection(conn);
+			} catch (ConnectionPoolError e) {
+				handler.log(e);
+			}
+		}
 	}
 }
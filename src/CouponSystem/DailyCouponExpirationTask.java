@@ -1,6 +1,6 @@
 package CouponSystem;
 
-import java.sql.Date;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -10,9 +10,15 @@ import Bean.Coupon;
 import DB.CouponDBDAO;
 import Exceptions.General.UnexpectedError;
 import LogHandler.CouponLogHandler;
+import LogHandler.LogLevel;
 
 /**
- * Daily task to remove and archive old {@link Coupon}s
+ * Daily task to remove and archive old {@link Coupon}s<br>
+ * <br>
+ * Expired coupons are archived set-based, a chunk of
+ * <strong>couponsystem.expiration.chunkSize</strong> (system property, default
+ * 500) coupons per transaction. A chunk size of 0 falls back to archiving and
+ * removing the coupons one by one.
  * 
  * @author Gonen
  *
@@ -23,6 +29,7 @@ public class DailyCouponExpirationTask implements Runnable {
 	 * INTERVAL between tasks.
 	 */
 	private static final long INTERVAL = 24; // hours
+	private static volatile int chunkSize = Integer.getInteger("couponsystem.expiration.chunkSize", 500);
 	private static final CouponDBDAO couponUtil = new CouponDBDAO();
 	private static final CouponLogHandler handler = CouponLogHandler.getInstance();
 	private static boolean isShutdown = false, isRunning = false;
@@ -41,45 +48,87 @@ public class DailyCouponExpirationTask implements Runnable {
 	@Override
 	public void run() {
 		executor.scheduleAtFixedRate(() -> {
+			CouponExpirationEvent event = new CouponExpirationEvent();
+			event.begin();
+			int size = chunkSize;
+			long archived = 0;
 			try {
 				isRunning = true;
-				handler.log("NOTE: Daily Coupon Expiration Process started.");
+				handler.log(LogLevel.INFO, "Daily Coupon Expiration Process started.");
 
-				ArrayList<Coupon> allCoupons = couponUtil.getAllCoupons();
-
-				for (Coupon c : allCoupons) {
-					if ((new Date(System.currentTimeMillis()).toLocalDate().isAfter(c.getEndDate().toLocalDate()))) {
-						if (couponUtil.addCouponToArchive(c)) {
-							if (!couponUtil.removeCoupon(c))
-								handler.log("ERR: Unable to delete Coupon for an unknow reason.");
-						} else
-							handler.log("ERR: Unable to archive expired Coupon for an unknow reason.");
-					}
-				}
+				if (size > 0)
+					archived = couponUtil.archiveExpiredCoupons(size);
+				else
+					archived = archiveOneByOne();
+				handler.log(LogLevel.INFO, "Archived {} expired Coupons.", archived);
+				event.ran(archived, size, false);
 
 				if (isShutdown)
-					handler.log("NOTE: Daily Coupon Expiration Process ended, shutdown successfuly.");
+					handler.log(LogLevel.INFO, "Daily Coupon Expiration Process ended, shutdown successfuly.");
 				else
-					handler.log("NOTE: Daily Coupon Expiration Process ended.");
+					handler.log(LogLevel.INFO, "Daily Coupon Expiration Process ended.");
 				isRunning = false;
 
 			} catch (UnexpectedError e) {
-				handler.log(e.getMessage() + "\n" + e.getDetails());
+				event.ran(archived, size, true);
+				handler.log(e);
 			}
 		}, 0, INTERVAL, TimeUnit.HOURS);
 	}
 
+	// Archives and removes the expired Coupons one at a time, returns the number archived
+	private static int archiveOneByOne() throws UnexpectedError {
+		LocalDate today = LocalDate.now();
+		ArrayList<Coupon> expired = new ArrayList<>();
+		couponUtil.forEachCoupon(null, c -> {
+			if (today.isAfter(c.getEndDate().toLocalDate()))
+				expired.add(c);
+		});
+
+		int archived = 0;
+		for (Coupon c : expired) {
+			if (couponUtil.addCouponToArchive(c)) {
+				archived++;
+				if (!couponUtil.removeCoupon(c))
+					handler.log(LogLevel.ERROR, "Unable to delete Coupon for an unknow reason.");
+			} else
+				handler.log(LogLevel.ERROR, "Unable to archive expired Coupon for an unknow reason.");
+		}
+		return archived;
+	}
+
+	/**
+	 * Sets the number of expired {@link Coupon}s archived per transaction
+	 * 
+	 * @param size
+	 *            the chunk size, 0 to archive coupons one by one
+	 */
+	public static void setChunkSize(int size) {
+		if (size < 0)
+			throw new IllegalArgumentException("Chunk size can't be negative");
+		chunkSize = size;
+	}
+
+	/**
+	 * Gets the number of expired {@link Coupon}s archived per transaction
+	 * 
+	 * @return the chunk size, 0 if coupons are archived one by one
+	 */
+	public static int getChunkSize() {
+		return chunkSize;
+	}
+
 	/**
 	 * Properly shuts down the archiving processes.
 	 */
 	public synchronized static void stopTask() {
 		if (isRunning) {
-			handler.log("NOTE: Daily Coupon Exipiration Thread shutting down.");
+			handler.log(LogLevel.INFO, "Daily Coupon Exipiration Thread shutting down.");
 			isShutdown = true;
 			executor.shutdown();
 		}
 		else {
-			handler.log("NOTE: Daily Coupon Exipiration Thread shutdown successfuly.");
+			handler.log(LogLevel.INFO, "Daily Coupon Exipiration Thread shutdown successfuly.");
 			executor.shutdown();
 		}
 	}
@@ -61,7 +61,8 @@ public interface CompanyDAO {
 
 	/**
 	 * Gets a {@link Company} from the database by id.<br>
-	 * <em>(<strong>including</strong> the coupons linked to him)</em>
+	 * <em>(<strong>including</strong> the coupons linked to him, loaded on first
+	 * access of getCoupons())</em>
 	 * 
 	 * @param id
 	 *            the id
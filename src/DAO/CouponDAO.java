@@ -1,6 +1,7 @@
 package DAO;
 
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 import Bean.Company;
 import Bean.Coupon;
@@ -62,6 +63,22 @@ public interface CouponDAO {
 	 */
 	public boolean addCouponToArchive(Coupon coupon) throws UnexpectedError;
 
+	/**
+	 * Archives all expired {@link Coupon}s, along with their join table records,
+	 * and removes them, a chunk at a time.<br>
+	 * <mark><ins>NOTE:</ins><mark> <em>each chunk is archived and removed in a
+	 * single transaction, so a failure leaves the chunk untouched but keeps the
+	 * chunks before it</em>.
+	 * 
+	 * @param chunkSize
+	 *            the max number of coupons archived per transaction
+	 * @return the number of coupons archived
+	 * @throws UnexpectedError
+	 *             Throws {@link UnexpectedError} if an error occurred and the
+	 *             method was unable to modify data.
+	 */
+	public long archiveExpiredCoupons(int chunkSize) throws UnexpectedError;
+
 	/**
 	 * removes {@link Coupon} and all data relating to it from database.
 	 * 
@@ -242,6 +259,42 @@ public interface CouponDAO {
 	 */
 	public ArrayList<Coupon> getAllArchivedCoupons() throws UnexpectedError;
 
+	/**
+	 * Streams all {@link Coupon}s that fit at least one of the types from the
+	 * database to an action, one at a time.<br>
+	 * <mark><ins>NOTE:</ins><mark> <em>unlike the list queries, the coupons are
+	 * never all held in memory, so this is the way to go over large
+	 * tables</em>.
+	 * 
+	 * @param types
+	 *            the types, null or empty for all coupons
+	 * @param action
+	 *            the action to perform on each coupon
+	 * @return the number of coupons handed to the action
+	 * @throws UnexpectedError
+	 *             Throws {@link UnexpectedError} if an error occurred and the
+	 *             method was unable to reach data.
+	 */
+	public long forEachCoupon(CouponType[] types, Consumer<? super Coupon> action) throws UnexpectedError;
+
+	/**
+	 * Streams all archived {@link Coupon}s that fit at least one of the types
+	 * from the database to an action, one at a time.<br>
+	 * <mark><ins>NOTE:</ins><mark> <em>unlike the list queries, the coupons are
+	 * never all held in memory, so this is the way to go over large
+	 * tables</em>.
+	 * 
+	 * @param types
+	 *            the types, null or empty for all archived coupons
+	 * @param action
+	 *            the action to perform on each archived coupon
+	 * @return the number of coupons handed to the action
+	 * @throws UnexpectedError
+	 *             Throws {@link UnexpectedError} if an error occurred and the
+	 *             method was unable to reach data.
+	 */
+	public long forEachArchivedCoupon(CouponType[] types, Consumer<? super Coupon> action) throws UnexpectedError;
+
 	/**
 	 * Creates a link between a {@link Coupon} and {@link Company} in the database.
 	 * 
@@ -323,8 +376,7 @@ public interface CouponDAO {
 	public boolean companyOwnsCoupon(Coupon coupon, Company company) throws UnexpectedError;
 
 	/**
-	 * Gets the amount of {@link Coupon}s left by calculating data from the
-	 * database.
+	 * Gets the amount of {@link Coupon}s left in stock from the database.
 	 * 
 	 * 
 	 * @param coupon
@@ -338,6 +390,50 @@ public interface CouponDAO {
 	 */
 	public int couponsLeft(Coupon coupon) throws UnexpectedError;
 
+	/**
+	 * Purchases a {@link Coupon} for a {@link Customer}: takes one coupon out of
+	 * stock and links it to the customer, as a single transaction.<br>
+	 * <mark><ins>NOTE:</ins><mark> <em>the stock can't be oversold, concurrent
+	 * purchases of the last coupon get {@link PurchaseOutcome#STOCK_EMPTY}</em>.
+	 * 
+	 * @param coupon
+	 *            the coupon
+	 * @param customer
+	 *            the customer
+	 * @return the {@link PurchaseOutcome}, {@link PurchaseOutcome#PURCHASED} if
+	 *         the coupon was purchased.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an error occurred and the
+	 *             method was unable to modify data.
+	 */
+	public PurchaseOutcome purchaseCoupon(Coupon coupon, Customer customer) throws UnexpectedError;
+
+	/**
+	 * Puts a {@link Coupon} in hot mode for flash sales: its stock is reserved
+	 * from the database in blocks and purchases are granted from memory, without
+	 * locking the coupon's row.
+	 * 
+	 * @param coupon
+	 *            the coupon
+	 * @return true if the coupon is in hot mode, false if it doesn't exist
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an error occurred and the
+	 *             method was unable to reach data.
+	 */
+	public boolean enableHotCoupon(Coupon coupon) throws UnexpectedError;
+
+	/**
+	 * Takes a {@link Coupon} out of hot mode, waiting for its purchases in
+	 * progress and handing its unsold reserved stock back to the database.
+	 * 
+	 * @param coupon
+	 *            the coupon
+	 * @return true if the coupon was in hot mode
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if the coupon is null.
+	 */
+	public boolean disableHotCoupon(Coupon coupon) throws UnexpectedError;
+
 	/**
 	 * A quick method to detect if a {@link Coupon} exists in the database.
 	 * 
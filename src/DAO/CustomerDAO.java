@@ -65,7 +65,8 @@ public interface CustomerDAO {
 
 	/**
 	 * Gets a {@link Customer} from the database by id.<br>
-	 * <em>(<strong>including</strong> the coupons linked to him)</em>
+	 * <em>(<strong>including</strong> the coupons linked to him, loaded on first
+	 * access of getCoupons())</em>
 	 * 
 	 * @param id
 	 *            the id
@@ -0,0 +1,47 @@
+package DAO;
+
+import Bean.Coupon;
+import Bean.Customer;
+
+/**
+ * An ENUM of the outcomes of a {@link Customer} purchasing a {@link Coupon},
+ * see {@link CouponDAO#purchaseCoupon(Coupon, Customer)}.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public enum PurchaseOutcome {
+	/**
+	 * The coupon was purchased, its stock went down by one.
+	 */
+	PURCHASED,
+	/**
+	 * The coupon doesn't exist.
+	 */
+	NOT_FOUND,
+	/**
+	 * The customer doesn't exist.
+	 */
+	CUSTOMER_NOT_FOUND,
+	/**
+	 * The coupon is out of stock.
+	 */
+	STOCK_EMPTY,
+	/**
+	 * The coupon's end date has passed.
+	 */
+	EXPIRED,
+	/**
+	 * The customer already owns the coupon.
+	 */
+	ALREADY_OWNED;
+
+	/**
+	 * Checks if the purchase went through
+	 *
+	 * @return true only for {@link #PURCHASED}
+	 */
+	public boolean isPurchased() {
+		return this == PURCHASED;
+	}
+}
@@ -5,11 +5,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import Bean.Company;
 import Bean.Coupon;
+import Bean.CouponLoader;
 import Bean.CouponType;
 import DAO.CompanyDAO;
+import DB.QueryTemplates.CouponQuery;
 import Exceptions.MessageType;
 import Exceptions.DBError.DBError;
 import Exceptions.DBError.DBStatementError;
@@ -17,6 +20,7 @@ import Exceptions.DBError.DuplicateKeyError;
 import Exceptions.DBError.ForeignKeyError;
 import Exceptions.General.ConnectionPoolError;
 import Exceptions.General.UnexpectedError;
+import LogHandler.LogLevel;
 
 /**
  * Company MySQL DATABASE active data object.
@@ -26,12 +30,6 @@ import Exceptions.General.UnexpectedError;
  * 
  */
 public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
-	/**
-	 * For methods that require statements to stay open and call other methods that
-	 * close them.
-	 */
-	private boolean keepStatementOpen = false;
-
 	/**
 	 * Constructs the {@link CompanyDBDAO}.
 	 */
@@ -43,6 +41,11 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 	// PRIVATE METHODS //
 	///////////////////////
 
+	// Loads the Coupons of a Company on first access, see Company#getCoupons()
+	private static final CouponLoader couponLoader(long companyId) {
+		return (offset, limit) -> CouponDBDAO.loadOwnedCoupons(CouponQuery.COMPANY_COUPONS, companyId, offset, limit);
+	}
+
 	/**
 	 * Gets a list of a specific {@link Company}'s {@link Coupon}s that fit at least
 	 * one of the types from the database, <em>either <strong>archived</strong>, or
@@ -69,61 +72,46 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 
 		final String ARCHIVED, KEY;
 		ArrayList<Coupon> coupons = new ArrayList<>();
-		ResultSet couponsRS = null;
-		String selectCouponsQuery = "SELECT * FROM ";
+		CouponType[] filter = QueryTemplates.distinct(types);
+		String selectCouponsQuery = (fromArchive ? CouponQuery.ARCHIVED_COMPANY_COUPONS : CouponQuery.COMPANY_COUPONS)
+				.get(filter.length, false);
+		Object[] selectCouponsArgs = QueryTemplates.couponArgs(company.getId(), null, filter);
 
 		if (fromArchive) {
-			selectCouponsQuery += archive_coupon + " JOIN (SELECT " + JOIN_COUPON_KEY + " FROM " + archive_join_company
-					+ " WHERE " + JOIN_COMPANY_KEY + " = " + company.getId() + ") c WHERE " + archive_coupon
-					+ ".ID = c." + JOIN_COUPON_KEY + "";
 			ARCHIVED = "archived ";
 			KEY = COUPON_KEY_ARCHIVE;
 		} else {
-			selectCouponsQuery += tbl_coupon + " JOIN (SELECT " + JOIN_COUPON_KEY + " FROM " + tbl_join_company
-					+ " WHERE " + JOIN_COMPANY_KEY + " = " + company.getId() + ") c WHERE " + tbl_coupon + ".ID = c."
-					+ JOIN_COUPON_KEY + "";
 			ARCHIVED = "";
 			KEY = COUPON_KEY;
 		}
 
-		Object[] selectCouponsArgs = null;
-		String errDetail = ARCHIVED + "Coupons";
-		if (types != null) {
-			if (types.length > 0) {
-				selectCouponsArgs = new Object[types.length];
-				errDetail = "type filtered " + ARCHIVED + "Coupons";
-				selectCouponsQuery += " WHERE TYPE = ?";
-				selectCouponsArgs[0] = types[0].toString();
-				for (int i = 1; i < types.length; i++) {
-					selectCouponsQuery += " OR TYPE = ?";
-					selectCouponsArgs[i] = types[i].toString();
-				}
-			}
-		}
-		errDetail += " owned by Company.";
+		String errDetail = (filter.length > 0 ? "type filtered " : "") + ARCHIVED + "Coupons owned by Company.";
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			couponsRS = getResult(conn, selectCouponsQuery, selectCouponsArgs);
+			try (QueryResult query = getResult(conn, selectCouponsQuery, selectCouponsArgs)) {
+				ResultSet couponsRS = query.getResultSet();
 
-			while (couponsRS.next()) {
-				try {
-					Coupon coupon;
-					String type = couponsRS.getString("TYPE");
-					final CouponType TYPE = CouponType.getEnum(type);
-					if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
-						handler.log("NOTE: Unkown Coupon type.");
-
-					coupon = new Coupon(couponsRS.getLong(KEY), couponsRS.getString("TITLE"),
-							couponsRS.getString("MESSAGE"), couponsRS.getString("IMAGE"),
-							couponsRS.getDate("START_DATE"), couponsRS.getDate("END_DATE"), couponsRS.getInt("AMOUNT"),
-							TYPE, couponsRS.getDouble("PRICE"));
-
-					coupons.add(coupon);
-				} catch (SQLException e) { // TODO: log warning/print to console
-					handler.log("WARN: Could't get data for specific " + ARCHIVED + "Coupon owned by Company.\n"
-							+ e.getMessage());
+				while (couponsRS.next()) {
+					try {
+						Coupon coupon;
+						String type = couponsRS.getString("TYPE");
+						final CouponType TYPE = CouponType.getEnum(type);
+						if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
+							handler.at(LogLevel.INFO).field("type", type).log("Unkown Coupon type.");
+
+						coupon = new Coupon(couponsRS.getLong(KEY), couponsRS.getString("TITLE"),
+								couponsRS.getString("MESSAGE"), couponsRS.getString("IMAGE"),
+								couponsRS.getDate("START_DATE"), couponsRS.getDate("END_DATE"),
+								couponsRS.getInt("AMOUNT"), TYPE, couponsRS.getDouble("PRICE"));
+
+						coupons.add(coupon);
+					} catch (SQLException e) { // TODO: log warning/print to console
+						handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+								.log("Could't get data for specific {}Coupon owned by Company.\n{}", ARCHIVED,
+										e.getMessage());
+					}
 				}
 			}
 			// throw new EmptyFilteredList(MessageType.ERR, ItemType.COUPON, tbl_coupon,
@@ -134,22 +122,22 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 			if (coupons.size() < 1)
 				throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 			else // TODO: log warning/print to console
-				handler.log("WARN: Could't get data for " + errDetail + "\n" + e.getMessage());
+				handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+						.log("Could't get data for {}\n{}", errDetail, e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getDetails());
 		} finally {
 			try {
-				if (!keepStatementOpen)
-					closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -185,63 +173,47 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 
 		final String ARCHIVED, KEY;
 		ArrayList<Coupon> coupons = new ArrayList<>();
-		ResultSet couponsRS = null;
-		String selectCouponsQuery = "SELECT * FROM ";
+		CouponType[] filter = QueryTemplates.distinct(types);
+		String selectCouponsQuery = (fromArchive ? CouponQuery.ARCHIVED_COMPANY_COUPONS : CouponQuery.COMPANY_COUPONS)
+				.get(filter.length, true);
+		Object[] selectCouponsArgs = QueryTemplates.couponArgs(company.getId(), maxPrice, filter);
 
 		if (fromArchive) {
-			selectCouponsQuery += archive_coupon + " JOIN (SELECT " + JOIN_COUPON_KEY + " FROM " + archive_join_company
-					+ " WHERE " + JOIN_COMPANY_KEY + " = " + company.getId() + ") c WHERE " + archive_coupon
-					+ ".ID = c." + JOIN_COUPON_KEY + "";
 			ARCHIVED = "archived ";
 			KEY = COUPON_KEY_ARCHIVE;
 		} else {
-			selectCouponsQuery += tbl_coupon + " JOIN (SELECT " + JOIN_COUPON_KEY + " FROM " + tbl_join_company
-					+ " WHERE " + JOIN_COMPANY_KEY + " = " + company.getId() + ") c WHERE " + tbl_coupon + ".ID = c."
-					+ JOIN_COUPON_KEY + "";
 			ARCHIVED = "";
 			KEY = COUPON_KEY;
 		}
 
-		Object[] selectCouponsArgs = null;
-		selectCouponsQuery += " WHERE PRICE <= " + maxPrice;
-		String errDetail = "max price filtered " + ARCHIVED + "Coupons";
-		if (types != null) {
-			if (types.length > 0) {
-				selectCouponsArgs = new Object[types.length];
-				errDetail = "max price and type filtered " + ARCHIVED + "Coupons";
-				selectCouponsQuery += " AND (TYPE = ?";
-				selectCouponsArgs[0] = types[0].toString();
-				for (int i = 1; i < types.length; i++) {
-					selectCouponsQuery += " OR TYPE = ?";
-					selectCouponsArgs[i] = types[i].toString();
-				}
-				selectCouponsQuery += ")";
-			}
-		}
-		errDetail += " owned by Company.";
+		String errDetail = (filter.length > 0 ? "max price and type filtered " : "max price filtered ") + ARCHIVED
+				+ "Coupons owned by Company.";
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			couponsRS = getResult(conn, selectCouponsQuery, selectCouponsArgs);
+			try (QueryResult query = getResult(conn, selectCouponsQuery, selectCouponsArgs)) {
+				ResultSet couponsRS = query.getResultSet();
 
-			while (couponsRS.next()) {
-				try {
-					Coupon coupon;
-					String type = couponsRS.getString("TYPE");
-					final CouponType TYPE = CouponType.getEnum(type);
-					if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
-						handler.log("NOTE: Unkown Coupon type.");
-
-					coupon = new Coupon(couponsRS.getLong(KEY), couponsRS.getString("TITLE"),
-							couponsRS.getString("MESSAGE"), couponsRS.getString("IMAGE"),
-							couponsRS.getDate("START_DATE"), couponsRS.getDate("END_DATE"), couponsRS.getInt("AMOUNT"),
-							TYPE, couponsRS.getDouble("PRICE"));
-
-					coupons.add(coupon);
-				} catch (SQLException e) { // TODO: log warning/print to console
-					handler.log("WARN: Could't get data for specific " + ARCHIVED + "Coupon owned by Company.\n"
-							+ e.getMessage());
+				while (couponsRS.next()) {
+					try {
+						Coupon coupon;
+						String type = couponsRS.getString("TYPE");
+						final CouponType TYPE = CouponType.getEnum(type);
+						if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
+							handler.at(LogLevel.INFO).field("type", type).log("Unkown Coupon type.");
+
+						coupon = new Coupon(couponsRS.getLong(KEY), couponsRS.getString("TITLE"),
+								couponsRS.getString("MESSAGE"), couponsRS.getString("IMAGE"),
+								couponsRS.getDate("START_DATE"), couponsRS.getDate("END_DATE"),
+								couponsRS.getInt("AMOUNT"), TYPE, couponsRS.getDouble("PRICE"));
+
+						coupons.add(coupon);
+					} catch (SQLException e) { // TODO: log warning/print to console
+						handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+								.log("Could't get data for specific {}Coupon owned by Company.\n{}", ARCHIVED,
+										e.getMessage());
+					}
 				}
 			}
 			// throw new EmptyFilteredList(MessageType.ERR, ItemType.COUPON, tbl_coupon,
@@ -252,22 +224,22 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 			if (coupons.size() < 1)
 				throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 			else // TODO: log warning/print to console
-				handler.log("WARN: Could't get data for " + errDetail + "\n" + e.getMessage());
+				handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+						.log("Could't get data for {}\n{}", errDetail, e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getDetails());
 		} finally {
 			try {
-				if (!keepStatementOpen)
-					closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -285,10 +257,8 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 					"Company is null");
 
 		Connection conn = null;
-		String insertCompanyCouponQuery = "INSERT INTO " + tbl_join_company + " (" + JOIN_COMPANY_KEY + ", "
-				+ JOIN_COUPON_KEY + ") VALUES (?, ?)";
-		String createCompanyQuery = "INSERT INTO " + tbl_company + " (" + COMPANY_KEY + ", " + COMPANY_NAME + ", "
-				+ COMPANY_PASSWORD + ", " + COMPANY_EMAIL + ") VALUES (?, ?, ?, ?)";
+		String insertCompanyCouponQuery = QueryTemplates.INSERT_COMPANY_COUPON;
+		String createCompanyQuery = QueryTemplates.INSERT_COMPANY;
 		Object[] insertCompanyCouponArgs = new Object[] { company.getId(), null };
 		Object[] createCompanyArgs = new Object[] { company.getId(), company.getName(), company.getPassword(),
 				company.getEmail() };
@@ -302,7 +272,8 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 			return false;
 		} catch (DBStatementError e) {
 			// TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_company).field("id", company.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't  create new Company.",
 					"Unexpected error creating Company in database table [" + tbl_company + "] ID: " + company.getId()
@@ -315,7 +286,7 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -326,27 +297,39 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 				conn = pool.getConnection();
 				runStatement(conn, insertCompanyCouponQuery, insertCompanyCouponArgs);
 			} catch (IllegalArgumentException e) {
-				handler.log("ERR: Couldn't create new Company-Coupon relationship.\n" + e.getMessage());
+				handler.at(LogLevel.ERROR).field("table", tbl_join_company).field("companyId", company.getId())
+						.field("couponId", c.getId())
+						.log("Couldn't create new Company-Coupon relationship.\n{}", e.getMessage());
 			} catch (ForeignKeyError e) { // TODO: log warning/print to console
 				if (e.getKey().equals(FK_COUPON_ID))
-					handler.log("WARN: Can't create Company-Coupon relationship, Coupon does not exists.");
+					handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+							.field("couponId", c.getId())
+							.log("Can't create Company-Coupon relationship, Coupon does not exists.");
 				else if (e.getKey().equals(FK_COMPANY_ID))
-					handler.log("WARN: Can't create Company-Coupon relationship, Company does not exists.");
+					handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+							.field("couponId", c.getId())
+							.log("Can't create Company-Coupon relationship, Company does not exists.");
 				else
-					handler.log("WARN: Can't create Company-Coupon relationship, UNEXPECTED ERROR.\n"
-							+ e.getSqlErrorDetails());
+					handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+							.field("couponId", c.getId())
+							.log("Can't create Company-Coupon relationship, UNEXPECTED ERROR.\n{}",
+									e.getSqlErrorDetails());
 			} catch (DBStatementError e) { // TODO: log warning/print to console.
-				handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+				handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+						.field("couponId", c.getId()).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 			} catch (DBError e) { // TODO: log warning/print to console.
-				handler.log(
-						"WARN: Can't create Company-Coupon relationship, UNEXPECTED ERROR.\n" + e.getSqlErrorDetails());
+				handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+						.field("couponId", c.getId())
+						.log("Can't create Company-Coupon relationship, UNEXPECTED ERROR.\n{}", e.getSqlErrorDetails());
 			} catch (ConnectionPoolError e) {
-				handler.log("WARN: Can't create Company-Coupon relationship, CONNECTION ERROR.\n" + e.getMessage());
+				handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+						.field("couponId", c.getId())
+						.log("Can't create Company-Coupon relationship, CONNECTION ERROR.\n{}", e.getMessage());
 			} finally {
 				try {
 					pool.returnConnection(conn);
 				} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-					handler.log(e.getMessage());
+					handler.log(e);
 				}
 			}
 		}
@@ -361,17 +344,18 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 
 		Connection conn = null;
 		ArrayList<Coupon> coupons = null;
-		String deleteCompanyQuery = "DELETE FROM " + tbl_company + " WHERE " + COMPANY_KEY + " = " + company.getId();
+		String deleteCompanyQuery = QueryTemplates.DELETE_COMPANY;
 
 		try { // ****** GET COMPANY'S COUPONS
 			coupons = getCoupons(company);
 		} catch (UnexpectedError e) {
-			handler.log("WARN: Couldn't get Coupons owned by Company,\nSKIPPING ALL COUPON DELETE\n" + e.getDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+					.log("Couldn't get Coupons owned by Company,\nSKIPPING ALL COUPON DELETE\n{}", e.getDetails());
 		}
 
 		try { // ****** DELETE from COMPANY table;
 			conn = pool.getConnection();
-			if (runStatement(conn, deleteCompanyQuery) < 1)
+			if (runStatement(conn, deleteCompanyQuery, new Object[] { company.getId() }) < 1)
 				return false;
 			// throw new CompanyNotFound(MessageType.ERR, tbl_company, company.getId());
 		} catch (IllegalArgumentException e) {
@@ -384,7 +368,8 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 				throw new UnexpectedError(MessageType.ERR, "Couldn't delete Company, UNEXPECTED ERROR.",
 						e.getSqlErrorDetails());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_company).field("id", company.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't delete Company.",
 					"Unexpected error deleting Company from database table [" + tbl_company + "] ID: " + company.getId()
@@ -397,67 +382,66 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
 		if (coupons != null) { // ****** IF COMPANY OWNED COUPONS
 			for (Coupon c : coupons) {
-				String companiesOwnCouponQuery = "SELECT * FROM " + tbl_join_company + " WHERE " + JOIN_COUPON_KEY
-						+ " = " + c.getId() + " LIMIT 1";
+				Object[] couponArgs = new Object[] { c.getId() };
 				conn = null;
 				try { // ****** DETECT UNOWNED COUPONS
 					conn = pool.getConnection();
-					if (!getResult(conn, companiesOwnCouponQuery).next()) { // ** IF NO TOHER COMPANIES OWN THIS COUPON:
-						String deleteCouponQuery = "DELETE FROM " + tbl_coupon + " WHERE ID = " + c.getId();
-						Connection conn2 = null;
+					if (!hasResult(conn, QueryTemplates.COUPON_OWNED, couponArgs)) { // ** IF NO TOHER COMPANIES OWN THIS COUPON:
 						try { // ****** DELETE UN-OWNED COUPONS
-							conn2 = pool.getConnection();
-							runStatement(conn, deleteCouponQuery);
+							runStatement(conn, QueryTemplates.DELETE_COUPON, couponArgs);
+							CouponDBDAO.couponCache.invalidate(c.getId());
+							CouponDBDAO.catalog.remove(c.getId());
 						} catch (IllegalArgumentException e) {
-							handler.log("WARN: Couldn't delete Coupon.\n" + e.getMessage());
+							handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", c.getId())
+									.log("Couldn't delete Coupon.\n{}", e.getMessage());
 						} catch (ForeignKeyError e) { // TODO: log warning/print to console
 							if (e.getKey().equals(FK_CUSTOMER_ID))
-								handler.log("WARN: Couldn't delete Coupon, a Customer has this Coupon.");
+								handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", c.getId())
+										.log("Couldn't delete Coupon, a Customer has this Coupon.");
 							else if (e.getKey().equals(FK_COMPANY_ID))
-								handler.log("WARN: Couldn't delete Coupon, a Company owns this Coupon.");
+								handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", c.getId())
+										.log("Couldn't delete Coupon, a Company owns this Coupon.");
 							else
-								handler.log(
-										"WARN: Couldn't delete Coupon, UNEXPECTED ERROR.\n" + e.getSqlErrorDetails());
+								handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", c.getId())
+										.log("Couldn't delete Coupon, UNEXPECTED ERROR.\n{}", e.getSqlErrorDetails());
 						} catch (DBStatementError e) { // TODO: log warning/print to console.
-							handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+							handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", c.getId())
+									.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 						} catch (DBError e) {
-							handler.log("WARN: Couldn't delete Coupon.\n" + e.getSqlErrorDetails());
-						} catch (ConnectionPoolError e) {
-							handler.log("WARN: Couldn't delete Coupon.\n" + e.getDetails());
-						} finally {
-							try {
-								pool.returnConnection(conn2);
-							} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-								handler.log(e.getMessage());
-							}
+							handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", c.getId())
+									.log("Couldn't delete Coupon.\n{}", e.getSqlErrorDetails());
 						}
 					}
 				} catch (SQLException e) {
-					handler.log("WARN: Couldn't detect if other Companies own Coupon,\nSKIPPING THIS COUPON DELETE.\n"
-							+ e.getMessage());
+					handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", c.getId())
+							.log("Couldn't detect if other Companies own Coupon,\nSKIPPING THIS COUPON DELETE.\n{}",
+									e.getMessage());
 				} catch (IllegalArgumentException e) {
-					handler.log("ERR: Couldn't detect if other Companies own Coupon,\nSKIPPING THIS COUPON DELETE.\n"
-							+ e.getMessage());
+					handler.at(LogLevel.ERROR).field("table", tbl_coupon).field("id", c.getId())
+							.log("Couldn't detect if other Companies own Coupon,\nSKIPPING THIS COUPON DELETE.\n{}",
+									e.getMessage());
 				} catch (DBStatementError e) { // TODO: log warning/print to console.
-					handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+					handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", c.getId())
+							.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 				} catch (DBError e) {
-					handler.log("WARN: Couldn't detect if other Companies own Coupon,\nSKIPPING THIS COUPON DELETE.\n"
-							+ e.getSqlErrorDetails());
+					handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", c.getId())
+							.log("Couldn't detect if other Companies own Coupon,\nSKIPPING THIS COUPON DELETE.\n{}",
+									e.getSqlErrorDetails());
 				} catch (ConnectionPoolError e) {
-					handler.log("WARN: Couldn't detect if other Companies own Coupon,\nSKIPPING THIS COUPON DELETE.\n"
-							+ e.getDetails());
+					handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", c.getId())
+							.log("Couldn't detect if other Companies own Coupon,\nSKIPPING THIS COUPON DELETE.\n{}",
+									e.getDetails());
 				} finally {
 					try {
-						closeAllStatements();
 						pool.returnConnection(conn);
 					} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-						handler.log(e.getMessage());
+						handler.log(e);
 					}
 				}
 			}
@@ -472,8 +456,7 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 					"Company is null");
 
 		Connection conn = null;
-		String companyUpdateQuery = "UPDATE " + tbl_company + " SET " + COMPANY_NAME + " = ?, " + COMPANY_PASSWORD
-				+ " = ?, " + COMPANY_EMAIL + " = ? WHERE " + COMPANY_KEY + " = ?";
+		String companyUpdateQuery = QueryTemplates.UPDATE_COMPANY;
 		Object[] companyUpdateArgs = new Object[] { company.getName(), company.getPassword(), company.getEmail(),
 				company.getId() };
 
@@ -485,7 +468,8 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't update Company.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_company).field("id", company.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DuplicateKeyError e) {
 			return false;
 		} catch (DBError e) {
@@ -496,7 +480,7 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return true;
@@ -505,29 +489,20 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 	@Override
 	public Company getCompany(long id) throws UnexpectedError {
 		Company company = null;
-		ResultSet companyRS = null;
-		String selectCompanyQuery = "SELECT * FROM " + tbl_company + " WHERE " + COMPANY_KEY + " = " + id;
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			companyRS = getResult(conn, selectCompanyQuery);
-
-			if (companyRS.next()) {
-				company = new Company(companyRS.getString(COMPANY_NAME), companyRS.getString(COMPANY_PASSWORD),
-						companyRS.getString(COMPANY_EMAIL), companyRS.getLong(COMPANY_KEY));
-				ArrayList<Coupon> coupons = null;
-				// ********************************** RUN OVER Company COUPONS
-				try {
-					coupons = getCoupons(company);
-				} catch (UnexpectedError e) {
-					handler.log(e.getMessage() + "\n" + e.getDetails());
-				}
-				if (coupons != null) {
-					company.setCoupons(coupons);
-				}
-			} else
-				return company;
+			try (QueryResult query = getResult(conn, QueryTemplates.SELECT_COMPANY, new Object[] { id })) {
+				ResultSet companyRS = query.getResultSet();
+
+				if (companyRS.next()) {
+					company = new Company(companyRS.getString(COMPANY_NAME), companyRS.getString(COMPANY_PASSWORD),
+							companyRS.getString(COMPANY_EMAIL), companyRS.getLong(COMPANY_KEY));
+					company.setCouponLoader(couponLoader(company.getId()));
+				} else
+					return company;
+			}
 			// throw new CompanyNotFound(MessageType.ERR, tbl_company, id);
 
 		} catch (SQLException e) {
@@ -535,17 +510,17 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Company.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_company).field("id", id)
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Company.", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Company.", e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -555,35 +530,35 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 	@Override
 	public Company getCompanyOnly(long id) throws UnexpectedError {
 		Company company = null;
-		ResultSet companyRS = null;
-		String selectCompanyQuery = "SELECT * FROM " + tbl_company + " WHERE " + COMPANY_KEY + " = " + id;
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			companyRS = getResult(conn, selectCompanyQuery);
-
-			if (companyRS.next()) {
-				company = new Company(companyRS.getString(COMPANY_NAME), companyRS.getString(COMPANY_PASSWORD),
-						companyRS.getString(COMPANY_EMAIL), companyRS.getLong(COMPANY_KEY));
-			} else
-				return company;
+			try (QueryResult query = getResult(conn, QueryTemplates.SELECT_COMPANY, new Object[] { id })) {
+				ResultSet companyRS = query.getResultSet();
+
+				if (companyRS.next()) {
+					company = new Company(companyRS.getString(COMPANY_NAME), companyRS.getString(COMPANY_PASSWORD),
+							companyRS.getString(COMPANY_EMAIL), companyRS.getLong(COMPANY_KEY));
+				} else
+					return company;
+			}
 		} catch (SQLException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Company.", e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Company.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_company).field("id", id)
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Company.", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Company.", e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -593,50 +568,46 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 	@Override
 	public ArrayList<Company> getAllCompanies() throws UnexpectedError {
 		ArrayList<Company> companies = new ArrayList<>();
-		this.keepStatementOpen = true;
-		ResultSet companiesRS = null;
-		String selectCompaniesQuery = "SELECT * FROM " + tbl_company;
-
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			companiesRS = getResult(conn, selectCompaniesQuery);
+			try (QueryResult query = getResult(conn, QueryTemplates.SELECT_ALL_COMPANIES)) {
+				ResultSet companiesRS = query.getResultSet();
 
-			while (companiesRS.next()) {
-				try {
-					Company company = new Company(companiesRS.getString(COMPANY_NAME),
-							companiesRS.getString(COMPANY_PASSWORD), companiesRS.getString(COMPANY_EMAIL),
-							companiesRS.getLong(COMPANY_KEY));
-					ArrayList<Coupon> coupons = null;
-					// ********************************** RUN OVER COMPANY COUPONS
+				while (companiesRS.next()) {
 					try {
-						coupons = getCoupons(company);
-					} catch (UnexpectedError e) {
-						handler.log(e.getMessage() + "\n" + e.getDetails());
-					}
-					if (coupons != null) {
-						company.setCoupons(coupons);
+						Company company = new Company(companiesRS.getString(COMPANY_NAME),
+								companiesRS.getString(COMPANY_PASSWORD), companiesRS.getString(COMPANY_EMAIL),
+								companiesRS.getLong(COMPANY_KEY));
+						companies.add(company);
+					} catch (SQLException e) { // TODO: log warning/print to console
+						handler.at(LogLevel.WARN).field("table", tbl_company)
+								.log("Could't get data for specific Company in Companies query.\n{}", e.getMessage());
 					}
-
-					companies.add(company);
-				} catch (SQLException e) { // TODO: log warning/print to console
-					handler.log("WARN: Could't get data for specific Company in Companies query.\n" + e.getMessage());
 				}
 			}
 			if (companies.size() < 1)
 				return null;
 			// throw new EmptyItemList(MessageType.ERR, ItemType.COMPANY, tbl_company);
 
+			// ****** ALL COMPANY COUPONS IN ONE PASS, on the same connection
+			HashMap<Long, ArrayList<Coupon>> coupons = CouponDBDAO.getCouponsByOwner(conn,
+					QueryTemplates.ALL_COMPANY_COUPONS, JOIN_COMPANY_KEY);
+			for (Company company : companies)
+				if (coupons.containsKey(company.getId()))
+					company.setCoupons(coupons.get(company.getId()));
+
 		} catch (SQLException e) {
 			if (companies.size() < 1)
 				throw new UnexpectedError(MessageType.ERR, "Could't get data for Companies query.", e.getMessage());
 			else // TODO: log warning/print to console
-				handler.log("WARN: Could't get data for all Companies query.\n" + e.getMessage());
+				handler.at(LogLevel.WARN).field("table", tbl_company)
+						.log("Could't get data for all Companies query.\n{}", e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for all Companies query.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_company).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for all Companies query.",
 					e.getSqlErrorDetails());
@@ -644,11 +615,9 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for all Companies query.", e.getDetails());
 		} finally {
 			try {
-				this.keepStatementOpen = false;
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -724,27 +693,22 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 			throw new UnexpectedError(MessageType.ERR, "Can't request login for unspecified username or password",
 					"Either username or password are empty/null");
 
-		String loginQuery = "SELECT * FROM " + tbl_company + " WHERE " + COMPANY_NAME + " = '" + compName.toLowerCase()
-				+ "' AND " + COMPANY_PASSWORD + " = '" + password + "'";
-		ResultSet result = null;
+		Object[] loginArgs = new Object[] { compName.toLowerCase(), password };
 		Company company = null;
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			if ((result = getResult(conn, loginQuery)).next()) {
-				company = new Company(result.getString(COMPANY_NAME), result.getString(COMPANY_PASSWORD),
-						result.getString(COMPANY_EMAIL), result.getLong(COMPANY_KEY));
-				ArrayList<Coupon> coupons = null;
-				// ********************************** RUN OVER COMPANY COUPONS
-				try {
-					coupons = getCoupons(company);
-				} catch (UnexpectedError e) {
-					handler.log(e.getMessage() + "\n" + e.getDetails());
-				}
-				if (coupons != null) {
-					company.setCoupons(coupons);
+			try (QueryResult result = getResult(conn, QueryTemplates.COMPANY_LOGIN, loginArgs)) {
+				if (result.next()) {
+					ResultSet loginRS = result.getResultSet();
+					company = new Company(loginRS.getString(COMPANY_NAME), loginRS.getString(COMPANY_PASSWORD),
+							loginRS.getString(COMPANY_EMAIL), loginRS.getLong(COMPANY_KEY));
 				}
+			}
+
+			if (company != null) {
+				company.setCouponLoader(couponLoader(company.getId()));
 				return company;
 			}
 		} catch (SQLException e) {
@@ -752,7 +716,7 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't verify login information.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_company).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't verify login information.", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
@@ -761,7 +725,7 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return null;
@@ -772,29 +736,27 @@ public class CompanyDBDAO extends UtilDBDAO implements CompanyDAO {
 		if (company == null)
 			throw new UnexpectedError(MessageType.ERR, "Can't read record for unspecified Company", "Company is null");
 
-		String doesCompanyExistQuery = "SELECT * FROM " + tbl_company + " WHERE " + COMPANY_KEY + " = "
-				+ company.getId() + " LIMIT 1";
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			return getResult(conn, doesCompanyExistQuery).next();
+			return hasResult(conn, QueryTemplates.COMPANY_EXISTS, new Object[] { company.getId() });
 		} catch (SQLException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Company exists.", e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Company exists.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_company).field("id", company.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Company exists.", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Company exists.", e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return false;
@@ -0,0 +1,170 @@
+package DB;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import Bean.Coupon;
+import Exceptions.General.UnexpectedError;
+import LogHandler.CouponLogHandler;
+import LogHandler.LogLevel;
+
+/**
+ * A bounded read-through cache of {@link Coupon}s by id, in front of
+ * {@link CouponDBDAO#getCoupon(long)}.<br>
+ * <br>
+ * Holds up to <strong>couponsystem.couponCache.maxSize</strong> Coupons
+ * (default 10000, 0 disables the cache) for up to
+ * <strong>couponsystem.couponCache.ttl</strong> milliseconds (default 60000).
+ * Settings are system properties. Every DBDAO write to a Coupon row
+ * invalidates its entry; the ttl only bounds how stale a row changed outside
+ * of the DBDAO can get.<br>
+ * <br>
+ * The cache keeps its own copy of each Coupon and hands out a new copy on
+ * every hit, so callers can't change a cached Coupon. Only existing Coupons are
+ * cached.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class CouponCache implements CouponCacheMXBean {
+	private static final CouponLogHandler handler = CouponLogHandler.getInstance();
+	private static final String STATS_NAME = "CouponSystem:type=CouponCache";
+	private final long maximumSize = Math.max(0, Long.getLong("couponsystem.couponCache.maxSize", 10000));
+	private final Cache<Long, Coupon> cache = CacheBuilder.newBuilder().maximumSize(maximumSize)
+			.expireAfterWrite(Math.max(0, Long.getLong("couponsystem.couponCache.ttl", 60000)), TimeUnit.MILLISECONDS)
+			.recordStats().build();
+	private final AtomicLong epoch = new AtomicLong();
+	private final LongAdder invalidations = new LongAdder();
+
+	/**
+	 * Loads a Coupon from the database on a cache miss
+	 */
+	@FunctionalInterface
+	interface Loader {
+
+		/**
+		 * Loads the Coupon.
+		 *
+		 * @return the Coupon, or null if it doesn't exist
+		 * @throws UnexpectedError
+		 *             if it couldn't be read
+		 */
+		Coupon load() throws UnexpectedError;
+	}
+
+	/**
+	 * Constructs a new {@link CouponCache} and registers its statistics MBean
+	 */
+	CouponCache() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(STATS_NAME);
+			if (!server.isRegistered(name))
+				server.registerMBean(this, name);
+		} catch (JMException e) {
+			handler.log(LogLevel.WARN, "Couldn't register the Coupon cache statistics MBean.\n{}", e);
+		}
+	}
+
+	/**
+	 * Gets a Coupon, from the cache or else from the loader.
+	 *
+	 * @param id
+	 *            the Coupon's id
+	 * @param loader
+	 *            reads the Coupon from the database
+	 * @return a private copy of the Coupon, or null if it doesn't exist
+	 * @throws UnexpectedError
+	 *             if the loader failed
+	 */
+	Coupon get(long id, Loader loader) throws UnexpectedError {
+		Coupon coupon = cache.getIfPresent(id);
+		if (coupon != null)
+			return new Coupon(coupon);
+
+		long readEpoch = epoch.get();
+		coupon = loader.load();
+		if (coupon != null && maximumSize > 0 && readEpoch == epoch.get()) {
+			cache.put(id, new Coupon(coupon));
+			if (readEpoch != epoch.get()) // invalidated meanwhile
+				cache.invalidate(id);
+		}
+		return coupon;
+	}
+
+	/**
+	 * Checks if a Coupon is cached, without counting a hit or miss
+	 *
+	 * @param id
+	 *            the Coupon's id
+	 * @return true if it's cached, which means it exists
+	 */
+	boolean contains(long id) {
+		return cache.asMap().containsKey(id);
+	}
+
+	/**
+	 * Drops a Coupon after its row was changed.
+	 *
+	 * @param id
+	 *            the Coupon's id
+	 */
+	void invalidate(long id) {
+		epoch.incrementAndGet();
+		cache.invalidate(id);
+		invalidations.increment();
+	}
+
+	@Override
+	public void invalidateAll() {
+		epoch.incrementAndGet();
+		invalidations.add(cache.size());
+		cache.invalidateAll();
+	}
+
+	@Override
+	public long getSize() {
+		return cache.size();
+	}
+
+	@Override
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	@Override
+	public long getHitCount() {
+		return cache.stats().hitCount();
+	}
+
+	@Override
+	public long getMissCount() {
+		return cache.stats().missCount();
+	}
+
+	@Override
+	public double getHitRate() {
+		CacheStats stats = cache.stats();
+		return stats.requestCount() == 0 ? 0 : stats.hitRate();
+	}
+
+	@Override
+	public long getEvictionCount() {
+		return cache.stats().evictionCount();
+	}
+
+	@Override
+	public long getInvalidationCount() {
+		return invalidations.sum();
+	}
+}
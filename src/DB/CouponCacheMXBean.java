@@ -0,0 +1,66 @@
+package DB;
+
+/**
+ * The statistics of the {@link CouponDBDAO} Coupon cache, registered with the
+ * platform MBeanServer as <strong>CouponSystem:type=CouponCache</strong>.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public interface CouponCacheMXBean {
+
+	/**
+	 * Gets the number of cached Coupons
+	 *
+	 * @return the size
+	 */
+	long getSize();
+
+	/**
+	 * Gets the maximum number of cached Coupons, 0 if caching is disabled
+	 *
+	 * @return the maximum size
+	 */
+	long getMaximumSize();
+
+	/**
+	 * Gets the number of lookups answered from the cache
+	 *
+	 * @return the hits
+	 */
+	long getHitCount();
+
+	/**
+	 * Gets the number of lookups that read the database
+	 *
+	 * @return the misses
+	 */
+	long getMissCount();
+
+	/**
+	 * Gets the share of lookups answered from the cache
+	 *
+	 * @return the hit rate, 0 to 1
+	 */
+	double getHitRate();
+
+	/**
+	 * Gets the number of Coupons evicted for size or age, not counting
+	 * invalidations
+	 *
+	 * @return the evictions
+	 */
+	long getEvictionCount();
+
+	/**
+	 * Gets the number of Coupons dropped because they were changed
+	 *
+	 * @return the invalidations
+	 */
+	long getInvalidationCount();
+
+	/**
+	 * Drops all the cached Coupons.
+	 */
+	void invalidateAll();
+}
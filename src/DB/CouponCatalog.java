@@ -0,0 +1,361 @@
+package DB;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import Bean.Coupon;
+import Bean.CouponType;
+import Exceptions.General.UnexpectedError;
+import LogHandler.CouponLogHandler;
+import LogHandler.LogLevel;
+
+/**
+ * An in-memory index of the active (NON-archived) {@link Coupon}s for browse
+ * queries: one array per {@link CouponType}, sorted by price, so a type and
+ * max price query is a binary search per type plus a merge.<br>
+ * <br>
+ * Readers get an immutable snapshot through a single volatile read and take no
+ * locks. Writers (the DBDAO writes to Coupon rows) copy only the array of the
+ * type they change, under a lock, and publish a new snapshot. The snapshot is
+ * built from the database on first use - the only time readers wait - and
+ * rebuilt in the background once it's older than
+ * <strong>couponsystem.catalog.maxAge</strong> milliseconds (system property,
+ * default 300000), while readers keep using the old one. The age bounds how
+ * stale a row changed outside of the DBDAO can get.
+ * <strong>couponsystem.catalog.enabled=false</strong> sends all browse queries
+ * to the database.<br>
+ * <br>
+ * The writes made while a build reads the database are recorded and replayed
+ * on the new snapshot once it's published, so a build is never thrown away for
+ * racing writers. Replacing and removing Coupons is idempotent; a stock move
+ * committed just as the read starts may be counted twice in the catalog's
+ * AMOUNT until the next rebuild (purchases always check the database).
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class CouponCatalog {
+	private static final CouponLogHandler handler = CouponLogHandler.getInstance();
+	private static final Comparator<Coupon> BY_PRICE = Comparator.comparingDouble(Coupon::getPrice)
+			.thenComparingLong(Coupon::getId);
+	private static final Coupon[] EMPTY = new Coupon[0];
+	private final boolean enabled = Boolean.parseBoolean(System.getProperty("couponsystem.catalog.enabled", "true"));
+	private final long maxAge = TimeUnit.MILLISECONDS
+			.toNanos(Math.max(0, Long.getLong("couponsystem.catalog.maxAge", 300000)));
+	private final AtomicReference<Snapshot> current = new AtomicReference<>();
+	private final Object buildLock = new Object();
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+	private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "CouponCatalog-Refresher");
+		thread.setDaemon(true);
+		return thread;
+	});
+	// writer side only, guarded by this: the catalog entry of each id, the
+	// writes made while a build reads the database (null when none runs), and
+	// the number of clears
+	private final Map<Long, Coupon> index = new HashMap<>();
+	private List<Runnable> raced;
+	private long generation;
+
+	/**
+	 * Streams all the active Coupons from the database to build the catalog
+	 */
+	@FunctionalInterface
+	interface Source {
+
+		/**
+		 * Hands every active Coupon to an action.
+		 *
+		 * @param action
+		 *            the action
+		 * @throws UnexpectedError
+		 *             if the Coupons couldn't be read
+		 */
+		void forEach(Consumer<Coupon> action) throws UnexpectedError;
+	}
+
+	/**
+	 * A catalog snapshot, never changed once published
+	 */
+	private static final class Snapshot {
+		private final EnumMap<CouponType, Coupon[]> byType;
+		private final long builtAt;
+
+		private Snapshot(EnumMap<CouponType, Coupon[]> byType, long builtAt) {
+			this.byType = byType;
+			this.builtAt = builtAt;
+		}
+	}
+
+	/**
+	 * Finds the Coupons of some types up to a max price, building the catalog
+	 * first if there is none, and rebuilding it in the background if it's stale.
+	 *
+	 * @param types
+	 *            the distinct types, empty for all types
+	 * @param maxPrice
+	 *            the max price, inclusive
+	 * @param source
+	 *            reads the Coupons if the catalog has to be built
+	 * @return copies of the Coupons ordered by price, or null if there are none
+	 * @throws UnexpectedError
+	 *             if there was no catalog and it couldn't be read
+	 */
+	ArrayList<Coupon> find(CouponType[] types, double maxPrice, Source source) throws UnexpectedError {
+		Snapshot snapshot = current.get();
+		if (snapshot == null)
+			snapshot = firstBuild(source);
+		else if (isStale(snapshot) && refreshing.compareAndSet(false, true))
+			refresher.execute(() -> refresh(source));
+
+		CouponType[] filter = types.length > 0 ? types : CouponType.values();
+		Coupon[][] slices = new Coupon[filter.length][];
+		int[] ends = new int[filter.length], next = new int[filter.length];
+		int total = 0;
+		for (int i = 0; i < filter.length; i++) {
+			slices[i] = snapshot.byType.getOrDefault(filter[i], EMPTY);
+			ends[i] = upTo(slices[i], maxPrice);
+			total += ends[i];
+		}
+		if (total == 0)
+			return null;
+
+		ArrayList<Coupon> coupons = new ArrayList<>(total);
+		while (coupons.size() < total) { // k-way merge, k is at most the number of types
+			int min = -1;
+			for (int i = 0; i < slices.length; i++)
+				if (next[i] < ends[i]
+						&& (min < 0 || BY_PRICE.compare(slices[i][next[i]], slices[min][next[min]]) < 0))
+					min = i;
+			coupons.add(new Coupon(slices[min][next[min]++]));
+		}
+		return coupons;
+	}
+
+	/**
+	 * Checks if browse queries should use the catalog
+	 *
+	 * @return true unless disabled
+	 */
+	boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Adds or replaces a Coupon after its row was written.
+	 *
+	 * @param coupon
+	 *            the Coupon as written to the database
+	 */
+	synchronized void put(Coupon coupon) {
+		Coupon entry = new Coupon(coupon);
+		write(() -> putEntry(entry));
+	}
+
+	// Replaces a Coupon's entry in the published snapshot
+	private void putEntry(Coupon entry) {
+		Snapshot snapshot = current.get();
+		if (snapshot == null)
+			return;
+
+		EnumMap<CouponType, Coupon[]> byType = new EnumMap<>(snapshot.byType);
+		Coupon old = index.put(entry.getId(), entry);
+		if (old != null)
+			byType.put(old.getType(), without(byType.get(old.getType()), old));
+		byType.put(entry.getType(), with(byType.getOrDefault(entry.getType(), EMPTY), entry));
+		current.set(new Snapshot(byType, snapshot.builtAt));
+	}
+
+	/**
+	 * Changes the amount of a Coupon after its stock moved in the database.
+	 *
+	 * @param id
+	 *            the Coupon's id
+	 * @param delta
+	 *            the units added, negative for units taken
+	 */
+	synchronized void addAmount(long id, long delta) {
+		write(() -> addEntryAmount(id, delta));
+	}
+
+	// Changes the amount of a Coupon's entry in the published snapshot
+	private void addEntryAmount(long id, long delta) {
+		Snapshot snapshot = current.get();
+		Coupon old = snapshot == null ? null : index.get(id);
+		if (old == null)
+			return;
+
+		Coupon entry = new Coupon(old);
+		entry.setAmount((int) Math.max(0, old.getAmount() + delta));
+		Coupon[] coupons = snapshot.byType.get(old.getType()).clone();
+		coupons[Arrays.binarySearch(coupons, old, BY_PRICE)] = entry; // same price, same place
+		index.put(id, entry);
+		EnumMap<CouponType, Coupon[]> byType = new EnumMap<>(snapshot.byType);
+		byType.put(old.getType(), coupons);
+		current.set(new Snapshot(byType, snapshot.builtAt));
+	}
+
+	/**
+	 * Removes Coupons after their rows were deleted or archived.
+	 *
+	 * @param ids
+	 *            the Coupons' ids
+	 */
+	synchronized void remove(long... ids) {
+		long[] removed = ids.clone();
+		write(() -> removeEntries(removed));
+	}
+
+	// Removes Coupons' entries from the published snapshot
+	private void removeEntries(long[] ids) {
+		Snapshot snapshot = current.get();
+		if (snapshot == null)
+			return;
+
+		EnumMap<CouponType, Coupon[]> byType = new EnumMap<>(snapshot.byType);
+		for (long id : ids) {
+			Coupon old = index.remove(id);
+			if (old != null)
+				byType.put(old.getType(), without(byType.get(old.getType()), old));
+		}
+		current.set(new Snapshot(byType, snapshot.builtAt));
+	}
+
+	/**
+	 * Drops the catalog, the next query builds it again from the database.
+	 */
+	synchronized void clear() {
+		generation++;
+		current.set(null);
+		index.clear();
+	}
+
+	// Applies a write to the published snapshot, and records it for the build
+	// in progress (if any) to replay. Guarded by this
+	private void write(Runnable write) {
+		if (raced != null)
+			raced.add(write);
+		write.run();
+	}
+
+	// Checks if a snapshot is older than the max age
+	private boolean isStale(Snapshot snapshot) {
+		return System.nanoTime() - snapshot.builtAt > maxAge;
+	}
+
+	// Builds the catalog if there is none, the callers wait for a single build
+	private Snapshot firstBuild(Source source) throws UnexpectedError {
+		synchronized (buildLock) {
+			Snapshot snapshot = current.get();
+			return snapshot != null ? snapshot : build(source);
+		}
+	}
+
+	// Rebuilds a stale catalog in the background, keeping the old one on failure
+	private void refresh(Source source) {
+		try {
+			synchronized (buildLock) {
+				Snapshot snapshot = current.get();
+				if (snapshot != null && isStale(snapshot))
+					build(source);
+			}
+		} catch (UnexpectedError e) {
+			handler.at(LogLevel.WARN).log("Couldn't rebuild the Coupon catalog, keeping the stale one.\n{}\n{}",
+					e.getMessage(), e.getDetails());
+		} catch (RuntimeException e) {
+			handler.at(LogLevel.WARN).log("Couldn't rebuild the Coupon catalog, keeping the stale one.\n{}", e);
+		} finally {
+			refreshing.set(false);
+		}
+	}
+
+	// Reads all the Coupons and publishes them, then replays the writes made
+	// during the read. Runs under the build lock
+	private Snapshot build(Source source) throws UnexpectedError {
+		long readGeneration;
+		synchronized (this) {
+			raced = new ArrayList<>();
+			readGeneration = generation;
+		}
+
+		EnumMap<CouponType, ArrayList<Coupon>> lists = new EnumMap<>(CouponType.class);
+		try {
+			source.forEach(coupon -> lists.computeIfAbsent(coupon.getType(), type -> new ArrayList<>()).add(coupon));
+		} catch (UnexpectedError | RuntimeException e) {
+			synchronized (this) {
+				raced = null;
+			}
+			throw e;
+		}
+
+		EnumMap<CouponType, Coupon[]> byType = new EnumMap<>(CouponType.class);
+		for (Map.Entry<CouponType, ArrayList<Coupon>> entry : lists.entrySet()) {
+			Coupon[] coupons = entry.getValue().toArray(EMPTY);
+			Arrays.sort(coupons, BY_PRICE);
+			byType.put(entry.getKey(), coupons);
+		}
+		Snapshot snapshot = new Snapshot(byType, System.nanoTime());
+
+		synchronized (this) {
+			List<Runnable> writes = raced;
+			raced = null;
+			if (readGeneration != generation) // cleared meanwhile, the next query builds again
+				return snapshot;
+
+			index.clear();
+			for (Coupon[] coupons : byType.values())
+				for (Coupon coupon : coupons)
+					index.put(coupon.getId(), coupon);
+			current.set(snapshot);
+			for (Runnable write : writes)
+				write.run();
+			return current.get();
+		}
+	}
+
+	// The number of Coupons priced up to a max price
+	private static int upTo(Coupon[] coupons, double maxPrice) {
+		int low = 0, high = coupons.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (coupons[mid].getPrice() <= maxPrice)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	// A copy of a sorted array with a Coupon inserted in place
+	private static Coupon[] with(Coupon[] coupons, Coupon coupon) {
+		int found = Arrays.binarySearch(coupons, coupon, BY_PRICE);
+		int at = found >= 0 ? found : -(found + 1);
+		Coupon[] copy = new Coupon[coupons.length + 1];
+		System.arraycopy(coupons, 0, copy, 0, at);
+		copy[at] = coupon;
+		System.arraycopy(coupons, at, copy, at + 1, coupons.length - at);
+		return copy;
+	}
+
+	// A copy of a sorted array without a Coupon
+	private static Coupon[] without(Coupon[] coupons, Coupon coupon) {
+		int at = Arrays.binarySearch(coupons, coupon, BY_PRICE);
+		if (at < 0)
+			return coupons;
+		Coupon[] copy = new Coupon[coupons.length - 1];
+		System.arraycopy(coupons, 0, copy, 0, at);
+		System.arraycopy(coupons, at + 1, copy, at, coupons.length - at - 1);
+		return copy;
+	}
+}
@@ -1,15 +1,23 @@
 package DB;
 
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Consumer;
 
 import Bean.Company;
 import Bean.Coupon;
+import Bean.CouponLoader;
 import Bean.CouponType;
 import Bean.Customer;
 import DAO.CouponDAO;
+import DAO.PurchaseOutcome;
+import DB.QueryTemplates.CouponQuery;
 import Exceptions.MessageType;
 import Exceptions.DBError.DBError;
 import Exceptions.DBError.DBStatementError;
@@ -17,6 +25,8 @@ import Exceptions.DBError.DuplicateKeyError;
 import Exceptions.DBError.ForeignKeyError;
 import Exceptions.General.ConnectionPoolError;
 import Exceptions.General.UnexpectedError;
+import LogHandler.LogLevel;
+import Pool.ConnectionPoolSingleton;
 
 /**
  * Coupon MySQL DATABASE active data object.
@@ -26,6 +36,9 @@ import Exceptions.General.UnexpectedError;
  * 
  */
 public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
+	private static final HotCoupons hotCoupons = HotCoupons.getInstance();
+	static final CouponCache couponCache = new CouponCache();
+	static final CouponCatalog catalog = new CouponCatalog();
 
 	/**
 	 * Constructs the {@link CouponDBDAO}.
@@ -34,10 +47,170 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 		super();
 	}
 
+	/**
+	 * Gets the statistics of the Coupon cache shared by all {@link CouponDBDAO}s
+	 * 
+	 * @return the {@link CouponCacheMXBean}
+	 */
+	public static CouponCacheMXBean getCacheStats() {
+		return couponCache;
+	}
+
 	///////////////////////
 	// PRIVATE METHODS //
 	///////////////////////
 
+	// Maps the current row of a Coupons query to a Coupon
+	private static final Coupon readCoupon(ResultSet couponRS, String key) throws SQLException {
+		String type = couponRS.getString("TYPE");
+		final CouponType TYPE = CouponType.getEnum(type);
+		if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
+			handler.at(LogLevel.INFO).field("type", type).log("Unkown Coupon type.");
+
+		return new Coupon(couponRS.getLong(key), couponRS.getString("TITLE"), couponRS.getString("MESSAGE"),
+				couponRS.getString("IMAGE"), couponRS.getDate("START_DATE"), couponRS.getDate("END_DATE"),
+				couponRS.getInt("AMOUNT"), TYPE, couponRS.getDouble("PRICE"));
+	}
+
+	/**
+	 * Streams all {@link Coupon}s that fit at least one of the types from the
+	 * database to an action, one at a time, <em>either
+	 * <strong>archived</strong>, or <strong>NON</strong>-archived</em>.
+	 * 
+	 * @param fromArchive
+	 *            <em><u>true</u></em> for <strong>archived</strong> records, or
+	 *            <em><u>false</u></em> for <strong>NON</strong>-archived</em>
+	 *            records.
+	 * @param types
+	 *            the types, null or empty for all coupons
+	 * @param action
+	 *            the action to perform on each coupon
+	 * @return the number of coupons handed to the action
+	 * @throws UnexpectedError
+	 *             Throws {@link UnexpectedError} if an error occurred and the
+	 *             method was unable to reach data.
+	 */
+	private final long forEachCoupon(boolean fromArchive, CouponType[] types, Consumer<? super Coupon> action)
+			throws UnexpectedError {
+		if (action == null)
+			throw new UnexpectedError(MessageType.ERR, "Can't stream Coupons to an unspecified action",
+					"action is null");
+
+		final String KEY = fromArchive ? COUPON_KEY_ARCHIVE : COUPON_KEY;
+		CouponType[] filter = QueryTemplates.distinct(types);
+		String selectCouponsQuery = (fromArchive ? CouponQuery.ARCHIVED_COUPONS : CouponQuery.COUPONS)
+				.get(filter.length, false);
+		String errDetail = "streamed " + (filter.length > 0 ? "type filtered " : "") + (fromArchive ? "archived " : "")
+				+ "Coupons query.";
+		Connection conn = null;
+
+		try {
+			conn = pool.getConnection();
+			return forEachRow(conn, selectCouponsQuery, QueryTemplates.couponArgs(null, null, filter),
+					couponRS -> readCoupon(couponRS, KEY), action);
+		} catch (SQLException e) {
+			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
+		} catch (IllegalArgumentException e) {
+			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
+		} catch (DBError e) {
+			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getSqlErrorDetails());
+		} catch (ConnectionPoolError e) {
+			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getDetails());
+		} finally {
+			try {
+				pool.returnConnection(conn);
+			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
+				handler.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Reads the {@link Coupon}s of every Customer or Company in one query and
+	 * groups them by owner, for bulk loads that would otherwise query each owner.
+	 * 
+	 * @param conn
+	 *            the Connection to database
+	 * @param sqlLine
+	 *            {@link QueryTemplates#ALL_CUSTOMER_COUPONS} or
+	 *            {@link QueryTemplates#ALL_COMPANY_COUPONS}
+	 * @param ownerKey
+	 *            the owner's key column
+	 * @return the coupons of each owner that has any, by owner id
+	 * @throws SQLException
+	 *             if the output couldn't be read
+	 * @throws DBError
+	 *             if a database access error occurs
+	 */
+	static final HashMap<Long, ArrayList<Coupon>> getCouponsByOwner(Connection conn, String sqlLine,
+			String ownerKey) throws SQLException, DBError {
+		HashMap<Long, ArrayList<Coupon>> owned = new HashMap<>();
+
+		try (QueryResult query = getResult(conn, sqlLine, null,
+				ConnectionPoolSingleton.getConfig().getFetchSize())) {
+			ResultSet couponsRS = query.getResultSet();
+
+			while (couponsRS.next()) {
+				try {
+					owned.computeIfAbsent(couponsRS.getLong(ownerKey), owner -> new ArrayList<>())
+							.add(readCoupon(couponsRS, COUPON_KEY));
+				} catch (SQLException e) { // TODO: log warning/print to console
+					handler.at(LogLevel.WARN).field("sqlState", e.getSQLState()).field("sql", sqlLine)
+							.log("Could't get data for a specific owned Coupon.\n{}", e.getMessage());
+				}
+			}
+		}
+		return owned;
+	}
+
+	/**
+	 * Loads the {@link Coupon}s of a Customer or Company for a
+	 * {@link CouponLoader}, logging any error.
+	 * 
+	 * @param query
+	 *            the owner's listing, {@link CouponQuery#CUSTOMER_COUPONS} or
+	 *            {@link CouponQuery#COMPANY_COUPONS}
+	 * @param ownerId
+	 *            the owner's id
+	 * @param offset
+	 *            the number of coupons to skip
+	 * @param limit
+	 *            the maximum number of coupons, less than 1 for all of them
+	 * @return the list of coupons, or null if they couldn't be loaded
+	 */
+	static final ArrayList<Coupon> loadOwnedCoupons(CouponQuery query, long ownerId, long offset, int limit) {
+		ArrayList<Coupon> coupons = new ArrayList<>();
+		String selectCouponsQuery = limit < 1 ? query.all() : query.page(); // both ordered by id
+		Object[] selectCouponsArgs = limit < 1 ? new Object[] { ownerId } : new Object[] { ownerId, limit, offset };
+		Connection conn = null;
+
+		try {
+			conn = pool.getConnection();
+			forEachRow(conn, selectCouponsQuery, selectCouponsArgs, couponRS -> readCoupon(couponRS, COUPON_KEY),
+					coupons::add);
+			return coupons;
+		} catch (SQLException e) {
+			handler.at(LogLevel.WARN).field("sql", selectCouponsQuery).field("ownerId", ownerId)
+					.log("Could't load owned Coupons.\n{}", e.getMessage());
+		} catch (IllegalArgumentException e) {
+			handler.at(LogLevel.WARN).field("sql", selectCouponsQuery).field("ownerId", ownerId)
+					.log("Could't load owned Coupons.\n{}", e.getMessage());
+		} catch (DBError e) {
+			handler.at(LogLevel.WARN).field("sql", selectCouponsQuery).field("ownerId", ownerId)
+					.log("Could't load owned Coupons.\n{}", e.getSqlErrorDetails());
+		} catch (ConnectionPoolError e) {
+			handler.at(LogLevel.WARN).field("sql", selectCouponsQuery).field("ownerId", ownerId)
+					.log("Could't load owned Coupons.\n{}", e.getDetails());
+		} finally {
+			try {
+				pool.returnConnection(conn);
+			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
+				handler.log(e);
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Gets a list of all {@link Coupon}s that fit at least one of the types from
 	 * the database, <em>either <strong>archived</strong>, or
@@ -57,59 +230,39 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 	private final ArrayList<Coupon> getCoupons(boolean fromArchive, CouponType[] types) throws UnexpectedError {
 		final String KEY, ARCHIVED;
 		ArrayList<Coupon> coupons = new ArrayList<>();
-		ResultSet couponsRS = null;
-		String selectCouponsQuery = "SELECT * FROM ";
+		CouponType[] filter = QueryTemplates.distinct(types);
+		if (!fromArchive && catalog.isEnabled()) // ****** FROM THE IN-MEMORY CATALOG
+			return catalog.find(filter, Double.POSITIVE_INFINITY, action -> forEachCoupon(false, null, action));
+		String selectCouponsQuery = (fromArchive ? CouponQuery.ARCHIVED_COUPONS : CouponQuery.COUPONS)
+				.get(filter.length, false);
+		Object[] selectCouponsArgs = QueryTemplates.couponArgs(null, null, filter);
 
 		if (fromArchive) {
-			selectCouponsQuery += archive_coupon;
 			ARCHIVED = "archived ";
 			KEY = COUPON_KEY_ARCHIVE;
 		} else {
-			selectCouponsQuery += tbl_coupon;
 			ARCHIVED = "";
 			KEY = COUPON_KEY;
 		}
 
-		String errDetail = ARCHIVED + "Coupons";
-		Object[] selectCouponsArgs = null;
-		if (types != null) {
-			if (types.length > 0) {
-				selectCouponsArgs = new Object[types.length];
-				errDetail = "type filtered " + ARCHIVED + "Coupons";
-				selectCouponsQuery += " WHERE TYPE = ?";
-				selectCouponsArgs[0] = types[0].toString();
-				for (int i = 1; i < types.length; i++) {
-					selectCouponsQuery += " OR TYPE = ?";
-					selectCouponsArgs[i] = types[i].toString();
-				}
-			}
-		}
-		errDetail += " query.";
+		String errDetail = (filter.length > 0 ? "type filtered " : "") + ARCHIVED + "Coupons query.";
 
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			couponsRS = getResult(conn, selectCouponsQuery, selectCouponsArgs);
-
-			while (couponsRS.next()) {
-				try {
-					Coupon coupon;
-					String type = couponsRS.getString("TYPE");
-					final CouponType TYPE = CouponType.getEnum(type);
-					if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
-						handler.log("NOTE: Unkown Coupon type.");
-
-					coupon = new Coupon(couponsRS.getLong(KEY), couponsRS.getString("TITLE"),
-							couponsRS.getString("MESSAGE"), couponsRS.getString("IMAGE"),
-							couponsRS.getDate("START_DATE"), couponsRS.getDate("END_DATE"), couponsRS.getInt("AMOUNT"),
-							TYPE, couponsRS.getDouble("PRICE"));
-
-					coupons.add(coupon);
-
-				} catch (SQLException e) { // TODO: log warning/print to console
-					handler.log("WARN: Could't get data for specific " + ARCHIVED + " Coupon in " + errDetail + "\n"
-							+ e.getMessage());
+			try (QueryResult query = getResult(conn, selectCouponsQuery, selectCouponsArgs)) {
+				ResultSet couponsRS = query.getResultSet();
+
+				while (couponsRS.next()) {
+					try {
+						coupons.add(readCoupon(couponsRS, KEY));
+					} catch (SQLException e) { // TODO: log warning/print to console
+						handler.at(LogLevel.WARN).field("table", fromArchive ? archive_coupon : tbl_coupon)
+								.field("sqlState", e.getSQLState())
+								.log("Could't get data for specific {}Coupon in {}\n{}", ARCHIVED, errDetail,
+										e.getMessage());
+					}
 				}
 			}
 			// throw new EmptyFilteredList(MessageType.ERR, ItemType.COUPON, tbl_coupon,
@@ -120,21 +273,22 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			if (coupons.size() < 1)
 				throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 			else // TODO: log warning/print to console
-				handler.log("WARN: Could't get data for " + errDetail + "\n" + e.getMessage());
+				handler.at(LogLevel.WARN).field("table", fromArchive ? archive_coupon : tbl_coupon)
+						.log("Could't get data for {}\n{}", errDetail, e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", fromArchive ? archive_coupon : tbl_coupon)
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -161,62 +315,40 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			throws UnexpectedError {
 		final String ARCHIVED, KEY;
 		ArrayList<Coupon> coupons = new ArrayList<>();
-		ResultSet couponsRS = null;
-		String selectCouponsQuery = "SELECT * FROM ";
+		CouponType[] filter = QueryTemplates.distinct(types);
+		if (!fromArchive && catalog.isEnabled()) // ****** FROM THE IN-MEMORY CATALOG
+			return catalog.find(filter, maxPrice, action -> forEachCoupon(false, null, action));
+		String selectCouponsQuery = (fromArchive ? CouponQuery.ARCHIVED_COUPONS : CouponQuery.COUPONS)
+				.get(filter.length, true);
+		Object[] selectCouponsArgs = QueryTemplates.couponArgs(null, maxPrice, filter);
 
 		if (fromArchive) {
-			selectCouponsQuery += archive_coupon;
 			ARCHIVED = "archived ";
 			KEY = COUPON_KEY_ARCHIVE;
 		} else {
-			selectCouponsQuery += tbl_coupon;
 			ARCHIVED = "";
 			KEY = COUPON_KEY;
 		}
 
-		selectCouponsQuery += " WHERE PRICE <= " + maxPrice;
-
-		String errDetail = "max price filtered " + ARCHIVED + "Coupons";
-		Object[] selectCouponsArgs = null;
-		if (types != null) {
-			if (types.length > 0) {
-				selectCouponsArgs = new Object[types.length];
-				errDetail = "max price and type filtered " + ARCHIVED + "Coupons";
-				selectCouponsQuery += " AND (TYPE = ?";
-				selectCouponsArgs[0] = types[0].toString();
-				for (int i = 1; i < types.length; i++) {
-					selectCouponsQuery += " OR TYPE = ?";
-					selectCouponsArgs[i] = types[i].toString();
-				}
-				selectCouponsQuery += ")";
-			}
-		}
-		errDetail += " query.";
+		String errDetail = (filter.length > 0 ? "max price and type filtered " : "max price filtered ") + ARCHIVED
+				+ "Coupons query.";
 
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			couponsRS = getResult(conn, selectCouponsQuery, selectCouponsArgs);
-
-			while (couponsRS.next()) {
-				try {
-					Coupon coupon;
-					String type = couponsRS.getString("TYPE");
-					final CouponType TYPE = CouponType.getEnum(type);
-					if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
-						handler.log("NOTE: Unkown Coupon type.");
-
-					coupon = new Coupon(couponsRS.getLong(KEY), couponsRS.getString("TITLE"),
-							couponsRS.getString("MESSAGE"), couponsRS.getString("IMAGE"),
-							couponsRS.getDate("START_DATE"), couponsRS.getDate("END_DATE"), couponsRS.getInt("AMOUNT"),
-							TYPE, couponsRS.getDouble("PRICE"));
-
-					coupons.add(coupon);
-
-				} catch (SQLException e) { // TODO: log warning/print to console
-					handler.log("WARN: Could't get data for specific " + ARCHIVED + "Coupon in " + errDetail + "\n"
-							+ e.getMessage());
+			try (QueryResult query = getResult(conn, selectCouponsQuery, selectCouponsArgs)) {
+				ResultSet couponsRS = query.getResultSet();
+
+				while (couponsRS.next()) {
+					try {
+						coupons.add(readCoupon(couponsRS, KEY));
+					} catch (SQLException e) { // TODO: log warning/print to console
+						handler.at(LogLevel.WARN).field("table", fromArchive ? archive_coupon : tbl_coupon)
+								.field("sqlState", e.getSQLState())
+								.log("Could't get data for specific {}Coupon in {}\n{}", ARCHIVED, errDetail,
+										e.getMessage());
+					}
 				}
 			}
 			// throw new EmptyFilteredList(MessageType.ERR, ItemType.COUPON, tbl_coupon,
@@ -227,21 +359,22 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			if (coupons.size() < 1)
 				throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 			else // TODO: log warning/print to console
-				handler.log("WARN: Could't get data for " + errDetail + "\n" + e.getMessage());
+				handler.at(LogLevel.WARN).field("table", fromArchive ? archive_coupon : tbl_coupon)
+						.log("Could't get data for {}\n{}", errDetail, e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", fromArchive ? archive_coupon : tbl_coupon)
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -265,36 +398,26 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 	 */
 	public final Coupon getCoupon(boolean fromArchive, long id) throws UnexpectedError {
 		final String ARCHIVED, KEY;
-		ResultSet couponRS = null;
 		Connection conn = null;
-		String selectCouponQuery = "SELECT * FROM ";
+		String selectCouponQuery;
 
 		if (fromArchive) {
-			selectCouponQuery += archive_coupon;
+			selectCouponQuery = QueryTemplates.SELECT_ARCHIVED_COUPON;
 			ARCHIVED = "archived ";
 			KEY = COUPON_KEY_ARCHIVE;
 		} else {
-			selectCouponQuery += tbl_coupon;
+			selectCouponQuery = QueryTemplates.SELECT_COUPON;
 			ARCHIVED = "";
 			KEY = COUPON_KEY;
 		}
 
-		selectCouponQuery += " WHERE " + KEY + " = " + id;
-
-		System.out.println(selectCouponQuery);
 		try {
 			conn = pool.getConnection();
-			couponRS = getResult(conn, selectCouponQuery);
-
-			if (couponRS.next()) {
-				String type = couponRS.getString("TYPE");
-				final CouponType TYPE = CouponType.getEnum(type);
-				if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
-					handler.log("NOTE: Unkown Coupon type.");
+			try (QueryResult query = getResult(conn, selectCouponQuery, new Object[] { id })) {
+				ResultSet couponRS = query.getResultSet();
 
-				return new Coupon(couponRS.getLong(KEY), couponRS.getString("TITLE"), couponRS.getString("MESSAGE"),
-						couponRS.getString("IMAGE"), couponRS.getDate("START_DATE"), couponRS.getDate("END_DATE"),
-						couponRS.getInt("AMOUNT"), TYPE, couponRS.getDouble("PRICE"));
+				if (couponRS.next())
+					return readCoupon(couponRS, KEY);
 			}
 			// throw new CompanyNotFound(MessageType.ERR, tbl_company, id);
 
@@ -305,7 +428,8 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc " + ARCHIVED + "Coupon.",
 					e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", fromArchive ? archive_coupon : tbl_coupon).field("id", id)
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc " + ARCHIVED + "Coupon.",
 					e.getSqlErrorDetails());
@@ -314,10 +438,9 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 					e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return null;
@@ -331,30 +454,30 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 	public final boolean doesCouponExist(Coupon coupon) throws UnexpectedError {
 		if (coupon == null)
 			throw new UnexpectedError(MessageType.ERR, "Can't read record for unspecified Coupon", "Coupon is null");
+		if (couponCache.contains(coupon.getId()))
+			return true;
 
-		String doesCouponExistQuery = "SELECT * FROM " + tbl_coupon + " WHERE " + COUPON_KEY + " = " + coupon.getId()
-				+ " LIMIT 1";
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			return getResult(conn, doesCouponExistQuery).next();
+			return hasResult(conn, QueryTemplates.COUPON_EXISTS, new Object[] { coupon.getId() });
 		} catch (SQLException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Coupon exists.", e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Coupon exists.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Coupon exists.", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Coupon exists.", e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return false;
@@ -364,9 +487,7 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 	public boolean createCoupon(Coupon coupon) throws UnexpectedError {
 		Connection conn = null;
 		boolean executedQuery = false;
-		String createCouponQuery = "INSERT INTO " + tbl_coupon + " (" + COUPON_KEY + ", " + COUPON_TITLE + ", "
-				+ COUPON_START + ", " + COUPON_END + ", " + COUPON_AMOUNT + ", " + COUPON_TYPE + ", " + COUPON_MESSAGE
-				+ ", " + COUPON_PRICE + ", " + COUPON_IMAGE + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+		String createCouponQuery = QueryTemplates.INSERT_COUPON;
 		Object[] createCouponArgs = new Object[] { coupon.getId(), coupon.getTitle(), coupon.getStartDate(),
 				coupon.getEndDate(), coupon.getAmount(), coupon.getType().toString(), coupon.getMessage(),
 				coupon.getPrice(), coupon.getImage() };
@@ -374,29 +495,32 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 		try {
 			conn = pool.getConnection();
 			executedQuery = (runStatement(conn, createCouponQuery, createCouponArgs) > -1);
+			catalog.put(coupon);
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't create new Coupon.", e.getMessage());
 		} catch (DuplicateKeyError e) {
 			return false;
 		} catch (DBStatementError e) {
 			// TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't create new Coupon.",
 					"Unexpected error creating Coupon in database table [" + tbl_coupon + "] ID: " + coupon.getId()
 							+ ".\n" + e.getDetails() + "\n" + e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			if (executedQuery) // TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			else
 				throw new UnexpectedError(MessageType.ERR, "Connection error creating Coupon in database.",
 						"Connection error creating Coupon in database table [" + tbl_coupon + "] ID: " + coupon.getId()
 								+ ".\n" + e.getDetails());
 		} finally {
+			couponCache.invalidate(coupon.getId());
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -411,10 +535,8 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			throw new UnexpectedError(MessageType.ERR, "Can't create record for unspecified Coupon", "Coupon is null");
 		Connection conn = null;
 		boolean executedQuery = false;
-		String insertCompanyCouponQuery = "INSERT INTO " + tbl_join_company + " (" + JOIN_COMPANY_KEY + ", "
-				+ JOIN_COUPON_KEY + ") VALUES (?, ?)";
-		String createCouponQuery = "INSERT INTO " + tbl_coupon
-				+ " (ID, TITLE, START_DATE, END_DATE, AMOUNT, TYPE, MESSAGE, PRICE, IMAGE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+		String insertCompanyCouponQuery = QueryTemplates.INSERT_COMPANY_COUPON;
+		String createCouponQuery = QueryTemplates.INSERT_COUPON;
 		Object[] insertCompanyCouponArgs = new Object[] { company.getId(), coupon.getId() };
 		Object[] createCouponArgs = new Object[] { coupon.getId(), coupon.getTitle(), coupon.getStartDate(),
 				coupon.getEndDate(), coupon.getAmount(), coupon.getType().toString(), coupon.getMessage(),
@@ -423,29 +545,32 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 		try {
 			conn = pool.getConnection();
 			executedQuery = (runStatement(conn, createCouponQuery, createCouponArgs) > -1);
+			catalog.put(coupon);
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't create new Coupon.", e.getMessage());
 		} catch (DuplicateKeyError e) {
 			return false;
 		} catch (DBStatementError e) {
 			// TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't create new Coupon.",
 					"Unexpected error creating Coupon in database table [" + tbl_coupon + "] ID: " + coupon.getId()
 							+ ".\n" + e.getDetails() + "\n" + e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			if (executedQuery) // TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			else
 				throw new UnexpectedError(MessageType.ERR, "Connection error creating Coupon in database.",
 						"Connection error creating Coupon in database table [" + tbl_coupon + "] ID: " + coupon.getId()
 								+ ".\n" + e.getDetails());
 		} finally {
+			couponCache.invalidate(coupon.getId());
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -455,29 +580,41 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			conn = pool.getConnection();
 			joinTableSuccess = runStatement(conn, insertCompanyCouponQuery, insertCompanyCouponArgs) > 0;
 		} catch (IllegalArgumentException e) {
-			handler.log("ERR: Couldn't create new Company-Coupon relationship.\n" + e.getMessage());
+			handler.at(LogLevel.ERROR).field("table", tbl_join_company).field("companyId", company.getId())
+					.field("couponId", coupon.getId())
+					.log("Couldn't create new Company-Coupon relationship.\n{}", e.getMessage());
 		} catch (ForeignKeyError e) { // TODO: log warning/print to console
 			if (e.getKey().equals(FK_COUPON_ID))
-				handler.log("WARN: Can't create Company-Coupon relationship, Coupon does not exists.");
+				handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+						.field("couponId", coupon.getId())
+						.log("Can't create Company-Coupon relationship, Coupon does not exists.");
 			else if (e.getKey().equals(FK_COMPANY_ID))
-				handler.log("WARN: Can't create Company-Coupon relationship, Company does not exists.");
+				handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+						.field("couponId", coupon.getId())
+						.log("Can't create Company-Coupon relationship, Company does not exists.");
 			else
-				handler.log(
-						"WARN: Can't create Company-Coupon relationship, UNEXPECTED ERROR.\n" + e.getSqlErrorDetails());
+				handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+						.field("couponId", coupon.getId())
+						.log("Can't create Company-Coupon relationship, UNEXPECTED ERROR.\n{}", e.getSqlErrorDetails());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+					.field("couponId", coupon.getId()).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) { // TODO: log warning/print to console.
-			handler.log("WARN: Can't create Company-Coupon relationship, UNEXPECTED ERROR.\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+					.field("couponId", coupon.getId())
+					.log("Can't create Company-Coupon relationship, UNEXPECTED ERROR.\n{}", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			if (joinTableSuccess) // TODO: log warning/print to console
-				handler.log(e.getMessage());
+				handler.log(e);
 			else
-				handler.log("WARN: Can't create Company-Coupon relationship, CONNECTION ERROR.\n" + e.getMessage());
+				handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+						.field("couponId", coupon.getId())
+						.log("Can't create Company-Coupon relationship, CONNECTION ERROR.\n{}", e.getMessage());
 		} finally {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return true;
@@ -489,32 +626,42 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			throw new UnexpectedError(MessageType.ERR, "Can't remove record for unspecified Coupon", "Coupon is null");
 
 		Connection conn = null;
-		String deleteCouponQuery = "DELETE FROM " + tbl_coupon + " WHERE ID = " + coupon.getId();
+		String deleteCouponQuery = QueryTemplates.DELETE_COUPON;
+		hotCoupons.disable(coupon.getId()); // hand its reserved stock back first
 
 		try { // ****** DELETE from COUPON table ****************************
 			conn = pool.getConnection();
-			if (runStatement(conn, deleteCouponQuery) < 1)
+			if (runStatement(conn, deleteCouponQuery, new Object[] { coupon.getId() }) < 1)
 				return false;
+			catalog.remove(coupon.getId());
 		} catch (IllegalArgumentException e) {
-			handler.log("ERR: Couldn't delete Coupon.\n" + e.getMessage());
+			handler.at(LogLevel.ERROR).field("table", tbl_coupon).field("id", coupon.getId())
+					.log("Couldn't delete Coupon.\n{}", e.getMessage());
 		} catch (ForeignKeyError e) { // TODO: log warning/print to console
 			if (e.getKey().equals(FK_CUSTOMER_ID))
-				handler.log("WARN: Couldn't delete Coupon, a Customer has this Coupon.");
+				handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+						.log("Couldn't delete Coupon, a Customer has this Coupon.");
 			else if (e.getKey().equals(FK_COMPANY_ID))
-				handler.log("WARN: Couldn't delete Coupon, a Company owns this Coupon.");
+				handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+						.log("Couldn't delete Coupon, a Company owns this Coupon.");
 			else
-				handler.log("WARN: Couldn't delete Coupon, UNEXPECTED ERROR.\n" + e.getSqlErrorDetails());
+				handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+						.log("Couldn't delete Coupon, UNEXPECTED ERROR.\n{}", e.getSqlErrorDetails());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
-			handler.log("WARN: Couldn't delete Coupon.\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+					.log("Couldn't delete Coupon.\n{}", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
-			handler.log("WARN: Couldn't delete Coupon.\n" + e.getDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+					.log("Couldn't delete Coupon.\n{}", e.getDetails());
 		} finally {
+			couponCache.invalidate(coupon.getId());
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return true;
@@ -526,22 +673,25 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			throw new UnexpectedError(MessageType.ERR, "Can't update record for unspecified Coupon", "Coupon is null");
 
 		Connection conn = null;
-		String couponUpdateQuery = "UPDATE " + tbl_coupon + " SET " + COUPON_TITLE + " = ?, " + COUPON_START + " = ?, "
-				+ COUPON_END + " = ?, " + COUPON_AMOUNT + " = ?, " + COUPON_TYPE + " = ?, " + COUPON_MESSAGE + " = ?, "
-				+ COUPON_PRICE + " = ?, " + COUPON_IMAGE + " = ?" + " WHERE " + COUPON_KEY + " = ?";
+		String couponUpdateQuery = QueryTemplates.UPDATE_COUPON;
 		Object[] couponUpdateArgs = new Object[] { coupon.getTitle(), coupon.getStartDate(), coupon.getEndDate(),
 				coupon.getAmount(), coupon.getType().toString(), coupon.getMessage(), coupon.getPrice(),
 				coupon.getImage(), coupon.getId() };
+		if (hotCoupons.disable(coupon.getId())) // the new AMOUNT replaces the reserved stock
+			handler.at(LogLevel.INFO).field("table", tbl_coupon).field("id", coupon.getId())
+					.log("Coupon {} was updated and is no longer in hot mode.", coupon.getId());
 
 		try {
 			conn = pool.getConnection();
 			if (runStatement(conn, couponUpdateQuery, couponUpdateArgs) < 1)
 				return doesCouponExist(coupon);
+			catalog.put(coupon);
 
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't update Coupon.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DuplicateKeyError e) {
 			return false;
 		} catch (DBError e) {
@@ -549,10 +699,11 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't update Coupon.", e.getMessage());
 		} finally {
+			couponCache.invalidate(coupon.getId());
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return true;
@@ -560,7 +711,7 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 
 	@Override
 	public Coupon getCoupon(long id) throws UnexpectedError {
-		return getCoupon(false, id);
+		return couponCache.get(id, () -> getCoupon(false, id));
 	}
 
 	@Override
@@ -620,6 +771,16 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 		return getArchivedCoupons(null);
 	}
 
+	@Override
+	public long forEachCoupon(CouponType[] types, Consumer<? super Coupon> action) throws UnexpectedError {
+		return forEachCoupon(false, types, action);
+	}
+
+	@Override
+	public long forEachArchivedCoupon(CouponType[] types, Consumer<? super Coupon> action) throws UnexpectedError {
+		return forEachCoupon(true, types, action);
+	}
+
 	///////////////////////
 	// JOIN METHODS //
 	///////////////////////
@@ -628,6 +789,7 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 	public boolean addCouponToArchive(Coupon coupon) throws UnexpectedError {
 		if (coupon == null)
 			throw new UnexpectedError(MessageType.ERR, "Can't archive unspecified Coupon", "Coupon is null");
+		couponCache.invalidate(coupon.getId()); // it's about to leave the coupon table
 		// Does coupon exist?
 		try {
 			if (!doesCouponExist(coupon))
@@ -637,8 +799,7 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 		}
 		// true continue to archive
 
-		String createArchiveCouponQuery = "INSERT INTO " + archive_coupon
-				+ " (OLD_ID, TITLE, START_DATE, END_DATE, AMOUNT, TYPE, MESSAGE, PRICE, IMAGE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+		String createArchiveCouponQuery = QueryTemplates.INSERT_ARCHIVED_COUPON;
 		Object[] createArchiveCouponArgs = new Object[] { coupon.getId(), coupon.getTitle(), coupon.getStartDate(),
 				coupon.getEndDate(), coupon.getAmount(), coupon.getType().toString(), coupon.getMessage(),
 				coupon.getPrice(), coupon.getImage() };
@@ -656,14 +817,15 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			return false;
 		} catch (DBStatementError e) {
 			// TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", archive_coupon).field("id", coupon.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't create new Coupon archive record.",
 					"Unexpected error creating Coupon archive record in database table [" + archive_coupon + "] ID: "
 							+ coupon.getId() + ".\n" + e.getDetails() + "\n" + e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			if (generatedId != -1) // TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			else
 				throw new UnexpectedError(MessageType.ERR, "Connection error creating Coupon archive record.",
 						"Connection error creating Coupon archive record in database table [" + archive_coupon
@@ -672,71 +834,97 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
 		Object[] insertJoinTableArgs = new Object[] { null, generatedId };
-		ResultSet tempResultSet = null;
 
 		// create relationship with customer in archive-customer-coupon table;
 		try {
 			conn = pool.getConnection();
-			String selectCustomerCouponQuery = "SELECT " + JOIN_CUSTOMER_KEY + " FROM " + tbl_join_customer + " WHERE "
-					+ JOIN_COUPON_KEY + " = " + coupon.getId();
-			tempResultSet = getResult(conn, selectCustomerCouponQuery);
-
-			while (tempResultSet.next()) { // for every relationship
-				try {
-
-					insertJoinTableArgs[0] = tempResultSet.getLong(1);
-					String insertCustomerCouponQuery = "INSERT INTO " + archive_join_customer + " (" + JOIN_CUSTOMER_KEY
-							+ ", " + JOIN_COUPON_KEY + ") VALUES (?, ?)";
-					runStatement(conn, insertCustomerCouponQuery, insertJoinTableArgs);
-
-				} catch (SQLException e) {
-					handler.log(
-							"WARN: Could't get data for a specific Customer-Coupon relationship.\n" + e.getMessage());
-				} catch (IllegalArgumentException e) {
-					handler.log("ERR: Couldn't create new Customer-Coupon record in archive.\n" + e.getMessage());
-				} catch (ForeignKeyError e) { // TODO: log warning/print to console
-					if (e.getKey().equals(FK_COUPON_ID))
-						handler.log("WARN: Can't create Customer-Coupon record in archive, Coupon does not exists.");
-					else if (e.getKey().equals(FK_COMPANY_ID))
-						handler.log("WARN: Can't create Customer-Coupon record in archive, Company does not exists.");
-					else
-						handler.log("WARN: Can't create Customer-Coupon record in archive, UNEXPECTED ERROR.\n"
-								+ e.getSqlErrorDetails());
-				} catch (DBStatementError e) { // TODO: log warning/print to console.
-					handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
-				} catch (DBError e) { // TODO: log warning/print to console.
-					handler.log("WARN: Can't create Customer-Coupon record in archive, UNEXPECTED ERROR.\n"
-							+ e.getSqlErrorDetails());
+			try (QueryResult query = getResult(conn, QueryTemplates.SELECT_COUPON_CUSTOMERS,
+					new Object[] { coupon.getId() })) {
+				ResultSet tempResultSet = query.getResultSet();
+
+				while (tempResultSet.next()) { // for every relationship
+					try {
+
+						insertJoinTableArgs[0] = tempResultSet.getLong(1);
+						runStatement(conn, QueryTemplates.INSERT_ARCHIVED_CUSTOMER_COUPON, insertJoinTableArgs);
+
+					} catch (SQLException e) {
+						handler.at(LogLevel.WARN).field("table", archive_join_customer)
+								.field("couponId", coupon.getId()).field("archivedId", generatedId)
+								.log("Could't get data for a specific Customer-Coupon relationship.\n{}",
+										e.getMessage());
+					} catch (IllegalArgumentException e) {
+						handler.at(LogLevel.ERROR).field("table", archive_join_customer)
+								.field("couponId", coupon.getId()).field("archivedId", generatedId)
+								.log("Couldn't create new Customer-Coupon record in archive.\n{}", e.getMessage());
+					} catch (ForeignKeyError e) { // TODO: log warning/print to console
+						if (e.getKey().equals(FK_COUPON_ID))
+							handler.at(LogLevel.WARN).field("table", archive_join_customer)
+									.field("couponId", coupon.getId()).field("archivedId", generatedId)
+									.log("Can't create Customer-Coupon record in archive, Coupon does not exists.");
+						else if (e.getKey().equals(FK_COMPANY_ID))
+							handler.at(LogLevel.WARN).field("table", archive_join_customer)
+									.field("couponId", coupon.getId()).field("archivedId", generatedId)
+									.log("Can't create Customer-Coupon record in archive, Company does not exists.");
+						else
+							handler.at(LogLevel.WARN).field("table", archive_join_customer)
+									.field("couponId", coupon.getId()).field("archivedId", generatedId)
+									.log("Can't create Customer-Coupon record in archive, UNEXPECTED ERROR.\n{}",
+											e.getSqlErrorDetails());
+					} catch (DBStatementError e) { // TODO: log warning/print to console.
+						handler.at(LogLevel.WARN).field("table", archive_join_customer)
+								.field("couponId", coupon.getId()).field("archivedId", generatedId)
+								.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
+					} catch (DBError e) { // TODO: log warning/print to console.
+						handler.at(LogLevel.WARN).field("table", archive_join_customer)
+								.field("couponId", coupon.getId()).field("archivedId", generatedId)
+								.log("Can't create Customer-Coupon record in archive, UNEXPECTED ERROR.\n{}",
+										e.getSqlErrorDetails());
+					}
 				}
 			}
 
 		} catch (SQLException e) {
-			handler.log("WARN: Could't get data for Customer-Coupon relationship.\n" + e.getMessage());
+			handler.at(LogLevel.WARN).field("table", archive_join_customer).field("couponId", coupon.getId())
+					.field("archivedId", generatedId)
+					.log("Could't get data for Customer-Coupon relationship.\n{}", e.getMessage());
 		} catch (IllegalArgumentException e) {
-			handler.log("ERR: Couldn't get Customer-Coupon records.\n" + e.getMessage());
+			handler.at(LogLevel.ERROR).field("table", archive_join_customer).field("couponId", coupon.getId())
+					.field("archivedId", generatedId).log("Couldn't get Customer-Coupon records.\n{}", e.getMessage());
 		} catch (ForeignKeyError e) { // TODO: log warning/print to console
 			if (e.getKey().equals(FK_COUPON_ID))
-				handler.log("WARN: Couldn't get Customer-Coupon records, Coupon does not exists.");
+				handler.at(LogLevel.WARN).field("table", archive_join_customer).field("couponId", coupon.getId())
+						.field("archivedId", generatedId)
+						.log("Couldn't get Customer-Coupon records, Coupon does not exists.");
 			else if (e.getKey().equals(FK_COMPANY_ID))
-				handler.log("WARN: Couldn't get Customer-Coupon records, Company does not exists.");
+				handler.at(LogLevel.WARN).field("table", archive_join_customer).field("couponId", coupon.getId())
+						.field("archivedId", generatedId)
+						.log("Couldn't get Customer-Coupon records, Company does not exists.");
 			else
-				handler.log("WARN: Couldn't get Customer-Coupon records, UNEXPECTED ERROR.\n" + e.getSqlErrorDetails());
+				handler.at(LogLevel.WARN).field("table", archive_join_customer).field("couponId", coupon.getId())
+						.field("archivedId", generatedId)
+						.log("Couldn't get Customer-Coupon records, UNEXPECTED ERROR.\n{}", e.getSqlErrorDetails());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", archive_join_customer).field("couponId", coupon.getId())
+					.field("archivedId", generatedId).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) { // TODO: log warning/print to console.
-			handler.log("WARN: Couldn't get Customer-Coupon records, UNEXPECTED ERROR.\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", archive_join_customer).field("couponId", coupon.getId())
+					.field("archivedId", generatedId)
+					.log("Couldn't get Customer-Coupon records, UNEXPECTED ERROR.\n{}", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
-			handler.log("WARN: Couldn't get Customer-Coupon records, CONNECTION ERROR.\n" + e.getMessage());
+			handler.at(LogLevel.WARN).field("table", archive_join_customer).field("couponId", coupon.getId())
+					.field("archivedId", generatedId)
+					.log("Couldn't get Customer-Coupon records, CONNECTION ERROR.\n{}", e.getMessage());
 		} finally {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -744,65 +932,181 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 		conn = null;
 		try {
 			conn = pool.getConnection();
-			String selectCompanyCouponsQuery = "SELECT " + JOIN_COMPANY_KEY + " FROM " + tbl_join_company + " WHERE "
-					+ JOIN_COUPON_KEY + " = " + coupon.getId();
-			tempResultSet = getResult(conn, selectCompanyCouponsQuery);
-
-			while (tempResultSet.next()) { // for every relationship
-
-				try {
-					insertJoinTableArgs[0] = tempResultSet.getLong(1);
-					String insertCompanyCouponQuery = "INSERT INTO " + archive_join_company + " (" + JOIN_COMPANY_KEY
-							+ ", " + JOIN_COUPON_KEY + ") VALUES (?, ?)";
-					runStatement(conn, insertCompanyCouponQuery, insertJoinTableArgs);
-				} catch (SQLException e) {
-					handler.log(
-							"WARN: Could't get data for a specific Company-Coupon relationship.\n" + e.getMessage());
-				} catch (IllegalArgumentException e) {
-					handler.log("ERR: Couldn't create new Company-Coupon record in archive.\n" + e.getMessage());
-				} catch (ForeignKeyError e) { // TODO: log warning/print to console
-					if (e.getKey().equals(FK_COUPON_ID))
-						handler.log("WARN: Can't create Company-Coupon record in archive, Coupon does not exists.");
-					else if (e.getKey().equals(FK_COMPANY_ID))
-						handler.log("WARN: Can't create Company-Coupon record in archive, Company does not exists.");
-					else
-						handler.log("WARN: Can't create Company-Coupon record in archive, UNEXPECTED ERROR.\n"
-								+ e.getSqlErrorDetails());
-				} catch (DBStatementError e) { // TODO: log warning/print to console.
-					handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
-				} catch (DBError e) { // TODO: log warning/print to console.
-					handler.log("WARN: Can't create Company-Coupon record in archive, UNEXPECTED ERROR.\n"
-							+ e.getSqlErrorDetails());
+			try (QueryResult query = getResult(conn, QueryTemplates.SELECT_COUPON_COMPANIES,
+					new Object[] { coupon.getId() })) {
+				ResultSet tempResultSet = query.getResultSet();
+
+				while (tempResultSet.next()) { // for every relationship
+
+					try {
+						insertJoinTableArgs[0] = tempResultSet.getLong(1);
+						runStatement(conn, QueryTemplates.INSERT_ARCHIVED_COMPANY_COUPON, insertJoinTableArgs);
+					} catch (SQLException e) {
+						handler.at(LogLevel.WARN).field("table", archive_join_company).field("couponId", coupon.getId())
+								.field("archivedId", generatedId)
+								.log("Could't get data for a specific Company-Coupon relationship.\n{}",
+										e.getMessage());
+					} catch (IllegalArgumentException e) {
+						handler.at(LogLevel.ERROR).field("table", archive_join_company)
+								.field("couponId", coupon.getId()).field("archivedId", generatedId)
+								.log("Couldn't create new Company-Coupon record in archive.\n{}", e.getMessage());
+					} catch (ForeignKeyError e) { // TODO: log warning/print to console
+						if (e.getKey().equals(FK_COUPON_ID))
+							handler.at(LogLevel.WARN).field("table", archive_join_company)
+									.field("couponId", coupon.getId()).field("archivedId", generatedId)
+									.log("Can't create Company-Coupon record in archive, Coupon does not exists.");
+						else if (e.getKey().equals(FK_COMPANY_ID))
+							handler.at(LogLevel.WARN).field("table", archive_join_company)
+									.field("couponId", coupon.getId()).field("archivedId", generatedId)
+									.log("Can't create Company-Coupon record in archive, Company does not exists.");
+						else
+							handler.at(LogLevel.WARN).field("table", archive_join_company)
+									.field("couponId", coupon.getId()).field("archivedId", generatedId)
+									.log("Can't create Company-Coupon record in archive, UNEXPECTED ERROR.\n{}",
+											e.getSqlErrorDetails());
+					} catch (DBStatementError e) { // TODO: log warning/print to console.
+						handler.at(LogLevel.WARN).field("table", archive_join_company).field("couponId", coupon.getId())
+								.field("archivedId", generatedId).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
+					} catch (DBError e) { // TODO: log warning/print to console.
+						handler.at(LogLevel.WARN).field("table", archive_join_company).field("couponId", coupon.getId())
+								.field("archivedId", generatedId)
+								.log("Can't create Company-Coupon record in archive, UNEXPECTED ERROR.\n{}",
+										e.getSqlErrorDetails());
+					}
 				}
 			}
 
 		} catch (SQLException e) {
-			handler.log("WARN: Could't get data for Company-Coupon relationship.\n" + e.getMessage());
+			handler.at(LogLevel.WARN).field("table", archive_join_company).field("couponId", coupon.getId())
+					.field("archivedId", generatedId)
+					.log("Could't get data for Company-Coupon relationship.\n{}", e.getMessage());
 		} catch (IllegalArgumentException e) {
-			handler.log("ERR: Couldn't get Company-Coupon records.\n" + e.getMessage());
+			handler.at(LogLevel.ERROR).field("table", archive_join_company).field("couponId", coupon.getId())
+					.field("archivedId", generatedId).log("Couldn't get Company-Coupon records.\n{}", e.getMessage());
 		} catch (ForeignKeyError e) { // TODO: log warning/print to console
 			if (e.getKey().equals(FK_COUPON_ID))
-				handler.log("WARN: Couldn't get Company-Coupon records, Coupon does not exists.");
+				handler.at(LogLevel.WARN).field("table", archive_join_company).field("couponId", coupon.getId())
+						.field("archivedId", generatedId)
+						.log("Couldn't get Company-Coupon records, Coupon does not exists.");
 			else if (e.getKey().equals(FK_COMPANY_ID))
-				handler.log("WARN: Couldn't get Company-Coupon records, Company does not exists.");
+				handler.at(LogLevel.WARN).field("table", archive_join_company).field("couponId", coupon.getId())
+						.field("archivedId", generatedId)
+						.log("Couldn't get Company-Coupon records, Company does not exists.");
 			else
-				handler.log("WARN: Couldn't get Company-Coupon records, UNEXPECTED ERROR.\n" + e.getSqlErrorDetails());
+				handler.at(LogLevel.WARN).field("table", archive_join_company).field("couponId", coupon.getId())
+						.field("archivedId", generatedId)
+						.log("Couldn't get Company-Coupon records, UNEXPECTED ERROR.\n{}", e.getSqlErrorDetails());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", archive_join_company).field("couponId", coupon.getId())
+					.field("archivedId", generatedId).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) { // TODO: log warning/print to console.
-			handler.log("WARN: Couldn't get Company-Coupon records, UNEXPECTED ERROR.\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", archive_join_company).field("couponId", coupon.getId())
+					.field("archivedId", generatedId)
+					.log("Couldn't get Company-Coupon records, UNEXPECTED ERROR.\n{}", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
-			handler.log("WARN: Couldn't get Company-Coupon records, CONNECTION ERROR.\n" + e.getMessage());
+			handler.at(LogLevel.WARN).field("table", archive_join_company).field("couponId", coupon.getId())
+					.field("archivedId", generatedId)
+					.log("Couldn't get Company-Coupon records, CONNECTION ERROR.\n{}", e.getMessage());
 		} finally {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return true;
 	}
 
+	@Override
+	public long archiveExpiredCoupons(int chunkSize) throws UnexpectedError {
+		if (chunkSize < 1)
+			throw new UnexpectedError(MessageType.ERR, "Can't archive expired Coupons in empty chunks",
+					"Chunk size is " + chunkSize);
+
+		Date today = Date.valueOf(LocalDate.now());
+		hotCoupons.disableExpired(); // hand their reserved stock back before they're archived
+		long archived = 0;
+		int chunk;
+		do {
+			chunk = archiveExpiredChunk(chunkSize, today);
+			archived += chunk;
+		} while (chunk > 0);
+		return archived;
+	}
+
+	// Archives and removes a chunk of expired Coupons in one transaction. Every
+	// statement picks the chunk by its end date and last id, so rows archived by
+	// other paths meanwhile are left alone
+	private final int archiveExpiredChunk(int chunkSize, Date today) throws UnexpectedError {
+		Connection conn = null;
+		boolean autoCommit = true;
+
+		try {
+			conn = pool.getConnection();
+			autoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+
+			int expired = 0;
+			long lastId = 0;
+			long[] expiredIds = new long[chunkSize];
+			try (QueryResult query = getResult(conn, QueryTemplates.SELECT_EXPIRED_CHUNK,
+					new Object[] { today, chunkSize })) {
+				while (query.next()) {
+					lastId = query.getResultSet().getLong(1);
+					expiredIds[expired++] = lastId;
+				}
+			}
+			if (expired == 0) {
+				conn.commit();
+				return 0;
+			}
+
+			long archivedFrom = 0;
+			try (QueryResult query = getResult(conn, QueryTemplates.ARCHIVE_LAST_KEY)) {
+				if (query.next())
+					archivedFrom = query.getResultSet().getLong(1);
+			}
+
+			Object[] chunkArgs = new Object[] { today, lastId };
+			Object[] archivedArgs = new Object[] { archivedFrom, today, lastId };
+			int archived = runStatement(conn, QueryTemplates.ARCHIVE_EXPIRED_COUPONS, chunkArgs);
+			runStatement(conn, QueryTemplates.ARCHIVE_EXPIRED_CUSTOMER_COUPONS, archivedArgs);
+			runStatement(conn, QueryTemplates.ARCHIVE_EXPIRED_COMPANY_COUPONS, archivedArgs);
+			runStatement(conn, QueryTemplates.DELETE_EXPIRED_CUSTOMER_COUPONS, chunkArgs);
+			runStatement(conn, QueryTemplates.DELETE_EXPIRED_COMPANY_COUPONS, chunkArgs);
+			runStatement(conn, QueryTemplates.DELETE_EXPIRED_COUPONS, chunkArgs);
+			conn.commit();
+			couponCache.invalidateAll();
+			catalog.remove(Arrays.copyOf(expiredIds, expired));
+			return archived;
+		} catch (SQLException e) {
+			rollback(conn);
+			throw new UnexpectedError(MessageType.ERR, "Couldn't archive expired Coupons.", e.getMessage());
+		} catch (IllegalArgumentException e) {
+			rollback(conn);
+			throw new UnexpectedError(MessageType.ERR, "Couldn't archive expired Coupons.", e.getMessage());
+		} catch (DBError e) {
+			rollback(conn);
+			throw new UnexpectedError(MessageType.ERR, "Couldn't archive expired Coupons.",
+					e.getDetails() + "\n" + e.getSqlErrorDetails());
+		} catch (ConnectionPoolError e) {
+			throw new UnexpectedError(MessageType.ERR, "Couldn't archive expired Coupons.", e.getDetails());
+		} finally {
+			try {
+				if (conn != null)
+					conn.setAutoCommit(autoCommit);
+			} catch (SQLException e) {
+				handler.log(LogLevel.WARN, "Couldn't restore auto-commit after archiving expired Coupons.\n{}",
+						e.getMessage());
+			}
+			try {
+				pool.returnConnection(conn);
+			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
+				handler.log(e);
+			}
+		}
+	}
+
 	@Override
 	public boolean addCouponToCompany(Coupon coupon, Company company) throws UnexpectedError {
 		if (company == null)
@@ -812,8 +1116,7 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			throw new UnexpectedError(MessageType.ERR, "Can't create connection record for unspecified Coupon",
 					"Coupon is null");
 		Connection conn = null;
-		String insertCompanyCouponQuery = "INSERT INTO " + tbl_join_company + " (" + JOIN_COMPANY_KEY + ", "
-				+ JOIN_COUPON_KEY + ") VALUES (?, ?)";
+		String insertCompanyCouponQuery = QueryTemplates.INSERT_COMPANY_COUPON;
 		Object[] insertCompanyCouponArgs = new Object[] { company.getId(), coupon.getId() };
 		boolean addedCompanyCoupon = false;
 		try {
@@ -834,13 +1137,14 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 						"Can't create Company-Coupon relationship, UNEXPECTED ERROR.", e.getSqlErrorDetails());
 			}
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+					.field("couponId", coupon.getId()).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) { // TODO: log warning/print to console.
 			throw new UnexpectedError(MessageType.ERR, "Couldn't create Company-Coupon relationship, UNEXPECTED ERROR.",
 					e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			if (addedCompanyCoupon) // TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			else
 				throw new UnexpectedError(MessageType.ERR,
 						"Can't create Company-Coupon relationship, CONNECTION ERROR.", e.getMessage());
@@ -848,7 +1152,7 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return addedCompanyCoupon;
@@ -864,8 +1168,7 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 					"Coupon is null");
 
 		Connection conn = null;
-		String insertCustomerCouponQuery = "INSERT INTO " + tbl_join_customer + " (" + JOIN_CUSTOMER_KEY + ", "
-				+ JOIN_COUPON_KEY + ") VALUES (?, ?)";
+		String insertCustomerCouponQuery = QueryTemplates.INSERT_CUSTOMER_COUPON;
 		Object[] insertCustomerCouponArgs = new Object[] { customer.getId(), coupon.getId() };
 		boolean addedCustomerCoupon = false;
 		try {
@@ -886,13 +1189,14 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 						"Can't create Customer-Coupon relationship, UNEXPECTED ERROR.", e.getSqlErrorDetails());
 			}
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+					.field("couponId", coupon.getId()).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) { // TODO: log warning/print to console.
 			throw new UnexpectedError(MessageType.ERR,
 					"Couldn't create Customer-Coupon relationship, UNEXPECTED ERROR.", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			if (addedCustomerCoupon) // TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			else
 				throw new UnexpectedError(MessageType.ERR,
 						"Can't create Customer-Coupon relationship, CONNECTION ERROR.", e.getMessage());
@@ -900,7 +1204,7 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return addedCustomerCoupon;
@@ -916,8 +1220,7 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 					"Coupon is null");
 
 		Connection conn = null;
-		String deleteCompanyCouponQuery = "DELETE FROM " + tbl_join_company + " WHERE " + JOIN_COMPANY_KEY + " = ? AND "
-				+ JOIN_COUPON_KEY + " = ?";
+		String deleteCompanyCouponQuery = QueryTemplates.DELETE_COMPANY_COUPON;
 		Object[] deleteCompanyCouponArgs = new Object[] { company.getId(), coupon.getId() };
 		boolean deletedCompanyCoupon = false;
 		try {
@@ -926,13 +1229,14 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't delete Company-Coupon relationship.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+					.field("couponId", coupon.getId()).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) { // TODO: log warning/print to console.
 			throw new UnexpectedError(MessageType.ERR, "Couldn't delete Company-Coupon relationship, UNEXPECTED ERROR.",
 					e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			if (deletedCompanyCoupon) // TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			else
 				throw new UnexpectedError(MessageType.ERR,
 						"Can't delete Company-Coupon relationship, CONNECTION ERROR.", e.getMessage());
@@ -940,7 +1244,7 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return deletedCompanyCoupon;
@@ -956,23 +1260,24 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 					"Coupon is null");
 
 		Connection conn = null;
-		String deleteCustomerCouponQuery = "DELETE FROM " + tbl_join_customer + " WHERE " + JOIN_CUSTOMER_KEY
-				+ " = ? AND " + JOIN_COUPON_KEY + " = ?";
+		String deleteCustomerCouponQuery = QueryTemplates.DELETE_CUSTOMER_COUPON;
 		Object[] deleteCustomerCouponArgs = new Object[] { customer.getId(), coupon.getId() };
 		boolean deletedCustomerCoupon = false;
+		hotCoupons.forget(coupon.getId(), customer.getId());
 		try {
 			conn = pool.getConnection();
 			deletedCustomerCoupon = (runStatement(conn, deleteCustomerCouponQuery, deleteCustomerCouponArgs) > 0);
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't delete Customer-Coupon relationship.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+					.field("couponId", coupon.getId()).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) { // TODO: log warning/print to console.
 			throw new UnexpectedError(MessageType.ERR,
 					"Couldn't delete Customer-Coupon relationship, UNEXPECTED ERROR.", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			if (deletedCustomerCoupon) // TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			else
 				throw new UnexpectedError(MessageType.ERR,
 						"Can't delete Customer-Coupon relationship, CONNECTION ERROR.", e.getMessage());
@@ -980,7 +1285,7 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return deletedCustomerCoupon;
@@ -994,20 +1299,20 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			throw new UnexpectedError(MessageType.ERR, "Can't read record for unspecified Coupon", "Coupon is null");
 
 		Connection conn = null;
-		String doesCompanyOwnCouponQuery = "SELECT * FROM " + tbl_join_company + " WHERE " + JOIN_COMPANY_KEY
-				+ " = ? AND " + JOIN_COUPON_KEY + " = ?";
+		String doesCompanyOwnCouponQuery = QueryTemplates.SELECT_COMPANY_COUPON;
 		Object[] doesCompanyOwnCouponArgs = new Object[] { company.getId(), coupon.getId() };
 		boolean doesCompanyOwnCoupon = false;
 
 		try {
 			conn = pool.getConnection();
-			doesCompanyOwnCoupon = getResult(conn, doesCompanyOwnCouponQuery, doesCompanyOwnCouponArgs).next();
+			doesCompanyOwnCoupon = hasResult(conn, doesCompanyOwnCouponQuery, doesCompanyOwnCouponArgs);
 		} catch (SQLException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Company-Coupon.", e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Company-Coupon.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_company).field("companyId", company.getId())
+					.field("couponId", coupon.getId()).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Company-Coupon.",
 					e.getSqlErrorDetails());
@@ -1015,10 +1320,9 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Company-Coupon.", e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return doesCompanyOwnCoupon;
@@ -1029,31 +1333,130 @@ public class CouponDBDAO extends UtilDBDAO implements CouponDAO {
 		if (coupon == null)
 			throw new UnexpectedError(MessageType.ERR, "Can't read record for unspecified Coupon", "Coupon is null");
 		Connection conn = null;
-		String couponsOwnedQuery = "SELECT * FROM " + tbl_join_company + " WHERE " + JOIN_COUPON_KEY + " = ?";
-		Object[] couponsOwnedArgs = new Object[] { coupon.getId() };
 		int couponsLeft = 0;
 
 		try {
 			conn = pool.getConnection();
-			couponsLeft = getResult(conn, couponsOwnedQuery, couponsOwnedArgs).getMetaData().getColumnCount();
+			try (QueryResult query = getResult(conn, QueryTemplates.COUPON_STOCK, new Object[] { coupon.getId() })) {
+				if (query.next())
+					couponsLeft = Math.max(0, query.getResultSet().getInt(COUPON_AMOUNT));
+			}
 		} catch (SQLException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get count for owned Coupons.", e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get count for owned Coupons.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get count for owned Coupons.", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get count for owned Coupons.", e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
-		return couponsLeft;
+		return couponsLeft + (int) hotCoupons.available(coupon.getId());
+	}
+
+	@Override
+	public PurchaseOutcome purchaseCoupon(Coupon coupon, Customer customer) throws UnexpectedError {
+		if (customer == null)
+			throw new UnexpectedError(MessageType.ERR, "Can't purchase Coupon for unspecified Customer",
+					"Customer is null");
+		if (coupon == null)
+			throw new UnexpectedError(MessageType.ERR, "Can't purchase unspecified Coupon", "Coupon is null");
+
+		PurchaseOutcome hotOutcome = hotCoupons.purchase(coupon.getId(), customer.getId());
+		if (hotOutcome != null)
+			return hotOutcome;
+
+		Connection conn = null;
+		boolean autoCommit = true;
+		Date today = Date.valueOf(LocalDate.now());
+		Object[] couponArgs = new Object[] { coupon.getId() };
+
+		try {
+			conn = pool.getConnection();
+			autoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+
+			// ****** TAKE ONE FROM STOCK, locks the Coupon row until commit
+			if (runStatement(conn, QueryTemplates.TAKE_COUPON_STOCK, new Object[] { coupon.getId(), today }) < 1) {
+				PurchaseOutcome outcome = PurchaseOutcome.NOT_FOUND;
+				try (QueryResult query = getResult(conn, QueryTemplates.COUPON_STOCK, couponArgs)) {
+					if (query.next()) // an expired Coupon is EXPIRED, whatever its stock
+						outcome = query.getResultSet().getDate(COUPON_END).before(today) ? PurchaseOutcome.EXPIRED
+								: PurchaseOutcome.STOCK_EMPTY;
+				}
+				conn.commit();
+				return outcome;
+			}
+
+			// ****** LINK TO CUSTOMER
+			try {
+				runStatement(conn, QueryTemplates.INSERT_CUSTOMER_COUPON,
+						new Object[] { customer.getId(), coupon.getId() });
+			} catch (DuplicateKeyError e) {
+				rollback(conn);
+				return PurchaseOutcome.ALREADY_OWNED;
+			} catch (ForeignKeyError e) {
+				rollback(conn);
+				if (e.getKey().equals(FK_CUSTOMER_ID))
+					return PurchaseOutcome.CUSTOMER_NOT_FOUND;
+				else if (e.getKey().equals(FK_COUPON_ID))
+					return PurchaseOutcome.NOT_FOUND;
+				throw new UnexpectedError(MessageType.ERR, "Couldn't purchase Coupon, UNEXPECTED ERROR.",
+						e.getSqlErrorDetails());
+			}
+			conn.commit();
+			catalog.addAmount(coupon.getId(), -1);
+			return PurchaseOutcome.PURCHASED;
+		} catch (SQLException e) {
+			rollback(conn);
+			throw new UnexpectedError(MessageType.ERR, "Couldn't purchase Coupon.", e.getMessage());
+		} catch (IllegalArgumentException e) {
+			rollback(conn);
+			throw new UnexpectedError(MessageType.ERR, "Couldn't purchase Coupon.", e.getMessage());
+		} catch (DBError e) {
+			rollback(conn);
+			throw new UnexpectedError(MessageType.ERR, "Couldn't purchase Coupon.",
+					e.getDetails() + "\n" + e.getSqlErrorDetails());
+		} catch (ConnectionPoolError e) {
+			throw new UnexpectedError(MessageType.ERR, "Couldn't purchase Coupon, CONNECTION ERROR.", e.getDetails());
+		} finally {
+			couponCache.invalidate(coupon.getId()); // its AMOUNT may have changed
+			try {
+				if (conn != null)
+					conn.setAutoCommit(autoCommit);
+			} catch (SQLException e) {
+				handler.at(LogLevel.WARN).field("table", tbl_coupon).field("id", coupon.getId())
+						.field("customerId", customer.getId())
+						.log("Couldn't restore auto-commit after purchasing a Coupon.\n{}", e.getMessage());
+			}
+			try {
+				pool.returnConnection(conn);
+			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
+				handler.log(e);
+			}
+		}
+	}
+
+	@Override
+	public boolean enableHotCoupon(Coupon coupon) throws UnexpectedError {
+		if (coupon == null)
+			throw new UnexpectedError(MessageType.ERR, "Can't put unspecified Coupon in hot mode", "Coupon is null");
+		return hotCoupons.enable(coupon.getId());
+	}
+
+	@Override
+	public boolean disableHotCoupon(Coupon coupon) throws UnexpectedError {
+		if (coupon == null)
+			throw new UnexpectedError(MessageType.ERR, "Can't take unspecified Coupon out of hot mode",
+					"Coupon is null");
+		return hotCoupons.disable(coupon.getId());
 	}
 }
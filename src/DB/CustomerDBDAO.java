@@ -4,11 +4,14 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import Bean.Coupon;
+import Bean.CouponLoader;
 import Bean.CouponType;
 import Bean.Customer;
 import DAO.CustomerDAO;
+import DB.QueryTemplates.CouponQuery;
 import Exceptions.MessageType;
 import Exceptions.DBError.DBError;
 import Exceptions.DBError.DBStatementError;
@@ -16,6 +19,7 @@ import Exceptions.DBError.DuplicateKeyError;
 import Exceptions.DBError.ForeignKeyError;
 import Exceptions.General.ConnectionPoolError;
 import Exceptions.General.UnexpectedError;
+import LogHandler.LogLevel;
 
 /**
  * Customer MySQL DATABASE active data object.
@@ -25,12 +29,6 @@ import Exceptions.General.UnexpectedError;
  * 
  */
 public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
-	/**
-	 * For methods that require statements to stay open and call other methods that
-	 * close them.
-	 */
-	private boolean keepStatementOpen = false;
-
 	/**
 	 * Constructs the {@link CustomerDBDAO}.
 	 */
@@ -42,6 +40,11 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 	// PRIVATE METHODS //
 	///////////////////////
 
+	// Loads the Coupons of a Customer on first access, see Customer#getCoupons()
+	private static final CouponLoader couponLoader(long customerId) {
+		return (offset, limit) -> CouponDBDAO.loadOwnedCoupons(CouponQuery.CUSTOMER_COUPONS, customerId, offset, limit);
+	}
+
 	/**
 	 * Gets a list of a specific {@link Customer}'s {@link Coupon}s that fit at
 	 * least one of the types from the database, <em>either
@@ -68,62 +71,48 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 
 		final String ARCHIVED, KEY;
 		ArrayList<Coupon> coupons = new ArrayList<>();
-		String selectCouponsQuery = "SELECT * FROM ";
-		Object[] selectCouponsArgs = null;
-		ResultSet couponsRS = null;
+		CouponType[] filter = QueryTemplates.distinct(types);
+		String selectCouponsQuery = (fromArchive ? CouponQuery.ARCHIVED_CUSTOMER_COUPONS : CouponQuery.CUSTOMER_COUPONS)
+				.get(filter.length, false);
+		Object[] selectCouponsArgs = QueryTemplates.couponArgs(customer.getId(), null, filter);
 
 		if (fromArchive) {
-			selectCouponsQuery += archive_coupon + " JOIN (SELECT " + JOIN_COUPON_KEY + " FROM " + archive_join_customer
-					+ " WHERE " + JOIN_CUSTOMER_KEY + " = " + customer.getId() + ") c ON " + archive_coupon + ".ID = c."
-					+ JOIN_COUPON_KEY + "";
 			ARCHIVED = "archived ";
 			KEY = COUPON_KEY_ARCHIVE;
 		} else {
-			selectCouponsQuery += tbl_coupon + " JOIN (SELECT " + JOIN_COUPON_KEY + " FROM " + tbl_join_customer
-					+ " WHERE " + JOIN_CUSTOMER_KEY + " = " + customer.getId() + ") c ON " + tbl_coupon + ".ID = c."
-					+ JOIN_COUPON_KEY + "";
 			ARCHIVED = "";
 			KEY = COUPON_KEY;
 		}
 
-		String errDetail = ARCHIVED + "Coupons";
-		if (types != null) {
-			if (types.length > 0) {
-				selectCouponsArgs = new Object[types.length];
-				errDetail = "type filtered " + ARCHIVED + "Coupons";
-				selectCouponsQuery += " WHERE TYPE = ?";
-				selectCouponsArgs[0] = types[0].toString();
-				for (int i = 1; i < types.length; i++) {
-					selectCouponsQuery += " OR TYPE = ?";
-					selectCouponsArgs[i] = types[i].toString();
-				}
-			}
-		}
-		errDetail += " owned by Customer.";
+		String errDetail = (filter.length > 0 ? "type filtered " : "") + ARCHIVED + "Coupons owned by Customer.";
 
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			couponsRS = getResult(conn, selectCouponsQuery, selectCouponsArgs);
+			try (QueryResult query = getResult(conn, selectCouponsQuery, selectCouponsArgs)) {
+				ResultSet couponsRS = query.getResultSet();
 
-			while (couponsRS.next()) {
-				try {
-					Coupon coupon;
-					String type = couponsRS.getString("TYPE");
-					final CouponType TYPE = CouponType.getEnum(type);
-					if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
-						handler.log("NOTE: Unkown Coupon type.");
-
-					coupon = new Coupon(couponsRS.getLong(KEY), couponsRS.getString("TITLE"),
-							couponsRS.getString("MESSAGE"), couponsRS.getString("IMAGE"),
-							couponsRS.getDate("START_DATE"), couponsRS.getDate("END_DATE"), couponsRS.getInt("AMOUNT"),
-							TYPE, couponsRS.getDouble("PRICE"));
-
-					coupons.add(coupon);
-				} catch (SQLException e) { // TODO: log warning/print to console
-					handler.log("WARN: Could't get data for specific " + ARCHIVED + "Coupon owned by Customer.\n"
-							+ e.getMessage());
+				while (couponsRS.next()) {
+					try {
+						Coupon coupon;
+						String type = couponsRS.getString("TYPE");
+						final CouponType TYPE = CouponType.getEnum(type);
+						if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
+							handler.at(LogLevel.INFO).field("type", type).log("Unkown Coupon type.");
+
+						coupon = new Coupon(couponsRS.getLong(KEY), couponsRS.getString("TITLE"),
+								couponsRS.getString("MESSAGE"), couponsRS.getString("IMAGE"),
+								couponsRS.getDate("START_DATE"), couponsRS.getDate("END_DATE"),
+								couponsRS.getInt("AMOUNT"), TYPE, couponsRS.getDouble("PRICE"));
+
+						coupons.add(coupon);
+					} catch (SQLException e) { // TODO: log warning/print to console
+						handler.at(LogLevel.WARN).field("table", tbl_join_customer)
+								.field("customerId", customer.getId())
+								.log("Could't get data for specific {}Coupon owned by Customer.\n{}", ARCHIVED,
+										e.getMessage());
+					}
 				}
 			}
 			// throw new EmptyFilteredList(MessageType.ERR, ItemType.COUPON, tbl_coupon,
@@ -134,22 +123,22 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			if (coupons.size() < 1)
 				throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 			else // TODO: log warning/print to console
-				handler.log("WARN: Could't get data for " + errDetail + "\n" + e.getMessage());
+				handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+						.log("Could't get data for {}\n{}", errDetail, e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getDetails());
 		} finally {
 			try {
-				if (!keepStatementOpen)
-					closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -185,65 +174,49 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 
 		final String ARCHIVED, KEY;
 		ArrayList<Coupon> coupons = new ArrayList<>();
-		ResultSet couponsRS = null;
-		String selectCouponsQuery = "SELECT * FROM ";
+		CouponType[] filter = QueryTemplates.distinct(types);
+		String selectCouponsQuery = (fromArchive ? CouponQuery.ARCHIVED_CUSTOMER_COUPONS : CouponQuery.CUSTOMER_COUPONS)
+				.get(filter.length, true);
+		Object[] selectCouponsArgs = QueryTemplates.couponArgs(customer.getId(), maxPrice, filter);
 
 		if (fromArchive) {
-			selectCouponsQuery += archive_coupon + " JOIN (SELECT " + JOIN_COUPON_KEY + " FROM " + archive_join_customer
-					+ " WHERE " + JOIN_CUSTOMER_KEY + " = " + customer.getId() + ") c ON " + archive_coupon + ".ID = c."
-					+ JOIN_COUPON_KEY + "";
 			ARCHIVED = "archived ";
 			KEY = COUPON_KEY_ARCHIVE;
 		} else {
-			selectCouponsQuery += tbl_coupon + " JOIN (SELECT " + JOIN_COUPON_KEY + " FROM " + tbl_join_customer
-					+ " WHERE " + JOIN_CUSTOMER_KEY + " = " + customer.getId() + ") c ON " + tbl_coupon + ".ID = c."
-					+ JOIN_COUPON_KEY + "";
 			ARCHIVED = "";
 			KEY = COUPON_KEY;
 		}
-		selectCouponsQuery += " WHERE PRICE <= " + maxPrice;
-
-		Object[] selectCouponsArgs = null;
-		String errDetail = "max price filtered " + ARCHIVED + "Coupons";
-		if (types != null) {
-			if (types.length > 0) {
-				selectCouponsArgs = new Object[types.length];
-				errDetail = "max price and type filtered " + ARCHIVED + "Coupons";
-				selectCouponsQuery += " AND (TYPE = ?";
-				selectCouponsArgs[0] = types[0].toString();
-				for (int i = 1; i < types.length; i++) {
-					selectCouponsQuery += " OR TYPE = ?";
-					selectCouponsArgs[i] = types[i].toString();
-				}
-				selectCouponsQuery += ")";
-			}
-		}
-		System.out.println(selectCouponsQuery);
-		errDetail += " owned by Customer.";
+
+		String errDetail = (filter.length > 0 ? "max price and type filtered " : "max price filtered ") + ARCHIVED
+				+ "Coupons owned by Customer.";
 
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			couponsRS = getResult(conn, selectCouponsQuery, selectCouponsArgs);
+			try (QueryResult query = getResult(conn, selectCouponsQuery, selectCouponsArgs)) {
+				ResultSet couponsRS = query.getResultSet();
 
-			while (couponsRS.next()) {
-				try {
-					Coupon coupon;
-					String type = couponsRS.getString("TYPE");
-					final CouponType TYPE = CouponType.getEnum(type);
-					if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
-						handler.log("NOTE: Unkown Coupon type.");
-
-					coupon = new Coupon(couponsRS.getLong(KEY), couponsRS.getString("TITLE"),
-							couponsRS.getString("MESSAGE"), couponsRS.getString("IMAGE"),
-							couponsRS.getDate("START_DATE"), couponsRS.getDate("END_DATE"), couponsRS.getInt("AMOUNT"),
-							TYPE, couponsRS.getDouble("PRICE"));
-
-					coupons.add(coupon);
-				} catch (SQLException e) { // TODO: log warning/print to console
-					handler.log("WARN: Could't get data for specific " + ARCHIVED + "Coupon owned by Customer.\n"
-							+ e.getMessage());
+				while (couponsRS.next()) {
+					try {
+						Coupon coupon;
+						String type = couponsRS.getString("TYPE");
+						final CouponType TYPE = CouponType.getEnum(type);
+						if (TYPE.isUnspecified() && !type.equalsIgnoreCase(CouponType.UNSPECIFIED.toString()))
+							handler.at(LogLevel.INFO).field("type", type).log("Unkown Coupon type.");
+
+						coupon = new Coupon(couponsRS.getLong(KEY), couponsRS.getString("TITLE"),
+								couponsRS.getString("MESSAGE"), couponsRS.getString("IMAGE"),
+								couponsRS.getDate("START_DATE"), couponsRS.getDate("END_DATE"),
+								couponsRS.getInt("AMOUNT"), TYPE, couponsRS.getDouble("PRICE"));
+
+						coupons.add(coupon);
+					} catch (SQLException e) { // TODO: log warning/print to console
+						handler.at(LogLevel.WARN).field("table", tbl_join_customer)
+								.field("customerId", customer.getId())
+								.log("Could't get data for specific {}Coupon owned by Customer.\n{}", ARCHIVED,
+										e.getMessage());
+					}
 				}
 			}
 			// throw new EmptyFilteredList(MessageType.ERR, ItemType.COUPON, tbl_coupon,
@@ -254,22 +227,22 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			if (coupons.size() < 1)
 				throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 			else // TODO: log warning/print to console
-				handler.log("WARN: Could't get data for " + errDetail + "\n" + e.getMessage());
+				handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+						.log("Could't get data for {}\n{}", errDetail, e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for " + errDetail, e.getDetails());
 		} finally {
 			try {
-				if (!keepStatementOpen)
-					closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -286,10 +259,8 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			throw new UnexpectedError(MessageType.ERR, "Can't create record for unspecified Customer",
 					"Customer is null");
 		Connection conn = null;
-		String insertCustomerCouponQuery = "INSERT INTO " + tbl_join_customer + " (" + JOIN_CUSTOMER_KEY + ", "
-				+ JOIN_COUPON_KEY + ") VALUES (?, ?)";
-		String createCustomerQuery = "INSERT INTO " + tbl_customer + " (" + CUSTOMER_KEY + ", " + CUSTOMER_NAME + ", "
-				+ CUSTOMER_PASSWORD + ") VALUES (?, ?, ?)";
+		String insertCustomerCouponQuery = QueryTemplates.INSERT_CUSTOMER_COUPON;
+		String createCustomerQuery = QueryTemplates.INSERT_CUSTOMER;
 		Object[] insertCustomerCouponArgs = new Object[] { customer.getId(), null };
 		Object[] createCustomerArgs = new Object[] { customer.getId(), customer.getName(), customer.getPassword() };
 
@@ -302,7 +273,8 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			return false;
 		} catch (DBStatementError e) {
 			// TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_customer).field("id", customer.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't  create new Customer.",
 					"Unexpected error creating Customer in database table [" + tbl_customer + "] ID: "
@@ -315,7 +287,7 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -326,27 +298,40 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 				conn = pool.getConnection();
 				runStatement(conn, insertCustomerCouponQuery, insertCustomerCouponArgs);
 			} catch (IllegalArgumentException e) {
-				handler.log("ERR: Couldn't create new Customer-Coupon relationship.\n" + e.getMessage());
+				handler.at(LogLevel.ERROR).field("table", tbl_join_customer).field("customerId", customer.getId())
+						.field("couponId", c.getId())
+						.log("Couldn't create new Customer-Coupon relationship.\n{}", e.getMessage());
 			} catch (ForeignKeyError e) { // TODO: log warning/print to console
 				if (e.getKey().equals(FK_COUPON_ID))
-					handler.log("WARN: Can't create Customer-Coupon relationship, Coupon does not exists.");
+					handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+							.field("couponId", c.getId())
+							.log("Can't create Customer-Coupon relationship, Coupon does not exists.");
 				else if (e.getKey().equals(FK_CUSTOMER_ID))
-					handler.log("WARN: Can't create Customer-Coupon relationship, Customer does not exists.");
+					handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+							.field("couponId", c.getId())
+							.log("Can't create Customer-Coupon relationship, Customer does not exists.");
 				else
-					handler.log("WARN: Can't create Customer-Coupon relationship, UNEXPECTED ERROR.\n"
-							+ e.getSqlErrorDetails());
+					handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+							.field("couponId", c.getId())
+							.log("Can't create Customer-Coupon relationship, UNEXPECTED ERROR.\n{}",
+									e.getSqlErrorDetails());
 			} catch (DBStatementError e) { // TODO: log warning/print to console.
-				handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+				handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+						.field("couponId", c.getId()).log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 			} catch (DBError e) { // TODO: log warning/print to console.
-				handler.log("WARN: Can't create Customer-Coupon relationship, UNEXPECTED ERROR.\n"
-						+ e.getSqlErrorDetails());
+				handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+						.field("couponId", c.getId())
+						.log("Can't create Customer-Coupon relationship, UNEXPECTED ERROR.\n{}",
+								e.getSqlErrorDetails());
 			} catch (ConnectionPoolError e) {
-				handler.log("WARN: Can't create Customer-Coupon relationship, CONNECTION ERROR.\n" + e.getMessage());
+				handler.at(LogLevel.WARN).field("table", tbl_join_customer).field("customerId", customer.getId())
+						.field("couponId", c.getId())
+						.log("Can't create Customer-Coupon relationship, CONNECTION ERROR.\n{}", e.getMessage());
 			} finally {
 				try {
 					pool.returnConnection(conn);
 				} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-					handler.log(e.getMessage());
+					handler.log(e);
 				}
 			}
 		}
@@ -360,12 +345,11 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 					"Customer is null");
 
 		Connection conn = null;
-		String deleteCustomerQuery = "DELETE FROM " + tbl_customer + " WHERE " + CUSTOMER_KEY + " = "
-				+ customer.getId();
+		String deleteCustomerQuery = QueryTemplates.DELETE_CUSTOMER;
 
 		try { // ****** DELETE from CUSTOMER table;
 			conn = pool.getConnection();
-			if (runStatement(conn, deleteCustomerQuery) < 1)
+			if (runStatement(conn, deleteCustomerQuery, new Object[] { customer.getId() }) < 1)
 				return false;
 			// throw new CustomerNotFound(MessageType.ERR, tbl_customer, customer.getId());
 
@@ -379,7 +363,8 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 				throw new UnexpectedError(MessageType.ERR, "Couldn't delete Customer, UNEXPECTED ERROR.",
 						e.getSqlErrorDetails());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_customer).field("id", customer.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't delete Customer.",
 					"Unexpected error deleting Customer from database table [" + tbl_customer + "] ID: "
@@ -392,7 +377,7 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return true;
@@ -405,8 +390,7 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 					"Customer is null");
 
 		Connection conn = null;
-		String customerUpdateQuery = "UPDATE " + tbl_customer + " SET " + CUSTOMER_NAME + " = ?, " + CUSTOMER_PASSWORD
-				+ " = ?  WHERE " + CUSTOMER_KEY + " = ?";
+		String customerUpdateQuery = QueryTemplates.UPDATE_CUSTOMER;
 		Object[] customerUpdateArgs = new Object[] { customer.getName(), customer.getPassword(), customer.getId() };
 
 		try {
@@ -417,7 +401,8 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't update Customer.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_customer).field("id", customer.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DuplicateKeyError e) {
 			return false;
 		} catch (DBError e) {
@@ -428,7 +413,7 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			try {
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return true;
@@ -437,29 +422,20 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 	@Override
 	public Customer getCustomer(long id) throws UnexpectedError {
 		Customer customer = null;
-		ResultSet customerRS = null;
-		String selectCustomerQuery = "SELECT * FROM " + tbl_customer + " WHERE " + CUSTOMER_KEY + " = " + id;
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			customerRS = getResult(conn, selectCustomerQuery);
-
-			if (customerRS.next()) {
-				customer = new Customer(customerRS.getString(CUSTOMER_NAME), customerRS.getString(CUSTOMER_PASSWORD),
-						customerRS.getLong(CUSTOMER_KEY));
-				ArrayList<Coupon> coupons = null;
-				// ********************************** RUN OVER Customer COUPONS
-				try {
-					coupons = getCoupons(customer);
-				} catch (UnexpectedError e) {
-					handler.log(e.getMessage() + "\n" + e.getDetails());
-				}
-				if (coupons != null) {
-					customer.setCoupons(coupons);
-				}
-			} else
-				return customer;
+			try (QueryResult query = getResult(conn, QueryTemplates.SELECT_CUSTOMER, new Object[] { id })) {
+				ResultSet customerRS = query.getResultSet();
+
+				if (customerRS.next()) {
+					customer = new Customer(customerRS.getString(CUSTOMER_NAME), customerRS.getString(CUSTOMER_PASSWORD),
+							customerRS.getLong(CUSTOMER_KEY));
+					customer.setCouponLoader(couponLoader(customer.getId()));
+				} else
+					return customer;
+			}
 			// throw new CustomerNotFound(MessageType.ERR, tbl_customer, id);
 
 		} catch (SQLException e) {
@@ -467,7 +443,8 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Customer.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_customer).field("id", id)
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Customer.",
 					e.getSqlErrorDetails());
@@ -475,10 +452,9 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Customer.", e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -488,25 +464,26 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 	@Override
 	public Customer getCustomerOnly(long id) throws UnexpectedError {
 		Customer customer = null;
-		ResultSet customerRS = null;
-		String selectCustomerQuery = "SELECT * FROM " + tbl_customer + " WHERE " + CUSTOMER_KEY + " = " + id;
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			customerRS = getResult(conn, selectCustomerQuery);
-
-			if (customerRS.next()) {
-				customer = new Customer(customerRS.getString(CUSTOMER_NAME), customerRS.getString(CUSTOMER_PASSWORD),
-						customerRS.getLong(CUSTOMER_KEY));
-			} else
-				return customer;
+			try (QueryResult query = getResult(conn, QueryTemplates.SELECT_CUSTOMER, new Object[] { id })) {
+				ResultSet customerRS = query.getResultSet();
+
+				if (customerRS.next()) {
+					customer = new Customer(customerRS.getString(CUSTOMER_NAME), customerRS.getString(CUSTOMER_PASSWORD),
+							customerRS.getLong(CUSTOMER_KEY));
+				} else
+					return customer;
+			}
 		} catch (SQLException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Customer.", e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Customer.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_customer).field("id", id)
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Customer.",
 					e.getSqlErrorDetails());
@@ -514,10 +491,9 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for specifc Customer.", e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -527,49 +503,47 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 	@Override
 	public ArrayList<Customer> getAllCustomers() throws UnexpectedError {
 		ArrayList<Customer> customers = new ArrayList<>();
-		this.keepStatementOpen = true;
-		ResultSet customersRS = null;
-		String selectCustomersQuery = "SELECT * FROM " + tbl_customer;
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			customersRS = getResult(conn, selectCustomersQuery);
+			try (QueryResult query = getResult(conn, QueryTemplates.SELECT_ALL_CUSTOMERS)) {
+				ResultSet customersRS = query.getResultSet();
 
-			while (customersRS.next()) {
-				try {
-					Customer customer = new Customer(customersRS.getString(CUSTOMER_NAME),
-							customersRS.getString(CUSTOMER_PASSWORD), customersRS.getLong(CUSTOMER_KEY));
-					ArrayList<Coupon> coupons = null;
-					// ********************************** RUN OVER Customer COUPONS
+				while (customersRS.next()) {
 					try {
-						coupons = getCoupons(customer);
-					} catch (UnexpectedError e) {
-						handler.log(e.getMessage() + "\n" + e.getDetails());
-					}
-					if (coupons != null) {
-						customer.setCoupons(coupons);
-					}
-
-					customers.add(customer);
+						Customer customer = new Customer(customersRS.getString(CUSTOMER_NAME),
+								customersRS.getString(CUSTOMER_PASSWORD), customersRS.getLong(CUSTOMER_KEY));
+						customers.add(customer);
 
-				} catch (SQLException e) { // TODO: log warning/print to console
-					handler.log("WARN: Could't get data for specific Customer in Customers query.\n" + e.getMessage());
+					} catch (SQLException e) { // TODO: log warning/print to console
+						handler.at(LogLevel.WARN).field("table", tbl_customer)
+								.log("Could't get data for specific Customer in Customers query.\n{}", e.getMessage());
+					}
 				}
 			}
 			if (customers.size() < 1)
 				return null;
 			// throw new EmptyItemList(MessageType.ERR, ItemType.CUSTOMER, tbl_customer);
 
+			// ****** ALL CUSTOMER COUPONS IN ONE PASS, on the same connection
+			HashMap<Long, ArrayList<Coupon>> coupons = CouponDBDAO.getCouponsByOwner(conn,
+					QueryTemplates.ALL_CUSTOMER_COUPONS, JOIN_CUSTOMER_KEY);
+			for (Customer customer : customers)
+				if (coupons.containsKey(customer.getId()))
+					customer.setCoupons(coupons.get(customer.getId()));
+
 		} catch (SQLException e) {
 			if (customers.size() < 1)
 				throw new UnexpectedError(MessageType.ERR, "Could't get data for Customers query.", e.getMessage());
 			else // TODO: log warning/print to console
-				handler.log("WARN: Could't get data for all Customers query.\n" + e.getMessage());
+				handler.at(LogLevel.WARN).field("table", tbl_customer)
+						.log("Could't get data for all Customers query.\n{}", e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for all Customers query.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_customer)
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for all Customers query.",
 					e.getSqlErrorDetails());
@@ -577,11 +551,9 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			throw new UnexpectedError(MessageType.ERR, "Could't get data for all Customers query.", e.getDetails());
 		} finally {
 			try {
-				this.keepStatementOpen = false;
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 
@@ -657,28 +629,22 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			throw new UnexpectedError(MessageType.ERR, "Can't request login for unspecified username or password",
 					"Either username or password are empty/null");
 
-		String loginQuery = "SELECT * FROM " + tbl_customer + " WHERE " + CUSTOMER_NAME + " = '"
-				+ custName.toLowerCase() + "' AND PASSWORD = '" + password + "'";
-		this.keepStatementOpen = true;
-		ResultSet result = null;
+		Object[] loginArgs = new Object[] { custName.toLowerCase(), password };
 		Customer customer = null;
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			if ((result = getResult(conn, loginQuery)).next()) {
-				customer = new Customer(result.getString("" + CUSTOMER_NAME + ""), result.getString(CUSTOMER_PASSWORD),
-						result.getLong(CUSTOMER_KEY));
-				ArrayList<Coupon> coupons = null;
-				// ********************************** RUN OVER Customer COUPONS
-				try {
-					coupons = getCoupons(customer);
-				} catch (UnexpectedError e) {
-					handler.log(e.getMessage() + "\n" + e.getDetails());
-				}
-				if (coupons != null) {
-					customer.setCoupons(coupons);
+			try (QueryResult result = getResult(conn, QueryTemplates.CUSTOMER_LOGIN, loginArgs)) {
+				if (result.next()) {
+					ResultSet loginRS = result.getResultSet();
+					customer = new Customer(loginRS.getString(CUSTOMER_NAME), loginRS.getString(CUSTOMER_PASSWORD),
+							loginRS.getLong(CUSTOMER_KEY));
 				}
+			}
+
+			if (customer != null) {
+				customer.setCouponLoader(couponLoader(customer.getId()));
 				return customer;
 			}
 		} catch (SQLException e) {
@@ -686,17 +652,17 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't verify login information.222", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_customer)
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't verify login information.333", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't send login information44.", e.getDetails());
 		} finally {
 			try {
-				this.keepStatementOpen = false;
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return null;
@@ -708,29 +674,27 @@ public class CustomerDBDAO extends UtilDBDAO implements CustomerDAO {
 			throw new UnexpectedError(MessageType.ERR, "Can't read record for unspecified Customer",
 					"Customer is null");
 
-		String doesCustomerExistQuery = "SELECT * FROM " + tbl_customer + " WHERE " + CUSTOMER_KEY + " = "
-				+ customer.getId() + " LIMIT 1";
 		Connection conn = null;
 
 		try {
 			conn = pool.getConnection();
-			return getResult(conn, doesCustomerExistQuery).next();
+			return hasResult(conn, QueryTemplates.CUSTOMER_EXISTS, new Object[] { customer.getId() });
 		} catch (SQLException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Customer exists.", e.getMessage());
 		} catch (IllegalArgumentException e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Customer exists.", e.getMessage());
 		} catch (DBStatementError e) { // TODO: log warning/print to console.
-			handler.log("WARN: " + e.getDetails() + "\n" + e.getSqlErrorDetails());
+			handler.at(LogLevel.WARN).field("table", tbl_customer).field("id", customer.getId())
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
 		} catch (DBError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Customer exists.", e.getSqlErrorDetails());
 		} catch (ConnectionPoolError e) {
 			throw new UnexpectedError(MessageType.ERR, "Couldn't detect if Customer exists.", e.getDetails());
 		} finally {
 			try {
-				closeAllStatements();
 				pool.returnConnection(conn);
 			} catch (ConnectionPoolError e) {// TODO: log warning/print to console.
-				handler.log(e.getMessage());
+				handler.log(e);
 			}
 		}
 		return false;
@@ -0,0 +1,430 @@
+package DB;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import DAO.PurchaseOutcome;
+import Exceptions.MessageType;
+import Exceptions.DBError.DBError;
+import Exceptions.DBError.DuplicateKeyError;
+import Exceptions.DBError.ForeignKeyError;
+import Exceptions.General.ConnectionPoolError;
+import Exceptions.General.UnexpectedError;
+import LogHandler.CouponLogHandler;
+import LogHandler.LogLevel;
+import Pool.ConnectionPoolSingleton;
+
+/**
+ * The opt-in "hot coupon" purchase mode of {@link CouponDBDAO}, for coupons
+ * bought by many customers at once (flash sales).<br>
+ * <br>
+ * Instead of locking the coupon row on every purchase, the node reserves
+ * stock from the database in blocks of
+ * <strong>couponsystem.hot.blockSize</strong> (default 100) with a single
+ * <em>AMOUNT = AMOUNT - block</em> update, and grants purchases from a
+ * {@link StripedStock} in memory. The customer-coupon row of every purchase is
+ * still inserted before it's reported as {@link PurchaseOutcome#PURCHASED}; it
+ * doesn't touch the coupon row, so hot purchases don't contend with each
+ * other.<br>
+ * <br>
+ * Stock is only ever granted after it was taken out of the database, so a hot
+ * coupon is never oversold, no matter how many nodes or non-hot purchases run
+ * next to it. Disabling a coupon, and shutdown, wait for the purchases in
+ * progress and hand the unsold part of the reservation back to the database.
+ * Enabling a coupon (on startup or later) always reserves from the current
+ * database stock, so no state carries over between runs; a crash can only
+ * strand the unsold part of the last block, as stock the database no longer
+ * offers, never a purchase.<br>
+ * <br>
+ * A purchase whose row can't be inserted (e.g. the customer was deleted
+ * meanwhile) returns its unit to the stock and fails like a database purchase
+ * would.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public final class HotCoupons {
+	private static final CouponLogHandler handler = CouponLogHandler.getInstance();
+	private static final ConnectionPoolSingleton pool = ConnectionPoolSingleton.getInstance();
+	private static final long RESERVE_RETRY = TimeUnit.SECONDS.toNanos(1);
+	private final int blockSize = Integer.getInteger("couponsystem.hot.blockSize", 100);
+	private final Map<Long, HotCoupon> hot = new ConcurrentHashMap<>();
+
+	/**
+	 * Instance holder
+	 */
+	private static class Holder {
+		private static final HotCoupons instance = new HotCoupons();
+	}
+
+	// a private constructor
+	private HotCoupons() {
+	}
+
+	/**
+	 * Gets the {@link HotCoupons} instance.
+	 *
+	 * @return the instance
+	 */
+	public static HotCoupons getInstance() {
+		return Holder.instance;
+	}
+
+	/**
+	 * A hot Coupon: its reserved stock and the Customers that own it. Purchases
+	 * hold the read lock of its gate, closing it takes the write lock, so it
+	 * waits for the purchases in progress.
+	 */
+	private static final class HotCoupon {
+		private final long id;
+		private final LocalDate endDate;
+		private final StripedStock stock = new StripedStock(Runtime.getRuntime().availableProcessors());
+		private final Set<Long> owners = ConcurrentHashMap.newKeySet();
+		private final ReadWriteLock gate = new ReentrantReadWriteLock();
+		private volatile boolean closed;
+		private long reserveRetryAt;
+
+		private HotCoupon(long id, LocalDate endDate) {
+			this.id = id;
+			this.endDate = endDate;
+		}
+	}
+
+	/**
+	 * Puts a Coupon in hot mode and reserves its first block of stock.
+	 *
+	 * @param couponId
+	 *            the Coupon's id
+	 * @return true if the Coupon was put in hot mode, false if it doesn't exist
+	 * @throws UnexpectedError
+	 *             if the Coupon couldn't be read or its stock reserved
+	 */
+	public boolean enable(long couponId) throws UnexpectedError {
+		if (hot.containsKey(couponId))
+			return true;
+
+		Connection conn = null;
+		HotCoupon coupon = null;
+		Object[] couponArgs = new Object[] { couponId };
+
+		try {
+			conn = pool.getConnection();
+			try (QueryResult query = UtilDBDAO.getResult(conn, QueryTemplates.COUPON_STOCK, couponArgs)) {
+				if (!query.next())
+					return false;
+				coupon = new HotCoupon(couponId, query.getResultSet().getDate(UtilDBDAO.COUPON_END).toLocalDate());
+			}
+			try (QueryResult query = UtilDBDAO.getResult(conn, QueryTemplates.SELECT_COUPON_CUSTOMERS, couponArgs)) {
+				while (query.next())
+					coupon.owners.add(query.getResultSet().getLong(1));
+			}
+		} catch (SQLException e) {
+			throw new UnexpectedError(MessageType.ERR, "Couldn't put Coupon in hot mode.", e.getMessage());
+		} catch (DBError e) {
+			throw new UnexpectedError(MessageType.ERR, "Couldn't put Coupon in hot mode.", e.getSqlErrorDetails());
+		} catch (ConnectionPoolError e) {
+			throw new UnexpectedError(MessageType.ERR, "Couldn't put Coupon in hot mode.", e.getDetails());
+		} finally {
+			try {
+				pool.returnConnection(conn);
+			} catch (ConnectionPoolError e) {
+				handler.log(e);
+			}
+		}
+
+		if (hot.putIfAbsent(couponId, coupon) == null) {
+			coupon.gate.writeLock().lock(); // a disable waits for the first block
+			try {
+				coupon.stock.add(reserve(couponId));
+			} finally {
+				coupon.gate.writeLock().unlock();
+			}
+		}
+		handler.log(LogLevel.INFO, "Coupon {} is in hot mode, {} reserved.", couponId, coupon.stock.available());
+		return true;
+	}
+
+	/**
+	 * Takes a Coupon out of hot mode: waits for its purchases in progress and
+	 * hands its unsold stock back to the database.
+	 *
+	 * @param couponId
+	 *            the Coupon's id
+	 * @return true if the Coupon was in hot mode
+	 */
+	public boolean disable(long couponId) {
+		HotCoupon coupon = hot.remove(couponId);
+		if (coupon == null)
+			return false;
+		close(coupon);
+		return true;
+	}
+
+	/**
+	 * Takes the hot Coupons whose end date passed out of hot mode, handing their
+	 * unsold stock back, before they're archived.
+	 *
+	 * @return the number of Coupons taken out of hot mode
+	 */
+	int disableExpired() {
+		LocalDate today = LocalDate.now();
+		int disabled = 0;
+		for (HotCoupon coupon : hot.values())
+			if (today.isAfter(coupon.endDate) && hot.remove(coupon.id, coupon)) {
+				close(coupon);
+				disabled++;
+			}
+		return disabled;
+	}
+
+	/**
+	 * Checks if a Coupon is in hot mode
+	 *
+	 * @param couponId
+	 *            the Coupon's id
+	 * @return true if it's hot
+	 */
+	public boolean isHot(long couponId) {
+		return hot.containsKey(couponId);
+	}
+
+	/**
+	 * Gets the stock a hot Coupon holds in memory, on top of its database AMOUNT
+	 *
+	 * @param couponId
+	 *            the Coupon's id
+	 * @return the reserved units left, 0 if it isn't hot
+	 */
+	long available(long couponId) {
+		HotCoupon coupon = hot.get(couponId);
+		return coupon == null ? 0 : coupon.stock.available();
+	}
+
+	/**
+	 * Forgets that a Customer owns a hot Coupon, before its record is removed.
+	 *
+	 * @param couponId
+	 *            the Coupon's id
+	 * @param customerId
+	 *            the Customer's id
+	 */
+	void forget(long couponId, long customerId) {
+		HotCoupon coupon = hot.get(couponId);
+		if (coupon != null)
+			coupon.owners.remove(customerId);
+	}
+
+	/**
+	 * Purchases a hot Coupon from its reserved stock and stores the purchase.
+	 *
+	 * @param couponId
+	 *            the Coupon's id
+	 * @param customerId
+	 *            the Customer's id
+	 * @return the {@link PurchaseOutcome}, or null if the Coupon isn't hot and
+	 *         must be purchased from the database
+	 * @throws UnexpectedError
+	 *             if more stock was needed and couldn't be reserved, or the
+	 *             purchase couldn't be stored
+	 */
+	PurchaseOutcome purchase(long couponId, long customerId) throws UnexpectedError {
+		HotCoupon coupon = hot.get(couponId);
+		if (coupon == null)
+			return null;
+
+		Lock lock = coupon.gate.readLock();
+		lock.lock();
+		try {
+			if (coupon.closed)
+				return null;
+			if (LocalDate.now().isAfter(coupon.endDate))
+				return PurchaseOutcome.EXPIRED;
+			if (!coupon.owners.add(customerId))
+				return PurchaseOutcome.ALREADY_OWNED;
+
+			if (!coupon.stock.tryTake() && !refill(coupon)) {
+				coupon.owners.remove(customerId);
+				return PurchaseOutcome.STOCK_EMPTY;
+			}
+			return store(coupon, customerId);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits for the purchases in progress and hands the unsold stock of every
+	 * hot Coupon back to the database.
+	 */
+	public static void shutdown() {
+		HotCoupons instance = getInstance();
+		for (Long couponId : instance.hot.keySet()) {
+			HotCoupon coupon = instance.hot.remove(couponId);
+			if (coupon != null)
+				instance.close(coupon);
+		}
+	}
+
+	// Takes one unit for the caller from a new block, one refill at a time
+	private boolean refill(HotCoupon coupon) throws UnexpectedError {
+		synchronized (coupon) {
+			if (coupon.stock.tryTake())
+				return true;
+			if (System.nanoTime() - coupon.reserveRetryAt < 0)
+				return false;
+
+			long reserved = reserve(coupon.id);
+			if (reserved < 1) {
+				coupon.reserveRetryAt = System.nanoTime() + RESERVE_RETRY;
+				return false;
+			}
+			coupon.stock.add(reserved - 1);
+			return true;
+		}
+	}
+
+	// Takes up to a block of stock out of the database, returns the units taken
+	private long reserve(long couponId) throws UnexpectedError {
+		Connection conn = null;
+		boolean autoCommit = true;
+
+		try {
+			conn = pool.getConnection();
+			autoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+
+			long units = 0;
+			try (QueryResult query = UtilDBDAO.getResult(conn, QueryTemplates.LOCK_COUPON_STOCK,
+					new Object[] { couponId, Date.valueOf(LocalDate.now()) })) {
+				if (query.next())
+					units = Math.min(blockSize, query.getResultSet().getLong(UtilDBDAO.COUPON_AMOUNT));
+			}
+			if (units > 0)
+				UtilDBDAO.runStatement(conn, QueryTemplates.MOVE_COUPON_STOCK, new Object[] { -units, couponId });
+			conn.commit();
+			CouponDBDAO.couponCache.invalidate(couponId);
+			if (units > 0)
+				CouponDBDAO.catalog.addAmount(couponId, -units);
+			return Math.max(0, units);
+		} catch (SQLException e) {
+			UtilDBDAO.rollback(conn);
+			throw new UnexpectedError(MessageType.ERR, "Couldn't reserve hot Coupon stock.", e.getMessage());
+		} catch (DBError e) {
+			UtilDBDAO.rollback(conn);
+			throw new UnexpectedError(MessageType.ERR, "Couldn't reserve hot Coupon stock.", e.getSqlErrorDetails());
+		} catch (ConnectionPoolError e) {
+			throw new UnexpectedError(MessageType.ERR, "Couldn't reserve hot Coupon stock.", e.getDetails());
+		} finally {
+			restore(conn, autoCommit);
+		}
+	}
+
+	// Stops a Coupon's purchases, once the ones in progress are done, and hands
+	// its unsold stock back
+	private void close(HotCoupon coupon) {
+		long unsold;
+		coupon.gate.writeLock().lock();
+		try {
+			coupon.closed = true;
+			unsold = coupon.stock.drain();
+		} finally {
+			coupon.gate.writeLock().unlock();
+		}
+
+		if (unsold > 0 && !giveBack(coupon.id, unsold))
+			handler.log(LogLevel.ERROR, "Couldn't hand {} unsold hot Coupons back to Coupon {}.", unsold, coupon.id);
+	}
+
+	// Adds stock back to the database
+	private boolean giveBack(long couponId, long units) {
+		Connection conn = null;
+		try {
+			conn = pool.getConnection();
+			boolean moved = UtilDBDAO.runStatement(conn, QueryTemplates.MOVE_COUPON_STOCK,
+					new Object[] { units, couponId }) > 0;
+			CouponDBDAO.couponCache.invalidate(couponId);
+			if (moved)
+				CouponDBDAO.catalog.addAmount(couponId, units);
+			return moved;
+		} catch (DBError e) {
+			handler.at(LogLevel.WARN).field("table", UtilDBDAO.tbl_coupon).field("id", couponId)
+					.log("{}\n{}", e.getDetails(), e.getSqlErrorDetails());
+		} catch (ConnectionPoolError e) {
+			handler.at(LogLevel.WARN).field("table", UtilDBDAO.tbl_coupon).field("id", couponId)
+					.log("{}\n{}", e.getError(), e.getDetails());
+		} finally {
+			try {
+				pool.returnConnection(conn);
+			} catch (ConnectionPoolError e) {
+				handler.log(e);
+			}
+		}
+		return false;
+	}
+
+	// Stores a purchase granted from the reserved stock, handing its unit back if
+	// it can't be stored
+	private PurchaseOutcome store(HotCoupon coupon, long customerId) throws UnexpectedError {
+		Connection conn = null;
+		try {
+			conn = pool.getConnection();
+			UtilDBDAO.runStatement(conn, QueryTemplates.INSERT_CUSTOMER_COUPON, new Object[] { customerId, coupon.id });
+			return PurchaseOutcome.PURCHASED;
+		} catch (DuplicateKeyError e) { // bought through another node or purchase path
+			coupon.stock.add(1);
+			return PurchaseOutcome.ALREADY_OWNED;
+		} catch (ForeignKeyError e) {
+			refund(coupon, customerId);
+			if (e.getKey().equals(UtilDBDAO.FK_CUSTOMER_ID))
+				return PurchaseOutcome.CUSTOMER_NOT_FOUND;
+			else if (e.getKey().equals(UtilDBDAO.FK_COUPON_ID))
+				return PurchaseOutcome.NOT_FOUND;
+			throw new UnexpectedError(MessageType.ERR, "Couldn't purchase hot Coupon, UNEXPECTED ERROR.",
+					e.getSqlErrorDetails());
+		} catch (DBError e) {
+			refund(coupon, customerId);
+			throw new UnexpectedError(MessageType.ERR, "Couldn't purchase hot Coupon.",
+					e.getDetails() + "\n" + e.getSqlErrorDetails());
+		} catch (ConnectionPoolError e) {
+			refund(coupon, customerId);
+			throw new UnexpectedError(MessageType.ERR, "Couldn't purchase hot Coupon, CONNECTION ERROR.",
+					e.getDetails());
+		} finally {
+			try {
+				pool.returnConnection(conn);
+			} catch (ConnectionPoolError e) {
+				handler.log(e);
+			}
+		}
+	}
+
+	// Undoes a purchase that couldn't be stored
+	private static void refund(HotCoupon coupon, long customerId) {
+		coupon.owners.remove(customerId);
+		coupon.stock.add(1);
+	}
+
+	// Restores the auto-commit mode and returns the connection
+	private static void restore(Connection conn, boolean autoCommit) {
+		try {
+			if (conn != null)
+				conn.setAutoCommit(autoCommit);
+		} catch (SQLException e) {
+			handler.log(LogLevel.WARN, "Couldn't restore auto-commit.\n{}", e.getMessage());
+		}
+		try {
+			pool.returnConnection(conn);
+		} catch (ConnectionPoolError e) {
+			handler.log(e);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package DB;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import LogHandler.LogLevel;
+
+/**
+ * The output of a single query, owning both the ResultSet and the statement it
+ * was read from.<br>
+ * <br>
+ * Closing it closes the ResultSet and hands the statement back to the statement
+ * cache of its connection, so it is meant to be scoped to the call that ran the
+ * query with a try-with-resources block. Nothing is kept on the DBDAO, so one
+ * DBDAO instance can run queries from many threads at once.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public final class QueryResult implements AutoCloseable {
+	private final Connection connection;
+	private final PreparedStatement statement;
+	private final ResultSet resultSet;
+
+	/**
+	 * Constructs a new {@link QueryResult}
+	 *
+	 * @param connection
+	 *            the Connection the statement was prepared on
+	 * @param statement
+	 *            the executed statement
+	 * @param resultSet
+	 *            the statement's output, can be null if there is none
+	 */
+	QueryResult(Connection connection, PreparedStatement statement, ResultSet resultSet) {
+		this.connection = connection;
+		this.statement = statement;
+		this.resultSet = resultSet;
+	}
+
+	/**
+	 * Gets the database's output
+	 *
+	 * @return the ResultSet, or null if the statement had no output
+	 */
+	public ResultSet getResultSet() {
+		return resultSet;
+	}
+
+	/**
+	 * Moves to the next row of the output
+	 *
+	 * @return true if there is a next row, false if there are no more rows or no
+	 *         output at all
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	public boolean next() throws SQLException {
+		return resultSet != null && resultSet.next();
+	}
+
+	/**
+	 * Closes the ResultSet and releases the statement, logging any error rather
+	 * than throwing it since the data has already been read.
+	 */
+	@Override
+	public void close() {
+		try {
+			if (resultSet != null)
+				resultSet.close();
+		} catch (SQLException e) {
+			UtilDBDAO.handler.log(LogLevel.WARN, "Couldn't close a ResultSet.\n{}", e.getMessage());
+		}
+		release(connection, statement);
+	}
+
+	/**
+	 * Hands a statement back to the statement cache of its connection, logging any
+	 * error.
+	 *
+	 * @param connection
+	 *            the Connection the statement was prepared on
+	 * @param statement
+	 *            the statement, ignored if null
+	 */
+	static void release(Connection connection, PreparedStatement statement) {
+		try {
+			UtilDBDAO.pool.releaseStatement(connection, statement);
+		} catch (SQLException e) {
+			UtilDBDAO.handler.log(LogLevel.WARN,
+					"An unexpected error occurred when tried to close an open SQL Statement.\n{}", e.getMessage());
+		}
+	}
+}
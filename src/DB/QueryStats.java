@@ -0,0 +1,250 @@
+package DB;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import LogHandler.CouponLogHandler;
+import LogHandler.LogLevel;
+import Pool.LatencyHistogram;
+
+/**
+ * Times every SQL execution of {@link UtilDBDAO} per SQL template, the SQL
+ * string a DBDAO hands it. Each template has its own {@link LatencyHistogram}
+ * and counters; recording one execution is a map lookup and a few atomic
+ * increments.<br>
+ * <br>
+ * An execution that takes longer than the slow query threshold is logged as a
+ * WARN with its SQL, bind values, rows changed and the DBDAO method that ran
+ * it. Settings are system properties, the threshold and the bind values can
+ * also be changed over JMX:
+ * <ul>
+ * <li><strong>couponsystem.sql.stats</strong> - false to stop timing
+ * executions (default true)</li>
+ * <li><strong>couponsystem.sql.slowQueryThreshold</strong> - the time, in
+ * milliseconds, over which an execution is logged, 0 to log none (default
+ * 1000)</li>
+ * <li><strong>couponsystem.sql.logBindValues</strong> - true to log the bind
+ * values of slow queries, otherwise only their types are logged (default
+ * false)</li>
+ * <li><strong>couponsystem.sql.maxTemplates</strong> - the number of templates
+ * tracked, later ones are counted together (default 500)</li>
+ * </ul>
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class QueryStats implements QueryStatsMXBean {
+	private static final CouponLogHandler handler = CouponLogHandler.getInstance();
+	private static final String STATS_NAME = "CouponSystem:type=QueryStats";
+	private static final String OTHER = "(other templates)";
+	private static final int MAX_BIND_LENGTH = 64;
+	private static final StackWalker WALKER = StackWalker.getInstance();
+	private static final Comparator<QueryTemplateStats> BY_TOTAL_TIME = Comparator
+			.comparingLong(QueryTemplateStats::getTotalTime).reversed();
+	/**
+	 * The statistics of all the DBDAOs
+	 */
+	static final QueryStats INSTANCE = new QueryStats();
+	private final boolean enabled = Boolean.parseBoolean(System.getProperty("couponsystem.sql.stats", "true"));
+	private final int maxTemplates = Math.max(1, Integer.getInteger("couponsystem.sql.maxTemplates", 500));
+	private final ConcurrentHashMap<String, Template> templates = new ConcurrentHashMap<>();
+	private final LongAdder slowQueries = new LongAdder();
+	private volatile long threshold = TimeUnit.MILLISECONDS
+			.toNanos(Math.max(0, Long.getLong("couponsystem.sql.slowQueryThreshold", 1000)));
+	private volatile boolean logBindValues = Boolean.getBoolean("couponsystem.sql.logBindValues");
+
+	/**
+	 * The histogram and counters of a template
+	 */
+	private static final class Template {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder rows = new LongAdder();
+		private final LongAdder slow = new LongAdder();
+	}
+
+	// a private constructor - registers the statistics MBean
+	private QueryStats() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(STATS_NAME);
+			if (!server.isRegistered(name))
+				server.registerMBean(this, name);
+		} catch (JMException e) {
+			handler.log(LogLevel.WARN, "Couldn't register the SQL statistics MBean.\n{}", e);
+		}
+	}
+
+	/**
+	 * Gets the start time of an execution, to be handed to
+	 * {@link #executed(String, Object[], long, long)} or
+	 * {@link #failed(String, Object[], long)}.
+	 *
+	 * @return the start time, in nanoseconds, 0 if executions aren't timed
+	 */
+	long start() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records an execution that completed.
+	 *
+	 * @param sqlLine
+	 *            the SQL template
+	 * @param args
+	 *            the bind values, can be null
+	 * @param start
+	 *            the {@link #start()} time
+	 * @param rows
+	 *            the rows changed, -1 for a query
+	 */
+	void executed(String sqlLine, Object[] args, long start, long rows) {
+		if (enabled)
+			record(sqlLine, args, System.nanoTime() - start, rows, false);
+	}
+
+	/**
+	 * Records an execution that failed.
+	 *
+	 * @param sqlLine
+	 *            the SQL template
+	 * @param args
+	 *            the bind values, can be null
+	 * @param start
+	 *            the {@link #start()} time
+	 */
+	void failed(String sqlLine, Object[] args, long start) {
+		if (enabled)
+			record(sqlLine, args, System.nanoTime() - start, -1, true);
+	}
+
+	@Override
+	public List<QueryTemplateStats> getTemplates() {
+		ArrayList<QueryTemplateStats> stats = new ArrayList<>(templates.size());
+		templates.forEach((sql, template) -> stats.add(new QueryTemplateStats(sql, template.errors.sum(),
+				template.rows.sum(), template.slow.sum(), template.latency.snapshot())));
+		stats.sort(BY_TOTAL_TIME);
+		return stats;
+	}
+
+	@Override
+	public List<QueryTemplateStats> getTopTemplates(int count) {
+		List<QueryTemplateStats> stats = getTemplates();
+		return new ArrayList<>(stats.subList(0, Math.max(0, Math.min(count, stats.size()))));
+	}
+
+	@Override
+	public int getTemplateCount() {
+		return templates.size();
+	}
+
+	@Override
+	public long getSlowQueries() {
+		return slowQueries.sum();
+	}
+
+	@Override
+	public long getSlowQueryThreshold() {
+		return TimeUnit.NANOSECONDS.toMillis(threshold);
+	}
+
+	@Override
+	public void setSlowQueryThreshold(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("slow query threshold must be >= 0");
+		threshold = TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+
+	@Override
+	public boolean isLogBindValues() {
+		return logBindValues;
+	}
+
+	@Override
+	public void setLogBindValues(boolean logBindValues) {
+		this.logBindValues = logBindValues;
+	}
+
+	@Override
+	public void logStatistics() {
+		StringBuilder dump = new StringBuilder("SQL statistics, ").append(templates.size()).append(" templates:");
+		for (QueryTemplateStats stats : getTemplates())
+			dump.append("\n").append(stats);
+		handler.log(LogLevel.INFO, dump.toString());
+	}
+
+	@Override
+	public void resetStatistics() {
+		templates.clear();
+		slowQueries.reset();
+	}
+
+	// Adds an execution to its template and logs it if it was slow
+	private void record(String sqlLine, Object[] args, long nanos, long rows, boolean error) {
+		Template template = templates.get(sqlLine);
+		if (template == null)
+			template = templates.size() < maxTemplates ? templates.computeIfAbsent(sqlLine, sql -> new Template())
+					: templates.computeIfAbsent(OTHER, sql -> new Template());
+		template.latency.recordNanos(nanos);
+		if (error)
+			template.errors.increment();
+		else if (rows > 0)
+			template.rows.add(rows);
+
+		long slowAfter = threshold;
+		if (slowAfter > 0 && nanos > slowAfter) {
+			template.slow.increment();
+			slowQueries.increment();
+			long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+			String caller = caller();
+			handler.at(LogLevel.WARN).field("sql", sqlLine).field("binds", binds(args)).field("rows", rows)
+					.field("caller", caller).field("millis", millis).field("failed", error)
+					.log("Slow SQL statement, {} ms in {}.", millis, caller);
+		}
+	}
+
+	// The bind values as logged, or only their types
+	private String binds(Object[] args) {
+		if (args == null)
+			return "[]";
+
+		boolean values = logBindValues;
+		StringBuilder binds = new StringBuilder("[");
+		for (int i = 0; i < args.length; i++) {
+			if (i > 0)
+				binds.append(", ");
+			Object arg = args[i];
+			if (arg == null)
+				binds.append("null");
+			else if (!values)
+				binds.append('?').append(arg.getClass().getSimpleName());
+			else if (arg instanceof CharSequence) {
+				String text = arg.toString();
+				binds.append('\'').append(text, 0, Math.min(text.length(), MAX_BIND_LENGTH))
+						.append(text.length() > MAX_BIND_LENGTH ? "...'" : "'");
+			} else
+				binds.append(arg);
+		}
+		return binds.append(']').toString();
+	}
+
+	// The DBDAO method that ran the statement, the first frame outside of the DB utility
+	private static String caller() {
+		return WALKER.walk(frames -> frames
+				.filter(frame -> !frame.getClassName().equals(QueryStats.class.getName())
+						&& !frame.getClassName().equals(UtilDBDAO.class.getName()))
+				.findFirst()
+				.map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1) + "."
+						+ frame.getMethodName())
+				.orElse("unknown"));
+	}
+}
@@ -0,0 +1,83 @@
+package DB;
+
+import java.util.List;
+
+/**
+ * The SQL execution statistics of the DBDAOs, registered with the platform
+ * MBeanServer as <strong>CouponSystem:type=QueryStats</strong>.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public interface QueryStatsMXBean {
+
+	/**
+	 * Gets the statistics of every SQL template executed so far
+	 *
+	 * @return the templates, the most total time first
+	 */
+	List<QueryTemplateStats> getTemplates();
+
+	/**
+	 * Gets the statistics of the SQL templates that took the most total time
+	 *
+	 * @param count
+	 *            the number of templates
+	 * @return the templates, the most total time first
+	 */
+	List<QueryTemplateStats> getTopTemplates(int count);
+
+	/**
+	 * Gets the number of distinct SQL templates tracked
+	 *
+	 * @return the template count
+	 */
+	int getTemplateCount();
+
+	/**
+	 * Gets the number of executions over the slow query threshold
+	 *
+	 * @return the slow queries
+	 */
+	long getSlowQueries();
+
+	/**
+	 * Gets the time over which an execution is logged as a slow query
+	 *
+	 * @return the threshold, in milliseconds, 0 if slow queries aren't logged
+	 */
+	long getSlowQueryThreshold();
+
+	/**
+	 * Sets the time over which an execution is logged as a slow query
+	 *
+	 * @param millis
+	 *            the threshold, in milliseconds, 0 to stop logging slow queries
+	 */
+	void setSlowQueryThreshold(long millis);
+
+	/**
+	 * Checks if slow queries are logged with their bind values
+	 *
+	 * @return false if only the type of each bind value is logged
+	 */
+	boolean isLogBindValues();
+
+	/**
+	 * Sets if slow queries are logged with their bind values
+	 *
+	 * @param logBindValues
+	 *            false to log only the type of each bind value
+	 */
+	void setLogBindValues(boolean logBindValues);
+
+	/**
+	 * Writes the statistics of all the templates to the log.
+	 */
+	void logStatistics();
+
+	/**
+	 * Clears the statistics of all the templates.
+	 */
+	void resetStatistics();
+}
@@ -0,0 +1,107 @@
+package DB;
+
+import Pool.LatencySnapshot;
+
+/**
+ * A point in time summary of the executions of one SQL template, see
+ * {@link QueryStatsMXBean}. Exposed over JMX as composite data.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public final class QueryTemplateStats {
+	private final String sql;
+	private final long errors, rows, slow;
+	private final LatencySnapshot latency;
+
+	/**
+	 * Constructs a new {@link QueryTemplateStats}
+	 *
+	 * @param sql
+	 *            the SQL template
+	 * @param errors
+	 *            the number of executions that failed
+	 * @param rows
+	 *            the number of rows changed by the template's DML executions
+	 * @param slow
+	 *            the number of executions over the slow query threshold
+	 * @param latency
+	 *            the latency of all the executions
+	 */
+	public QueryTemplateStats(String sql, long errors, long rows, long slow, LatencySnapshot latency) {
+		this.sql = sql;
+		this.errors = errors;
+		this.rows = rows;
+		this.slow = slow;
+		this.latency = latency;
+	}
+
+	/**
+	 * Gets the SQL template
+	 *
+	 * @return the SQL
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * Gets the number of executions, failed ones included
+	 *
+	 * @return the executions
+	 */
+	public long getExecutions() {
+		return latency.getCount();
+	}
+
+	/**
+	 * Gets the number of executions that failed
+	 *
+	 * @return the errors
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Gets the number of rows changed by the template's DML executions
+	 *
+	 * @return the rows
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * Gets the number of executions over the slow query threshold
+	 *
+	 * @return the slow executions
+	 */
+	public long getSlow() {
+		return slow;
+	}
+
+	/**
+	 * Gets the total time spent in the template's executions
+	 *
+	 * @return the total time in microseconds
+	 */
+	public long getTotalTime() {
+		return Math.round(latency.getMean() * latency.getCount());
+	}
+
+	/**
+	 * Gets the latency percentiles
+	 *
+	 * @return the latency, in microseconds
+	 */
+	public LatencySnapshot getLatency() {
+		return latency;
+	}
+
+	@Override
+	public String toString() {
+		return sql + ": errors=" + errors + ", rows=" + rows + ", slow=" + slow + ", total=" + getTotalTime()
+				+ "us, " + latency;
+	}
+}
@@ -0,0 +1,308 @@
+package DB;
+
+import static DB.UtilDBDAO.*;
+
+import java.util.EnumSet;
+
+import Bean.CouponType;
+
+/**
+ * The registry of all the SQL the DBDAOs run, built once from the
+ * {@link UtilDBDAO} table and column constants.<br>
+ * <br>
+ * Every template is a constant SQL string with <strong>?</strong>
+ * placeholders, so values are always bound as statement parameters (never
+ * concatenated into the SQL) and each query is prepared once per connection
+ * and then reused from the statement cache. Row limits and locks are spelled
+ * by the {@link Dialect.SQLDialect} of the configured database.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class QueryTemplates {
+
+	///////////////////////
+	// COUPON //
+	///////////////////////
+
+	static final String SELECT_COUPON = "SELECT * FROM " + tbl_coupon + " WHERE " + COUPON_KEY + " = ?";
+	static final String SELECT_ARCHIVED_COUPON = "SELECT * FROM " + archive_coupon + " WHERE " + COUPON_KEY_ARCHIVE
+			+ " = ?";
+	static final String COUPON_EXISTS = dialect
+			.first("SELECT " + COUPON_KEY + " FROM " + tbl_coupon + " WHERE " + COUPON_KEY + " = ?");
+	static final String INSERT_COUPON = "INSERT INTO " + tbl_coupon + " (" + COUPON_KEY + ", " + COUPON_TITLE + ", "
+			+ COUPON_START + ", " + COUPON_END + ", " + COUPON_AMOUNT + ", " + COUPON_TYPE + ", " + COUPON_MESSAGE + ", "
+			+ COUPON_PRICE + ", " + COUPON_IMAGE + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	static final String UPDATE_COUPON = "UPDATE " + tbl_coupon + " SET " + COUPON_TITLE + " = ?, " + COUPON_START
+			+ " = ?, " + COUPON_END + " = ?, " + COUPON_AMOUNT + " = ?, " + COUPON_TYPE + " = ?, " + COUPON_MESSAGE
+			+ " = ?, " + COUPON_PRICE + " = ?, " + COUPON_IMAGE + " = ? WHERE " + COUPON_KEY + " = ?";
+	static final String DELETE_COUPON = "DELETE FROM " + tbl_coupon + " WHERE " + COUPON_KEY + " = ?";
+	static final String COUPON_STOCK = "SELECT " + COUPON_AMOUNT + ", " + COUPON_END + " FROM " + tbl_coupon
+			+ " WHERE " + COUPON_KEY + " = ?";
+	// Arguments: the Coupon id, today. Only takes stock that is there and not expired
+	static final String TAKE_COUPON_STOCK = "UPDATE " + tbl_coupon + " SET " + COUPON_AMOUNT + " = " + COUPON_AMOUNT
+			+ " - 1 WHERE " + COUPON_KEY + " = ? AND " + COUPON_AMOUNT + " > 0 AND " + COUPON_END + " >= ?";
+	// Arguments: the Coupon id, today. Locks the stock of an unexpired Coupon
+	static final String LOCK_COUPON_STOCK = dialect.forUpdate("SELECT " + COUPON_AMOUNT + " FROM " + tbl_coupon
+			+ " WHERE " + COUPON_KEY + " = ? AND " + COUPON_END + " >= ?");
+	// Arguments: the units to add (negative to take), the Coupon id
+	static final String MOVE_COUPON_STOCK = "UPDATE " + tbl_coupon + " SET " + COUPON_AMOUNT + " = " + COUPON_AMOUNT
+			+ " + ? WHERE " + COUPON_KEY + " = ?";
+	static final String INSERT_ARCHIVED_COUPON = "INSERT INTO " + archive_coupon + " (" + COUPON_KEY_ARCHIVE + ", "
+			+ COUPON_TITLE + ", " + COUPON_START + ", " + COUPON_END + ", " + COUPON_AMOUNT + ", " + COUPON_TYPE + ", "
+			+ COUPON_MESSAGE + ", " + COUPON_PRICE + ", " + COUPON_IMAGE + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	///////////////////////
+	// JOIN TABLES //
+	///////////////////////
+
+	static final String INSERT_COMPANY_COUPON = "INSERT INTO " + tbl_join_company + " (" + JOIN_COMPANY_KEY + ", "
+			+ JOIN_COUPON_KEY + ") VALUES (?, ?)";
+	static final String INSERT_CUSTOMER_COUPON = "INSERT INTO " + tbl_join_customer + " (" + JOIN_CUSTOMER_KEY + ", "
+			+ JOIN_COUPON_KEY + ") VALUES (?, ?)";
+	static final String INSERT_ARCHIVED_COMPANY_COUPON = "INSERT INTO " + archive_join_company + " ("
+			+ JOIN_COMPANY_KEY + ", " + JOIN_COUPON_KEY + ") VALUES (?, ?)";
+	static final String INSERT_ARCHIVED_CUSTOMER_COUPON = "INSERT INTO " + archive_join_customer + " ("
+			+ JOIN_CUSTOMER_KEY + ", " + JOIN_COUPON_KEY + ") VALUES (?, ?)";
+	static final String DELETE_COMPANY_COUPON = "DELETE FROM " + tbl_join_company + " WHERE " + JOIN_COMPANY_KEY
+			+ " = ? AND " + JOIN_COUPON_KEY + " = ?";
+	static final String DELETE_CUSTOMER_COUPON = "DELETE FROM " + tbl_join_customer + " WHERE " + JOIN_CUSTOMER_KEY
+			+ " = ? AND " + JOIN_COUPON_KEY + " = ?";
+	static final String SELECT_COMPANY_COUPON = "SELECT * FROM " + tbl_join_company + " WHERE " + JOIN_COMPANY_KEY
+			+ " = ? AND " + JOIN_COUPON_KEY + " = ?";
+	static final String SELECT_COUPON_COMPANIES = "SELECT " + JOIN_COMPANY_KEY + " FROM " + tbl_join_company
+			+ " WHERE " + JOIN_COUPON_KEY + " = ?";
+	static final String SELECT_COUPON_CUSTOMERS = "SELECT " + JOIN_CUSTOMER_KEY + " FROM " + tbl_join_customer
+			+ " WHERE " + JOIN_COUPON_KEY + " = ?";
+	static final String COUPON_OWNED = dialect
+			.first("SELECT " + JOIN_COMPANY_KEY + " FROM " + tbl_join_company + " WHERE " + JOIN_COUPON_KEY + " = ?");
+
+	///////////////////////
+	// EXPIRATION //
+	///////////////////////
+
+	// Arguments: today, the max chunk size. Locks the chunk until the transaction
+	// ends
+	static final String SELECT_EXPIRED_CHUNK = dialect.forUpdate(dialect.limit("SELECT " + COUPON_KEY + " FROM "
+			+ tbl_coupon + " WHERE " + COUPON_END + " < ? ORDER BY " + COUPON_KEY));
+	static final String ARCHIVE_LAST_KEY = "SELECT COALESCE(MAX(" + COUPON_KEY + "), 0) FROM " + archive_coupon;
+	// Arguments below: today, the last Coupon id of the chunk, unless noted. The
+	// expired Coupons up to the last id are exactly the locked chunk
+	static final String ARCHIVE_EXPIRED_COUPONS = "INSERT INTO " + archive_coupon + " (" + COUPON_KEY_ARCHIVE + ", "
+			+ COUPON_TITLE + ", " + COUPON_START + ", " + COUPON_END + ", " + COUPON_AMOUNT + ", " + COUPON_TYPE + ", "
+			+ COUPON_MESSAGE + ", " + COUPON_PRICE + ", " + COUPON_IMAGE + ") SELECT " + COUPON_KEY + ", "
+			+ COUPON_TITLE + ", " + COUPON_START + ", " + COUPON_END + ", " + COUPON_AMOUNT + ", " + COUPON_TYPE + ", "
+			+ COUPON_MESSAGE + ", " + COUPON_PRICE + ", " + COUPON_IMAGE + " FROM " + tbl_coupon + " WHERE "
+			+ expiredChunk();
+	// Arguments: the last archive key before the chunk was archived, today, the
+	// last Coupon id of the chunk
+	static final String ARCHIVE_EXPIRED_CUSTOMER_COUPONS = archiveJoin(tbl_join_customer, archive_join_customer,
+			JOIN_CUSTOMER_KEY);
+	static final String ARCHIVE_EXPIRED_COMPANY_COUPONS = archiveJoin(tbl_join_company, archive_join_company,
+			JOIN_COMPANY_KEY);
+	static final String DELETE_EXPIRED_CUSTOMER_COUPONS = "DELETE FROM " + tbl_join_customer + " WHERE "
+			+ JOIN_COUPON_KEY + " IN (SELECT " + COUPON_KEY + " FROM " + tbl_coupon + " WHERE " + expiredChunk() + ")";
+	static final String DELETE_EXPIRED_COMPANY_COUPONS = "DELETE FROM " + tbl_join_company + " WHERE "
+			+ JOIN_COUPON_KEY + " IN (SELECT " + COUPON_KEY + " FROM " + tbl_coupon + " WHERE " + expiredChunk() + ")";
+	static final String DELETE_EXPIRED_COUPONS = "DELETE FROM " + tbl_coupon + " WHERE " + expiredChunk();
+
+	///////////////////////
+	// CUSTOMER //
+	///////////////////////
+
+	static final String SELECT_CUSTOMER = "SELECT * FROM " + tbl_customer + " WHERE " + CUSTOMER_KEY + " = ?";
+	static final String SELECT_ALL_CUSTOMERS = "SELECT * FROM " + tbl_customer;
+	// The Coupons of every Customer in one pass, each row leads with the Customer id
+	static final String ALL_CUSTOMER_COUPONS = allOwned(tbl_join_customer, JOIN_CUSTOMER_KEY);
+	static final String CUSTOMER_EXISTS = dialect
+			.first("SELECT " + CUSTOMER_KEY + " FROM " + tbl_customer + " WHERE " + CUSTOMER_KEY + " = ?");
+	static final String CUSTOMER_LOGIN = "SELECT * FROM " + tbl_customer + " WHERE " + CUSTOMER_NAME + " = ? AND "
+			+ CUSTOMER_PASSWORD + " = ?";
+	static final String INSERT_CUSTOMER = "INSERT INTO " + tbl_customer + " (" + CUSTOMER_KEY + ", " + CUSTOMER_NAME
+			+ ", " + CUSTOMER_PASSWORD + ") VALUES (?, ?, ?)";
+	static final String UPDATE_CUSTOMER = "UPDATE " + tbl_customer + " SET " + CUSTOMER_NAME + " = ?, "
+			+ CUSTOMER_PASSWORD + " = ? WHERE " + CUSTOMER_KEY + " = ?";
+	static final String DELETE_CUSTOMER = "DELETE FROM " + tbl_customer + " WHERE " + CUSTOMER_KEY + " = ?";
+
+	///////////////////////
+	// COMPANY //
+	///////////////////////
+
+	static final String SELECT_COMPANY = "SELECT * FROM " + tbl_company + " WHERE " + COMPANY_KEY + " = ?";
+	static final String SELECT_ALL_COMPANIES = "SELECT * FROM " + tbl_company;
+	// The Coupons of every Company in one pass, each row leads with the Company id
+	static final String ALL_COMPANY_COUPONS = allOwned(tbl_join_company, JOIN_COMPANY_KEY);
+	static final String COMPANY_EXISTS = dialect
+			.first("SELECT " + COMPANY_KEY + " FROM " + tbl_company + " WHERE " + COMPANY_KEY + " = ?");
+	static final String COMPANY_LOGIN = "SELECT * FROM " + tbl_company + " WHERE " + COMPANY_NAME + " = ? AND "
+			+ COMPANY_PASSWORD + " = ?";
+	static final String INSERT_COMPANY = "INSERT INTO " + tbl_company + " (" + COMPANY_KEY + ", " + COMPANY_NAME
+			+ ", " + COMPANY_PASSWORD + ", " + COMPANY_EMAIL + ") VALUES (?, ?, ?, ?)";
+	static final String UPDATE_COMPANY = "UPDATE " + tbl_company + " SET " + COMPANY_NAME + " = ?, "
+			+ COMPANY_PASSWORD + " = ?, " + COMPANY_EMAIL + " = ? WHERE " + COMPANY_KEY + " = ?";
+	static final String DELETE_COMPANY = "DELETE FROM " + tbl_company + " WHERE " + COMPANY_KEY + " = ?";
+
+	/**
+	 * The coupon listings, each with a template for every number of type filters
+	 * with and without a max price filter.<br>
+	 * <br>
+	 * Arguments are bound in the order: owner id (for Customer/Company
+	 * listings), max price, types - see
+	 * {@link QueryTemplates#couponArgs(Object, Double, CouponType[])}.
+	 */
+	enum CouponQuery {
+		/**
+		 * All Coupons
+		 */
+		COUPONS("SELECT * FROM " + tbl_coupon),
+		/**
+		 * All archived Coupons
+		 */
+		ARCHIVED_COUPONS("SELECT * FROM " + archive_coupon),
+		/**
+		 * The Coupons of a Customer
+		 */
+		CUSTOMER_COUPONS(ownedBy(tbl_coupon, tbl_join_customer, JOIN_CUSTOMER_KEY)),
+		/**
+		 * The archived Coupons of a Customer
+		 */
+		ARCHIVED_CUSTOMER_COUPONS(ownedBy(archive_coupon, archive_join_customer, JOIN_CUSTOMER_KEY)),
+		/**
+		 * The Coupons of a Company
+		 */
+		COMPANY_COUPONS(ownedBy(tbl_coupon, tbl_join_company, JOIN_COMPANY_KEY)),
+		/**
+		 * The archived Coupons of a Company
+		 */
+		ARCHIVED_COMPANY_COUPONS(ownedBy(archive_coupon, archive_join_company, JOIN_COMPANY_KEY));
+
+		private final String[][] templates = new String[CouponType.values().length + 1][2];
+		private final String all, page;
+
+		/**
+		 * Builds the templates of a listing.
+		 *
+		 * @param select
+		 *            the unfiltered SELECT
+		 */
+		private CouponQuery(String select) {
+			for (int types = 0; types < templates.length; types++) {
+				String in = "";
+				for (int i = 0; i < types; i++)
+					in += i == 0 ? "?" : ", ?";
+
+				templates[types][0] = select + (types > 0 ? " WHERE " + COUPON_TYPE + " IN (" + in + ")" : "");
+				templates[types][1] = select + " WHERE " + COUPON_PRICE + " <= ?"
+						+ (types > 0 ? " AND " + COUPON_TYPE + " IN (" + in + ")" : "");
+			}
+			all = select + " ORDER BY " + COUPON_KEY;
+			page = dialect.page(all);
+		}
+
+		/**
+		 * Gets the template of this listing.
+		 *
+		 * @param types
+		 *            the number of distinct type filters, see
+		 *            {@link QueryTemplates#distinct(CouponType[])}
+		 * @param maxPrice
+		 *            true to filter by max price
+		 * @return the SQL template
+		 */
+		String get(int types, boolean maxPrice) {
+			return templates[types][maxPrice ? 1 : 0];
+		}
+
+		/**
+		 * Gets the template of this whole listing, unfiltered and ordered by id like
+		 * its {@link #page()}s. Arguments: the owner (if any).
+		 *
+		 * @return the SQL template
+		 */
+		String all() {
+			return all;
+		}
+
+		/**
+		 * Gets the template of a page of this listing, unfiltered and ordered by
+		 * id. Arguments: the owner (if any), the limit, the offset.
+		 *
+		 * @return the SQL template
+		 */
+		String page() {
+			return page;
+		}
+	}
+
+	// The Coupons joined through an owner's join table
+	private static String ownedBy(String coupons, String joinTable, String ownerKey) {
+		return "SELECT * FROM " + coupons + " JOIN (SELECT " + JOIN_COUPON_KEY + " FROM " + joinTable + " WHERE "
+				+ ownerKey + " = ?) c ON " + coupons + "." + COUPON_KEY + " = c." + JOIN_COUPON_KEY;
+	}
+
+	// The Coupons of all owners of a join table, with the owner's key
+	private static String allOwned(String joinTable, String ownerKey) {
+		return "SELECT j." + ownerKey + ", c.* FROM " + joinTable + " j JOIN " + tbl_coupon + " c ON c." + COUPON_KEY
+				+ " = j." + JOIN_COUPON_KEY;
+	}
+
+	// The condition of the Coupons of an expired chunk, on the Coupon table
+	private static String expiredChunk() {
+		return COUPON_END + " < ? AND " + COUPON_KEY + " <= ?";
+	}
+
+	// Copies the relationships of a chunk's Coupons to their new archive rows,
+	// those archived after an archive key
+	private static String archiveJoin(String joinTable, String archiveJoinTable, String ownerKey) {
+		return "INSERT INTO " + archiveJoinTable + " (" + ownerKey + ", " + JOIN_COUPON_KEY + ") SELECT j." + ownerKey
+				+ ", a." + COUPON_KEY + " FROM " + joinTable + " j JOIN " + archive_coupon + " a ON a."
+				+ COUPON_KEY_ARCHIVE + " = j." + JOIN_COUPON_KEY + " JOIN " + tbl_coupon + " c ON c." + COUPON_KEY
+				+ " = j." + JOIN_COUPON_KEY + " WHERE a." + COUPON_KEY + " > ? AND c." + COUPON_END + " < ? AND c."
+				+ COUPON_KEY + " <= ?";
+	}
+
+	/**
+	 * Removes duplicate and null types.
+	 *
+	 * @param types
+	 *            the types, can be null
+	 * @return the distinct types, empty if none
+	 */
+	static CouponType[] distinct(CouponType[] types) {
+		if (types == null || types.length == 0)
+			return new CouponType[0];
+
+		EnumSet<CouponType> set = EnumSet.noneOf(CouponType.class);
+		for (CouponType type : types)
+			if (type != null)
+				set.add(type);
+		return set.toArray(new CouponType[set.size()]);
+	}
+
+	/**
+	 * Builds the arguments of a {@link CouponQuery}.
+	 *
+	 * @param owner
+	 *            the Customer/Company id, or null for unowned listings
+	 * @param maxPrice
+	 *            the max price, or null if not filtered by price
+	 * @param types
+	 *            the distinct types
+	 * @return the arguments, in binding order
+	 */
+	static Object[] couponArgs(Object owner, Double maxPrice, CouponType[] types) {
+		Object[] args = new Object[(owner != null ? 1 : 0) + (maxPrice != null ? 1 : 0) + types.length];
+		int i = 0;
+		if (owner != null)
+			args[i++] = owner;
+		if (maxPrice != null)
+			args[i++] = maxPrice;
+		for (CouponType type : types)
+			args[i++] = type.toString();
+		return args;
+	}
+
+	// no instances, just templates
+	private QueryTemplates() {
+	}
+}
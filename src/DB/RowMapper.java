@@ -0,0 +1,28 @@
+package DB;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a ResultSet to an object.
+ *
+ * @param <T>
+ *            the type of object a row is mapped to
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+	/**
+	 * Maps the current row. Implementations must not move the cursor.
+	 *
+	 * @param row
+	 *            the ResultSet, positioned on the row
+	 * @return the mapped object
+	 * @throws SQLException
+	 *             if the row couldn't be read
+	 */
+	T map(ResultSet row) throws SQLException;
+}
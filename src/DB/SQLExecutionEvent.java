@@ -0,0 +1,68 @@
+package DB;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event of one SQL execution of {@link UtilDBDAO}, lasting
+ * from preparing the statement to its result, with the SQL template and the
+ * rows changed. The stack trace shows the DBDAO method that ran it.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@Name("CouponSystem.SQLExecution")
+@Label("SQL Execution")
+@Category({ "Coupon System", "Database" })
+@Description("A SQL statement executed by a DBDAO")
+@StackTrace(true)
+final class SQLExecutionEvent extends Event {
+	@Label("SQL Template")
+	String template;
+
+	@Label("Rows")
+	@Description("The rows changed, -1 for a query")
+	long rows;
+
+	@Label("Failed")
+	boolean failed;
+
+	/**
+	 * Ends the event of an execution that completed and commits it if it's
+	 * recorded.
+	 *
+	 * @param template
+	 *            the SQL template
+	 * @param rows
+	 *            the rows changed, -1 for a query
+	 */
+	void executed(String template, long rows) {
+		end();
+		if (shouldCommit()) {
+			this.template = template;
+			this.rows = rows;
+			commit();
+		}
+	}
+
+	/**
+	 * Ends the event of an execution that failed and commits it if it's
+	 * recorded.
+	 *
+	 * @param template
+	 *            the SQL template
+	 */
+	void failed(String template) {
+		end();
+		if (shouldCommit()) {
+			this.template = template;
+			this.rows = -1;
+			this.failed = true;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package DB;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A stock counter split into striped slots, so concurrent takers mostly CAS
+ * different cache lines instead of contending on a single counter.<br>
+ * <br>
+ * Units are only ever taken from a slot that still holds them, so the stock
+ * never goes below zero.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class StripedStock {
+	private static final int PADDING = 8; // longs per 64 byte cache line
+	private final int stripes;
+	private final AtomicLongArray slots;
+
+	/**
+	 * Constructs a new, empty {@link StripedStock}
+	 *
+	 * @param stripes
+	 *            the number of slots
+	 */
+	StripedStock(int stripes) {
+		this.stripes = Math.max(1, stripes);
+		this.slots = new AtomicLongArray(this.stripes * PADDING);
+	}
+
+	/**
+	 * Takes a single unit, starting at a random slot and moving on to the others
+	 * once it's empty.
+	 *
+	 * @return true if a unit was taken, false if the stock is empty
+	 */
+	boolean tryTake() {
+		int start = ThreadLocalRandom.current().nextInt(stripes);
+		for (int i = 0; i < stripes; i++) {
+			int slot = ((start + i) % stripes) * PADDING;
+			long units;
+			while ((units = slots.get(slot)) > 0)
+				if (slots.compareAndSet(slot, units, units - 1))
+					return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds units, spread evenly over the slots.
+	 *
+	 * @param units
+	 *            the number of units
+	 */
+	void add(long units) {
+		long share = units / stripes, rest = units % stripes;
+		for (int i = 0; i < stripes; i++) {
+			long slotUnits = share + (i < rest ? 1 : 0);
+			if (slotUnits > 0)
+				slots.addAndGet(i * PADDING, slotUnits);
+		}
+	}
+
+	/**
+	 * Takes all the units out of the stock.
+	 *
+	 * @return the number of units taken
+	 */
+	long drain() {
+		long units = 0;
+		for (int i = 0; i < stripes; i++)
+			units += slots.getAndSet(i * PADDING, 0);
+		return units;
+	}
+
+	/**
+	 * Gets the number of units in stock, not atomic across slots
+	 *
+	 * @return the units
+	 */
+	long available() {
+		long units = 0;
+		for (int i = 0; i < stripes; i++)
+			units += slots.get(i * PADDING);
+		return units;
+	}
+}
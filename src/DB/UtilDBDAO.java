@@ -5,21 +5,42 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.function.Consumer;
 
+import Dialect.SQLDialect;
 import Exceptions.DBError.DBError;
 import Exceptions.DBError.DBStatementError;
 import Exceptions.DBError.DBUknownError;
 import Exceptions.DBError.DuplicateKeyError;
 import Exceptions.DBError.ForeignKeyError;
 import LogHandler.CouponLogHandler;
+import LogHandler.LogLevel;
 import Pool.ConnectionPoolSingleton;
+import Pool.PoolConfig;
 
 /**
  * Database utility that handles statements, requests and all the manipulation
- * of data on the database.
+ * of data on the database.<br>
+ * <br>
+ * Statements are prepared through the {@link ConnectionPoolSingleton}, which
+ * reuses them from the statement cache of each pooled connection.<br>
+ * <br>
+ * A DBDAO keeps no state between calls: every statement is released by the call
+ * that prepared it, and query output is handed out as a {@link QueryResult} to
+ * be closed with a try-with-resources block. A single DBDAO instance is
+ * therefore safe to share between threads.<br>
+ * <br>
+ * Vendor specific SQL and the mapping of errors to {@link DuplicateKeyError}
+ * and {@link ForeignKeyError} come from the {@link SQLDialect} of the
+ * configured database.<br>
+ * <br>
+ * Large queries can be streamed row by row with
+ * {@link #forEachRow(Connection, String, Object[], RowMapper, Consumer)}, which
+ * never holds more than one fetch of rows in memory.<br>
+ * <br>
+ * Every execution is timed per SQL template by {@link QueryStats}, which also
+ * logs slow queries, and emitted as a Flight Recorder
+ * {@link SQLExecutionEvent}.
  * 
  * @author Gonen Matias
  * @version 1.0 30/01/2018
@@ -27,6 +48,8 @@ import Pool.ConnectionPoolSingleton;
 public abstract class UtilDBDAO {
 	protected static final ConnectionPoolSingleton pool = ConnectionPoolSingleton.getInstance();
 	protected static final CouponLogHandler handler = CouponLogHandler.getInstance();
+	protected static final SQLDialect dialect = ConnectionPoolSingleton.getConfig().getDialect();
+	private static final QueryStats stats = QueryStats.INSTANCE;
 	protected static final String tbl_coupon = "coupon";
 	protected static final String tbl_company = "company";
 	protected static final String tbl_customer = "customer";
@@ -41,6 +64,9 @@ public abstract class UtilDBDAO {
 	protected static final String FK_ARCHIVE_COUPON = "FK_ARCHIVE_COUPON";
 	protected static final String FK_ARCHIVE_CUSTOMER = "FK_ARCHIVE_CUSTOMER";
 	protected static final String FK_ARCHIVE_COMPANY = "FK_ARCHIVE_COMPANY";
+	// in matching order: a constraint name may contain an earlier key, e.g. FK_COUPON_ID_CUSTOMER
+	private static final String[] FOREIGN_KEYS = { FK_CUSTOMER_ID, FK_COUPON_ID, FK_COMPANY_ID, FK_ARCHIVE_COUPON,
+			FK_ARCHIVE_CUSTOMER, FK_ARCHIVE_COMPANY };
 	protected static final String JOIN_COUPON_KEY = "COUPON_ID";
 	protected static final String JOIN_COMPANY_KEY = "COMP_ID";
 	protected static final String JOIN_CUSTOMER_KEY = "CUST_ID";
@@ -61,13 +87,20 @@ public abstract class UtilDBDAO {
 	protected static final String CUSTOMER_KEY = "ID";
 	protected static final String CUSTOMER_NAME = "CUST_NAME";
 	protected static final String CUSTOMER_PASSWORD = "PASSWORD";
-	protected List<Statement> statementsToClose;
 
 	/**
 	 * Creates a new instance of Database utility
 	 */
 	public UtilDBDAO() {
-		statementsToClose = new ArrayList<>();
+	}
+
+	/**
+	 * Gets the SQL execution statistics shared by all the DBDAOs
+	 *
+	 * @return the {@link QueryStatsMXBean}
+	 */
+	public static QueryStatsMXBean getQueryStats() {
+		return stats;
 	}
 
 	/**
@@ -95,42 +128,29 @@ public abstract class UtilDBDAO {
 			throws DBError, IllegalArgumentException {
 		PreparedStatement statement = null;
 		int result = 0;
+		long start = stats.start();
+		SQLExecutionEvent event = new SQLExecutionEvent();
+		event.begin();
 
 		try {
 			if (sqlLine == null || sqlLine.equals("") || conn == null) {
 				throw new IllegalArgumentException("the sqlLine is null or empty, or the connection is null");
 			}
-			statement = (PreparedStatement) conn.prepareStatement(sqlLine);
+			statement = pool.prepareStatement(conn, sqlLine);
 			if (args != null)
 				for (int i = 0; i < args.length; i++)
 					statement.setObject(i + 1, args[i]);
 
 			result = statement.executeUpdate();
+			stats.executed(sqlLine, args, start, result);
+			event.executed(sqlLine, result);
 		} catch (SQLException e) {
-			if (e.getMessage().contains("Duplicate")) {
-				throw new DuplicateKeyError(sqlLine, e.getMessage());
-			} else if (e.getMessage().contains("CONSTRAINT")) {
-				if (e.getMessage().contains(FK_CUSTOMER_ID)) {
-					throw new ForeignKeyError(FK_CUSTOMER_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_COUPON_ID)) {
-					throw new ForeignKeyError(FK_COUPON_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_COMPANY_ID)) {
-					throw new ForeignKeyError(FK_COMPANY_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_COUPON)) {
-					throw new ForeignKeyError(FK_ARCHIVE_COUPON, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_CUSTOMER)) {
-					throw new ForeignKeyError(FK_ARCHIVE_CUSTOMER, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_COMPANY)) {
-					throw new ForeignKeyError(FK_ARCHIVE_COMPANY, sqlLine, e.getMessage());
-				} else
-					throw new ForeignKeyError("UNKNOWN", sqlLine, e.getMessage());
-			} else {
-				throw new DBUknownError(sqlLine, e.getMessage());
-			}
+			stats.failed(sqlLine, args, start);
+			event.failed(sqlLine);
+			throw translate(e, sqlLine);
 		} finally {
 			try {
-				if (statement != null)
-					statement.close();
+				pool.releaseStatement(conn, statement);
 			} catch (SQLException e) {
 				throw new DBStatementError(e.getMessage());
 			}
@@ -170,7 +190,36 @@ public abstract class UtilDBDAO {
 	 * @param args
 	 *            the arguments to be inserted into the statement, can be null if
 	 *            there are no arguments.
-	 * @return returns the database's output as a ResultSet
+	 * @return returns the database's output, to be closed by the caller
+	 * @throws DuplicateKeyError
+	 *             if data couldn't be manipulated due to DUPLICATE KEY restrictions
+	 * @throws ForeignKeyError
+	 *             if data couldn't be manipulated due to FOREIGN KEY restrictions
+	 * @throws DBError
+	 *             if a database access error occurs
+	 * @throws IllegalArgumentException
+	 *             if the Connection or SQL line arguments aren't valid
+	 */
+	protected static final QueryResult getResult(Connection conn, String sqlLine, Object[] args)
+			throws DBError, IllegalArgumentException {
+		return getResult(conn, sqlLine, args, 0);
+	}
+
+	/**
+	 * Executes the SQL statement in database and returns it's output, fetching
+	 * the specified number of rows per round trip
+	 * 
+	 * @param conn
+	 *            the Connection to database
+	 * @param sqlLine
+	 *            the SQL statement to be executed
+	 * @param args
+	 *            the arguments to be inserted into the statement, can be null if
+	 *            there are no arguments.
+	 * @param fetchSize
+	 *            the number of rows fetched per round trip, 0 for the driver's
+	 *            default
+	 * @return returns the database's output, to be closed by the caller
 	 * @throws DuplicateKeyError
 	 *             if data couldn't be manipulated due to DUPLICATE KEY restrictions
 	 * @throws ForeignKeyError
@@ -180,42 +229,31 @@ public abstract class UtilDBDAO {
 	 * @throws IllegalArgumentException
 	 *             if the Connection or SQL line arguments aren't valid
 	 */
-	protected final ResultSet getResult(Connection conn, String sqlLine, Object[] args)
+	protected static final QueryResult getResult(Connection conn, String sqlLine, Object[] args, int fetchSize)
 			throws DBError, IllegalArgumentException {
 		PreparedStatement statement = null;
+		long start = stats.start();
+		SQLExecutionEvent event = new SQLExecutionEvent();
+		event.begin();
 
 		try {
 			if (sqlLine == null || sqlLine.equals("") || conn == null) {
 				throw new IllegalArgumentException("the sqlLine is null or empty, or the connection is null");
 			}
-			statement = (PreparedStatement) conn.prepareStatement(sqlLine);
+			statement = pool.prepareStatement(conn, sqlLine);
 			if (args != null)
 				for (int i = 0; i < args.length; i++)
 					statement.setObject(i + 1, args[i]);
-			return statement.executeQuery();
+			statement.setFetchSize(fetchSize); // cached statements keep the last fetch size
+			ResultSet resultSet = statement.executeQuery();
+			stats.executed(sqlLine, args, start, -1);
+			event.executed(sqlLine, -1);
+			return new QueryResult(conn, statement, resultSet);
 		} catch (SQLException e) {
-			if (e.getMessage().contains("Duplicate"))
-				throw new DuplicateKeyError(sqlLine, e.getMessage());
-			else if (e.getMessage().contains("CONSTRAINT")) {
-				if (e.getMessage().contains(FK_CUSTOMER_ID)) {
-					throw new ForeignKeyError(FK_CUSTOMER_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_COUPON_ID)) {
-					throw new ForeignKeyError(FK_COUPON_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_COMPANY_ID)) {
-					throw new ForeignKeyError(FK_COMPANY_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_COUPON)) {
-					throw new ForeignKeyError(FK_ARCHIVE_COUPON, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_CUSTOMER)) {
-					throw new ForeignKeyError(FK_ARCHIVE_CUSTOMER, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_COMPANY)) {
-					throw new ForeignKeyError(FK_ARCHIVE_COMPANY, sqlLine, e.getMessage());
-				} else
-					throw new ForeignKeyError("UNKNOWN", sqlLine, e.getMessage());
-			} else
-				throw new DBUknownError(sqlLine, e.getMessage());
-		} finally {
-			if (statement != null)
-				statementsToClose.add(statement);
+			stats.failed(sqlLine, args, start);
+			event.failed(sqlLine);
+			QueryResult.release(conn, statement);
+			throw translate(e, sqlLine);
 		}
 	}
 
@@ -226,7 +264,7 @@ public abstract class UtilDBDAO {
 	 *            the Connection to database
 	 * @param sqlLine
 	 *            the SQL statement to be executed
-	 * @return returns the database's output as a ResultSet
+	 * @return returns the database's output, to be closed by the caller
 	 * @throws DuplicateKeyError
 	 *             if data couldn't be manipulated due to DUPLICATE KEY restrictions
 	 * @throws ForeignKeyError
@@ -236,10 +274,99 @@ public abstract class UtilDBDAO {
 	 * @throws IllegalArgumentException
 	 *             if the Connection or SQL line arguments aren't valid
 	 */
-	protected final ResultSet getResult(Connection conn, String sqlLine) throws DBError, IllegalArgumentException {
+	protected static final QueryResult getResult(Connection conn, String sqlLine)
+			throws DBError, IllegalArgumentException {
 		return getResult(conn, sqlLine, null);
 	}
 
+	/**
+	 * Executes the SQL query in database and checks whether it has any output
+	 * 
+	 * @param conn
+	 *            the Connection to database
+	 * @param sqlLine
+	 *            the SQL query to be executed
+	 * @param args
+	 *            the arguments to be inserted into the statement, can be null if
+	 *            there are no arguments.
+	 * @return true if the query returned at least one row
+	 * @throws SQLException
+	 *             if the output couldn't be read
+	 * @throws DBError
+	 *             if a database access error occurs
+	 * @throws IllegalArgumentException
+	 *             if the Connection or SQL line arguments aren't valid
+	 */
+	protected static final boolean hasResult(Connection conn, String sqlLine, Object[] args)
+			throws SQLException, DBError, IllegalArgumentException {
+		try (QueryResult result = getResult(conn, sqlLine, args)) {
+			return result.next();
+		}
+	}
+
+	/**
+	 * Executes the SQL query in database and hands its output to an action row by
+	 * row, through a forward-only, read-only ResultSet fetched
+	 * {@link PoolConfig#getFetchSize()} rows at a time.<br>
+	 * <br>
+	 * Rows that can't be mapped are logged and skipped.
+	 * 
+	 * @param conn
+	 *            the Connection to database
+	 * @param sqlLine
+	 *            the SQL query to be executed
+	 * @param args
+	 *            the arguments to be inserted into the statement, can be null if
+	 *            there are no arguments.
+	 * @param mapper
+	 *            maps each row to an object
+	 * @param action
+	 *            the action to perform on each object
+	 * @return the number of rows handed to the action
+	 * @throws SQLException
+	 *             if the output couldn't be read
+	 * @throws DBError
+	 *             if a database access error occurs
+	 * @throws IllegalArgumentException
+	 *             if the Connection or SQL line arguments aren't valid
+	 */
+	protected static final <T> long forEachRow(Connection conn, String sqlLine, Object[] args, RowMapper<T> mapper,
+			Consumer<? super T> action) throws SQLException, DBError, IllegalArgumentException {
+		long rows = 0;
+
+		try (QueryResult result = getResult(conn, sqlLine, args, ConnectionPoolSingleton.getConfig().getFetchSize())) {
+			while (result.next()) {
+				T item;
+				try {
+					item = mapper.map(result.getResultSet());
+				} catch (SQLException e) {
+					handler.at(LogLevel.WARN).field("sql", sqlLine).field("row", rows)
+							.field("sqlState", e.getSQLState())
+							.log("Could't get data for a specific row in a streamed query.\n{}", e.getMessage());
+					continue;
+				}
+				action.accept(item);
+				rows++;
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Rolls back the open transaction of a Connection, logging any error.
+	 * 
+	 * @param conn
+	 *            the Connection to database, ignored if null
+	 */
+	protected static final void rollback(Connection conn) {
+		try {
+			if (conn != null)
+				conn.rollback();
+		} catch (SQLException e) {
+			handler.log(LogLevel.WARN, "Couldn't roll back transaction.\n{}", e.getMessage());
+		}
+	}
+
 	/**
 	 * Executes an INSERT SQL statement in database and returns the PRIMARY KEY
 	 * Object of the new record
@@ -266,6 +393,9 @@ public abstract class UtilDBDAO {
 			throws DBError, IllegalArgumentException {
 		PreparedStatement statement = null;
 		ResultSet keys = null;
+		long start = stats.start();
+		SQLExecutionEvent event = new SQLExecutionEvent();
+		event.begin();
 
 		try {
 			if (sqlLine == null || sqlLine.equals("") || conn == null)
@@ -273,41 +403,27 @@ public abstract class UtilDBDAO {
 			if (!sqlLine.startsWith("INSERT"))
 				throw new IllegalArgumentException("The sqlLine action isn't INSERT");
 
-			statement = (PreparedStatement) conn.prepareStatement(sqlLine, Statement.RETURN_GENERATED_KEYS);
+			statement = pool.prepareStatement(conn, sqlLine, Statement.RETURN_GENERATED_KEYS);
 
 			if (args != null)
 				for (int i = 0; i < args.length; i++)
 					statement.setObject(i + 1, args[i]);
 
-			statement.executeUpdate();
+			int rows = statement.executeUpdate();
 			keys = statement.getGeneratedKeys();
+			stats.executed(sqlLine, args, start, rows);
+			event.executed(sqlLine, rows);
 			if (keys.next())
 				return keys.getObject(1);
 		} catch (SQLException e) {
-			if (e.getMessage().contains("Duplicate")) {
-				throw new DuplicateKeyError(sqlLine, e.getMessage());
-			} else if (e.getMessage().contains("CONSTRAINT")) {
-				if (e.getMessage().contains(FK_CUSTOMER_ID)) {
-					throw new ForeignKeyError(FK_CUSTOMER_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_COUPON_ID)) {
-					throw new ForeignKeyError(FK_COUPON_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_COMPANY_ID)) {
-					throw new ForeignKeyError(FK_COMPANY_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_COUPON)) {
-					throw new ForeignKeyError(FK_ARCHIVE_COUPON, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_CUSTOMER)) {
-					throw new ForeignKeyError(FK_ARCHIVE_CUSTOMER, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_COMPANY)) {
-					throw new ForeignKeyError(FK_ARCHIVE_COMPANY, sqlLine, e.getMessage());
-				} else
-					throw new ForeignKeyError("UNKNOWN", sqlLine, e.getMessage());
-			} else {
-				throw new DBUknownError(sqlLine, e.getMessage());
-			}
+			stats.failed(sqlLine, args, start);
+			event.failed(sqlLine);
+			throw translate(e, sqlLine);
 		} finally {
 			try {
-				if (statement != null)
-					statement.close();
+				if (keys != null)
+					keys.close();
+				pool.releaseStatement(conn, statement);
 			} catch (SQLException e) {
 				throw new DBStatementError(e.getMessage());
 			}
@@ -365,6 +481,9 @@ public abstract class UtilDBDAO {
 			throws DBError, IllegalArgumentException {
 		PreparedStatement statement = null;
 		ResultSet keys = null;
+		long start = stats.start();
+		SQLExecutionEvent event = new SQLExecutionEvent();
+		event.begin();
 
 		try {
 			if (sqlLine == null || sqlLine.equals("") || conn == null)
@@ -372,41 +491,27 @@ public abstract class UtilDBDAO {
 			if (!sqlLine.startsWith("INSERT"))
 				throw new IllegalArgumentException("The sqlLine action isn't INSERT");
 
-			statement = (PreparedStatement) conn.prepareStatement(sqlLine, Statement.RETURN_GENERATED_KEYS);
+			statement = pool.prepareStatement(conn, sqlLine, Statement.RETURN_GENERATED_KEYS);
 
 			if (args != null)
 				for (int i = 0; i < args.length; i++)
 					statement.setObject(i + 1, args[i]);
 
-			statement.executeUpdate();
+			int rows = statement.executeUpdate();
 			keys = statement.getGeneratedKeys();
+			stats.executed(sqlLine, args, start, rows);
+			event.executed(sqlLine, rows);
 			if (keys.next())
 				return keys.getLong(1);
 		} catch (SQLException e) {
-			if (e.getMessage().contains("Duplicate")) {
-				throw new DuplicateKeyError(sqlLine, e.getMessage());
-			} else if (e.getMessage().contains("CONSTRAINT")) {
-				if (e.getMessage().contains(FK_CUSTOMER_ID)) {
-					throw new ForeignKeyError(FK_CUSTOMER_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_COUPON_ID)) {
-					throw new ForeignKeyError(FK_COUPON_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_COMPANY_ID)) {
-					throw new ForeignKeyError(FK_COMPANY_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_COUPON)) {
-					throw new ForeignKeyError(FK_ARCHIVE_COUPON, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_CUSTOMER)) {
-					throw new ForeignKeyError(FK_ARCHIVE_CUSTOMER, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_COMPANY)) {
-					throw new ForeignKeyError(FK_ARCHIVE_COMPANY, sqlLine, e.getMessage());
-				} else
-					throw new ForeignKeyError("UNKNOWN", sqlLine, e.getMessage());
-			} else {
-				throw new DBUknownError(sqlLine, e.getMessage());
-			}
+			stats.failed(sqlLine, args, start);
+			event.failed(sqlLine);
+			throw translate(e, sqlLine);
 		} finally {
 			try {
-				if (statement != null)
-					statement.close();
+				if (keys != null)
+					keys.close();
+				pool.releaseStatement(conn, statement);
 			} catch (SQLException e) {
 				throw new DBStatementError(e.getMessage());
 			}
@@ -440,7 +545,8 @@ public abstract class UtilDBDAO {
 
 	/**
 	 * Creates and executes the SQL statement and the database's output as a
-	 * ResultSet of the specified fields
+	 * ResultSet of the specified fields, through the
+	 * {@link SQLDialect#returning(String, String[])} form of the dialect
 	 * 
 	 * @param conn
 	 *            the Connection to database
@@ -452,70 +558,52 @@ public abstract class UtilDBDAO {
 	 * @param fields
 	 *            an array of the fields requested from the database's output,
 	 *            returns all fields if null.
-	 * @return returns the database's output as a ResultSet of the specified fields
+	 * @return returns the database's output of the specified fields, to be closed
+	 *         by the caller
 	 * @throws DuplicateKeyError
 	 *             if data couldn't be manipulated due to DUPLICATE KEY restrictions
 	 * @throws ForeignKeyError
 	 *             if data couldn't be manipulated due to FOREIGN KEY restrictions
 	 * @throws DBError
-	 *             if a database access error occurs
+	 *             if a database access error occurs, or the dialect can't
+	 *             return the output of a statement
 	 * @throws IllegalArgumentException
 	 *             if the Connection, SQL line or one of the field's arguments
 	 *             aren't valid
 	 */
-	protected final ResultSet runOutputStatement(Connection conn, String sqlLine, Object[] args, String[] fields)
-			throws DBError, IllegalArgumentException {
+	protected static final QueryResult runOutputStatement(Connection conn, String sqlLine, Object[] args,
+			String[] fields) throws DBError, IllegalArgumentException {
 		PreparedStatement statement = null;
 
 		if (sqlLine == null || sqlLine.equals("") || conn == null)
 			throw new IllegalArgumentException("the sqlLine is null or empty, or the connection is null");
-		if (fields != null) {
-			if (fields[0] == null || fields[0].equals("") || fields[0].contains(" "))
-				throw new IllegalArgumentException("Requested field either empty or invalid");
-			else {
-				sqlLine += " OUTPUT INSERTED." + fields[0];
-				for (int i = 1; i < fields.length; i++) {
-					if (fields[i] == null || fields[i].equals("") || fields[i].contains(" "))
-						throw new IllegalArgumentException("Requested field either empty or invalid (index " + i + ")");
-					sqlLine += ", INSERTED." + fields[i];
-				}
-			}
-		} else
-			sqlLine += " OUTPUT INSERTED.*";
-
+		if (fields != null)
+			for (int i = 0; i < fields.length; i++)
+				if (fields[i] == null || fields[i].equals("") || fields[i].contains(" "))
+					throw new IllegalArgumentException("Requested field either empty or invalid (index " + i + ")");
+
+		String outputLine = dialect.returning(sqlLine, fields);
+		if (outputLine == null)
+			throw new DBUknownError(sqlLine, "The " + dialect + " dialect can't return the output of a statement");
+
+		long start = stats.start();
+		SQLExecutionEvent event = new SQLExecutionEvent();
+		event.begin();
 		try {
-
-			statement = (PreparedStatement) conn.prepareStatement(sqlLine);
+			statement = pool.prepareStatement(conn, outputLine);
 			if (args != null)
 				for (int i = 0; i < args.length; i++)
 					statement.setObject(i + 1, args[i]);
 
-			statement.executeUpdate();
-			return statement.getResultSet();
+			ResultSet resultSet = statement.executeQuery();
+			stats.executed(sqlLine, args, start, -1);
+			event.executed(sqlLine, -1);
+			return new QueryResult(conn, statement, resultSet);
 		} catch (SQLException e) {
-			if (e.getMessage().contains("Duplicate")) {
-				throw new DuplicateKeyError(sqlLine, e.getMessage());
-			} else if (e.getMessage().contains("CONSTRAINT")) {
-				if (e.getMessage().contains(FK_CUSTOMER_ID)) {
-					throw new ForeignKeyError(FK_CUSTOMER_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_COUPON_ID)) {
-					throw new ForeignKeyError(FK_COUPON_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_COMPANY_ID)) {
-					throw new ForeignKeyError(FK_COMPANY_ID, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_COUPON)) {
-					throw new ForeignKeyError(FK_ARCHIVE_COUPON, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_CUSTOMER)) {
-					throw new ForeignKeyError(FK_ARCHIVE_CUSTOMER, sqlLine, e.getMessage());
-				} else if (e.getMessage().contains(FK_ARCHIVE_COMPANY)) {
-					throw new ForeignKeyError(FK_ARCHIVE_COMPANY, sqlLine, e.getMessage());
-				} else
-					throw new ForeignKeyError("UNKNOWN", sqlLine, e.getMessage());
-			} else {
-				throw new DBUknownError(sqlLine, e.getMessage());
-			}
-		} finally {
-			if (statement != null)
-				statementsToClose.add(statement);
+			stats.failed(sqlLine, args, start);
+			event.failed(sqlLine);
+			QueryResult.release(conn, statement);
+			throw translate(e, outputLine);
 		}
 	}
 
@@ -530,7 +618,8 @@ public abstract class UtilDBDAO {
 	 * @param fields
 	 *            an array of the fields requested from the database's output,
 	 *            returns all fields if null.
-	 * @return returns the database's output as a ResultSet of the specified fields
+	 * @return returns the database's output of the specified fields, to be closed
+	 *         by the caller
 	 * @throws DuplicateKeyError
 	 *             if data couldn't be manipulated due to DUPLICATE KEY restrictions
 	 * @throws ForeignKeyError
@@ -541,7 +630,7 @@ public abstract class UtilDBDAO {
 	 *             if the Connection, SQL line or one of the field's arguments
 	 *             aren't valid
 	 */
-	protected final ResultSet runOutputStatement(Connection conn, String sqlLine, String[] fields)
+	protected static final QueryResult runOutputStatement(Connection conn, String sqlLine, String[] fields)
 			throws DBError, IllegalArgumentException {
 		return runOutputStatement(conn, sqlLine, null, fields);
 	}
@@ -557,7 +646,8 @@ public abstract class UtilDBDAO {
 	 * @param args
 	 *            the arguments to be inserted into the statement, can be null if
 	 *            there are no arguments.
-	 * @return returns the database's output as a ResultSet of all fields
+	 * @return returns the database's output of all fields, to be closed by the
+	 *         caller
 	 * @throws DuplicateKeyError
 	 *             if data couldn't be manipulated due to DUPLICATE KEY restrictions
 	 * @throws ForeignKeyError
@@ -567,7 +657,7 @@ public abstract class UtilDBDAO {
 	 * @throws IllegalArgumentException
 	 *             if the Connection, SQL line arguments aren't valid
 	 */
-	protected final ResultSet runOutputStatement(Connection conn, String sqlLine, Object[] args)
+	protected static final QueryResult runOutputStatement(Connection conn, String sqlLine, Object[] args)
 			throws DBError, IllegalArgumentException {
 		return runOutputStatement(conn, sqlLine, args, null);
 	}
@@ -580,7 +670,8 @@ public abstract class UtilDBDAO {
 	 *            the Connection to database
 	 * @param sqlLine
 	 *            the SQL statement to be executed
-	 * @return returns the database's output as a ResultSet of all fields
+	 * @return returns the database's output of all fields, to be closed by the
+	 *         caller
 	 * @throws DuplicateKeyError
 	 *             if data couldn't be manipulated due to DUPLICATE KEY restrictions
 	 * @throws ForeignKeyError
@@ -590,44 +681,24 @@ public abstract class UtilDBDAO {
 	 * @throws IllegalArgumentException
 	 *             if the Connection, SQL line arguments aren't valid
 	 */
-	protected final ResultSet runOutputStatement(Connection conn, String sqlLine)
+	protected static final QueryResult runOutputStatement(Connection conn, String sqlLine)
 			throws DBError, IllegalArgumentException {
 		return runOutputStatement(conn, sqlLine, null, null);
 	}
 
-	/**
-	 * Closes all the open statements and clears the list<br>
-	 * <br>
-	 * To access a ResultSets a statement must still be open, once closed the
-	 * ResultSet's data is inaccessible.<br>
-	 * Therefore, all functions returning a ResultSet leave the statement open and
-	 * add it to a list to be closed later when this method is called. <br>
-	 * Call this method after you are done with a certain ResultSet to flush the
-	 * statement.
-	 */
-	protected final void closeAllStatements() {
-		// ************************ ResultSet closed
-
-		for (Iterator<Statement> iterator = this.statementsToClose.iterator(); iterator.hasNext();) {
-			Statement statement = iterator.next();
-			try {
-				if (statement != null)
-					statement.close();
-
-				iterator.remove();
-			} catch (SQLException e) { // TODO: LOG/Print to console
-				if (e.getMessage().contains("ResultSet")) {
-					if (e.getMessage().contains("closed"))
-						handler.log("WARN: Couldn't close an open SQL Statement after a ResultSet.\n" + e.getMessage());
-					else
-						handler.log(
-								"WARN: An unexpected error occurred when tried to close an open SQL Statement after a ResultSet.\n"
-										+ e.getMessage());
-				}
-				handler.log("WARN: An unexpected error occurred when tried to close an open SQL Statement.\n"
-						+ e.getMessage());
-			}
+	// Maps an error to the DBError of its kind, by the error codes of the dialect
+	private static DBError translate(SQLException e, String sqlLine) {
+		switch (dialect.classify(e)) {
+		case DUPLICATE_KEY:
+			return new DuplicateKeyError(sqlLine, e.getMessage());
+		case FOREIGN_KEY:
+			String message = String.valueOf(e.getMessage()).toUpperCase(); // some databases fold names to lower case
+			for (String key : FOREIGN_KEYS)
+				if (message.contains(key))
+					return new ForeignKeyError(key, sqlLine, e.getMessage());
+			return new ForeignKeyError("UNKNOWN", sqlLine, e.getMessage());
+		default:
+			return new DBUknownError(sqlLine, e.getMessage());
 		}
 	}
-
 }
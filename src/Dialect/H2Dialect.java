@@ -0,0 +1,53 @@
+package Dialect;
+
+import java.sql.SQLException;
+
+/**
+ * The H2 dialect, for an embedded or in-memory database. The URL should set
+ * <em>MODE=MySQL;DATABASE_TO_LOWER=TRUE</em>, so H2 accepts the MySQL-isms the
+ * dialect doesn't cover and the table names match, e.g.
+ * <em>jdbc:h2:mem:coupon_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1</em>.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class H2Dialect extends SQLDialect {
+	// DUPLICATE_KEY_1
+	private static final int DUPLICATE_KEY = 23505;
+	// REFERENTIAL_INTEGRITY_VIOLATED_CHILD_EXISTS_1, REFERENTIAL_INTEGRITY_VIOLATED_PARENT_MISSING_1
+	private static final int[] FOREIGN_KEY = { 23503, 23506 };
+
+	/**
+	 * Constructs the H2 dialect
+	 */
+	H2Dialect() {
+		super("H2", "org.h2.Driver", "jdbc:h2:");
+	}
+
+	@Override
+	public String upsert(String table, String[] keys, String[] columns) {
+		String values = "";
+		for (int i = 0; i < keys.length + columns.length; i++)
+			values += i == 0 ? "?" : ", ?";
+		return "MERGE INTO " + table + " (" + String.join(", ", keys)
+				+ (columns.length > 0 ? ", " + String.join(", ", columns) : "") + ") KEY (" + String.join(", ", keys)
+				+ ") VALUES (" + values + ")";
+	}
+
+	@Override
+	public String returning(String statement, String[] fields) {
+		String delta = statement.trim().toUpperCase().startsWith("DELETE") ? "OLD" : "FINAL"; // deleted rows have no final state
+		return "SELECT " + (fields == null ? "*" : String.join(", ", fields)) + " FROM " + delta + " TABLE ("
+				+ statement + ")";
+	}
+
+	@Override
+	public ErrorKind classify(SQLException e) {
+		if (e.getErrorCode() == DUPLICATE_KEY)
+			return ErrorKind.DUPLICATE_KEY;
+		for (int code : FOREIGN_KEY)
+			if (e.getErrorCode() == code)
+				return ErrorKind.FOREIGN_KEY;
+		return ErrorKind.OTHER;
+	}
+}
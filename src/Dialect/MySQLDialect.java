@@ -0,0 +1,60 @@
+package Dialect;
+
+import java.sql.SQLException;
+
+/**
+ * The MySQL dialect, for the InnoDB schema the Coupon System runs on in
+ * production.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class MySQLDialect extends SQLDialect {
+	// ER_DUP_KEY, ER_DUP_ENTRY, ER_DUP_ENTRY_WITH_KEY_NAME
+	private static final int[] DUPLICATE_KEY = { 1022, 1062, 1586 };
+	// ER_NO_REFERENCED_ROW, ER_ROW_IS_REFERENCED, and their _2 versions
+	private static final int[] FOREIGN_KEY = { 1216, 1217, 1451, 1452 };
+
+	/**
+	 * Constructs the MySQL dialect
+	 */
+	MySQLDialect() {
+		super("MySQL", "com.mysql.jdbc.Driver", "jdbc:mysql:");
+	}
+
+	@Override
+	public String upsert(String table, String[] keys, String[] columns) {
+		String insert = "INSERT INTO " + table + " (" + String.join(", ", keys);
+		String values = "", update = "";
+		for (String column : columns) {
+			insert += ", " + column;
+			update += (update.isEmpty() ? "" : ", ") + column + " = VALUES(" + column + ")";
+		}
+		for (int i = 0; i < keys.length + columns.length; i++)
+			values += i == 0 ? "?" : ", ?";
+		return insert + ") VALUES (" + values + ") ON DUPLICATE KEY UPDATE "
+				+ (update.isEmpty() ? keys[0] + " = " + keys[0] : update);
+	}
+
+	@Override
+	public String returning(String statement, String[] fields) {
+		return null; // MySQL has no RETURNING or OUTPUT clause
+	}
+
+	@Override
+	public ErrorKind classify(SQLException e) {
+		for (int code : DUPLICATE_KEY)
+			if (e.getErrorCode() == code)
+				return ErrorKind.DUPLICATE_KEY;
+		for (int code : FOREIGN_KEY)
+			if (e.getErrorCode() == code)
+				return ErrorKind.FOREIGN_KEY;
+
+		String message = String.valueOf(e.getMessage()); // drivers that don't report the vendor code
+		if (message.contains("Duplicate"))
+			return ErrorKind.DUPLICATE_KEY;
+		if (message.contains("CONSTRAINT"))
+			return ErrorKind.FOREIGN_KEY;
+		return ErrorKind.OTHER;
+	}
+}
@@ -0,0 +1,264 @@
+package Dialect;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The vendor specific SQL of a database: its JDBC driver, the schema creation
+ * script, the row limiting and locking clauses, upserts, statements that
+ * return their output, and the mapping of its error codes.<br>
+ * <br>
+ * The DBDAOs build all their SQL through the dialect of the configured
+ * database (see {@link Pool.PoolConfig#getDialect()}), so the same DAO stack
+ * runs on MySQL in production and on an embedded H2 database on a laptop or a
+ * CI box. Generated keys are read through the standard JDBC
+ * {@link Statement#RETURN_GENERATED_KEYS}, which every supported dialect
+ * honours.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public abstract class SQLDialect {
+	/**
+	 * MySQL, the production database
+	 */
+	public static final SQLDialect MYSQL = new MySQLDialect();
+	/**
+	 * H2, embedded or in-memory, in MySQL compatibility mode
+	 */
+	public static final SQLDialect H2 = new H2Dialect();
+	private static final SQLDialect[] DIALECTS = { MYSQL, H2 };
+	private final String name, driver, urlPrefix;
+	private List<String> schema;
+
+	/**
+	 * The kinds of errors the DBDAOs handle on their own
+	 */
+	public enum ErrorKind {
+		/**
+		 * A UNIQUE or PRIMARY KEY violation
+		 */
+		DUPLICATE_KEY,
+		/**
+		 * A FOREIGN KEY violation, either a missing parent or an existing child
+		 */
+		FOREIGN_KEY,
+		/**
+		 * Any other error
+		 */
+		OTHER
+	}
+
+	/**
+	 * Constructs a new {@link SQLDialect}.
+	 *
+	 * @param name
+	 *            the dialect's name, also the prefix of its schema script
+	 * @param driver
+	 *            the JDBC driver class name
+	 * @param urlPrefix
+	 *            the prefix of the JDBC URLs of this database
+	 */
+	protected SQLDialect(String name, String driver, String urlPrefix) {
+		this.name = name;
+		this.driver = driver;
+		this.urlPrefix = urlPrefix;
+	}
+
+	/**
+	 * Gets a dialect by name.
+	 *
+	 * @param name
+	 *            the name, case insensitive
+	 * @return the dialect, or null if there is none by that name
+	 */
+	public static SQLDialect forName(String name) {
+		for (SQLDialect dialect : DIALECTS)
+			if (dialect.name.equalsIgnoreCase(name))
+				return dialect;
+		return null;
+	}
+
+	/**
+	 * Gets the dialect of a JDBC URL.
+	 *
+	 * @param url
+	 *            the JDBC URL
+	 * @return the dialect, or {@link #MYSQL} if the URL is of no known database
+	 */
+	public static SQLDialect forUrl(String url) {
+		for (SQLDialect dialect : DIALECTS)
+			if (url != null && url.startsWith(dialect.urlPrefix))
+				return dialect;
+		return MYSQL;
+	}
+
+	/**
+	 * Gets the name of this dialect
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the JDBC driver class name of this database
+	 *
+	 * @return the driver class name
+	 */
+	public String getDriver() {
+		return driver;
+	}
+
+	/**
+	 * Limits a query to its first row.
+	 *
+	 * @param select
+	 *            the query
+	 * @return the limited query
+	 */
+	public String first(String select) {
+		return select + " LIMIT 1";
+	}
+
+	/**
+	 * Limits a query to a number of rows. Arguments: the query's own, then the
+	 * limit.
+	 *
+	 * @param select
+	 *            the query
+	 * @return the limited query
+	 */
+	public String limit(String select) {
+		return select + " LIMIT ?";
+	}
+
+	/**
+	 * Limits a query to a page of rows. Arguments: the query's own, then the
+	 * limit, then the offset.
+	 *
+	 * @param select
+	 *            the query, ordered
+	 * @return the paged query
+	 */
+	public String page(String select) {
+		return select + " LIMIT ? OFFSET ?";
+	}
+
+	/**
+	 * Locks the rows a query reads until the transaction ends.
+	 *
+	 * @param select
+	 *            the query
+	 * @return the locking query
+	 */
+	public String forUpdate(String select) {
+		return select + " FOR UPDATE";
+	}
+
+	/**
+	 * Builds an INSERT that updates the row instead if its key exists.
+	 * Arguments: one per column, in order.
+	 *
+	 * @param table
+	 *            the table
+	 * @param keys
+	 *            the key columns, the first columns of the insert
+	 * @param columns
+	 *            the other columns
+	 * @return the upsert statement
+	 */
+	public abstract String upsert(String table, String[] keys, String[] columns);
+
+	/**
+	 * Wraps an INSERT, UPDATE or DELETE so it's run as a query that returns
+	 * the changed rows. Arguments: the statement's own.
+	 *
+	 * @param statement
+	 *            the statement
+	 * @param fields
+	 *            the fields to return, all fields if null
+	 * @return the query, or null if this database can't return the output of a
+	 *         statement
+	 */
+	public abstract String returning(String statement, String[] fields);
+
+	/**
+	 * Classifies an error of this database.
+	 *
+	 * @param e
+	 *            the error
+	 * @return the kind of error
+	 */
+	public abstract ErrorKind classify(SQLException e);
+
+	/**
+	 * Gets the schema creation script of this database, one statement per entry.
+	 *
+	 * @return the statements, in order
+	 * @throws IOException
+	 *             if the script couldn't be read
+	 */
+	public synchronized List<String> getSchema() throws IOException {
+		if (schema == null)
+			schema = Collections.unmodifiableList(readScript(name.toLowerCase() + "-schema.sql"));
+		return schema;
+	}
+
+	/**
+	 * Creates the Coupon System tables, on an empty database.
+	 *
+	 * @param conn
+	 *            the Connection to database
+	 * @throws SQLException
+	 *             if a statement failed
+	 * @throws IOException
+	 *             if the script couldn't be read
+	 */
+	public void createSchema(Connection conn) throws SQLException, IOException {
+		try (Statement statement = conn.createStatement()) {
+			for (String sql : getSchema())
+				statement.execute(sql);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	// Reads a script next to this class, split into statements
+	private static List<String> readScript(String file) throws IOException {
+		InputStream in = SQLDialect.class.getResourceAsStream(file);
+		if (in == null)
+			throw new IOException("Missing schema script " + file);
+
+		List<String> statements = new ArrayList<>();
+		StringBuilder sql = new StringBuilder();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty() || line.trim().startsWith("--"))
+					continue;
+				sql.append(line).append('\n');
+				if (line.trim().endsWith(";")) {
+					statements.add(sql.substring(0, sql.lastIndexOf(";")).trim());
+					sql.setLength(0);
+				}
+			}
+		}
+		if (sql.toString().trim().length() > 0)
+			statements.add(sql.toString().trim());
+		return statements;
+	}
+}
@@ -0,0 +1,74 @@
+-- The Coupon System schema for H2 (run in MySQL mode, see H2Dialect).
+-- Constraint names must contain the names UtilDBDAO maps foreign key errors by.
+-- Safe to run again on an existing schema.
+
+CREATE TABLE IF NOT EXISTS company (
+	ID BIGINT PRIMARY KEY,
+	COMP_NAME VARCHAR(255) NOT NULL UNIQUE,
+	PASSWORD VARCHAR(255) NOT NULL,
+	EMAIL VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS customer (
+	ID BIGINT PRIMARY KEY,
+	CUST_NAME VARCHAR(255) NOT NULL UNIQUE,
+	PASSWORD VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS coupon (
+	ID BIGINT PRIMARY KEY,
+	TITLE VARCHAR(255) NOT NULL UNIQUE,
+	START_DATE DATE,
+	END_DATE DATE,
+	AMOUNT INT NOT NULL,
+	TYPE VARCHAR(32) NOT NULL,
+	MESSAGE VARCHAR(1024),
+	PRICE DOUBLE NOT NULL,
+	IMAGE VARCHAR(1024)
+);
+CREATE INDEX IF NOT EXISTS IDX_COUPON_END ON coupon (END_DATE);
+
+CREATE TABLE IF NOT EXISTS company_coupon (
+	COMP_ID BIGINT NOT NULL,
+	COUPON_ID BIGINT NOT NULL,
+	PRIMARY KEY (COMP_ID, COUPON_ID),
+	CONSTRAINT FK_COMPANY_ID FOREIGN KEY (COMP_ID) REFERENCES company (ID),
+	CONSTRAINT FK_COUPON_ID FOREIGN KEY (COUPON_ID) REFERENCES coupon (ID)
+);
+
+CREATE TABLE IF NOT EXISTS customer_coupon (
+	CUST_ID BIGINT NOT NULL,
+	COUPON_ID BIGINT NOT NULL,
+	PRIMARY KEY (CUST_ID, COUPON_ID),
+	CONSTRAINT FK_CUSTOMER_ID FOREIGN KEY (CUST_ID) REFERENCES customer (ID),
+	CONSTRAINT FK_COUPON_ID_CUSTOMER FOREIGN KEY (COUPON_ID) REFERENCES coupon (ID)
+);
+CREATE INDEX IF NOT EXISTS IDX_CUSTOMER_COUPON ON customer_coupon (COUPON_ID);
+
+CREATE TABLE IF NOT EXISTS archive_coupon (
+	ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+	OLD_ID BIGINT NOT NULL,
+	TITLE VARCHAR(255) NOT NULL,
+	START_DATE DATE,
+	END_DATE DATE,
+	AMOUNT INT NOT NULL,
+	TYPE VARCHAR(32) NOT NULL,
+	MESSAGE VARCHAR(1024),
+	PRICE DOUBLE NOT NULL,
+	IMAGE VARCHAR(1024)
+);
+CREATE INDEX IF NOT EXISTS IDX_ARCHIVE_OLD_ID ON archive_coupon (OLD_ID);
+
+CREATE TABLE IF NOT EXISTS archive_company_coupon (
+	COMP_ID BIGINT NOT NULL,
+	COUPON_ID BIGINT NOT NULL,
+	CONSTRAINT FK_ARCHIVE_COMPANY FOREIGN KEY (COMP_ID) REFERENCES company (ID),
+	CONSTRAINT FK_ARCHIVE_COUPON FOREIGN KEY (COUPON_ID) REFERENCES archive_coupon (ID)
+);
+
+CREATE TABLE IF NOT EXISTS archive_customer_coupon (
+	CUST_ID BIGINT NOT NULL,
+	COUPON_ID BIGINT NOT NULL,
+	CONSTRAINT FK_ARCHIVE_CUSTOMER FOREIGN KEY (CUST_ID) REFERENCES customer (ID),
+	CONSTRAINT FK_ARCHIVE_COUPON_CUSTOMER FOREIGN KEY (COUPON_ID) REFERENCES archive_coupon (ID)
+);
@@ -0,0 +1,74 @@
+-- The Coupon System schema for MySQL (InnoDB).
+-- Constraint names must contain the names UtilDBDAO maps foreign key errors by.
+-- Safe to run again on an existing schema.
+
+CREATE TABLE IF NOT EXISTS company (
+	ID BIGINT PRIMARY KEY,
+	COMP_NAME VARCHAR(255) NOT NULL UNIQUE,
+	PASSWORD VARCHAR(255) NOT NULL,
+	EMAIL VARCHAR(255)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS customer (
+	ID BIGINT PRIMARY KEY,
+	CUST_NAME VARCHAR(255) NOT NULL UNIQUE,
+	PASSWORD VARCHAR(255) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS coupon (
+	ID BIGINT PRIMARY KEY,
+	TITLE VARCHAR(255) NOT NULL UNIQUE,
+	START_DATE DATE,
+	END_DATE DATE,
+	AMOUNT INT NOT NULL,
+	TYPE VARCHAR(32) NOT NULL,
+	MESSAGE VARCHAR(1024),
+	PRICE DOUBLE NOT NULL,
+	IMAGE VARCHAR(1024),
+	INDEX IDX_COUPON_END (END_DATE)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS company_coupon (
+	COMP_ID BIGINT NOT NULL,
+	COUPON_ID BIGINT NOT NULL,
+	PRIMARY KEY (COMP_ID, COUPON_ID),
+	CONSTRAINT FK_COMPANY_ID FOREIGN KEY (COMP_ID) REFERENCES company (ID),
+	CONSTRAINT FK_COUPON_ID FOREIGN KEY (COUPON_ID) REFERENCES coupon (ID)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS customer_coupon (
+	CUST_ID BIGINT NOT NULL,
+	COUPON_ID BIGINT NOT NULL,
+	PRIMARY KEY (CUST_ID, COUPON_ID),
+	CONSTRAINT FK_CUSTOMER_ID FOREIGN KEY (CUST_ID) REFERENCES customer (ID),
+	CONSTRAINT FK_COUPON_ID_CUSTOMER FOREIGN KEY (COUPON_ID) REFERENCES coupon (ID),
+	INDEX IDX_CUSTOMER_COUPON (COUPON_ID)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS archive_coupon (
+	ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+	OLD_ID BIGINT NOT NULL,
+	TITLE VARCHAR(255) NOT NULL,
+	START_DATE DATE,
+	END_DATE DATE,
+	AMOUNT INT NOT NULL,
+	TYPE VARCHAR(32) NOT NULL,
+	MESSAGE VARCHAR(1024),
+	PRICE DOUBLE NOT NULL,
+	IMAGE VARCHAR(1024),
+	INDEX IDX_ARCHIVE_OLD_ID (OLD_ID)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS archive_company_coupon (
+	COMP_ID BIGINT NOT NULL,
+	COUPON_ID BIGINT NOT NULL,
+	CONSTRAINT FK_ARCHIVE_COMPANY FOREIGN KEY (COMP_ID) REFERENCES company (ID),
+	CONSTRAINT FK_ARCHIVE_COUPON FOREIGN KEY (COUPON_ID) REFERENCES archive_coupon (ID)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS archive_customer_coupon (
+	CUST_ID BIGINT NOT NULL,
+	COUPON_ID BIGINT NOT NULL,
+	CONSTRAINT FK_ARCHIVE_CUSTOMER FOREIGN KEY (CUST_ID) REFERENCES customer (ID),
+	CONSTRAINT FK_ARCHIVE_COUPON_CUSTOMER FOREIGN KEY (COUPON_ID) REFERENCES archive_coupon (ID)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
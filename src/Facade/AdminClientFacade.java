@@ -0,0 +1,186 @@
+package Facade;
+
+import java.util.ArrayList;
+
+import Bean.Company;
+import Bean.Customer;
+import Exceptions.AlreadyExists.CompanyAlreadyExists;
+import Exceptions.AlreadyExists.CustomerAlreadyExists;
+import Exceptions.General.InvalidSession;
+import Exceptions.General.UnexpectedError;
+import Exceptions.ListEmpty.EmptyItemList;
+import Exceptions.NotFound.CompanyNotFound;
+import Exceptions.NotFound.CustomerNotFound;
+
+/**
+ * The operations of the administrator's session, implemented by
+ * {@link AdminFacade}.<br>
+ * <br>
+ * {@link ClientType#login(String, String)} hands out the session through this
+ * interface, wrapped by {@link FacadeMetrics} to record every operation.
+ * 
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public interface AdminClientFacade extends CouponClientFacade {
+
+	/**
+	 * Creates a {@link Company}
+	 * 
+	 * @param company
+	 *            the company
+	 * @throws CompanyAlreadyExists
+	 *             throws {@link CompanyAlreadyExists} if the ID key or company name
+	 *             is already exists.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	void createCompany(Company company) throws CompanyAlreadyExists, UnexpectedError, InvalidSession;
+
+	/**
+	 * Removes a {@link Company}
+	 * 
+	 * @param company
+	 *            the company
+	 * @throws CompanyNotFound
+	 *             throws {@link CompanyNotFound} if the Company doesn't exist.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	void removeCompany(Company company) throws CompanyNotFound, UnexpectedError, InvalidSession;
+
+	/**
+	 * Updates a {@link Company}
+	 * 
+	 * @param company
+	 *            the company
+	 * @throws CompanyNotFound
+	 *             throws {@link CompanyNotFound} if the Company doesn't exist.
+	 * @throws CompanyAlreadyExists
+	 *             throws {@link CompanyAlreadyExists} if the company's name is
+	 *             already taken.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	void updateCompany(Company company)
+			throws CompanyNotFound, CompanyAlreadyExists, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a list of all Companies
+	 * 
+	 * @return a list of all Companies
+	 * @throws EmptyItemList
+	 *             throws {@link EmptyItemList} if there are no Companies.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Company> getAllCompanies() throws EmptyItemList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a specific {@link Company} by ID
+	 * 
+	 * @param id
+	 *            the id
+	 * @return the Company
+	 * @throws CompanyNotFound
+	 *             throws {@link CompanyNotFound} if the Company doesn't exist.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	Company getCompany(long id) throws CompanyNotFound, UnexpectedError, InvalidSession;
+
+	/**
+	 * Creates a {@link Customer}
+	 * 
+	 * @param customer
+	 *            the customer
+	 * @throws CustomerAlreadyExists
+	 *             throws {@link CustomerAlreadyExists} if the ID key or customer
+	 *             name of already exists.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	void createCustomer(Customer customer) throws CustomerAlreadyExists, UnexpectedError, InvalidSession;
+
+	/**
+	 * Removes a {@link Customer}
+	 * 
+	 * @param customer
+	 *            the customer
+	 * @throws CustomerNotFound
+	 *             throws {@link CustomerNotFound} if the Customer doesn't exist.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	void removeCustomer(Customer customer) throws CustomerNotFound, UnexpectedError, InvalidSession;
+
+	/**
+	 * Updates a {@link Customer}
+	 * 
+	 * @param customer
+	 *            the customer
+	 * @throws CustomerNotFound
+	 *             throws {@link CustomerNotFound} if the Customer doesn't exist.
+	 * @throws CustomerAlreadyExists
+	 *             throws {@link CustomerAlreadyExists} if the customer's name is
+	 *             already taken.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	void updateCustomer(Customer customer)
+			throws CustomerNotFound, CustomerAlreadyExists, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a list of all Customers
+	 * 
+	 * @return a list of all Customers
+	 * @throws EmptyItemList
+	 *             throws {@link EmptyItemList} if there are no Customers.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Customer> getAllCustomers() throws EmptyItemList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a specific {@link Customer} by ID
+	 * 
+	 * @param id
+	 *            the id
+	 * @return the Customer
+	 * @throws CustomerNotFound
+	 *             throws {@link CustomerNotFound} if the Customer doesn't exist.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	Customer getCustomer(long id) throws CustomerNotFound, UnexpectedError, InvalidSession;
+}
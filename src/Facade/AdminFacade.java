@@ -32,7 +32,7 @@ import Exceptions.NotFound.CustomerNotFound;
  * @version 1.0 30/01/2018
  *
  */
-public final class AdminFacade implements CouponClientFacade {
+public final class AdminFacade implements AdminClientFacade {
 	private static final CompanyDBDAO companyUtil = new CompanyDBDAO();
 	private static final CustomerDBDAO customerUtil = new CustomerDBDAO();
 	private static final String USERNAME = "admin", PASSWORD = "admin";
@@ -109,6 +109,7 @@ public final class AdminFacade implements CouponClientFacade {
 
 		if (!companyUtil.removeCompany(company))
 			throw new CompanyNotFound(MessageType.ERR, "", company.getId());
+		SessionCache.COMPANIES.invalidate(company.getId());
 	}
 
 	/**
@@ -137,6 +138,7 @@ public final class AdminFacade implements CouponClientFacade {
 			else
 				throw new CompanyAlreadyExists(MessageType.ERR, company.getName(), -1);
 		}
+		SessionCache.COMPANIES.invalidate(company.getId());
 	}
 
 	/**
@@ -228,6 +230,7 @@ public final class AdminFacade implements CouponClientFacade {
 
 		if (!customerUtil.removeCustomer(customer))
 			throw new CustomerNotFound(MessageType.ERR, "", customer.getId());
+		SessionCache.CUSTOMERS.invalidate(customer.getId());
 	}
 
 	/**
@@ -257,6 +260,7 @@ public final class AdminFacade implements CouponClientFacade {
 			else
 				throw new CustomerAlreadyExists(MessageType.ERR, customer.getName(), -1);
 		}
+		SessionCache.CUSTOMERS.invalidate(customer.getId());
 	}
 
 	/**
@@ -307,6 +311,24 @@ public final class AdminFacade implements CouponClientFacade {
 			return customer;
 	}
 
+	/**
+	 * Gets the statistics of the Company session checks
+	 * 
+	 * @return the Company {@link SessionCacheMXBean}
+	 */
+	public static SessionCacheMXBean getCompanySessionStats() {
+		return SessionCache.COMPANIES;
+	}
+
+	/**
+	 * Gets the statistics of the Customer session checks
+	 * 
+	 * @return the Customer {@link SessionCacheMXBean}
+	 */
+	public static SessionCacheMXBean getCustomerSessionStats() {
+		return SessionCache.CUSTOMERS;
+	}
+
 	// METHODS ::TODO::
 	/* [?] Coupon methods?
 	 * [?] addCouponToCompany [?] removeCouponFromCompany [?] addCouponToCustomer
@@ -4,12 +4,16 @@ import Exceptions.General.BadUsernamePassword;
 import Exceptions.General.UnexpectedError;
 
 /**
- * An ENUM of all client types
+ * An ENUM of all client types<br>
+ * <br>
+ * A session logged in through a client type is handed out as its client
+ * interface, e.g. {@link CustomerClientFacade}, wrapped to record the calls,
+ * errors and latency of each operation, see {@link #getMetrics()}.
  * @author Gonen
  *
  */
 public enum ClientType {
-	ADMIN {
+	ADMIN("Admin", AdminClientFacade.class) {
 		/**
 		 * Logs into ADMINISTRATOR and returns a new instance of AdminFacade if the login information is correct.
 		 * @param username the COMPANY username
@@ -20,9 +24,9 @@ public enum ClientType {
 		 */
 		@Override
 		public CouponClientFacade login(String username, String password) throws BadUsernamePassword, UnexpectedError {
-			return AdminFacade.login(username, password);
+			return instrument(AdminFacade.login(username, password));
 		}
-	}, COMPANY {
+	}, COMPANY("Company", CompanyClientFacade.class) {
 		/**
 		 * Logs into COMPANY user and returns a new instance of CompanyFacade for this user if the login information is correct.
 		 * @param username the COMPANY username
@@ -33,10 +37,10 @@ public enum ClientType {
 		 */
 		@Override
 		public CouponClientFacade login(String username, String password) throws BadUsernamePassword, UnexpectedError {
-			return CompanyFacade.login(username, password);
+			return instrument(CompanyFacade.login(username, password));
 		}
 		
-	}, CUSTOMER {
+	}, CUSTOMER("Customer", CustomerClientFacade.class) {
 		/**
 		 * Logs into CUSTOMER user and returns a new new instance CustomerFacade for this user if the login information is correct.
 		 * @param username the CUSTOMER username
@@ -47,15 +51,54 @@ public enum ClientType {
 		 */
 		@Override
 		public CouponClientFacade login(String username, String password) throws BadUsernamePassword, UnexpectedError {
-			return CustomerFacade.login(username, password);
+			return instrument(CustomerFacade.login(username, password));
 		}
 	};
+
+	private final FacadeMetrics metrics;
+
+	// a private constructor - creates the metrics of the client type's sessions
+	private ClientType(String name, Class<? extends CouponClientFacade> type) {
+		metrics = new FacadeMetrics(name, type);
+	}
+
+	/**
+	 * Gets the per-operation metrics of the sessions of this client type
+	 * 
+	 * @return the {@link FacadeMetricsMXBean}
+	 */
+	public FacadeMetricsMXBean getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Gets a plain text table of the operations called on all the client types
+	 * 
+	 * @return the tables of all the client types
+	 */
+	public static String dumpMetrics() {
+		StringBuilder dump = new StringBuilder();
+		for (ClientType type : values())
+			dump.append(type.metrics.dump()).append('\n');
+		return dump.toString();
+	}
+
+	/**
+	 * Wraps a new session's facade to record its operations
+	 * 
+	 * @param facade
+	 *            the facade, null if the login failed
+	 * @return the facade's client interface
+	 */
+	final CouponClientFacade instrument(CouponClientFacade facade) {
+		return metrics.instrument(facade);
+	}
 	
 	/**
 	 * A method that logs into to a user and returns a new instance of his facade if the login information is correct.
 	 * @param username the username
 	 * @param password the password 
-	 * @return if login successful, returns the facade of the user.
+	 * @return if login successful, returns the facade of the user, as the client interface of this type.
 	 * @throws BadUsernamePassword throws {@link BadUsernamePassword} in case of incorrect username or password
 	 * @throws UnexpectedError throws {@link UnexpectedError} in case of an unexpected error
 	 */
@@ -0,0 +1,270 @@
+package Facade;
+
+import java.util.ArrayList;
+
+import Bean.Company;
+import Bean.Coupon;
+import Bean.CouponType;
+import Exceptions.AlreadyExists.CompanyAlreadyExists;
+import Exceptions.AlreadyExists.CouponAlreadyExists;
+import Exceptions.DoesntOwn.CompanyDoesntOwnCoupon;
+import Exceptions.General.InvalidSession;
+import Exceptions.General.UnexpectedError;
+import Exceptions.ListEmpty.EmptyFilteredList;
+import Exceptions.ListEmpty.EmptyItemList;
+import Exceptions.NotFound.CompanyNotFound;
+import Exceptions.NotFound.CouponNotFound;
+
+/**
+ * The operations of a logged in Company's session, implemented by
+ * {@link CompanyFacade}.<br>
+ * <br>
+ * {@link ClientType#login(String, String)} hands out the session through this
+ * interface, wrapped by {@link FacadeMetrics} to record every operation.
+ * 
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public interface CompanyClientFacade extends CouponClientFacade {
+
+	/**
+	 * Creates a {@link Coupon} and links it to this Company
+	 * 
+	 * @param coupon
+	 *            the coupon
+	 * @throws CouponAlreadyExists
+	 *             throws {@link CouponAlreadyExists} if the ID key or Coupon title
+	 *             already exists.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             CompanyFacade is invalid.
+	 */
+	void createCoupon(Coupon coupon) throws CouponAlreadyExists, UnexpectedError, InvalidSession;
+
+	/**
+	 * Removes a {@link Coupon}
+	 * 
+	 * @param coupon
+	 *            the coupon
+	 * @throws CouponNotFound
+	 *             throws {@link CouponNotFound} if the Coupon doesn't exist.
+	 * @throws CompanyDoesntOwnCoupon
+	 *             throws {@link CouponNotFound} if the coupon is not owned by this
+	 *             company.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             CompanyFacade is invalid.
+	 */
+	void removeCoupon(Coupon coupon)
+			throws CouponNotFound, CompanyDoesntOwnCoupon, UnexpectedError, InvalidSession;
+
+	/**
+	 * Updates a {@link Coupon}
+	 * 
+	 * @param coupon
+	 *            the coupon
+	 * @throws CouponNotFound
+	 *             throws {@link CouponNotFound} if the coupon doesn't exist.
+	 * @throws CompanyDoesntOwnCoupon
+	 *             throws {@link CouponNotFound} if the coupon is not owned by this
+	 *             company.
+	 * @throws CouponAlreadyExists
+	 *             throws {@link CouponAlreadyExists} if the coupon title is already
+	 *             taken.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             CompanyFacade is invalid.
+	 */
+	void updateCoupon(Coupon coupon)
+			throws CouponNotFound, CompanyDoesntOwnCoupon, CouponAlreadyExists, UnexpectedError, InvalidSession;
+
+	/**
+	 * Removes a {@link Coupon}'s link to this {@link Company}.
+	 * 
+	 * @param coupon
+	 *            the coupon
+	 * @throws CouponNotFound
+	 *             throws {@link CouponNotFound} if the coupon doesn't exist.
+	 * @throws CompanyDoesntOwnCoupon
+	 *             throws {@link CouponNotFound} if the coupon is not owned by this
+	 *             company.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             CompanyFacade is invalid.
+	 */
+	void removeCouponFromCompany(Coupon coupon)
+			throws CouponNotFound, CompanyDoesntOwnCoupon, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets the {@link Company} this CompanyFacade session is using
+	 * 
+	 * @return the company
+	 * @throws CompanyNotFound
+	 *             throws {@link CompanyNotFound} if this company's data couldn't be
+	 *             found.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             CompanyFacade is invalid.
+	 * @throws UnexpectedError
+	 */
+	Company getCompany() throws InvalidSession, UnexpectedError;
+
+	/**
+	 * Gets a list of {@link Coupon}s owned by this {@link CompanyFacade}'s session
+	 * filtered by types and max price
+	 * 
+	 * @param types
+	 *            the types filter
+	 * @param maxPrice
+	 *            the max price
+	 * @return the filtered list of coupons owned by this company
+	 * @throws EmptyFilteredList
+	 *             throws {@link EmptyFilteredList} if the list is empty.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getCouponsBy(CouponType[] types, double maxPrice)
+			throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a list of {@link Coupon}s owned by this {@link CompanyFacade}'s session
+	 * filtered by types
+	 * 
+	 * @param types
+	 *            the types filter
+	 * @return the filtered list of coupons owned by this company
+	 * @throws EmptyFilteredList
+	 *             throws {@link EmptyFilteredList} if the list is empty.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getCouponsBy(CouponType[] types)
+			throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a list of {@link Coupon}s owned by this {@link CompanyFacade}'s session
+	 * filtered by max price
+	 * 
+	 * @param maxPrice
+	 *            the max price
+	 * @return the filtered list of coupons owned by this company
+	 * @throws EmptyFilteredList
+	 *             throws {@link EmptyFilteredList} if the list is empty.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getCouponsByMaxPrice(double maxPrice)
+			throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a list of {@link Coupon}s owned by this {@link CompanyFacade}'s session
+	 * filtered by a certain type and max price
+	 * 
+	 * @param type
+	 *            the type
+	 * @param maxPrice
+	 *            the max price
+	 * @return the filtered list of coupons owned by this company
+	 * @throws EmptyFilteredList
+	 *             throws {@link EmptyFilteredList} if the list is empty.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getCouponsByMaxPrice(CouponType type, double maxPrice)
+			throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a list of {@link Coupon}s owned by this {@link CompanyFacade}'s session
+	 * filtered by a certain type
+	 * 
+	 * @param type
+	 *            the type
+	 * @return the filtered list of coupons owned by this company
+	 * @throws EmptyFilteredList
+	 *             throws {@link EmptyFilteredList} if the list is empty.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getCouponsByType(CouponType type)
+			throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a list of all {@link Coupon}s owned by this {@link CompanyFacade}'s
+	 * session
+	 * 
+	 * @return the list of coupons owned by this company
+	 * @throws EmptyItemList
+	 *             throws {@link EmptyItemList} if there are no Coupons.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getCoupons() throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Updates this {@link Company}'s password.
+	 * 
+	 * @param password
+	 *            the new password
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	void setPassword(String password) throws CompanyNotFound, UnexpectedError, InvalidSession;
+
+	/**
+	 * Updates this {@link Company}'s email.
+	 * 
+	 * @param email
+	 *            the new email
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	void setEmail(String email) throws UnexpectedError, InvalidSession;
+
+	/**
+	 * Updates this {@link Company}'s name.
+	 * 
+	 * @param name
+	 *            the new email
+	 * @throws CompanyAlreadyExists
+	 *             throws {@link CompanyAlreadyExists} if the name of the company is
+	 *             already taken.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	void setName(String name) throws CompanyAlreadyExists, UnexpectedError, InvalidSession;
+}
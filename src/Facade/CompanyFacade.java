@@ -34,7 +34,7 @@ import Exceptions.NotFound.CouponNotFound;
  * @version 1.0 30/01/2018
  *
  */
-public final class CompanyFacade implements CouponClientFacade {
+public final class CompanyFacade implements CompanyClientFacade {
 	private static final CompanyDAO companyUtil = new CompanyDBDAO();
 	private static final CouponDAO couponUtil = new CouponDBDAO();
 	private Company company = null;
@@ -76,7 +76,8 @@ public final class CompanyFacade implements CouponClientFacade {
 	 * Validates this CompanyFacade's session.<br>
 	 * <br>
 	 * Checks if current value of this CompanyFacade's company is not null.<br>
-	 * Syncs it with the database and checks again if it's not null.<br>
+	 * Syncs it with the database and checks again if it's not null, unless the
+	 * company was validated recently, see {@link SessionCache}.<br>
 	 * <br>
 	 * 
 	 * if any of the values are null, the session is not valid.
@@ -90,8 +91,13 @@ public final class CompanyFacade implements CouponClientFacade {
 		try {
 			if (this.company == null)
 				return false;
-			else if ((this.company = companyUtil.getCompanyOnly(this.company.getId())) == null)
+			else if (SessionCache.COMPANIES.isValid(this.company.getId()))
+				return true;
+
+			long epoch = SessionCache.COMPANIES.epoch();
+			if ((this.company = companyUtil.getCompanyOnly(this.company.getId())) == null)
 				return false;
+			SessionCache.COMPANIES.validated(this.company.getId(), epoch);
 			return true;
 		} catch (UnexpectedError e) {
 			throw new InvalidSession(MessageType.ERR, ClientType.COMPANY, "Couldn't validate session");
@@ -0,0 +1,189 @@
+package Facade;
+
+import java.util.ArrayList;
+
+import Bean.Coupon;
+import Bean.CouponType;
+import Bean.Customer;
+import Exceptions.AlreadyExists.CustomerAlreadyExists;
+import Exceptions.AlreadyOwns.CustomerAlreadyOwnsCoupon;
+import Exceptions.CouponException.CouponExpired;
+import Exceptions.CouponException.CouponStockEmpty;
+import Exceptions.General.InvalidSession;
+import Exceptions.General.UnexpectedError;
+import Exceptions.ListEmpty.EmptyFilteredList;
+import Exceptions.NotFound.CompanyNotFound;
+import Exceptions.NotFound.CouponNotFound;
+
+/**
+ * The operations of a logged in Customer's session, implemented by
+ * {@link CustomerFacade}.<br>
+ * <br>
+ * {@link ClientType#login(String, String)} hands out the session through this
+ * interface, wrapped by {@link FacadeMetrics} to record every operation.
+ * 
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public interface CustomerClientFacade extends CouponClientFacade {
+
+	/**
+	 * Purchases a {@link Coupon} for this Customer
+	 * @param coupon the coupon
+	 * @throws CompanyNotFound
+	 *             throws {@link CouponNotFound} if the Coupon doesn't exist.
+	 * @throws CustomerAlreadyOwnsCoupon throws {@link CustomerAlreadyOwnsCoupon} if this customer already owns the coupon.
+	 * @throws CouponStockEmpty throws {@link CouponStockEmpty} if the coupon is out of stock.
+	 * @throws CouponExpired throws {@link CouponExpired} if the coupon has expired
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             CompanyFacade is invalid.
+	 */
+	void purchaseCoupon(Coupon coupon) throws CouponNotFound, CustomerAlreadyOwnsCoupon, CouponStockEmpty,
+			CouponExpired, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a all of the purchased {@link Coupon}s this customer has, filtered by
+	 * types and max price
+	 * 
+	 * @param types
+	 *            the types filter
+	 * @param maxPrice
+	 *            the max price
+	 * @return the filtered list of coupons owned by this customer
+	 * @throws EmptyFilteredList
+	 *             throws {@link EmptyFilteredList} if the list is empty.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getPurchasedCoupons(CouponType[] types, double maxPrice)
+			throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a all of the purchased {@link Coupon}s this customer has, filtered by
+	 * types
+	 * 
+	 * @param types
+	 *            the types filter
+	 * @return the filtered list of coupons owned by this customer
+	 * @throws EmptyFilteredList
+	 *             throws {@link EmptyFilteredList} if the list is empty.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getPurchasedCoupons(CouponType[] types)
+			throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a all of the purchased {@link Coupon}s this customer has, filtered by
+	 * max price
+	 * 
+	 * @param maxPrice
+	 *            the max price
+	 * @return the filtered list of coupons owned by this customer
+	 * @throws EmptyFilteredList
+	 *             throws {@link EmptyFilteredList} if the list is empty.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getPurchasedCouponsByMaxPrice(double maxPrice)
+			throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a all of the purchased {@link Coupon}s this customer has, filtered by a
+	 * certain type and max price
+	 * 
+	 * @param type
+	 *            the type
+	 * @param maxPrice
+	 *            the max price
+	 * @return the filtered list of coupons owned by this customer
+	 * @throws EmptyFilteredList
+	 *             throws {@link EmptyFilteredList} if the list is empty.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getPurchasedCouponsByMaxPrice(CouponType type, double maxPrice)
+			throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a all of the purchased {@link Coupon}s this customer has, filtered by a
+	 * certain type.
+	 * 
+	 * @param type
+	 *            the type
+	 * @param maxPrice
+	 *            the max price
+	 * @return the filtered list of coupons owned by this customer
+	 * @throws EmptyFilteredList
+	 *             throws {@link EmptyFilteredList} if the list is empty.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getPurchasedCouponsByType(CouponType type)
+			throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Gets a all of the purchased {@link Coupon}s this customer has.
+	 * 
+	 * @param types
+	 *            the types filter
+	 * @param maxPrice
+	 *            the max price
+	 * @return the filtered list of coupons owned by this customer
+	 * @throws EmptyFilteredList
+	 *             throws {@link EmptyFilteredList} if the list is empty.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	ArrayList<Coupon> getPurchasedCoupons() throws EmptyFilteredList, UnexpectedError, InvalidSession;
+
+	/**
+	 * Updates this {@link Customer}'s password.
+	 * 
+	 * @param password
+	 *            the new password
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	void setPassword(String password) throws UnexpectedError, InvalidSession;
+
+	/**
+	 * Updates this {@link Customer}'s name.
+	 * 
+	 * @param name
+	 *            the new name
+	 * @throws CustomerAlreadyExists
+	 *             throws {@link CustomerAlreadyExists} if the name of the customer is
+	 *             already taken.
+	 * @throws UnexpectedError
+	 *             throws {@link UnexpectedError} if an unexpected error occurs.
+	 * @throws InvalidSession
+	 *             throws {@link InvalidSession} if the session of this instance of
+	 *             AdminFacade is invalid.
+	 */
+	void setName(String name) throws CustomerAlreadyExists, UnexpectedError, InvalidSession;
+}
@@ -1,6 +1,5 @@
 package Facade;
 
-import java.sql.Date;
 import java.util.ArrayList;
 
 import Bean.Coupon;
@@ -8,6 +7,7 @@ import Bean.CouponType;
 import Bean.Customer;
 import DAO.CouponDAO;
 import DAO.CustomerDAO;
+import DAO.PurchaseOutcome;
 import DB.CouponDBDAO;
 import DB.CustomerDBDAO;
 import Exceptions.ItemType;
@@ -35,7 +35,7 @@ import Exceptions.NotFound.CouponNotFound;
  * @version 1.0 30/01/2018
  *
  */
-public final class CustomerFacade implements CouponClientFacade {
+public final class CustomerFacade implements CustomerClientFacade {
 	private static final CustomerDAO customerUtil = new CustomerDBDAO();
 	private static final CouponDAO couponUtil = new CouponDBDAO();
 	private Customer customer = null;
@@ -77,7 +77,8 @@ public final class CustomerFacade implements CouponClientFacade {
 	 * Validates this CustomerFacade's session.<br>
 	 * <br>
 	 * Checks if current value of this CustomerFacade's customer is not null.<br>
-	 * Syncs it with the database and checks again if it's not null.<br>
+	 * Syncs it with the database and checks again if it's not null, unless the
+	 * customer was validated recently, see {@link SessionCache}.<br>
 	 * <br>
 	 * 
 	 * if any of the values are null, the session is not valid.
@@ -92,8 +93,13 @@ public final class CustomerFacade implements CouponClientFacade {
 		try {
 			if (this.customer == null)
 				return false;
-			else if ((this.customer = customerUtil.getCustomerOnly(this.customer.getId())) == null)
+			else if (SessionCache.CUSTOMERS.isValid(this.customer.getId()))
+				return true;
+
+			long epoch = SessionCache.CUSTOMERS.epoch();
+			if ((this.customer = customerUtil.getCustomerOnly(this.customer.getId())) == null)
 				return false;
+			SessionCache.CUSTOMERS.validated(this.customer.getId(), epoch);
 			return true;
 		} catch (UnexpectedError e) {
 			throw new InvalidSession(MessageType.ERR, ClientType.COMPANY, "Couldn't validate session");
@@ -118,22 +124,30 @@ public final class CustomerFacade implements CouponClientFacade {
 			CouponExpired, UnexpectedError, InvalidSession {
 		if (!hasSession())
 			throw new InvalidSession(MessageType.ERR, ClientType.CUSTOMER);
-		
-		Coupon couponFromDB = couponUtil.getCoupon(coupon.getId());
 
-		if (couponFromDB != null) {
-			if (couponUtil.couponsLeft(coupon) < 1)
-				throw new CouponStockEmpty(MessageType.ERR, coupon.getTitle(), coupon.getId());
-			
-			if (couponFromDB.getEndDate().before(new Date(System.currentTimeMillis())))
-				throw new CouponExpired(MessageType.ERR, couponFromDB.getTitle(), couponFromDB.getId(),
-					couponFromDB.getEndDate());
+		PurchaseEvent event = new PurchaseEvent();
+		event.begin();
+		PurchaseOutcome outcome = couponUtil.purchaseCoupon(coupon, this.customer);
+		event.purchased(coupon.getId(), this.customer.getId(), outcome);
 
-			if (!couponUtil.addCouponToCustomer(coupon, this.customer))
-				throw new CustomerAlreadyOwnsCoupon(MessageType.ERR, this.customer.getName(), this.customer.getId(),
+		switch (outcome) {
+		case PURCHASED:
+			return;
+		case STOCK_EMPTY:
+			throw new CouponStockEmpty(MessageType.ERR, coupon.getTitle(), coupon.getId());
+		case EXPIRED: // only the failure path reads the Coupon back, for its end date
+			Coupon expired = couponUtil.getCoupon(coupon.getId());
+			if (expired == null)
+				throw new CouponNotFound(MessageType.ERR, coupon.getTitle(), coupon.getId());
+			throw new CouponExpired(MessageType.ERR, expired.getTitle(), expired.getId(), expired.getEndDate());
+		case ALREADY_OWNED:
+			throw new CustomerAlreadyOwnsCoupon(MessageType.ERR, this.customer.getName(), this.customer.getId(),
 					coupon.getTitle(), coupon.getId());
-		} else 
+		case CUSTOMER_NOT_FOUND:
+			throw new InvalidSession(MessageType.ERR, ClientType.CUSTOMER);
+		default:
 			throw new CouponNotFound(MessageType.ERR, coupon.getTitle(), coupon.getId());
+		}
 	}
 
 	/**
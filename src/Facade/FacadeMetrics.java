@@ -0,0 +1,203 @@
+package Facade;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import LogHandler.CouponLogHandler;
+import LogHandler.LogLevel;
+import Pool.LatencyHistogram;
+import Pool.LatencySnapshot;
+
+/**
+ * Records the calls to the operations of one client type's facade, through a
+ * dynamic proxy over its client interface (e.g. {@link CustomerClientFacade}),
+ * so no facade method has to time itself.<br>
+ * <br>
+ * Every operation counts its calls and its errors, by the class of the
+ * exception thrown (e.g. <em>CouponStockEmpty</em>), and records its latency
+ * in a {@link LatencyHistogram}. Overloads of a method are one operation.
+ * <strong>couponsystem.facade.metrics=false</strong> (system property) hands
+ * out the facades themselves.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class FacadeMetrics implements FacadeMetricsMXBean {
+	private static final CouponLogHandler handler = CouponLogHandler.getInstance();
+	private static final boolean enabled = Boolean
+			.parseBoolean(System.getProperty("couponsystem.facade.metrics", "true"));
+	private final String name;
+	private final Class<? extends CouponClientFacade> type;
+	// both filled by the constructor only
+	private final Map<Method, Operation> byMethod = new HashMap<>();
+	private final TreeMap<String, Operation> byName = new TreeMap<>();
+
+	/**
+	 * The counters and histogram of an operation
+	 */
+	private static final class Operation {
+		private final String name;
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder errors = new LongAdder();
+		private final ConcurrentHashMap<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+
+		private Operation(String name) {
+			this.name = name;
+		}
+
+		private OperationStats snapshot() {
+			TreeMap<String, Long> byType = new TreeMap<>();
+			errorsByType.forEach((type, count) -> byType.put(type, count.sum()));
+			return new OperationStats(name, errors.sum(), byType, latency.snapshot());
+		}
+	}
+
+	/**
+	 * Times the calls to a facade and hands them on
+	 */
+	private final class Session implements InvocationHandler {
+		private final CouponClientFacade facade;
+
+		private Session(CouponClientFacade facade) {
+			this.facade = facade;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Operation operation = byMethod.get(method);
+			if (operation == null) // Object's methods
+				return method.getName().equals("equals") ? proxy == args[0] : invokeFacade(method, args);
+
+			long start = System.nanoTime();
+			try {
+				return invokeFacade(method, args);
+			} catch (Throwable e) {
+				operation.errors.increment();
+				operation.errorsByType.computeIfAbsent(e.getClass().getSimpleName(), type -> new LongAdder())
+						.increment();
+				throw e;
+			} finally {
+				operation.latency.recordNanos(System.nanoTime() - start);
+			}
+		}
+
+		// Calls the facade, throwing what it threw
+		private Object invokeFacade(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(facade, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	/**
+	 * Constructs a new {@link FacadeMetrics} and registers its MBean.
+	 *
+	 * @param name
+	 *            the client type's name, e.g. <em>Customer</em>
+	 * @param type
+	 *            the client interface of the facade
+	 */
+	FacadeMetrics(String name, Class<? extends CouponClientFacade> type) {
+		this.name = name;
+		this.type = type;
+		for (Method method : type.getMethods())
+			byMethod.put(method, byName.computeIfAbsent(method.getName(), Operation::new));
+
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName("CouponSystem:type=FacadeMetrics,name=" + name);
+			if (!server.isRegistered(objectName))
+				server.registerMBean(this, objectName);
+		} catch (JMException e) {
+			handler.log(LogLevel.WARN, "Couldn't register the {} facade metrics MBean.\n{}", name, e);
+		}
+	}
+
+	/**
+	 * Wraps a new session's facade to record its operations.
+	 *
+	 * @param facade
+	 *            the facade, implementing this client type's interface
+	 * @return a proxy of the facade's client interface, or the facade itself if
+	 *         metrics are disabled or it's null
+	 */
+	CouponClientFacade instrument(CouponClientFacade facade) {
+		if (!enabled || facade == null)
+			return facade;
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new Session(facade)));
+	}
+
+	@Override
+	public List<OperationStats> getOperations() {
+		ArrayList<OperationStats> operations = new ArrayList<>(byName.size());
+		for (Operation operation : byName.values())
+			operations.add(operation.snapshot());
+		return operations;
+	}
+
+	@Override
+	public OperationStats getOperation(String name) {
+		Operation operation = byName.get(name);
+		return operation == null ? null : operation.snapshot();
+	}
+
+	@Override
+	public long getCalls() {
+		long calls = 0;
+		for (Operation operation : byName.values())
+			calls += operation.latency.getCount();
+		return calls;
+	}
+
+	@Override
+	public long getErrors() {
+		long errors = 0;
+		for (Operation operation : byName.values())
+			errors += operation.errors.sum();
+		return errors;
+	}
+
+	@Override
+	public String dump() {
+		StringBuilder dump = new StringBuilder(name).append(" facade, latency in microseconds\n").append(String
+				.format("%-32s %10s %8s %10s %8s %8s %8s %8s %8s%n", "operation", "calls", "errors", "mean", "p50",
+						"p90", "p99", "p99.9", "max"));
+		for (Operation operation : byName.values()) {
+			OperationStats stats = operation.snapshot();
+			if (stats.getCalls() == 0)
+				continue;
+			LatencySnapshot latency = stats.getLatency();
+			dump.append(String.format("%-32s %10d %8d %10.1f %8d %8d %8d %8d %8d%n", stats.getName(),
+					stats.getCalls(), stats.getErrors(), latency.getMean(), latency.getP50(), latency.getP90(),
+					latency.getP99(), latency.getP999(), latency.getMax()));
+			for (Map.Entry<String, Long> error : stats.getErrorsByType().entrySet())
+				dump.append(String.format("  %-30s %10s %8d%n", error.getKey(), "", error.getValue()));
+		}
+		return dump.toString();
+	}
+
+	@Override
+	public void resetStatistics() {
+		for (Operation operation : byName.values()) {
+			operation.latency.reset();
+			operation.errors.reset();
+			operation.errorsByType.clear();
+		}
+	}
+}
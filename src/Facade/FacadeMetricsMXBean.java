@@ -0,0 +1,58 @@
+package Facade;
+
+import java.util.List;
+
+/**
+ * The per-operation metrics of the sessions of one {@link ClientType},
+ * registered with the platform MBeanServer as
+ * <strong>CouponSystem:type=FacadeMetrics,name=Admin</strong>,
+ * <strong>name=Company</strong> and <strong>name=Customer</strong>.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public interface FacadeMetricsMXBean {
+
+	/**
+	 * Gets the metrics of every operation of the facade
+	 *
+	 * @return the operations, by name
+	 */
+	List<OperationStats> getOperations();
+
+	/**
+	 * Gets the metrics of one operation
+	 *
+	 * @param name
+	 *            the operation's name, the facade method
+	 * @return the operation, or null if the facade has no such method
+	 */
+	OperationStats getOperation(String name);
+
+	/**
+	 * Gets the number of calls to all the operations
+	 *
+	 * @return the calls
+	 */
+	long getCalls();
+
+	/**
+	 * Gets the number of calls to all the operations that threw
+	 *
+	 * @return the errors
+	 */
+	long getErrors();
+
+	/**
+	 * Gets a plain text table of the operations that were called, with their
+	 * calls, errors and latency percentiles
+	 *
+	 * @return the table
+	 */
+	String dump();
+
+	/**
+	 * Clears the counters and histograms.
+	 */
+	void resetStatistics();
+}
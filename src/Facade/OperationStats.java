@@ -0,0 +1,90 @@
+package Facade;
+
+import java.util.Map;
+
+import Pool.LatencySnapshot;
+
+/**
+ * A point in time summary of the calls to one facade operation, see
+ * {@link FacadeMetricsMXBean}. Exposed over JMX as composite data.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public final class OperationStats {
+	private final String name;
+	private final long errors;
+	private final Map<String, Long> errorsByType;
+	private final LatencySnapshot latency;
+
+	/**
+	 * Constructs a new {@link OperationStats}
+	 *
+	 * @param name
+	 *            the operation's name, the facade method
+	 * @param errors
+	 *            the number of calls that threw
+	 * @param errorsByType
+	 *            the number of calls that threw, by the simple name of the
+	 *            exception's class
+	 * @param latency
+	 *            the latency of all the calls
+	 */
+	public OperationStats(String name, long errors, Map<String, Long> errorsByType, LatencySnapshot latency) {
+		this.name = name;
+		this.errors = errors;
+		this.errorsByType = errorsByType;
+		this.latency = latency;
+	}
+
+	/**
+	 * Gets the operation's name
+	 *
+	 * @return the name of the facade method, overloads share it
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the number of calls, failed ones included
+	 *
+	 * @return the calls
+	 */
+	public long getCalls() {
+		return latency.getCount();
+	}
+
+	/**
+	 * Gets the number of calls that threw
+	 *
+	 * @return the errors
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Gets the number of calls that threw, by exception
+	 *
+	 * @return the errors by the simple name of the exception's class, e.g.
+	 *         <em>CouponStockEmpty</em>
+	 */
+	public Map<String, Long> getErrorsByType() {
+		return errorsByType;
+	}
+
+	/**
+	 * Gets the latency percentiles
+	 *
+	 * @return the latency, in microseconds
+	 */
+	public LatencySnapshot getLatency() {
+		return latency;
+	}
+
+	@Override
+	public String toString() {
+		return name + ": errors=" + errors + (errorsByType.isEmpty() ? "" : " " + errorsByType) + ", " + latency;
+	}
+}
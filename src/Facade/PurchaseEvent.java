@@ -0,0 +1,52 @@
+package Facade;
+
+import DAO.PurchaseOutcome;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event of a {@link CustomerFacade#purchaseCoupon} attempt,
+ * with its {@link PurchaseOutcome}.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@Name("CouponSystem.Purchase")
+@Label("Coupon Purchase")
+@Category({ "Coupon System", "Facade" })
+@Description("A Customer's attempt to purchase a Coupon")
+@StackTrace(false)
+final class PurchaseEvent extends Event {
+	@Label("Coupon ID")
+	long couponId;
+
+	@Label("Customer ID")
+	long customerId;
+
+	@Label("Outcome")
+	String outcome;
+
+	/**
+	 * Ends the event and commits it if it's recorded.
+	 *
+	 * @param couponId
+	 *            the Coupon's id
+	 * @param customerId
+	 *            the Customer's id
+	 * @param outcome
+	 *            the outcome
+	 */
+	void purchased(long couponId, long customerId, PurchaseOutcome outcome) {
+		end();
+		if (shouldCommit()) {
+			this.couponId = couponId;
+			this.customerId = customerId;
+			this.outcome = outcome.name();
+			commit();
+		}
+	}
+}
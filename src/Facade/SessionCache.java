@@ -0,0 +1,171 @@
+package Facade;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import LogHandler.CouponLogHandler;
+import LogHandler.LogLevel;
+
+/**
+ * Remembers which accounts were recently found in the database, so the
+ * facades' session checks don't read the account on every call.<br>
+ * <br>
+ * An account is trusted for <strong>couponsystem.session.revalidateInterval</strong>
+ * milliseconds (system property, default 30000) after it was read, and is
+ * dropped at once when the {@link AdminFacade} removes or updates it. Only the
+ * time of the last validation is kept; each facade keeps its own copy of its
+ * account. Entries expire with the interval, and at most
+ * <strong>couponsystem.session.maxSize</strong> accounts (default 100000) are
+ * kept, the least recently validated dropped first.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class SessionCache implements SessionCacheMXBean {
+	private static final CouponLogHandler handler = CouponLogHandler.getInstance();
+	private static final long DEFAULT_INTERVAL = Long.getLong("couponsystem.session.revalidateInterval", 30000);
+	private static final long MAX_SIZE = Math.max(0, Long.getLong("couponsystem.session.maxSize", 100000));
+	/**
+	 * The session cache of Company accounts
+	 */
+	static final SessionCache COMPANIES = new SessionCache("Company");
+	/**
+	 * The session cache of Customer accounts
+	 */
+	static final SessionCache CUSTOMERS = new SessionCache("Customer");
+	private final AtomicLong epoch = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+	private volatile long interval = TimeUnit.MILLISECONDS.toNanos(Math.max(0, DEFAULT_INTERVAL));
+	private volatile Cache<Long, Long> validated = newCache(interval);
+
+	// a private constructor - registers the statistics MBean
+	private SessionCache(String name) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName("CouponSystem:type=SessionCache,name=" + name);
+			if (!server.isRegistered(objectName))
+				server.registerMBean(this, objectName);
+		} catch (JMException e) {
+			handler.log(LogLevel.WARN, "Couldn't register the {} session cache statistics MBean.\n{}", name, e);
+		}
+	}
+
+	/**
+	 * Checks if an account was validated within the revalidation interval.
+	 *
+	 * @param id
+	 *            the account's id
+	 * @return true if the session can be trusted without reading the database
+	 */
+	boolean isValid(long id) {
+		if (validated.getIfPresent(id) != null) {
+			hits.increment();
+			return true;
+		}
+		misses.increment();
+		return false;
+	}
+
+	/**
+	 * Gets the current invalidation epoch, to be taken before reading an account
+	 * and handed to {@link #validated(long, long)} after.
+	 *
+	 * @return the epoch
+	 */
+	long epoch() {
+		return epoch.get();
+	}
+
+	/**
+	 * Records an account as found in the database, unless an account was
+	 * invalidated while it was being read.
+	 *
+	 * @param id
+	 *            the account's id
+	 * @param readEpoch
+	 *            the {@link #epoch()} taken before the account was read
+	 */
+	void validated(long id, long readEpoch) {
+		Cache<Long, Long> cache = validated;
+		if (interval > 0 && readEpoch == epoch.get()) {
+			cache.put(id, System.nanoTime());
+			if (readEpoch != epoch.get()) // invalidated meanwhile
+				cache.invalidate(id);
+		}
+	}
+
+	/**
+	 * Drops an account, so the next session check reads it from the database.
+	 *
+	 * @param id
+	 *            the account's id
+	 */
+	void invalidate(long id) {
+		epoch.incrementAndGet();
+		validated.invalidate(id);
+		invalidations.increment();
+	}
+
+	@Override
+	public long getHits() {
+		return hits.sum();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public long getInvalidations() {
+		return invalidations.sum();
+	}
+
+	@Override
+	public double getHitRatio() {
+		long hits = getHits(), total = hits + getMisses();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	@Override
+	public int getSize() {
+		return (int) validated.size();
+	}
+
+	@Override
+	public long getRevalidationInterval() {
+		return TimeUnit.NANOSECONDS.toMillis(interval);
+	}
+
+	@Override
+	public void setRevalidationInterval(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("revalidation interval must be >= 0");
+		interval = TimeUnit.MILLISECONDS.toNanos(millis);
+		validated = newCache(interval); // the old entries were trusted for the old interval
+	}
+
+	// A bounded cache whose entries expire after the revalidation interval
+	private static Cache<Long, Long> newCache(long intervalNanos) {
+		return CacheBuilder.newBuilder().maximumSize(MAX_SIZE).expireAfterWrite(intervalNanos, TimeUnit.NANOSECONDS)
+				.build();
+	}
+
+	@Override
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		invalidations.reset();
+	}
+}
@@ -0,0 +1,70 @@
+package Facade;
+
+/**
+ * The statistics of a {@link SessionCache}, registered with the platform
+ * MBeanServer as <strong>CouponSystem:type=SessionCache,name=Company</strong>
+ * and <strong>CouponSystem:type=SessionCache,name=Customer</strong>.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public interface SessionCacheMXBean {
+
+	/**
+	 * Gets the number of session checks answered without the database
+	 *
+	 * @return the hits
+	 */
+	long getHits();
+
+	/**
+	 * Gets the number of session checks that had to read the account from the
+	 * database
+	 *
+	 * @return the misses
+	 */
+	long getMisses();
+
+	/**
+	 * Gets the number of accounts invalidated by account changes
+	 *
+	 * @return the invalidations
+	 */
+	long getInvalidations();
+
+	/**
+	 * Gets the share of session checks answered without the database
+	 *
+	 * @return the hit ratio, 0 to 1
+	 */
+	double getHitRatio();
+
+	/**
+	 * Gets the number of validated accounts held
+	 *
+	 * @return the size
+	 */
+	int getSize();
+
+	/**
+	 * Gets the time a validated session is trusted before it's read from the
+	 * database again
+	 *
+	 * @return the revalidation interval, in milliseconds
+	 */
+	long getRevalidationInterval();
+
+	/**
+	 * Sets the time a validated session is trusted before it's read from the
+	 * database again, 0 validates every call. Drops the validated accounts.
+	 *
+	 * @param millis
+	 *            the revalidation interval, in milliseconds
+	 */
+	void setRevalidationInterval(long millis);
+
+	/**
+	 * Clears the counters.
+	 */
+	void resetStatistics();
+}
@@ -0,0 +1,358 @@
+package LogHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the log on a background thread. Logging threads only put the message
+ * and its time in a {@link LogRingBuffer}; the writer thread formats the
+ * messages and writes them in batches, to the {@link LogFile} and to the
+ * console. The writer also rolls the log file over, between batches. The file gets either the text log or
+ * one JSON object per line; the console always gets the text log.<br>
+ * <br>
+ * When the buffer is full the {@link OverflowPolicy} decides whether the
+ * logging thread waits or the message is dropped. Dropped messages are counted
+ * and reported in the log by the writer.<br>
+ * <br>
+ * A shutdown hook writes what's left in the buffer when the JVM exits; after
+ * that, logging threads write their messages themselves.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class AsyncLogWriter implements Runnable {
+	private static final int BATCH_SIZE = 1024;
+	private static final long IDLE_PARK = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final long FULL_PARK = TimeUnit.MICROSECONDS.toNanos(50);
+	private static final long CLOSE_TIMEOUT = 5000;
+	private static final DateTimeFormatter JSON_TIME = DateTimeFormatter.ISO_OFFSET_DATE_TIME
+			.withZone(ZoneId.systemDefault());
+	private final LogRingBuffer buffer;
+	private final OverflowPolicy policy;
+	private final int sampleRate;
+	private final LogFile file;
+	private final boolean console, json;
+	private final Thread thread;
+	private final LongAdder dropped = new LongAdder();
+	private final AtomicLong overflows = new AtomicLong();
+	private volatile boolean sleeping, closed;
+	// writer side only, guarded by this
+	private final StringBuilder fileText = new StringBuilder(), consoleText = new StringBuilder();
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private final ByteBuffer bytes = ByteBuffer.allocateDirect(64 * 1024);
+	private final LogRingBuffer.Sink formatter = this::format;
+	private long stampSecond = Long.MIN_VALUE;
+	private String stamp;
+	private boolean fileFailed;
+
+	/**
+	 * Constructs a new {@link AsyncLogWriter} and starts its thread.
+	 *
+	 * @param file
+	 *            the log file, or null to log to the console only
+	 * @param console
+	 *            true to log to the console as well
+	 * @param json
+	 *            true to write the file as JSON lines
+	 * @param capacity
+	 *            the number of messages the buffer holds
+	 * @param policy
+	 *            what to do when the buffer is full
+	 * @param sampleRate
+	 *            with {@link OverflowPolicy#SAMPLE}, keeps one of this many
+	 *            messages when the buffer is full
+	 */
+	AsyncLogWriter(LogFile file, boolean console, boolean json, int capacity, OverflowPolicy policy,
+			int sampleRate) {
+		this.file = file;
+		this.console = console;
+		this.json = json;
+		this.buffer = new LogRingBuffer(capacity);
+		this.policy = policy;
+		this.sampleRate = Math.max(1, sampleRate);
+		this.thread = new Thread(this, "CouponLogHandler-Writer");
+		thread.setDaemon(true);
+		thread.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(this::close, "CouponLogHandler-Shutdown"));
+	}
+
+	/**
+	 * Queues a message to be written.
+	 *
+	 * @param time
+	 *            the time the message was logged, in epoch milliseconds
+	 * @param level
+	 *            the message's level
+	 * @param message
+	 *            the message
+	 * @param labeled
+	 *            true if the message starts with its level's label
+	 * @param fields
+	 *            the key-value pairs of the message, null if none
+	 */
+	void append(long time, LogLevel level, String message, boolean labeled, Object[] fields) {
+		if (closed) { // no writer thread anymore, write it here
+			if (!buffer.offer(time, level, message, labeled, fields))
+				dropped.increment();
+			drain();
+			return;
+		}
+
+		if (!buffer.offer(time, level, message, labeled, fields) && !overflow(time, level, message, labeled, fields))
+			return;
+		if (sleeping)
+			LockSupport.unpark(thread);
+	}
+
+	/**
+	 * Gets the number of messages dropped since the last report
+	 *
+	 * @return the dropped messages not reported yet
+	 */
+	long getDropped() {
+		return dropped.sum();
+	}
+
+	@Override
+	public void run() {
+		while (!closed) {
+			if (!drain()) {
+				sleeping = true;
+				if (buffer.isEmpty() && !closed) // rechecked after announcing, so no wake up is lost
+					LockSupport.parkNanos(this, IDLE_PARK);
+				sleeping = false;
+			}
+		}
+	}
+
+	// Applies the overflow policy to a message that found the buffer full
+	private boolean overflow(long time, LogLevel level, String message, boolean labeled, Object[] fields) {
+		if (policy == OverflowPolicy.DROP
+				|| (policy == OverflowPolicy.SAMPLE && overflows.getAndIncrement() % sampleRate != 0)) {
+			dropped.increment();
+			return false;
+		}
+
+		while (!buffer.offer(time, level, message, labeled, fields)) {
+			if (closed) {
+				append(time, level, message, labeled, fields);
+				return false;
+			}
+			LockSupport.unpark(thread);
+			LockSupport.parkNanos(this, FULL_PARK);
+		}
+		return true;
+	}
+
+	// Writes a batch of messages, returns false if there was nothing to write
+	private synchronized boolean drain() {
+		int taken = 0;
+		while (taken < BATCH_SIZE && buffer.poll(formatter))
+			taken++;
+
+		long lost = dropped.sumThenReset();
+		if (lost > 0)
+			format(System.currentTimeMillis(), thread.getName(), LogLevel.WARN, lost
+					+ " log messages were dropped, the log buffer (" + buffer.capacity() + " messages) was full.", false,
+					null);
+		if (taken == 0 && lost == 0)
+			return false;
+
+		writeFile();
+		if (console) {
+			System.err.print(consoleText);
+			consoleText.setLength(0);
+		}
+		return true;
+	}
+
+	// Formats a message into the file and console batches
+	private void format(long time, String thread, LogLevel level, String message, boolean labeled, Object[] fields) {
+		String text = String.valueOf(message);
+		if (json && file != null)
+			appendJson(time, thread, level, text, labeled, fields);
+		if (!console && (json || file == null))
+			return;
+
+		long second = Math.floorDiv(time, 1000);
+		if (second != stampSecond) { // messages come in bursts, the stamp is made once a second
+			stamp = CouponLogHandler.LOG_DATE.format(Instant.ofEpochSecond(second));
+			stampSecond = second;
+		}
+		appendText(stamp);
+		if (!labeled)
+			appendText(level.getLabel()).appendText(": ");
+
+		int from = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) != '\n')
+				continue;
+			int end = i > from && text.charAt(i - 1) == '\r' ? i - 1 : i;
+			appendLine(text, from, end, " * ");
+			from = i + 1;
+		}
+		if (fields == null) {
+			appendLine(text, from, text.length(), null);
+			return;
+		}
+
+		appendLine(text, from, text.length(), " * ");
+		for (int i = 0; i < fields.length; i += 2)
+			appendText(i == 0 ? "" : ", ").appendText(String.valueOf(fields[i])).appendText("=")
+					.appendText(String.valueOf(fields[i + 1]));
+		appendLine("", 0, 0, null);
+	}
+
+	// Appends text to the text batches
+	private AsyncLogWriter appendText(String text) {
+		if (file != null && !json)
+			fileText.append(text);
+		if (console)
+			consoleText.append(text);
+		return this;
+	}
+
+	// Appends a line to the text batches, ended and followed by the continuation mark
+	private void appendLine(String text, int from, int to, String continuation) {
+		if (file != null && !json) {
+			fileText.append(text, from, to).append("\r\n");
+			if (continuation != null)
+				fileText.append(continuation);
+		}
+		if (console) {
+			consoleText.append(text, from, to).append('\n');
+			if (continuation != null)
+				consoleText.append(continuation);
+		}
+	}
+
+	// Appends a message to the file batch as a JSON line
+	private void appendJson(long time, String thread, LogLevel level, String text, boolean labeled,
+			Object[] fields) {
+		int body = 0;
+		if (labeled && text.startsWith(level.getLabel() + ":")) // the text log's label isn't part of the message
+			for (body = level.getLabel().length() + 1; body < text.length() && text.charAt(body) == ' '; body++)
+				;
+
+		fileText.append("{\"time\":\"");
+		JSON_TIME.formatTo(Instant.ofEpochMilli(time), fileText);
+		fileText.append("\",\"level\":\"").append(level.name()).append("\",\"thread\":");
+		appendJsonString(thread, 0);
+		fileText.append(",\"message\":");
+		appendJsonString(text, body);
+		if (fields != null) {
+			fileText.append(",\"fields\":{");
+			for (int i = 0; i < fields.length; i += 2) {
+				if (i > 0)
+					fileText.append(',');
+				appendJsonString(String.valueOf(fields[i]), 0);
+				fileText.append(':');
+				Object value = fields[i + 1];
+				if (value instanceof Boolean || (value instanceof Number && isFinite((Number) value)))
+					fileText.append(value);
+				else if (value == null)
+					fileText.append("null");
+				else
+					appendJsonString(value.toString(), 0);
+			}
+			fileText.append('}');
+		}
+		fileText.append("}\n");
+	}
+
+	// Appends a quoted, escaped JSON string
+	private void appendJsonString(String text, int from) {
+		fileText.append('"');
+		for (int i = from; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '"':
+				fileText.append("\\\"");
+				break;
+			case '\\':
+				fileText.append("\\\\");
+				break;
+			case '\n':
+				fileText.append("\\n");
+				break;
+			case '\r':
+				fileText.append("\\r");
+				break;
+			case '\t':
+				fileText.append("\\t");
+				break;
+			default:
+				if (c < 0x20)
+					fileText.append(String.format("\\u%04x", (int) c));
+				else
+					fileText.append(c);
+			}
+		}
+		fileText.append('"');
+	}
+
+	// JSON has no NaN or infinity
+	private static boolean isFinite(Number value) {
+		return !(value instanceof Double || value instanceof Float) || Double.isFinite(value.doubleValue());
+	}
+
+	// Encodes the file batch and writes it
+	private void writeFile() {
+		if (file == null || fileText.length() == 0)
+			return;
+
+		try {
+			file.rollIfDue(System.currentTimeMillis());
+			CharBuffer chars = CharBuffer.wrap(fileText);
+			encoder.reset();
+			CoderResult result;
+			do {
+				result = encoder.encode(chars, bytes, true);
+				writeBytes();
+			} while (result.isOverflow());
+			encoder.flush(bytes);
+			writeBytes();
+		} catch (IOException e) {
+			bytes.clear();
+			if (!fileFailed)
+				System.err.println("Couldn't write the log file, messages are lost.\n * " + e.getMessage());
+			fileFailed = true;
+		} finally {
+			fileText.setLength(0);
+		}
+	}
+
+	// Writes the encoded bytes
+	private void writeBytes() throws IOException {
+		bytes.flip();
+		file.write(bytes);
+		bytes.clear();
+		fileFailed = false;
+	}
+
+	// Stops the writer thread and writes what's left
+	private void close() {
+		closed = true;
+		LockSupport.unpark(thread);
+		try {
+			thread.join(CLOSE_TIMEOUT);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		while (drain())
+			;
+	}
+}
@@ -1,18 +1,18 @@
 package LogHandler;
 
-import java.io.File;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.logging.FileHandler;
-import java.util.logging.Formatter;
-import java.util.logging.Level;
-import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
+import java.util.function.Supplier;
+
+import Exceptions.CouponSystemException;
 
-//TODO: log(CouponSystemException ex);
 //TODO: log(CouponSystemException ex, Scope scope); -> scope is the number of lines of info to log.
 //TODO: create ENUM scope, MINIMAL, MEDIUM, DETAILED.
 //TODO: log(CouponSystemException ex) runs over all instances of
@@ -22,19 +22,67 @@ import java.util.logging.SimpleFormatter;
 //TODO: add a default SCOPE (final static) to CouponLogHandler;
 
 /**
- * Log handler singleton
+ * Log handler singleton<br>
+ * <br>
+ * Logging is asynchronous: the log methods only queue the message, and an
+ * {@link AsyncLogWriter} thread formats and writes it.<br>
+ * <br>
+ * Messages have a {@link LogLevel}, and only the levels up to the handler's
+ * level are logged. The leveled methods build nothing for a disabled level:
+ * {@link #log(LogLevel, Supplier)} calls its supplier, and
+ * {@link #log(LogLevel, String, Object...)} fills its pattern, only if the
+ * level is enabled. {@link #at(LogLevel)} adds structured key-value fields.
+ * {@link #log(CouponSystemException)} logs an exception at the level of its
+ * {@link Exceptions.MessageType}.<br>
+ * <br>
+ * Settings are system properties:
+ * <ul>
+ * <li><strong>couponsystem.log.level</strong> - the {@link LogLevel} (default
+ * INFO), can be changed with {@link #setLevel(LogLevel)}</li>
+ * <li><strong>couponsystem.log.format</strong> - <em>json</em> to write the file
+ * as JSON lines (<em>.jsonl</em>), one object per message with its time,
+ * level, thread, message and fields (default text)</li>
+ * <li><strong>couponsystem.log.bufferSize</strong> - the number of messages
+ * queued before the overflow policy applies (default 8192)</li>
+ * <li><strong>couponsystem.log.overflow</strong> - the
+ * {@link OverflowPolicy} of a full buffer (default BLOCK)</li>
+ * <li><strong>couponsystem.log.sampleRate</strong> - with SAMPLE, one of this
+ * many messages is kept while the buffer is full (default 100)</li>
+ * <li><strong>couponsystem.log.console</strong> - false to stop logging to the
+ * console (default true)</li>
+ * <li><strong>couponsystem.log.dir</strong> - the log directory, created if
+ * missing (default <em>C:\Users\Public\Logs</em> on Windows, <em>logs</em> in
+ * the working directory elsewhere)</li>
+ * <li><strong>couponsystem.log.daily</strong> - false to keep writing the same
+ * file when the day changes (default true)</li>
+ * <li><strong>couponsystem.log.maxSize</strong> - the size, in bytes, at which
+ * the file is rolled over, 0 for no limit (default 104857600)</li>
+ * <li><strong>couponsystem.log.compress</strong> - false to keep rolled files
+ * uncompressed (default true, gzip)</li>
+ * <li><strong>couponsystem.log.maxFiles</strong> - the number of rolled files
+ * kept, 0 to keep them all (default 30)</li>
+ * </ul>
+ * Rollovers happen on the writer thread and compression on a housekeeping
+ * thread, see {@link LogFile}; logging threads never wait for either.
  * 
  * @author Gonen Matias
  * @version 1.0 30/01/2018
  */
 public class CouponLogHandler {
 
-	private static final String LOG_PATH = "DBDAO_Log", ROOT_PATH = "C:\\Users\\Public\\Logs\\";
-	private static final Logger logger = Logger.getLogger("Coupon System DBDAO Log");
-	private static final SimpleDateFormat FILE_DATE = new SimpleDateFormat("yyyy-MM-dd");
-	private static final SimpleDateFormat LOG_DATE = new SimpleDateFormat("[yyyy-MM-dd HH:mm:ss] \f ");
-	private static final boolean logToConsole = true;
-	private static FileHandler fileHandler = null;
+	private static final String LOG_PATH = "DBDAO_Log";
+	private static final Path LOG_DIR = Paths.get(System.getProperty("couponsystem.log.dir",
+			System.getProperty("os.name", "").startsWith("Windows") ? "C:\\Users\\Public\\Logs" : "logs"));
+	/**
+	 * The time stamp of a log line
+	 */
+	static final DateTimeFormatter LOG_DATE = DateTimeFormatter.ofPattern("'['yyyy-MM-dd HH:mm:ss'] \f '")
+			.withZone(ZoneId.systemDefault());
+	private static final boolean logToConsole = Boolean
+			.parseBoolean(System.getProperty("couponsystem.log.console", "true"));
+	private static final boolean logToJson = "json".equalsIgnoreCase(System.getProperty("couponsystem.log.format"));
+	private final AsyncLogWriter writer;
+	private volatile int threshold = LogLevel.getEnum(System.getProperty("couponsystem.log.level", "INFO")).ordinal();
 
 	/**
 	 * Instance holder
@@ -52,20 +100,14 @@ public class CouponLogHandler {
 	private CouponLogHandler() {
 		boolean success = true;
 		String failureDetails = "";
-		logger.setUseParentHandlers(false);
+		LogFile file = null;
 
 		try {
-			fileHandler = new FileHandler(ROOT_PATH + LOG_PATH + "_" + FILE_DATE.format(Calendar.getInstance().getTime()) + ".log",
-					true);
-			fileHandler.setFormatter(new Formatter() {
-				@Override
-				public String format(LogRecord record) {
-					Calendar cal = new GregorianCalendar();
-					cal.setTimeInMillis(record.getMillis());
-					return LOG_DATE.format(cal.getTime()) + record.getMessage().replaceAll("(\\\r)?\\\n", "\r\n * ")
-							+ "\r\n";
-				}
-			});
+			file = new LogFile(LOG_DIR, LOG_PATH, logToJson ? ".jsonl" : ".log",
+					Long.getLong("couponsystem.log.maxSize", 100L * 1024 * 1024),
+					Boolean.parseBoolean(System.getProperty("couponsystem.log.daily", "true")),
+					Boolean.parseBoolean(System.getProperty("couponsystem.log.compress", "true")),
+					Integer.getInteger("couponsystem.log.maxFiles", 30));
 		} catch (SecurityException e) {
 			success = false;
 			failureDetails += "SECURITY EXCEPTION: " + e.getMessage() + "\n";
@@ -75,10 +117,12 @@ public class CouponLogHandler {
 		}
 		if (!success)
 			initializationError(failureDetails);
-		if (fileHandler != null) {
-			logger.addHandler(fileHandler);
-			this.log("**********\tLOG CREATED\t**********");
-		}
+		writer = new AsyncLogWriter(file, logToConsole, logToJson,
+				Integer.getInteger("couponsystem.log.bufferSize", 8192),
+				OverflowPolicy.getEnum(System.getProperty("couponsystem.log.overflow", "BLOCK")),
+				Integer.getInteger("couponsystem.log.sampleRate", 100));
+		if (file != null)
+			log(LogLevel.INFO, "**********\tLOG CREATED\t**********");
 	}
 
 	/**
@@ -94,18 +138,171 @@ public class CouponLogHandler {
 	 * Logs a new message to file. <br>
 	 * <br>
 	 * <em>If <strong>logToConsole</strong> is set to <strong>true</strong>, logs to
-	 * console as well</em>.
+	 * console as well</em>. <br>
+	 * <br>
+	 * The message is queued and written by the writer thread; the caller only
+	 * waits if the buffer is full and the overflow policy is BLOCK.
 	 * 
 	 * @param message
 	 *            the message
+	 * @deprecated the level is taken from the message's label (<em>ERR:</em>,
+	 *             <em>WARN:</em>, <em>NOTE:</em>, INFO if it has none) after
+	 *             the message was built; use {@link #log(LogLevel, String, Object...)}
+	 *             or {@link #at(LogLevel)}
 	 */
+	@Deprecated
 	public void log(String message) {
-		logger.log(new LogRecord(Level.OFF, message));
-		if (logToConsole) {
-			Calendar cal = new GregorianCalendar();
-			cal.setTimeInMillis(System.currentTimeMillis());
-			System.err.println(LOG_DATE.format(cal.getTime()) + message.replaceAll("(\\\r)?\\\n", "\n * "));
+		LogLevel level = LogLevel.of(message);
+		if (isEnabled(level))
+			writer.append(System.currentTimeMillis(), level, message, true, null);
+	}
+
+	/**
+	 * Logs a message of a level.
+	 * 
+	 * @param level
+	 *            the level
+	 * @param message
+	 *            the message, without a label
+	 */
+	public void log(LogLevel level, String message) {
+		if (isEnabled(level))
+			append(level, message, false, null);
+	}
+
+	/**
+	 * Logs a message of a level, built only if the level is enabled.
+	 * 
+	 * @param level
+	 *            the level
+	 * @param message
+	 *            builds the message, without a label
+	 */
+	public void log(LogLevel level, Supplier<String> message) {
+		if (isEnabled(level))
+			append(level, message.get(), false, null);
+	}
+
+	/**
+	 * Logs a message of a level from a pattern, filled only if the level is
+	 * enabled. Each <strong>{}</strong> in the pattern is replaced by the next
+	 * argument.
+	 * 
+	 * @param level
+	 *            the level
+	 * @param pattern
+	 *            the message pattern, without a label
+	 * @param args
+	 *            the arguments
+	 */
+	public void log(LogLevel level, String pattern, Object... args) {
+		if (isEnabled(level))
+			append(level, format(pattern, args), false, null);
+	}
+
+	/**
+	 * Logs a Coupon system exception's error and details at the level of its
+	 * {@link Exceptions.MessageType}.
+	 * 
+	 * @param e
+	 *            the exception
+	 */
+	public void log(CouponSystemException e) {
+		LogLevel level = LogLevel.of(e.getExceptionType());
+		if (isEnabled(level))
+			append(level, e.getDetails() == null ? e.getError() : e.getError() + "\n" + e.getDetails(), false, null);
+	}
+
+	/**
+	 * Starts a message of a level with structured fields, see {@link LogEvent}.
+	 * 
+	 * @param level
+	 *            the level
+	 * @return the event to add fields to and log, one that ignores everything
+	 *         if the level is disabled
+	 */
+	public LogEvent at(LogLevel level) {
+		return isEnabled(level) ? new LogEvent(this, level) : LogEvent.DISABLED;
+	}
+
+	/**
+	 * Checks if the messages of a level are logged
+	 * 
+	 * @param level
+	 *            the level
+	 * @return true if the level is enabled
+	 */
+	public boolean isEnabled(LogLevel level) {
+		return level.ordinal() <= threshold;
+	}
+
+	/**
+	 * Gets the least severe level that is logged
+	 * 
+	 * @return the level
+	 */
+	public LogLevel getLevel() {
+		return LogLevel.values()[threshold];
+	}
+
+	/**
+	 * Sets the least severe level that is logged, e.g. WARN logs ERROR and WARN
+	 * messages
+	 * 
+	 * @param level
+	 *            the level
+	 */
+	public void setLevel(LogLevel level) {
+		threshold = level.ordinal();
+	}
+
+	/**
+	 * Queues a message of an enabled level.
+	 * 
+	 * @param level
+	 *            the level
+	 * @param message
+	 *            the message
+	 * @param labeled
+	 *            true if the message starts with its level's label
+	 * @param fields
+	 *            the key-value pairs, null if none
+	 */
+	void append(LogLevel level, String message, boolean labeled, Object[] fields) {
+		writer.append(System.currentTimeMillis(), level, message, labeled, fields);
+	}
+
+	/**
+	 * Fills a message pattern, replacing each <strong>{}</strong> with the next
+	 * argument. Placeholders without an argument are kept.
+	 * 
+	 * @param pattern
+	 *            the pattern
+	 * @param args
+	 *            the arguments
+	 * @return the message
+	 */
+	static String format(String pattern, Object[] args) {
+		if (pattern == null || args == null || args.length == 0)
+			return pattern;
+
+		StringBuilder message = new StringBuilder(pattern.length() + 16 * args.length);
+		int from = 0, arg = 0, at;
+		while (arg < args.length && (at = pattern.indexOf("{}", from)) >= 0) {
+			message.append(pattern, from, at).append(args[arg++]);
+			from = at + 2;
 		}
+		return message.append(pattern, from, pattern.length()).toString();
+	}
+
+	/**
+	 * Gets the number of messages dropped because the buffer was full, and not
+	 * yet reported in the log
+	 * 
+	 * @return the dropped messages
+	 */
+	public long getDroppedMessages() {
+		return writer.getDropped();
 	}
 
 	/**
@@ -118,14 +315,15 @@ public class CouponLogHandler {
 		Logger loggerErr = Logger.getLogger(CouponLogHandler.class.getName());
 		FileHandler fileHandlerErr = null;
 		try {
-			fileHandlerErr = new FileHandler(ROOT_PATH + CouponLogHandler.class.getName() + ".log", true);
+			fileHandlerErr = new FileHandler(LOG_DIR.resolve(CouponLogHandler.class.getName() + ".log").toString(),
+					true);
 			fileHandlerErr.setFormatter(new SimpleFormatter());
 		} catch (SecurityException | IOException e) {
-			System.err.println(LOG_DATE.format(System.currentTimeMillis()) + " Logger Initialization failed.\n * " + details + "\n * " + e.getMessage());
+			System.err.println(LOG_DATE.format(Instant.now()) + " Logger Initialization failed.\n * " + details + "\n * " + e.getMessage());
 		}
 		if (fileHandlerErr  != null) {
 			loggerErr.addHandler(fileHandlerErr);
-			loggerErr.warning(LOG_DATE.format(System.currentTimeMillis()) + " Logger Initialization failed.\n * " + details + "\n * ");
+			loggerErr.warning(LOG_DATE.format(Instant.now()) + " Logger Initialization failed.\n * " + details + "\n * ");
 		}
 	}
 
@@ -0,0 +1,105 @@
+package LogHandler;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * A log message with structured key-value fields, built by
+ * {@link CouponLogHandler#at(LogLevel)}:
+ * 
+ * <pre>
+ * handler.at(LogLevel.WARN).field("table", "coupon").field("id", id).log("Couldn't map a row: {}", e.getMessage());
+ * </pre>
+ * 
+ * If the level is disabled the handler returns a shared event that ignores
+ * everything, so a disabled event costs no formatting and no allocations
+ * (other than boxing the values). An event is meant to be built and logged by
+ * one thread, once.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public final class LogEvent {
+	/**
+	 * The event of a disabled level, ignores all fields and messages
+	 */
+	static final LogEvent DISABLED = new LogEvent(null, null);
+	private final CouponLogHandler handler;
+	private final LogLevel level;
+	private Object[] fields;
+	private int size;
+
+	/**
+	 * Constructs a new {@link LogEvent}.
+	 *
+	 * @param handler
+	 *            the handler that logs it, null for the disabled event
+	 * @param level
+	 *            the level
+	 */
+	LogEvent(CouponLogHandler handler, LogLevel level) {
+		this.handler = handler;
+		this.level = level;
+	}
+
+	/**
+	 * Adds a field.
+	 *
+	 * @param key
+	 *            the field's name, e.g. <em>table</em>, <em>id</em>,
+	 *            <em>sql</em>, <em>durationMs</em>
+	 * @param value
+	 *            the value; numbers, booleans and Strings are kept as they are,
+	 *            any other value as its String value at the time of the call
+	 * @return this event
+	 */
+	public LogEvent field(String key, Object value) {
+		if (handler == null)
+			return this;
+
+		if (fields == null)
+			fields = new Object[8];
+		else if (size == fields.length)
+			fields = Arrays.copyOf(fields, size * 2);
+		fields[size++] = key;
+		fields[size++] = value == null || value instanceof Number || value instanceof Boolean
+				|| value instanceof String ? value : String.valueOf(value);
+		return this;
+	}
+
+	/**
+	 * Logs the event with a message.
+	 *
+	 * @param message
+	 *            the message
+	 */
+	public void log(String message) {
+		if (handler != null)
+			handler.append(level, message, false, fields == null ? null : Arrays.copyOf(fields, size));
+	}
+
+	/**
+	 * Logs the event with a message that is only built if the level is enabled.
+	 *
+	 * @param message
+	 *            builds the message
+	 */
+	public void log(Supplier<String> message) {
+		if (handler != null)
+			log(message.get());
+	}
+
+	/**
+	 * Logs the event with a message pattern, whose <strong>{}</strong>
+	 * placeholders are replaced by the arguments in order.
+	 *
+	 * @param pattern
+	 *            the message pattern
+	 * @param args
+	 *            the arguments
+	 */
+	public void log(String pattern, Object... args) {
+		if (handler != null)
+			log(CouponLogHandler.format(pattern, args));
+	}
+}
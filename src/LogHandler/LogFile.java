@@ -0,0 +1,257 @@
+package LogHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The log file, rolled over by the {@link AsyncLogWriter} thread.<br>
+ * <br>
+ * The active file is <em>&lt;name&gt;_&lt;date&gt;&lt;extension&gt;</em> in the
+ * log directory. It's rolled over when the day changes, and when it reaches its
+ * max size, in which case it's renamed
+ * <em>&lt;name&gt;_&lt;date&gt;.&lt;n&gt;&lt;extension&gt;</em>. Rolled files
+ * are gzipped and the oldest ones deleted on a separate housekeeping thread, so
+ * a rollover only costs the writer a rename and an open. Files left
+ * uncompressed by a JVM that exited mid-way are gzipped when the next one
+ * starts.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class LogFile {
+	private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+	private static final String GZIP = ".gz", PART = ".part";
+	private final Path directory;
+	private final String name, extension;
+	private final long maxSize;
+	private final boolean daily, compress;
+	private final int maxFiles;
+	private final ExecutorService housekeeper = Executors.newSingleThreadExecutor(task -> {
+		Thread thread = new Thread(task, "CouponLogHandler-Housekeeper");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		return thread;
+	});
+	private volatile Path path;
+	// writer side only
+	private FileChannel channel;
+	private long size, nextDay;
+	private LocalDate date;
+
+	/**
+	 * Constructs a new {@link LogFile} and opens today's file, creating the
+	 * directory if needed.
+	 *
+	 * @param directory
+	 *            the log directory
+	 * @param name
+	 *            the file name prefix
+	 * @param extension
+	 *            the file extension, with its dot
+	 * @param maxSize
+	 *            the size, in bytes, at which the file is rolled over, 0 for no
+	 *            limit
+	 * @param daily
+	 *            true to roll the file over when the day changes
+	 * @param compress
+	 *            true to gzip rolled files
+	 * @param maxFiles
+	 *            the number of rolled files kept, 0 to keep them all
+	 * @throws IOException
+	 *             if the file couldn't be opened
+	 */
+	LogFile(Path directory, String name, String extension, long maxSize, boolean daily, boolean compress,
+			int maxFiles) throws IOException {
+		this.directory = directory;
+		this.name = name;
+		this.extension = extension;
+		this.maxSize = Math.max(0, maxSize);
+		this.daily = daily;
+		this.compress = compress;
+		this.maxFiles = Math.max(0, maxFiles);
+		Files.createDirectories(directory);
+		open(System.currentTimeMillis());
+		housekeeper.execute(this::housekeeping);
+	}
+
+	/**
+	 * Gets the path of the active file
+	 *
+	 * @return the path
+	 */
+	Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Rolls the file over if the day changed or it reached its max size, and
+	 * reopens it if an earlier rollover couldn't.
+	 *
+	 * @param now
+	 *            the current time, in epoch milliseconds
+	 * @throws IOException
+	 *             if the file couldn't be rolled over or opened
+	 */
+	void rollIfDue(long now) throws IOException {
+		if (channel == null)
+			open(now);
+		else if (daily && now >= nextDay)
+			roll(now, path);
+		else if (maxSize > 0 && size >= maxSize)
+			roll(now, numbered());
+	}
+
+	/**
+	 * Writes all the remaining bytes of a buffer.
+	 *
+	 * @param bytes
+	 *            the bytes
+	 * @throws IOException
+	 *             if they couldn't be written
+	 */
+	void write(ByteBuffer bytes) throws IOException {
+		if (channel == null)
+			throw new IOException("The log file " + path + " isn't open.");
+		while (bytes.hasRemaining())
+			size += channel.write(bytes);
+	}
+
+	// Opens the file of the current day
+	private void open(long now) throws IOException {
+		date = Instant.ofEpochMilli(now).atZone(ZoneId.systemDefault()).toLocalDate();
+		nextDay = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		path = directory.resolve(name + "_" + FILE_DATE.format(date) + extension);
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		size = channel.size();
+	}
+
+	// Closes the file, moves it aside and opens a new one
+	private void roll(long now, Path rolled) throws IOException {
+		Path active = path;
+		try {
+			channel.close();
+		} finally {
+			channel = null;
+		}
+		if (!rolled.equals(active))
+			Files.move(active, rolled);
+		open(now);
+		housekeeper.execute(() -> {
+			if (compress)
+				compress(rolled);
+			prune();
+		});
+	}
+
+	// The numbered name after the day's last part, so pruned numbers aren't reused
+	private Path numbered() throws IOException {
+		String prefix = name + "_" + FILE_DATE.format(date) + ".";
+		int last = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+			for (Path file : files) {
+				String fileName = file.getFileName().toString();
+				int end = fileName.indexOf('.', prefix.length());
+				try {
+					if (end > prefix.length())
+						last = Math.max(last, Integer.parseInt(fileName.substring(prefix.length(), end)));
+				} catch (NumberFormatException e) { // not a part
+				}
+			}
+		}
+		return directory.resolve(prefix + (last + 1) + extension);
+	}
+
+	// Compresses the files an earlier JVM didn't, then applies the retention
+	private void housekeeping() {
+		if (compress)
+			for (Path rolled : rolledFiles())
+				if (rolled.getFileName().toString().endsWith(extension))
+					compress(rolled);
+		prune();
+	}
+
+	// Gzips a rolled file next to it and deletes it
+	private void compress(Path rolled) {
+		Path part = rolled.resolveSibling(rolled.getFileName() + GZIP + PART);
+		if (Files.notExists(rolled)) // already compressed
+			return;
+		try {
+			FileTime modified = Files.getLastModifiedTime(rolled);
+			try (InputStream in = Files.newInputStream(rolled);
+					OutputStream out = new GZIPOutputStream(Files.newOutputStream(part), 64 * 1024)) {
+				in.transferTo(out);
+			}
+			Path target = rolled.resolveSibling(rolled.getFileName() + GZIP);
+			Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+			Files.setLastModifiedTime(target, modified); // the retention goes by age
+			Files.delete(rolled);
+		} catch (IOException e) {
+			System.err.println("Couldn't compress the log file " + rolled + ".\n * " + e);
+			try {
+				Files.deleteIfExists(part);
+			} catch (IOException ignored) {
+			}
+		}
+	}
+
+	// Deletes the oldest rolled files beyond the retention count
+	private void prune() {
+		if (maxFiles == 0)
+			return;
+
+		ArrayList<Path> rolled = rolledFiles();
+		if (rolled.size() <= maxFiles)
+			return;
+		rolled.sort(Comparator.comparing(LogFile::modified).reversed());
+		for (Path old : rolled.subList(maxFiles, rolled.size()))
+			try {
+				Files.deleteIfExists(old);
+			} catch (IOException e) {
+				System.err.println("Couldn't delete the old log file " + old + ".\n * " + e);
+			}
+	}
+
+	// The rolled files in the directory, compressed or not
+	private ArrayList<Path> rolledFiles() {
+		ArrayList<Path> rolled = new ArrayList<>();
+		Path active = path;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, name + "_*")) {
+			for (Path file : files) {
+				String fileName = file.getFileName().toString();
+				if (!file.equals(active) && (fileName.endsWith(extension) || fileName.endsWith(extension + GZIP)))
+					rolled.add(file);
+			}
+		} catch (IOException e) {
+			System.err.println("Couldn't list the log directory " + directory + ".\n * " + e);
+		}
+		return rolled;
+	}
+
+	// The last modified time of a file, the epoch if it's gone
+	private static FileTime modified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file);
+		} catch (IOException e) {
+			return FileTime.fromMillis(0);
+		}
+	}
+}
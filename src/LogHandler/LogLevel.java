@@ -0,0 +1,104 @@
+package LogHandler;
+
+import Exceptions.MessageType;
+
+/**
+ * An ENUM of the levels of log messages, from the most to the least severe.
+ * A handler set to a level logs the messages of that level and the levels
+ * above it.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public enum LogLevel {
+	/**
+	 * An operation failed
+	 */
+	ERROR("ERR"),
+	/**
+	 * Something went wrong, but the operation went on
+	 */
+	WARN("WARN"),
+	/**
+	 * Normal events, like tasks starting and stopping
+	 */
+	INFO("NOTE"),
+	/**
+	 * Details for debugging
+	 */
+	DEBUG("DEBUG");
+
+	private final String label;
+
+	/**
+	 * Constructs a new LogLevel
+	 * 
+	 * @param label
+	 *            the prefix of this level's messages in the text log
+	 */
+	private LogLevel(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Gets the prefix of this level's messages in the text log
+	 * 
+	 * @return the label, e.g. <em>WARN</em>
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Gets the ENUM value of LogLevel from a String value.
+	 *
+	 * @param value
+	 *            the String value of LogLevel, its name or its label
+	 * @return either (1) returns the LogLevel value or (2) returns INFO if value
+	 *         is not a valid LogLevel
+	 */
+	public static LogLevel getEnum(String value) {
+		for (LogLevel level : values())
+			if (level.name().equalsIgnoreCase(value) || level.label.equalsIgnoreCase(value))
+				return level;
+		return INFO;
+	}
+
+	/**
+	 * Gets the level of a {@link MessageType}
+	 *
+	 * @param type
+	 *            the MessageType
+	 * @return ERROR for ERR, WARN for WARN, INFO otherwise
+	 */
+	public static LogLevel of(MessageType type) {
+		switch (type) {
+		case ERR:
+			return ERROR;
+		case WARN:
+			return WARN;
+		default:
+			return INFO;
+		}
+	}
+
+	/**
+	 * Gets the level of a message that starts with a level's label, like
+	 * <em>"WARN: ..."</em>
+	 *
+	 * @param message
+	 *            the message
+	 * @return the level of the label, or INFO if the message has none
+	 * @deprecated only for {@link CouponLogHandler#log(String)}, messages are
+	 *             logged with their level
+	 */
+	@Deprecated
+	static LogLevel of(String message) {
+		if (message != null)
+			for (LogLevel level : values())
+				if (message.startsWith(level.label) && message.length() > level.label.length()
+						&& message.charAt(level.label.length()) == ':')
+					return level;
+		return INFO;
+	}
+}
@@ -0,0 +1,149 @@
+package LogHandler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free ring buffer of log messages for many producers and a
+ * single consumer. Each slot carries a sequence number that tells producers
+ * when it's free and the consumer when it's written, so a producer only
+ * contends on claiming its slot and nobody ever takes a lock.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class LogRingBuffer {
+	private final int mask;
+	private final String[] messages, threads;
+	private final long[] times;
+	private final LogLevel[] levels;
+	private final boolean[] labeled;
+	private final Object[][] fields;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private long head; // consumer only
+
+	/**
+	 * Constructs a new {@link LogRingBuffer}.
+	 *
+	 * @param capacity
+	 *            the minimal capacity, rounded up to a power of two
+	 */
+	LogRingBuffer(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		mask = size - 1;
+		messages = new String[size];
+		threads = new String[size];
+		times = new long[size];
+		levels = new LogLevel[size];
+		labeled = new boolean[size];
+		fields = new Object[size][];
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++)
+			sequences.set(i, i);
+	}
+
+	/**
+	 * Adds a message, unless the buffer is full. Safe for any number of threads.
+	 *
+	 * @param time
+	 *            the time the message was logged, in epoch milliseconds
+	 * @param level
+	 *            the message's level
+	 * @param message
+	 *            the message
+	 * @param labeled
+	 *            true if the message starts with its level's label
+	 * @param fields
+	 *            the key-value pairs of the message, null if none
+	 * @return true if added, false if the buffer is full
+	 */
+	boolean offer(long time, LogLevel level, String message, boolean labeled, Object[] fields) {
+		while (true) {
+			long position = tail.get();
+			int slot = (int) position & mask;
+			long available = sequences.get(slot) - position;
+			if (available == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					messages[slot] = message;
+					threads[slot] = Thread.currentThread().getName();
+					times[slot] = time;
+					levels[slot] = level;
+					this.labeled[slot] = labeled;
+					this.fields[slot] = fields;
+					sequences.set(slot, position + 1); // publishes the slot to the consumer
+					return true;
+				}
+			} else if (available < 0)
+				return false; // the consumer hasn't freed this slot yet
+		}
+	}
+
+	/**
+	 * Takes the oldest message. Only the consumer thread may call it.
+	 *
+	 * @param sink
+	 *            gets the message
+	 * @return true if a message was taken, false if the buffer is empty
+	 */
+	boolean poll(Sink sink) {
+		int slot = (int) head & mask;
+		if (sequences.get(slot) != head + 1)
+			return false;
+
+		String message = messages[slot], thread = threads[slot];
+		long time = times[slot];
+		LogLevel level = levels[slot];
+		boolean isLabeled = labeled[slot];
+		Object[] keyValues = fields[slot];
+		messages[slot] = threads[slot] = null;
+		fields[slot] = null;
+		sequences.set(slot, head + mask + 1); // frees the slot for the next lap
+		head++;
+		sink.accept(time, thread, level, message, isLabeled, keyValues);
+		return true;
+	}
+
+	/**
+	 * Checks if the buffer is empty, as seen by the consumer
+	 *
+	 * @return true if there's nothing to take
+	 */
+	boolean isEmpty() {
+		return sequences.get((int) head & mask) != head + 1;
+	}
+
+	/**
+	 * Gets the number of slots
+	 *
+	 * @return the capacity
+	 */
+	int capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Receives the messages taken from the buffer
+	 */
+	@FunctionalInterface
+	interface Sink {
+
+		/**
+		 * Receives a message.
+		 *
+		 * @param time
+		 *            the time the message was logged, in epoch milliseconds
+		 * @param thread
+		 *            the name of the thread that logged it
+		 * @param level
+		 *            the message's level
+		 * @param message
+		 *            the message
+		 * @param labeled
+		 *            true if the message starts with its level's label
+		 * @param fields
+		 *            the key-value pairs of the message, null if none
+		 */
+		void accept(long time, String thread, LogLevel level, String message, boolean labeled, Object[] fields);
+	}
+}
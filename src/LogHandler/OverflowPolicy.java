@@ -0,0 +1,39 @@
+package LogHandler;
+
+/**
+ * An ENUM of what the {@link CouponLogHandler} does with a message when its
+ * buffer is full, i.e. the writer thread can't keep up.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public enum OverflowPolicy {
+	/**
+	 * The logging thread waits for room; no message is lost.
+	 */
+	BLOCK,
+	/**
+	 * The message is dropped and counted.
+	 */
+	DROP,
+	/**
+	 * One message of every <strong>couponsystem.log.sampleRate</strong> waits
+	 * for room, the others are dropped and counted.
+	 */
+	SAMPLE;
+
+	/**
+	 * Gets the ENUM value of OverflowPolicy from a String value.
+	 *
+	 * @param value
+	 *            the String value of OverflowPolicy
+	 * @return either (1) returns the OverflowPolicy value or (2) returns BLOCK if
+	 *         value is not a valid OverflowPolicy
+	 */
+	public static OverflowPolicy getEnum(String value) {
+		for (OverflowPolicy policy : values())
+			if (policy.name().equalsIgnoreCase(value))
+				return policy;
+		return BLOCK;
+	}
+}
@@ -0,0 +1,78 @@
+package Pool;
+
+import java.util.Collection;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event of a borrow from the {@link ConnectionPoolSingleton},
+ * lasting as long as the borrower waited for a connection.<br>
+ * <br>
+ * Like every JFR event, it costs next to nothing while no recording is on:
+ * {@link #begin()} and {@link #borrowed(Collection)} then only check a flag,
+ * and the idle connections are only counted for a recorded event.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@Name("CouponSystem.ConnectionBorrow")
+@Label("Connection Borrow")
+@Category({ "Coupon System", "Connection Pool" })
+@Description("A connection borrowed from the pool, the duration is the borrower's wait")
+@StackTrace(false)
+final class ConnectionBorrowEvent extends Event {
+	@Label("Timed Out")
+	@Description("No connection became free within the borrow timeout")
+	boolean timedOut;
+
+	@Label("Interrupted")
+	@Description("The borrower was interrupted while waiting for a connection")
+	boolean interrupted;
+
+	@Label("Idle Connections")
+	@Description("The connections left waiting in the pool")
+	int idleConnections;
+
+	/**
+	 * Ends the event of a borrow that got a connection and commits it if it's
+	 * recorded.
+	 *
+	 * @param idle
+	 *            the connections left in the pool, only counted if recorded
+	 */
+	void borrowed(Collection<?> idle) {
+		end();
+		if (shouldCommit()) {
+			this.idleConnections = idle.size();
+			commit();
+		}
+	}
+
+	/**
+	 * Ends the event of a borrow that timed out and commits it if it's recorded.
+	 */
+	void timedOut() {
+		end();
+		if (shouldCommit()) {
+			this.timedOut = true;
+			commit();
+		}
+	}
+
+	/**
+	 * Ends the event of a borrow that was interrupted and commits it if it's
+	 * recorded.
+	 */
+	void interrupted() {
+		end();
+		if (shouldCommit()) {
+			this.interrupted = true;
+			commit();
+		}
+	}
+}
@@ -1,164 +1,600 @@
 package Pool;
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import Exceptions.MessageType;
 import Exceptions.General.ConnectionPoolError;
+import LogHandler.CouponLogHandler;
+import LogHandler.LogLevel;
 
 /**
- * Get Connections to the SQL DaraBase by singleton pool of connections
+ * Get Connections to the SQL DaraBase by singleton pool of connections<br>
+ * <br>
+ * Idle connections are kept in a lock-free {@link LinkedTransferQueue}.
+ * Borrowers that find the pool empty wait on the queue for a limited time, and
+ * a returned connection is handed directly to the longest waiting borrower.<br>
+ * <br>
+ * Connections are opened lazily: the pool grows on demand up to the configured
+ * max size, and a background housekeeper shrinks it back to the min size after
+ * connections idle for the idle timeout. The housekeeper also validates idle
+ * connections, retires broken and too old ones, and opens replacements so the
+ * pool recovers by itself after the database drops connections.<br>
+ * <br>
+ * With leak detection enabled, every borrow records the borrowing thread and
+ * stack, and the housekeeper logs connections held longer than the leak
+ * detection threshold (optionally reclaiming their slots, see
+ * {@link PoolConfig#isReclaimLeaks()}).<br>
+ * <br>
+ * Every connection keeps an LRU {@link StatementCache}, see
+ * {@link #prepareStatement(Connection, String, int)}.<br>
+ * <br>
+ * Settings are read by {@link PoolConfig}, statistics are exposed over JMX by
+ * {@link PoolStatsMXBean}.
  */
 public class ConnectionPoolSingleton {
 
+	/**
+	 * Default max number of connections, used when
+	 * <strong>couponsystem.pool.maxSize</strong> isn't set.
+	 */
 	public static final int MAX_CONNECTIONS = 10;
-	private static final String dbUrl = "jdbc:mysql://localhost:3306/coupon_db", dbUser = "root", dbPassword = "123456";
-	private static ConnectionPoolSingleton instance = null;
-	private static Collection<Connection> pool = new ArrayList<Connection>();
-	private static Collection<Connection> connections = new ArrayList<Connection>();
+	private static final PoolConfig config = PoolConfig.load();
+	private static final CouponLogHandler handler = CouponLogHandler.getInstance();
+	private static final LinkedTransferQueue<PooledConnection> pool = new LinkedTransferQueue<>();
+	private static final Map<Connection, PooledConnection> connections = new ConcurrentHashMap<>();
+	// leaked connections whose slots were reclaimed, closed when returned
+	private static final Map<Connection, PooledConnection> reclaimed = new ConcurrentHashMap<>();
+	private static final AtomicInteger totalConnections = new AtomicInteger();
+	private static final PoolStats stats = new PoolStats(pool, totalConnections);
+	private static final String STATS_NAME = "CouponSystem:type=ConnectionPool";
+	private static final ScheduledExecutorService housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "ConnectionPool-Housekeeper");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Instance holder
+	 */
+	private static class Holder {
+		private static final ConnectionPoolSingleton instance = new ConnectionPoolSingleton();
+	}
 
-	// a private constructor
+	// a private constructor - connections are opened on demand, the housekeeper
+	// warms the pool up to the min size in the background
 	private ConnectionPoolSingleton() {
-		// Initialize the Connection Pool with a list of Connections up to the MAX
-		// number of connections
 		try {
-
-			for (int i = 0; i < MAX_CONNECTIONS; i++) {
-				pool.add(createConnection());
-			}
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(STATS_NAME);
+			if (!server.isRegistered(name))
+				server.registerMBean(stats, name);
+		} catch (JMException e) {
+			handler.log(LogLevel.WARN, "Couldn't register the connection pool statistics MBean.\n{}", e);
 		}
 
-		catch (ConnectionPoolError e) {
-			System.err.println(e.getMessage());
-		}
+		housekeeper.scheduleWithFixedDelay(ConnectionPoolSingleton::houseKeep, 0, config.getHousekeepingInterval(),
+				TimeUnit.MILLISECONDS);
+		housekeeper.scheduleWithFixedDelay(ConnectionPoolSingleton::detectLeaks, config.getLeakCheckInterval(),
+				config.getLeakCheckInterval(), TimeUnit.MILLISECONDS);
 	}
 
 	// CREATE a Single Instance of CONNECTION POOL Object
 	/**
 	 * Create a singleton instance of a connection pool
-	 * 
+	 *
 	 * @return The singleton instance
 	 */
 	public static final ConnectionPoolSingleton getInstance() {
-
-		if (instance == null) {
-
-			instance = new ConnectionPoolSingleton();
-		}
-
-		return instance;
+		return Holder.instance;
 	}
 
 	// GET A CONNECTION with the SQL DataBase from the Connection Pool if it isn't
-	// empty - otherwise waiting for it to get filled
+	// empty - otherwise opening a replacement for retired connections, or waiting
+	// (up to the borrow timeout) for one to be returned
 	/**
 	 * Get a Connection from the connection pool
+	 *
+	 * @throws ConnectionPoolError
+	 *             if no valid connection became available within the borrow
+	 *             timeout, or the waiting thread was interrupted
 	 */
-	public synchronized Connection getConnection() throws ConnectionPoolError {
+	public Connection getConnection() throws ConnectionPoolError {
+		final long borrowTimeout = config.getBorrowTimeout();
+		final long start = System.nanoTime();
+		final long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeout);
+		final ConnectionBorrowEvent event = new ConnectionBorrowEvent();
+		event.begin();
 
 		try {
-			// waiting if the connection pool is empty
-			while (pool.isEmpty()) {
+			while (true) {
+				PooledConnection pooled = pool.poll();
 
-				System.out.println("     PoolSingleton: THE CONNECTION POOL IS EMPTY - WAITING");
-				wait();
-			}
+				if (pooled == null)
+					pooled = openConnection();
 
-			// getting a connection and remove it from the pool list
-			// System.out.println(" getting a connection");
-			Connection connection = pool.iterator().next();
-			pool.remove(connection);
-			// System.out.println("PoolSingleton: After Get Connection. pool size: " +
-			// getSize());
-			connections.add(connection);
-			notifyAll();
-			return connection;
+				if (pooled == null) {
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0 || (pooled = pool.poll(remaining, TimeUnit.NANOSECONDS)) == null) {
+						stats.timedOut();
+						event.timedOut();
+						throw new ConnectionPoolError(MessageType.ERR,
+								"An Error occured while trying to GET a connection",
+								"Timed out after " + borrowTimeout + "ms waiting for a free connection");
+					}
+				}
+
+				if (isUsable(pooled, System.currentTimeMillis())) {
+					long now = System.nanoTime();
+					if (config.getLeakDetectionThreshold() > 0)
+						pooled.lendTracked(now);
+					else
+						pooled.lend(now);
+					stats.borrowed(now - start);
+					event.borrowed(pool);
+					connections.put(pooled.getConnection(), pooled);
+					return pooled.getConnection();
+				}
+				retire(pooled);
+			}
 		}
 
-		catch (Exception e) {
+		catch (InterruptedException e) {
 
-			throw new ConnectionPoolError(MessageType.ERR, 
-					"An Error occured while trying to GET a connection", e.getMessage());
+			event.interrupted();
+			Thread.currentThread().interrupt();
+			throw new ConnectionPoolError(MessageType.ERR,
+					"An Error occured while trying to GET a connection", "Interrupted while waiting for a connection");
 		}
 	}
 
-	// a Method that add a given connection to the Connection Pool if the pool isn't
-	// full - otherwise waiting for it to get empty
+	// a Method that returns a given connection to the Connection Pool, handing it
+	// to a waiting borrower if there is one
 	/**
-	 * Return a Connection to the connection pool
+	 * Return a Connection to the connection pool<br>
+	 * <br>
+	 * <em>null connections and connections that weren't borrowed from this pool
+	 * (or were already returned) are ignored, reclaimed leaks are closed</em>.
 	 */
-	public synchronized void returnConnection(Connection conn) throws ConnectionPoolError {
+	public void returnConnection(Connection conn) throws ConnectionPoolError {
 
-		try {
-			// waiting if the connection pool is full
-			while (pool.size() >= MAX_CONNECTIONS) {
-				
-				System.out.println("  PoolSingleton: THE CONNECTION POOL IS FULL - WAITING");
-				closeAllConnections();
-				wait();
-			}
-			// if the pool isn't full - unlock the waiting list of connections and add the
-			// given connection to the pool
-			// System.out.println(" adding connection to the pool");
-			pool.add(conn);
-			// System.out.println("PoolSingleton: After Return Connection. pool size: " +
-			// getSize());
-			connections.remove(conn);
-			notifyAll();
-		}
+		if (conn == null)
+			return;
 
-		catch (InterruptedException e) {
+		PooledConnection pooled = connections.remove(conn);
+		if (pooled == null) {
+			pooled = reclaimed.remove(conn);
+			if (pooled != null)
+				pooled.closeQuietly();
+			return;
+		}
 
-			throw new ConnectionPoolError(MessageType.ERR, 
-					"An Error occured while trying to RETURN a connection", e.getMessage());
+		long held = pooled.heldNanos();
+		stats.returned(held);
+		pooled.touch();
+		if (pooled.isExpired(System.currentTimeMillis(), config.getMaxLifetime())) {
+			retire(pooled);
+			ConnectionReturnEvent.returned(held, true);
+		} else {
+			pool.offer(pooled);
+			ConnectionReturnEvent.returned(held, false);
 		}
 	}
 
+	/**
+	 * Gets a prepared statement for a borrowed connection, reusing a cached one if
+	 * the connection has an idle statement with the same SQL.<br>
+	 * <br>
+	 * <em>Hand the statement back with
+	 * {@link #releaseStatement(Connection, PreparedStatement)} instead of closing
+	 * it.</em>
+	 *
+	 * @param conn
+	 *            a connection borrowed from this pool
+	 * @param sql
+	 *            the SQL text
+	 * @param autoGeneratedKeys
+	 *            {@link Statement#RETURN_GENERATED_KEYS} or
+	 *            {@link Statement#NO_GENERATED_KEYS}
+	 * @return the prepared statement
+	 * @throws SQLException
+	 *             if the statement couldn't be prepared
+	 */
+	public PreparedStatement prepareStatement(Connection conn, String sql, int autoGeneratedKeys)
+			throws SQLException {
+		PooledConnection pooled = connections.get(conn);
+		if (pooled == null)
+			return conn.prepareStatement(sql, autoGeneratedKeys);
+		return pooled.getStatements().acquire(sql, autoGeneratedKeys);
+	}
+
+	/**
+	 * Gets a prepared statement for a borrowed connection, see
+	 * {@link #prepareStatement(Connection, String, int)}.
+	 *
+	 * @param conn
+	 *            a connection borrowed from this pool
+	 * @param sql
+	 *            the SQL text
+	 * @return the prepared statement
+	 * @throws SQLException
+	 *             if the statement couldn't be prepared
+	 */
+	public PreparedStatement prepareStatement(Connection conn, String sql) throws SQLException {
+		return prepareStatement(conn, sql, Statement.NO_GENERATED_KEYS);
+	}
+
+	/**
+	 * Hands a statement from {@link #prepareStatement(Connection, String, int)}
+	 * back to its connection's cache, closing its ResultSet. Statements of
+	 * connections that aren't borrowed from this pool are closed.
+	 *
+	 * @param conn
+	 *            the connection the statement was prepared on
+	 * @param statement
+	 *            the statement, ignored if null
+	 * @throws SQLException
+	 *             if the statement had to be closed and closing failed
+	 */
+	public void releaseStatement(Connection conn, PreparedStatement statement) throws SQLException {
+		if (statement == null)
+			return;
+		PooledConnection pooled = connections.get(conn);
+		if (pooled == null)
+			statement.close();
+		else
+			pooled.getStatements().release(statement);
+	}
+
 	// closing all connections
 	/**
 	 * A static method that Close all the open Connections
 	 */
 	public static void closeAllConnections() throws ConnectionPoolError {
+		String failures = "";
+
+		for (PooledConnection pooled = pool.poll(); pooled != null; pooled = pool.poll()) {
+			totalConnections.decrementAndGet();
+			failures += close(pooled.getConnection());
+		}
 
+		for (Connection connection : connections.keySet()) {
+			if (connections.remove(connection) != null)
+				totalConnections.decrementAndGet();
+			failures += close(connection);
+		}
+
+		for (Connection connection : reclaimed.keySet())
+			if (reclaimed.remove(connection) != null)
+				failures += close(connection);
+
+		if (!failures.isEmpty())
+			throw new ConnectionPoolError(MessageType.ERR,
+					"An Error occured while trying to CLOSE ALL connections", failures);
+	}
+
+	/**
+	 * Stops the background housekeeper and closes all the open Connections.
+	 */
+	public static void shutdown() throws ConnectionPoolError {
+		housekeeper.shutdownNow();
 		try {
+			ObjectName name = new ObjectName(STATS_NAME);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(name))
+				server.unregisterMBean(name);
+		} catch (JMException e) {
+			handler.log(LogLevel.WARN, "Couldn't unregister the connection pool statistics MBean.\n{}", e);
+		}
+		closeAllConnections();
+	}
+
+	/**
+	 * Gets the settings of the connection pool. Changes to the returned
+	 * {@link PoolConfig} take effect on the next borrow or housekeeping run.
+	 *
+	 * @return the pool settings
+	 */
+	public static PoolConfig getConfig() {
+		return config;
+	}
 
-			for (Connection connection : pool) {
+	/**
+	 * Sets the time a borrower waits for a free connection before
+	 * {@link #getConnection()} fails with a {@link ConnectionPoolError}.
+	 *
+	 * @param millis
+	 *            the timeout in milliseconds
+	 */
+	public static void setBorrowTimeout(long millis) {
+		config.setBorrowTimeout(millis);
+	}
 
-				connection.close();
+	/**
+	 * Gets the time a borrower waits for a free connection.
+	 *
+	 * @return the timeout in milliseconds
+	 */
+	public static long getBorrowTimeout() {
+		return config.getBorrowTimeout();
+	}
+
+	/**
+	 * Sets how connections are validated before they are lent.
+	 *
+	 * @param strategy
+	 *            the validation strategy
+	 */
+	public static void setValidationStrategy(ValidationStrategy strategy) {
+		config.setValidationStrategy(strategy);
+	}
+
+	/**
+	 * Sets the time a single {@link Connection#isValid(int)} check may take.
+	 *
+	 * @param seconds
+	 *            the timeout in seconds
+	 */
+	public static void setValidationTimeout(int seconds) {
+		config.setValidationTimeout(seconds);
+	}
+
+	/**
+	 * Sets the idle time after which an {@link ValidationStrategy#IF_IDLE}
+	 * connection is validated on borrow.
+	 *
+	 * @param millis
+	 *            the threshold in milliseconds
+	 */
+	public static void setValidationIdleThreshold(long millis) {
+		config.setValidationIdleThreshold(millis);
+	}
+
+	/**
+	 * Sets the max time a connection is kept open before it is retired and
+	 * replaced.
+	 *
+	 * @param millis
+	 *            the max lifetime in milliseconds, 0 for unlimited
+	 */
+	public static void setMaxLifetime(long millis) {
+		config.setMaxLifetime(millis);
+	}
+
+	/**
+	 * Sets the range of idle connections the housekeeper keeps in the pool.
+	 *
+	 * @param min
+	 *            the min number of idle connections
+	 * @param max
+	 *            the max number of idle connections
+	 */
+	public static void setIdleRange(int min, int max) {
+		config.setIdleRange(min, max);
+	}
+
+	/**
+	 * Sets the number of connections the pool shrinks back to and may grow up to.
+	 *
+	 * @param min
+	 *            the min number of connections
+	 * @param max
+	 *            the max number of connections
+	 */
+	public static void setSize(int min, int max) {
+		config.setSize(min, max);
+	}
+
+	/**
+	 * Gets the statistics of the connection pool.
+	 *
+	 * @return the pool statistics
+	 */
+	public static PoolStatsMXBean getStats() {
+		return stats;
+	}
+
+	/**
+	 * Gets the number of connections currently open, both idle and lent.
+	 *
+	 * @return the number of open connections
+	 */
+	public static int getSize() {
+		return totalConnections.get();
+	}
+
+	// Checks a connection taken from the idle queue before lending it
+	private static boolean isUsable(PooledConnection pooled, long now) {
+		if (pooled.isExpired(now, config.getMaxLifetime()))
+			return false;
+
+		switch (config.getValidationStrategy()) {
+		case ALWAYS:
+			return pooled.isValid(config.getValidationTimeout());
+		case IF_IDLE:
+			return pooled.idleTime(now) < config.getValidationIdleThreshold()
+					|| pooled.isValid(config.getValidationTimeout());
+		default:
+			return true;
+		}
+	}
+
+	// Retires stale and surplus idle connections (shrinking the pool back to the
+	// min size), validates the ones idle past the validation idle threshold, and
+	// refills the pool up to the min size and min idle connections. Recently used
+	// connections stay in the pool, so borrowers racing the housekeeper still
+	// find them
+	private static void houseKeep() {
+		try {
+			int retired = 0;
+			long now = System.currentTimeMillis();
+			// a snapshot, so connections offered back aren't visited twice
+			PooledConnection[] idleConnections = pool.toArray(new PooledConnection[0]);
+			int idle = idleConnections.length;
+
+			for (PooledConnection pooled : idleConnections) {
+				long idleTime = pooled.idleTime(now);
+				boolean surplus = idle > config.getMaxIdle()
+						|| (totalConnections.get() > config.getMinSize() && idleTime >= config.getIdleTimeout());
+				boolean stale = surplus || pooled.isExpired(now, config.getMaxLifetime());
+				if (!stale && idleTime < config.getValidationIdleThreshold())
+					continue;
+				if (!pool.remove(pooled)) // borrowed meanwhile
+					continue;
+				idle--;
+
+				if (stale || !pooled.isValid(config.getValidationTimeout())) {
+					retire(pooled);
+					retired++;
+				} else {
+					pool.offer(pooled);
+					idle++;
+				}
 			}
 
-			for (Connection connection : connections) {
+			int opened = 0;
+			while (totalConnections.get() < config.getMinSize() || idle < config.getMinIdle()) {
+				PooledConnection pooled = openConnection();
+				if (pooled == null)
+					break;
+				pool.offer(pooled);
+				idle++;
+				opened++;
+			}
 
-				connection.close();
+			if (retired > 0 || opened > 0)
+				handler.log(LogLevel.INFO,
+						"Connection pool housekeeping retired {} and opened {} connection(s), {} open.", retired,
+						opened, totalConnections.get());
+		} catch (ConnectionPoolError e) {
+			handler.log(LogLevel.WARN, "Connection pool housekeeping couldn't replace connections.\n{}",
+					e.getDetails());
+		} catch (RuntimeException e) {
+			handler.log(LogLevel.WARN, "Connection pool housekeeping failed.\n{}", e);
+		}
+	}
+
+	// Logs connections held longer than the leak detection threshold, along with
+	// where they were borrowed, and reclaims their slots if configured to. A
+	// reclaimed connection is left open for its borrower and closed when returned
+	private static void detectLeaks() {
+		long threshold = config.getLeakDetectionThreshold();
+		if (threshold <= 0)
+			return;
+
+		try {
+			for (PooledConnection pooled : connections.values()) {
+				Throwable borrowSite = pooled.getBorrowSite();
+				long held = TimeUnit.NANOSECONDS.toMillis(pooled.heldNanos());
+				if (borrowSite == null || held < threshold)
+					continue;
+
+				if (config.isReclaimLeaks()) {
+					if (connections.remove(pooled.getConnection(), pooled)) {
+						reclaimed.put(pooled.getConnection(), pooled);
+						handler.at(LogLevel.WARN).field("heldMs", held).field("thresholdMs", threshold)
+								.log(() -> "Reclaimed the slot of a leaked connection, it's closed when returned.\n"
+										+ stackTrace(borrowSite));
+						stats.leaked();
+						freeSlot();
+					}
+				} else if (pooled.reportLeak()) {
+					handler.at(LogLevel.WARN).field("heldMs", held).field("thresholdMs", threshold)
+							.log(() -> "Possible connection leak, a connection is held past the threshold.\n"
+									+ stackTrace(borrowSite));
+					stats.leaked();
+				}
 			}
+		} catch (RuntimeException e) {
+			handler.log(LogLevel.WARN, "Connection pool leak detection failed.\n{}", e);
+		}
+	}
+
+	// Formats where a connection was borrowed for the log
+	private static String stackTrace(Throwable borrowSite) {
+		StringWriter trace = new StringWriter();
+		borrowSite.printStackTrace(new PrintWriter(trace));
+		return trace.toString();
+	}
+
+	// Opens a new pooled connection if the pool has room for one, null otherwise
+	private static PooledConnection openConnection() throws ConnectionPoolError {
+		int total;
+		do {
+			total = totalConnections.get();
+			if (total >= config.getMaxSize())
+				return null;
+		} while (!totalConnections.compareAndSet(total, total + 1));
+
+		try {
+			Connection connection = createConnection();
+			return new PooledConnection(connection,
+					new StatementCache(connection, config.getStatementCacheSize(), stats));
+		} catch (ConnectionPoolError e) {
+			totalConnections.decrementAndGet();
+			throw e;
 		}
+	}
+
+	// Closes a connection and frees its slot in the pool
+	private static void retire(PooledConnection pooled) {
+		pooled.closeQuietly();
+		freeSlot();
+	}
 
-		catch (SQLException e) {
+	// Frees a connection's slot in the pool, opening a replacement right away if
+	// borrowers are waiting for one
+	private static void freeSlot() {
+		totalConnections.decrementAndGet();
 
-			throw new ConnectionPoolError(MessageType.ERR, 
-					"An Error occured while trying to CLOSE ALL connections", e.getMessage());
+		if (pool.hasWaitingConsumer()) {
+			try {
+				PooledConnection replacement = openConnection();
+				if (replacement != null)
+					pool.offer(replacement);
+			} catch (ConnectionPoolError e) {
+				handler.log(LogLevel.WARN, "Couldn't replace a retired connection.\n{}", e.getDetails());
+			}
+		}
+	}
+
+	// CLOSE a single connection, returning the error message (if any)
+	private static String close(Connection connection) {
+		try {
+			connection.close();
+			return "";
+		} catch (SQLException e) {
+			return e.getMessage() + "\n";
 		}
 	}
 
 	// CREATE a new CONNECTION with the SQL DataBase
-	private Connection createConnection() throws ConnectionPoolError {
+	private static Connection createConnection() throws ConnectionPoolError {
 		try {
-			Class.forName("com.mysql.jdbc.Driver");
+			Class.forName(config.getDriver());
 			Connection connection;
-			connection = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+			connection = DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
 			return connection;
 		} catch (Exception e) {
-			throw new ConnectionPoolError(MessageType.ERR, 
+			throw new ConnectionPoolError(MessageType.ERR,
 					"An Error occured while trying to CREATE a connection", e.getMessage());
 		}
 	}
-
-	// get the Connection Pool size - an internal method for debugging
-	@SuppressWarnings("unused")
-	private int getSize() {
-		return pool.size();
-	}
 }
@@ -0,0 +1,49 @@
+package Pool;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event of a connection returned to the
+ * {@link ConnectionPoolSingleton}, with the time it was held.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+@Name("CouponSystem.ConnectionReturn")
+@Label("Connection Return")
+@Category({ "Coupon System", "Connection Pool" })
+@Description("A connection returned to the pool")
+@StackTrace(false)
+final class ConnectionReturnEvent extends Event {
+	@Label("Hold Time")
+	@Description("The time the connection was lent")
+	@Timespan(Timespan.NANOSECONDS)
+	long holdTime;
+
+	@Label("Retired")
+	@Description("The connection was past its max lifetime and closed")
+	boolean retired;
+
+	/**
+	 * Commits a return if returns are recorded.
+	 *
+	 * @param holdNanos
+	 *            the time the connection was held
+	 * @param retired
+	 *            true if the connection was closed instead of pooled
+	 */
+	static void returned(long holdNanos, boolean retired) {
+		ConnectionReturnEvent event = new ConnectionReturnEvent();
+		if (event.shouldCommit()) {
+			event.holdTime = holdNanos;
+			event.retired = retired;
+			event.commit();
+		}
+	}
+}
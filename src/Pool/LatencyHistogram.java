@@ -0,0 +1,116 @@
+package Pool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram in the style of HdrHistogram.<br>
+ * <br>
+ * Values are recorded in microseconds into log-linear buckets: every power of
+ * two is split into 16 linear sub-buckets, so a reported percentile is within
+ * ~6% of the recorded value over the whole range of a long. Recording is a
+ * couple of atomic increments, cheap enough for the borrow/return hot path.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param nanos
+	 *            the duration in nanoseconds
+	 */
+	public void recordNanos(long nanos) {
+		long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+
+		counts.incrementAndGet(indexOf(micros));
+		count.increment();
+		sum.add(micros);
+		max.accumulateAndGet(micros, Math::max);
+	}
+
+	/**
+	 * Gets the number of recorded values
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Gets the value below which a given percentage of the recorded values fall.
+	 *
+	 * @param percentile
+	 *            the percentile, 0 - 100
+	 * @return the value in microseconds, 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++)
+			total += counts.get(i);
+		if (total == 0)
+			return 0;
+
+		long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= target)
+				return Math.min(highestValueOf(i), max.get());
+		}
+		return max.get();
+	}
+
+	/**
+	 * Takes a snapshot of the count, mean, max and common percentiles.
+	 *
+	 * @return the snapshot
+	 */
+	public LatencySnapshot snapshot() {
+		long n = count.sum();
+		return new LatencySnapshot(n, n == 0 ? 0 : (double) sum.sum() / n, getValueAtPercentile(50),
+				getValueAtPercentile(90), getValueAtPercentile(99), getValueAtPercentile(99.9), max.get());
+	}
+
+	/**
+	 * Clears all recorded values.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++)
+			counts.set(i, 0);
+		count.reset();
+		sum.reset();
+		max.set(0);
+	}
+
+	// The bucket of a value - values below 2 * SUB_BUCKETS get a bucket each,
+	// larger ones share a bucket with values of the same top 5 bits
+	private static int indexOf(long value) {
+		if (value < 2 * SUB_BUCKETS)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	// The highest value that falls in a bucket
+	private static long highestValueOf(int index) {
+		if (index < 2 * SUB_BUCKETS)
+			return index;
+		int shift = index / SUB_BUCKETS - 1;
+		long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
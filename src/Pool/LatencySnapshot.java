@@ -0,0 +1,110 @@
+package Pool;
+
+/**
+ * A point in time summary of a {@link LatencyHistogram}, all times in
+ * microseconds. Exposed over JMX as composite data.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public final class LatencySnapshot {
+	private final long count, p50, p90, p99, p999, max;
+	private final double mean;
+
+	/**
+	 * Constructs a new {@link LatencySnapshot}
+	 *
+	 * @param count
+	 *            the number of recorded values
+	 * @param mean
+	 *            the mean
+	 * @param p50
+	 *            the median
+	 * @param p90
+	 *            the 90th percentile
+	 * @param p99
+	 *            the 99th percentile
+	 * @param p999
+	 *            the 99.9th percentile
+	 * @param max
+	 *            the max
+	 */
+	public LatencySnapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+		this.count = count;
+		this.mean = mean;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+		this.p999 = p999;
+		this.max = max;
+	}
+
+	/**
+	 * Gets the number of recorded values
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the mean
+	 *
+	 * @return the mean in microseconds
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Gets the median
+	 *
+	 * @return the median in microseconds
+	 */
+	public long getP50() {
+		return p50;
+	}
+
+	/**
+	 * Gets the 90th percentile
+	 *
+	 * @return the 90th percentile in microseconds
+	 */
+	public long getP90() {
+		return p90;
+	}
+
+	/**
+	 * Gets the 99th percentile
+	 *
+	 * @return the 99th percentile in microseconds
+	 */
+	public long getP99() {
+		return p99;
+	}
+
+	/**
+	 * Gets the 99.9th percentile
+	 *
+	 * @return the 99.9th percentile in microseconds
+	 */
+	public long getP999() {
+		return p999;
+	}
+
+	/**
+	 * Gets the max
+	 *
+	 * @return the max in microseconds
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + count + ", mean=" + String.format("%.1f", mean) + "us, p50=" + p50 + "us, p90=" + p90
+				+ "us, p99=" + p99 + "us, p99.9=" + p999 + "us, max=" + max + "us";
+	}
+}
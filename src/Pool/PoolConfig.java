@@ -0,0 +1,511 @@
+package Pool;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import Dialect.SQLDialect;
+
+/**
+ * The settings of the {@link ConnectionPoolSingleton}.<br>
+ * <br>
+ * Settings are read from the properties file named by the
+ * <strong>couponsystem.config</strong> system property (default
+ * <em>couponsystem.properties</em> in the working directory, then on the
+ * classpath). A system property with the same key overrides the file.<br>
+ * <br>
+ * Keys:
+ * <ul>
+ * <li><strong>couponsystem.db.driver</strong>, <strong>couponsystem.db.url</strong>,
+ * <strong>couponsystem.db.user</strong>,
+ * <strong>couponsystem.db.password</strong> - the database to connect to. The
+ * driver defaults to the driver of the dialect</li>
+ * <li><strong>couponsystem.db.dialect</strong> - the name of the
+ * {@link SQLDialect} of the database (<em>MySQL</em> or <em>H2</em>), by
+ * default picked by the url</li>
+ * <li><strong>couponsystem.db.fetchSize</strong> - the number of rows a
+ * streaming query fetches per round trip, 0 for the driver's default (MySQL
+ * only honours it with <em>useCursorFetch=true</em> in the url)</li>
+ * <li><strong>couponsystem.pool.minSize</strong> /
+ * <strong>couponsystem.pool.maxSize</strong> - the number of connections the
+ * pool shrinks back to, and may grow up to</li>
+ * <li><strong>couponsystem.pool.minIdle</strong> /
+ * <strong>couponsystem.pool.maxIdle</strong> - the range of idle connections
+ * kept ready</li>
+ * <li><strong>couponsystem.pool.idleTimeout</strong> - milliseconds an idle
+ * connection above the min size is kept before it is closed</li>
+ * <li><strong>couponsystem.pool.borrowTimeout</strong> - milliseconds a borrower
+ * waits for a free connection</li>
+ * <li><strong>couponsystem.pool.validation</strong> - a
+ * {@link ValidationStrategy}</li>
+ * <li><strong>couponsystem.pool.validationTimeout</strong> - seconds a single
+ * validation may take</li>
+ * <li><strong>couponsystem.pool.validationIdleThreshold</strong> - milliseconds
+ * of idling after which an IF_IDLE connection is validated</li>
+ * <li><strong>couponsystem.pool.maxLifetime</strong> - milliseconds a
+ * connection is kept open, 0 for unlimited</li>
+ * <li><strong>couponsystem.pool.housekeepingInterval</strong> - milliseconds
+ * between housekeeping runs</li>
+ * <li><strong>couponsystem.pool.leakDetectionThreshold</strong> - milliseconds
+ * a connection may be held before it is reported as a leak, 0 to disable leak
+ * detection</li>
+ * <li><strong>couponsystem.pool.leakCheckInterval</strong> - milliseconds
+ * between leak detection runs</li>
+ * <li><strong>couponsystem.pool.reclaimLeaks</strong> - true to free the slots
+ * of leaked connections, closing them when they're returned</li>
+ * <li><strong>couponsystem.pool.statementCacheSize</strong> - the number of
+ * prepared statements cached per connection, 0 to disable the cache</li>
+ * </ul>
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public final class PoolConfig {
+	private static final String CONFIG_FILE = "couponsystem.properties";
+
+	private final String driver, url, user, password;
+	private final long housekeepingInterval, leakCheckInterval;
+	private volatile int minSize, maxSize, minIdle, maxIdle, validationTimeout, statementCacheSize, fetchSize;
+	private volatile long idleTimeout, borrowTimeout, validationIdleThreshold, maxLifetime, leakDetectionThreshold;
+	private volatile boolean reclaimLeaks;
+	private volatile ValidationStrategy validationStrategy;
+	private final SQLDialect dialect;
+
+	/**
+	 * Constructs a {@link PoolConfig} from properties.
+	 *
+	 * @param props
+	 *            the properties
+	 * @throws IllegalArgumentException
+	 *             if a numeric setting isn't a number, the sizes are out of
+	 *             range or the dialect is unknown
+	 */
+	public PoolConfig(Properties props) {
+		this.url = props.getProperty("couponsystem.db.url", "jdbc:mysql://localhost:3306/coupon_db");
+		String dialectName = props.getProperty("couponsystem.db.dialect", "").trim();
+		this.dialect = dialectName.isEmpty() ? SQLDialect.forUrl(url) : SQLDialect.forName(dialectName);
+		if (dialect == null)
+			throw new IllegalArgumentException("Unknown SQL dialect '" + dialectName + "'");
+		this.driver = props.getProperty("couponsystem.db.driver", dialect.getDriver());
+		this.user = props.getProperty("couponsystem.db.user", "root");
+		this.password = props.getProperty("couponsystem.db.password", "123456");
+		this.housekeepingInterval = getLong(props, "couponsystem.pool.housekeepingInterval", 30000);
+		this.borrowTimeout = getLong(props, "couponsystem.pool.borrowTimeout", 30000);
+		this.idleTimeout = getLong(props, "couponsystem.pool.idleTimeout", 600000);
+		this.validationStrategy = ValidationStrategy.getEnum(props.getProperty("couponsystem.pool.validation", "IF_IDLE"));
+		this.validationTimeout = (int) getLong(props, "couponsystem.pool.validationTimeout", 2);
+		this.validationIdleThreshold = getLong(props, "couponsystem.pool.validationIdleThreshold", 5000);
+		this.maxLifetime = getLong(props, "couponsystem.pool.maxLifetime", 1800000);
+		this.leakDetectionThreshold = getLong(props, "couponsystem.pool.leakDetectionThreshold", 0);
+		this.leakCheckInterval = getLong(props, "couponsystem.pool.leakCheckInterval", 5000);
+		if (leakCheckInterval <= 0)
+			throw new IllegalArgumentException("Leak check interval must be positive");
+		this.statementCacheSize = (int) getLong(props, "couponsystem.pool.statementCacheSize", 32);
+		setFetchSize((int) getLong(props, "couponsystem.db.fetchSize", 500));
+		this.reclaimLeaks = Boolean.parseBoolean(props.getProperty("couponsystem.pool.reclaimLeaks", "false"));
+
+		int max = (int) getLong(props, "couponsystem.pool.maxSize", ConnectionPoolSingleton.MAX_CONNECTIONS);
+		setSize((int) getLong(props, "couponsystem.pool.minSize", Math.min(2, max)), max);
+		setIdleRange((int) getLong(props, "couponsystem.pool.minIdle", Math.min(1, max)),
+				(int) getLong(props, "couponsystem.pool.maxIdle", max));
+	}
+
+	/**
+	 * Loads the {@link PoolConfig} from the config file and system properties.
+	 *
+	 * @return the config
+	 */
+	public static PoolConfig load() {
+		Properties props = new Properties();
+		String file = System.getProperty("couponsystem.config", CONFIG_FILE);
+
+		try (InputStream in = new FileInputStream(file)) {
+			props.load(in);
+		} catch (IOException e) {
+			try (InputStream in = PoolConfig.class.getClassLoader().getResourceAsStream(file)) {
+				if (in != null)
+					props.load(in);
+			} catch (IOException e2) {
+				System.err.println("Couldn't read pool config '" + file + "', using defaults.\n * " + e2.getMessage());
+			}
+		}
+
+		for (String key : System.getProperties().stringPropertyNames())
+			if (key.startsWith("couponsystem."))
+				props.setProperty(key, System.getProperty(key));
+
+		return new PoolConfig(props);
+	}
+
+	// Reads a numeric property
+	private static long getLong(Properties props, String key, long defaultValue) {
+		String value = props.getProperty(key);
+		if (value == null || value.trim().isEmpty())
+			return defaultValue;
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Pool setting '" + key + "' isn't a number: " + value);
+		}
+	}
+
+	/**
+	 * Sets the number of connections the pool shrinks back to and may grow up to.
+	 *
+	 * @param min
+	 *            the min number of connections
+	 * @param max
+	 *            the max number of connections
+	 */
+	public void setSize(int min, int max) {
+		if (min < 0 || max < 1 || max < min)
+			throw new IllegalArgumentException("Pool size must be 0 <= min <= max, max >= 1");
+		this.minSize = min;
+		this.maxSize = max;
+		if (this.maxIdle > max)
+			this.maxIdle = max;
+		if (this.minIdle > max)
+			this.minIdle = max;
+	}
+
+	/**
+	 * Sets the range of idle connections the housekeeper keeps in the pool.
+	 *
+	 * @param min
+	 *            the min number of idle connections
+	 * @param max
+	 *            the max number of idle connections
+	 */
+	public void setIdleRange(int min, int max) {
+		if (min < 0 || max < min || max > this.maxSize)
+			throw new IllegalArgumentException("Idle range must be 0 <= min <= max <= " + this.maxSize);
+		this.minIdle = min;
+		this.maxIdle = max;
+	}
+
+	/**
+	 * Gets the JDBC driver class name
+	 *
+	 * @return the driver class name
+	 */
+	public String getDriver() {
+		return driver;
+	}
+
+	/**
+	 * Gets the SQL dialect of the database
+	 *
+	 * @return the dialect
+	 */
+	public SQLDialect getDialect() {
+		return dialect;
+	}
+
+	/**
+	 * Gets the JDBC URL of the database
+	 *
+	 * @return the URL
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * Gets the database user
+	 *
+	 * @return the user
+	 */
+	public String getUser() {
+		return user;
+	}
+
+	/**
+	 * Gets the database password
+	 *
+	 * @return the password
+	 */
+	public String getPassword() {
+		return password;
+	}
+
+	/**
+	 * Gets the time between housekeeping runs
+	 *
+	 * @return the interval in milliseconds
+	 */
+	public long getHousekeepingInterval() {
+		return housekeepingInterval;
+	}
+
+	/**
+	 * Gets the number of connections the pool shrinks back to
+	 *
+	 * @return the min size
+	 */
+	public int getMinSize() {
+		return minSize;
+	}
+
+	/**
+	 * Gets the number of connections the pool may grow up to
+	 *
+	 * @return the max size
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Gets the min number of idle connections kept ready
+	 *
+	 * @return the min idle connections
+	 */
+	public int getMinIdle() {
+		return minIdle;
+	}
+
+	/**
+	 * Gets the max number of idle connections kept in the pool
+	 *
+	 * @return the max idle connections
+	 */
+	public int getMaxIdle() {
+		return maxIdle;
+	}
+
+	/**
+	 * Gets the time an idle connection above the min size is kept
+	 *
+	 * @return the idle timeout in milliseconds
+	 */
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * Sets the time an idle connection above the min size is kept
+	 *
+	 * @param millis
+	 *            the idle timeout in milliseconds
+	 */
+	public void setIdleTimeout(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("Idle timeout can't be negative");
+		this.idleTimeout = millis;
+	}
+
+	/**
+	 * Gets the time a borrower waits for a free connection
+	 *
+	 * @return the borrow timeout in milliseconds
+	 */
+	public long getBorrowTimeout() {
+		return borrowTimeout;
+	}
+
+	/**
+	 * Sets the time a borrower waits for a free connection
+	 *
+	 * @param millis
+	 *            the borrow timeout in milliseconds
+	 */
+	public void setBorrowTimeout(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("Borrow timeout can't be negative");
+		this.borrowTimeout = millis;
+	}
+
+	/**
+	 * Gets how connections are validated before they are lent
+	 *
+	 * @return the validation strategy
+	 */
+	public ValidationStrategy getValidationStrategy() {
+		return validationStrategy;
+	}
+
+	/**
+	 * Sets how connections are validated before they are lent
+	 *
+	 * @param strategy
+	 *            the validation strategy
+	 */
+	public void setValidationStrategy(ValidationStrategy strategy) {
+		if (strategy == null)
+			throw new IllegalArgumentException("Validation strategy can't be null");
+		this.validationStrategy = strategy;
+	}
+
+	/**
+	 * Gets the time a single validation may take
+	 *
+	 * @return the validation timeout in seconds
+	 */
+	public int getValidationTimeout() {
+		return validationTimeout;
+	}
+
+	/**
+	 * Sets the time a single validation may take
+	 *
+	 * @param seconds
+	 *            the validation timeout in seconds
+	 */
+	public void setValidationTimeout(int seconds) {
+		if (seconds < 0)
+			throw new IllegalArgumentException("Validation timeout can't be negative");
+		this.validationTimeout = seconds;
+	}
+
+	/**
+	 * Gets the idle time after which an IF_IDLE connection is validated on borrow
+	 *
+	 * @return the threshold in milliseconds
+	 */
+	public long getValidationIdleThreshold() {
+		return validationIdleThreshold;
+	}
+
+	/**
+	 * Sets the idle time after which an IF_IDLE connection is validated on borrow
+	 *
+	 * @param millis
+	 *            the threshold in milliseconds
+	 */
+	public void setValidationIdleThreshold(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("Validation idle threshold can't be negative");
+		this.validationIdleThreshold = millis;
+	}
+
+	/**
+	 * Gets the time a connection is kept open before it is replaced
+	 *
+	 * @return the max lifetime in milliseconds, 0 for unlimited
+	 */
+	public long getMaxLifetime() {
+		return maxLifetime;
+	}
+
+	/**
+	 * Sets the time a connection is kept open before it is replaced
+	 *
+	 * @param millis
+	 *            the max lifetime in milliseconds, 0 for unlimited
+	 */
+	public void setMaxLifetime(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("Max lifetime can't be negative");
+		this.maxLifetime = millis;
+	}
+
+	/**
+	 * Gets the time a connection may be held before it is reported as a leak
+	 *
+	 * @return the threshold in milliseconds, 0 if leak detection is disabled
+	 */
+	public long getLeakDetectionThreshold() {
+		return leakDetectionThreshold;
+	}
+
+	/**
+	 * Sets the time a connection may be held before it is reported as a leak.
+	 * Only connections borrowed while leak detection is enabled are tracked.
+	 *
+	 * @param millis
+	 *            the threshold in milliseconds, 0 to disable leak detection
+	 */
+	public void setLeakDetectionThreshold(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("Leak detection threshold can't be negative");
+		this.leakDetectionThreshold = millis;
+	}
+
+	/**
+	 * Gets the time between leak detection runs
+	 *
+	 * @return the interval in milliseconds
+	 */
+	public long getLeakCheckInterval() {
+		return leakCheckInterval;
+	}
+
+	/**
+	 * Checks if the slots of leaked connections are freed.<br>
+	 * <br>
+	 * <strong>A reclaimed connection isn't closed</strong> - its borrower may
+	 * still be using it. It no longer counts towards the max size, so the pool
+	 * may open a replacement, and it's closed when it's finally returned. A
+	 * borrower that never returns it keeps a database connection open outside
+	 * the pool's limits.
+	 *
+	 * @return true if leaks are reclaimed
+	 */
+	public boolean isReclaimLeaks() {
+		return reclaimLeaks;
+	}
+
+	/**
+	 * Sets if the slots of leaked connections are freed, see
+	 * {@link #isReclaimLeaks()}
+	 *
+	 * @param reclaimLeaks
+	 *            true to reclaim leaks
+	 */
+	public void setReclaimLeaks(boolean reclaimLeaks) {
+		this.reclaimLeaks = reclaimLeaks;
+	}
+
+	/**
+	 * Gets the number of prepared statements cached per connection
+	 *
+	 * @return the statement cache size, 0 if caching is disabled
+	 */
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	/**
+	 * Sets the number of prepared statements cached per connection. Applies to
+	 * connections opened from now on.
+	 *
+	 * @param size
+	 *            the statement cache size, 0 to disable caching
+	 */
+	public void setStatementCacheSize(int size) {
+		if (size < 0)
+			throw new IllegalArgumentException("Statement cache size can't be negative");
+		this.statementCacheSize = size;
+	}
+
+	/**
+	 * Gets the number of rows a streaming query fetches per round trip
+	 *
+	 * @return the fetch size, 0 for the driver's default
+	 */
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * Sets the number of rows a streaming query fetches per round trip
+	 *
+	 * @param fetchSize
+	 *            the fetch size, 0 for the driver's default
+	 */
+	public void setFetchSize(int fetchSize) {
+		if (fetchSize < 0)
+			throw new IllegalArgumentException("Fetch size can't be negative");
+		this.fetchSize = fetchSize;
+	}
+
+	@Override
+	public String toString() {
+		return "PoolConfig [" + url + " as " + user + "] size " + minSize + "-" + maxSize + ", idle " + minIdle + "-"
+				+ maxIdle + ", idle timeout " + idleTimeout + "ms, borrow timeout " + borrowTimeout + "ms, validation "
+				+ validationStrategy + ", max lifetime " + maxLifetime + "ms, leak detection "
+				+ (leakDetectionThreshold > 0 ? leakDetectionThreshold + "ms" + (reclaimLeaks ? " (reclaim)" : "") : "off")
+				+ ", statement cache " + statementCacheSize + ", fetch size " + fetchSize;
+	}
+}
@@ -0,0 +1,174 @@
+package Pool;
+
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link PoolStatsMXBean} of the {@link ConnectionPoolSingleton}. Gauges are
+ * read from the pool itself, counters and histograms are recorded by it.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class PoolStats implements PoolStatsMXBean {
+	private final LinkedTransferQueue<PooledConnection> pool;
+	private final AtomicInteger totalConnections;
+	private final LongAdder borrows = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder leaks = new LongAdder();
+	private final LongAdder statementHits = new LongAdder();
+	private final LongAdder statementMisses = new LongAdder();
+	private final LongAdder statementEvictions = new LongAdder();
+	private final LatencyHistogram borrowWait = new LatencyHistogram();
+	private final LatencyHistogram holdTime = new LatencyHistogram();
+
+	/**
+	 * Constructs a new {@link PoolStats}
+	 *
+	 * @param pool
+	 *            the queue of idle connections
+	 * @param totalConnections
+	 *            the number of open connections
+	 */
+	PoolStats(LinkedTransferQueue<PooledConnection> pool, AtomicInteger totalConnections) {
+		this.pool = pool;
+		this.totalConnections = totalConnections;
+	}
+
+	/**
+	 * Records a successful borrow.
+	 *
+	 * @param waitNanos
+	 *            the time the borrower waited
+	 */
+	void borrowed(long waitNanos) {
+		borrows.increment();
+		borrowWait.recordNanos(waitNanos);
+	}
+
+	/**
+	 * Records a connection being returned.
+	 *
+	 * @param holdNanos
+	 *            the time the connection was held
+	 */
+	void returned(long holdNanos) {
+		holdTime.recordNanos(holdNanos);
+	}
+
+	/**
+	 * Records a borrow that timed out.
+	 */
+	void timedOut() {
+		timeouts.increment();
+	}
+
+	/**
+	 * Records a connection detected as leaked.
+	 */
+	void leaked() {
+		leaks.increment();
+	}
+
+	/**
+	 * Records a prepared statement reused from a statement cache.
+	 */
+	void statementHit() {
+		statementHits.increment();
+	}
+
+	/**
+	 * Records a prepared statement that wasn't cached and had to be prepared.
+	 */
+	void statementMiss() {
+		statementMisses.increment();
+	}
+
+	/**
+	 * Records a prepared statement evicted from a full statement cache.
+	 */
+	void statementEvicted() {
+		statementEvictions.increment();
+	}
+
+	@Override
+	public int getActiveConnections() {
+		return Math.max(0, totalConnections.get() - pool.size());
+	}
+
+	@Override
+	public int getIdleConnections() {
+		return pool.size();
+	}
+
+	@Override
+	public int getTotalConnections() {
+		return totalConnections.get();
+	}
+
+	@Override
+	public int getWaitingThreads() {
+		return pool.getWaitingConsumerCount();
+	}
+
+	@Override
+	public long getTotalBorrows() {
+		return borrows.sum();
+	}
+
+	@Override
+	public long getTimeouts() {
+		return timeouts.sum();
+	}
+
+	@Override
+	public long getLeaks() {
+		return leaks.sum();
+	}
+
+	@Override
+	public long getStatementCacheHits() {
+		return statementHits.sum();
+	}
+
+	@Override
+	public long getStatementCacheMisses() {
+		return statementMisses.sum();
+	}
+
+	@Override
+	public long getStatementCacheEvictions() {
+		return statementEvictions.sum();
+	}
+
+	@Override
+	public LatencySnapshot getBorrowWait() {
+		return borrowWait.snapshot();
+	}
+
+	@Override
+	public LatencySnapshot getHoldTime() {
+		return holdTime.snapshot();
+	}
+
+	@Override
+	public void resetStatistics() {
+		borrows.reset();
+		timeouts.reset();
+		leaks.reset();
+		statementHits.reset();
+		statementMisses.reset();
+		statementEvictions.reset();
+		borrowWait.reset();
+		holdTime.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "PoolStats [active=" + getActiveConnections() + ", idle=" + getIdleConnections() + ", waiting="
+				+ getWaitingThreads() + ", borrows=" + getTotalBorrows() + ", timeouts=" + getTimeouts() + ", leaks="
+				+ getLeaks() + ", statement cache hits=" + getStatementCacheHits() + ", misses="
+				+ getStatementCacheMisses() + ", evictions=" + getStatementCacheEvictions() + "]\n borrow wait: " + getBorrowWait() + "\n hold time: " + getHoldTime();
+	}
+}
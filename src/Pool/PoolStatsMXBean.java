@@ -0,0 +1,102 @@
+package Pool;
+
+/**
+ * The statistics of the {@link ConnectionPoolSingleton}, registered with the
+ * platform MBeanServer as <strong>CouponSystem:type=ConnectionPool</strong>.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public interface PoolStatsMXBean {
+
+	/**
+	 * Gets the number of connections currently lent
+	 *
+	 * @return the active connections
+	 */
+	int getActiveConnections();
+
+	/**
+	 * Gets the number of connections waiting in the pool
+	 *
+	 * @return the idle connections
+	 */
+	int getIdleConnections();
+
+	/**
+	 * Gets the number of open connections, both active and idle
+	 *
+	 * @return the total connections
+	 */
+	int getTotalConnections();
+
+	/**
+	 * Gets the number of threads waiting for a free connection
+	 *
+	 * @return the waiting threads
+	 */
+	int getWaitingThreads();
+
+	/**
+	 * Gets the number of successful borrows
+	 *
+	 * @return the total borrows
+	 */
+	long getTotalBorrows();
+
+	/**
+	 * Gets the number of borrows that timed out waiting for a connection
+	 *
+	 * @return the timeouts
+	 */
+	long getTimeouts();
+
+	/**
+	 * Gets the number of connections detected as leaked, held longer than the
+	 * leak detection threshold
+	 *
+	 * @return the leaks
+	 */
+	long getLeaks();
+
+	/**
+	 * Gets the number of prepared statements reused from the statement caches
+	 *
+	 * @return the statement cache hits
+	 */
+	long getStatementCacheHits();
+
+	/**
+	 * Gets the number of prepared statements that weren't cached and had to be
+	 * prepared
+	 *
+	 * @return the statement cache misses
+	 */
+	long getStatementCacheMisses();
+
+	/**
+	 * Gets the number of prepared statements evicted from full statement caches
+	 *
+	 * @return the statement cache evictions
+	 */
+	long getStatementCacheEvictions();
+
+	/**
+	 * Gets the time borrowers waited in {@link ConnectionPoolSingleton#getConnection()}
+	 *
+	 * @return the borrow wait percentiles, in microseconds
+	 */
+	LatencySnapshot getBorrowWait();
+
+	/**
+	 * Gets the time connections were held before they were returned
+	 *
+	 * @return the hold time percentiles, in microseconds
+	 */
+	LatencySnapshot getHoldTime();
+
+	/**
+	 * Clears the counters and histograms.
+	 */
+	void resetStatistics();
+}
@@ -0,0 +1,169 @@
+package Pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A physical connection managed by the {@link ConnectionPoolSingleton}, along
+ * with the bookkeeping the pool needs to validate and retire it.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class PooledConnection {
+	private final Connection connection;
+	private final StatementCache statements;
+	private final long createdAt;
+	private volatile long lastUsed, borrowedAt;
+	private volatile Throwable borrowSite;
+	private volatile boolean leakReported;
+
+	/**
+	 * Constructs a new {@link PooledConnection}
+	 *
+	 * @param connection
+	 *            the physical connection
+	 * @param statements
+	 *            the statement cache of the connection
+	 */
+	PooledConnection(Connection connection, StatementCache statements) {
+		this.connection = connection;
+		this.statements = statements;
+		this.createdAt = System.currentTimeMillis();
+		this.lastUsed = this.createdAt;
+	}
+
+	/**
+	 * Gets the physical connection
+	 *
+	 * @return the connection
+	 */
+	Connection getConnection() {
+		return connection;
+	}
+
+	/**
+	 * Gets the cache of prepared statements of this connection
+	 *
+	 * @return the statement cache
+	 */
+	StatementCache getStatements() {
+		return statements;
+	}
+
+	/**
+	 * Marks this connection as lent.
+	 *
+	 * @param nanoTime
+	 *            the {@link System#nanoTime()} it was lent at
+	 */
+	void lend(long nanoTime) {
+		this.borrowedAt = nanoTime;
+		this.borrowSite = null;
+		this.leakReported = false;
+	}
+
+	/**
+	 * Marks this connection as lent, recording the borrowing thread and stack for
+	 * leak detection.
+	 *
+	 * @param nanoTime
+	 *            the {@link System#nanoTime()} it was lent at
+	 */
+	void lendTracked(long nanoTime) {
+		lend(nanoTime);
+		this.borrowSite = new Throwable("Connection borrowed by thread '" + Thread.currentThread().getName() + "'");
+	}
+
+	/**
+	 * Gets where this connection was borrowed, if it was lent with leak detection
+	 * enabled.
+	 *
+	 * @return the borrowing thread and stack, or null if not tracked
+	 */
+	Throwable getBorrowSite() {
+		return borrowSite;
+	}
+
+	/**
+	 * Marks this connection as reported leaked, so it is reported once per
+	 * borrow.
+	 *
+	 * @return true if it wasn't reported yet
+	 */
+	boolean reportLeak() {
+		if (leakReported)
+			return false;
+		leakReported = true;
+		return true;
+	}
+
+	/**
+	 * Gets the time (nanoseconds) this connection has been held since it was
+	 * lent.
+	 *
+	 * @return the hold time
+	 */
+	long heldNanos() {
+		return System.nanoTime() - borrowedAt;
+	}
+
+	/**
+	 * Marks this connection as used now.
+	 */
+	void touch() {
+		this.lastUsed = System.currentTimeMillis();
+	}
+
+	/**
+	 * Gets the time (milliseconds) this connection has been idle since it was last
+	 * used.
+	 *
+	 * @param now
+	 *            the current time
+	 * @return the idle time
+	 */
+	long idleTime(long now) {
+		return now - lastUsed;
+	}
+
+	/**
+	 * Checks if this connection outlived the max lifetime.
+	 *
+	 * @param now
+	 *            the current time
+	 * @param maxLifetime
+	 *            the max lifetime in milliseconds, 0 for unlimited
+	 * @return true if expired
+	 */
+	boolean isExpired(long now, long maxLifetime) {
+		return maxLifetime > 0 && now - createdAt >= maxLifetime;
+	}
+
+	/**
+	 * Checks if the connection is still alive.
+	 *
+	 * @param timeout
+	 *            the validation timeout in seconds
+	 * @return true if valid
+	 */
+	boolean isValid(int timeout) {
+		try {
+			return !connection.isClosed() && connection.isValid(timeout);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Closes the cached statements and the physical connection, ignoring errors.
+	 */
+	void closeQuietly() {
+		statements.clear();
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			// already broken, nothing left to release
+		}
+	}
+}
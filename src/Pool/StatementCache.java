@@ -0,0 +1,145 @@
+package Pool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An LRU cache of the {@link PreparedStatement}s of a single pooled connection,
+ * keyed by SQL text.<br>
+ * <br>
+ * A statement is checked out of the cache while it is in use, so a nested
+ * query with the same SQL (e.g. loading coupons while iterating customers)
+ * prepares a second statement instead of closing the outer ResultSet. Released
+ * statements go back to the cache, and the least recently used ones are closed
+ * once the cache is full.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+final class StatementCache {
+	private final Connection connection;
+	private final PoolStats stats;
+	private final int maxSize;
+	private final LinkedHashMap<String, PreparedStatement> idle;
+	private final Map<PreparedStatement, String> inUse = new IdentityHashMap<>();
+
+	/**
+	 * Constructs a new {@link StatementCache}
+	 *
+	 * @param connection
+	 *            the connection the statements are prepared on
+	 * @param maxSize
+	 *            the max number of idle statements kept, 0 to disable caching
+	 * @param stats
+	 *            the pool statistics to record hits, misses and evictions in
+	 */
+	StatementCache(Connection connection, int maxSize, PoolStats stats) {
+		this.connection = connection;
+		this.maxSize = maxSize;
+		this.stats = stats;
+		this.idle = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+				if (size() <= StatementCache.this.maxSize)
+					return false;
+				closeQuietly(eldest.getValue());
+				StatementCache.this.stats.statementEvicted();
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Checks a statement out of the cache, preparing it if there is no idle one.
+	 *
+	 * @param sql
+	 *            the SQL text
+	 * @param autoGeneratedKeys
+	 *            {@link Statement#RETURN_GENERATED_KEYS} or
+	 *            {@link Statement#NO_GENERATED_KEYS}
+	 * @return the statement, to be handed back to {@link #release}
+	 * @throws SQLException
+	 *             if the statement couldn't be prepared
+	 */
+	synchronized PreparedStatement acquire(String sql, int autoGeneratedKeys) throws SQLException {
+		String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "KEYS:" + sql : sql;
+		PreparedStatement statement = idle.remove(key);
+
+		if (statement != null && !statement.isClosed())
+			stats.statementHit();
+		else {
+			stats.statementMiss();
+			statement = connection.prepareStatement(sql, autoGeneratedKeys);
+		}
+
+		inUse.put(statement, key);
+		return statement;
+	}
+
+	/**
+	 * Hands a statement back to the cache, closing its ResultSet and parameters.
+	 * Statements that weren't acquired from this cache, or can't be cached, are
+	 * closed.
+	 *
+	 * @param statement
+	 *            the statement
+	 * @throws SQLException
+	 *             if closing the statement failed
+	 */
+	synchronized void release(PreparedStatement statement) throws SQLException {
+		String key = inUse.remove(statement);
+		if (key == null || maxSize <= 0 || idle.containsKey(key) || statement.isClosed()) {
+			statement.close();
+			return;
+		}
+
+		try {
+			ResultSet result = statement.getResultSet();
+			if (result != null)
+				result.close();
+			statement.clearParameters();
+		} catch (SQLException e) {
+			statement.close();
+			return;
+		}
+		idle.put(key, statement);
+	}
+
+	/**
+	 * Gets the number of idle statements in the cache
+	 *
+	 * @return the cache size
+	 */
+	synchronized int size() {
+		return idle.size();
+	}
+
+	/**
+	 * Closes all the cached statements, ignoring errors.
+	 */
+	synchronized void clear() {
+		for (Iterator<PreparedStatement> iterator = idle.values().iterator(); iterator.hasNext();) {
+			closeQuietly(iterator.next());
+			iterator.remove();
+		}
+		inUse.clear();
+	}
+
+	// Closes a statement, ignoring errors
+	private static void closeQuietly(Statement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			// the connection is going away with it
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package Pool;
+
+/**
+ * An ENUM of the ways the {@link ConnectionPoolSingleton} validates a
+ * connection before lending it.
+ *
+ * @author Gonen Matias
+ * @version 1.1 02/02/2018
+ */
+public enum ValidationStrategy {
+	/**
+	 * Never validate on borrow, rely on the background housekeeper only.
+	 */
+	NONE,
+	/**
+	 * Validate every connection before it is lent.
+	 */
+	ALWAYS,
+	/**
+	 * Validate only connections that have been idle longer than the validation
+	 * idle threshold.
+	 */
+	IF_IDLE;
+
+	/**
+	 * Gets the ENUM value of ValidationStrategy from a String value.
+	 *
+	 * @param value
+	 *            the String value of ValidationStrategy
+	 * @return either (1) returns the ValidationStrategy value or (2) returns
+	 *         IF_IDLE if value is not a valid ValidationStrategy
+	 */
+	public static ValidationStrategy getEnum(String value) {
+		for (ValidationStrategy strategy : values())
+			if (strategy.name().equalsIgnoreCase(value))
+				return strategy;
+		return IF_IDLE;
+	}
+}
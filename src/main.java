@@ -19,11 +19,11 @@ import Exceptions.ListEmpty.EmptyItemList;
 import Exceptions.NotFound.CompanyNotFound;
 import Exceptions.NotFound.CouponNotFound;
 import Exceptions.NotFound.CustomerNotFound;
-import Facade.AdminFacade;
+import Facade.AdminClientFacade;
 import Facade.ClientType;
-import Facade.CompanyFacade;
+import Facade.CompanyClientFacade;
 import Facade.CouponClientFacade;
-import Facade.CustomerFacade;
+import Facade.CustomerClientFacade;
 import LogHandler.CouponLogHandler;
 
 public class main {
@@ -162,7 +162,7 @@ public class main {
 			for (Coupon c : couponUtil.getAllCoupons())
 				System.out.println(c);
 		} catch (UnexpectedError e) {
-			handler.log(e.getDetails());
+			handler.log(e);
 		} finally { System.out.println("\n\n"); }
 
 		cLog("Archived coupons in database");
@@ -171,7 +171,7 @@ public class main {
 			for (Coupon c : couponUtil.getAllArchivedCoupons())
 				System.out.println(c);
 		} catch (UnexpectedError e) {
-			handler.log(e.getDetails());
+			handler.log(e);
 		} finally { System.out.println("\n\n"); }
 		
 		cLog("Running system now");
@@ -183,10 +183,10 @@ public class main {
 		cSys = CouponSystem.getInstance();
 		CouponClientFacade facade = cSys.login(username, password, ClientType.COMPANY);
 		if (facade != null) {
-			if (facade instanceof CompanyFacade) {
+			if (facade instanceof CompanyClientFacade) {
 				System.out.println("COMPANY LOGGED IN");
 				try {
-					System.out.println(((CompanyFacade) facade).getCompany());
+					System.out.println(((CompanyClientFacade) facade).getCompany());
 				} catch (InvalidSession | UnexpectedError e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
@@ -194,7 +194,7 @@ public class main {
 				System.out.println("Enter anything to see the coupons you own.");
 				in.next();
 				try {
-					for (Coupon c : ((CompanyFacade) facade).getCoupons())
+					for (Coupon c : ((CompanyClientFacade) facade).getCoupons())
 						System.out.println(c);
 				} catch (EmptyFilteredList | UnexpectedError | InvalidSession e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
@@ -206,7 +206,7 @@ public class main {
 //					testCoupon = createCoupon();
 					testCoupon = new Coupon(123, "Medicare4U", "message1212", "image123123", dt, dt, 20, CouponType.HEALTH,
 							66.5);
-					((CompanyFacade) facade).createCoupon(testCoupon);
+					((CompanyClientFacade) facade).createCoupon(testCoupon);
 				} catch (CouponAlreadyExists | UnexpectedError | InvalidSession e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
@@ -216,7 +216,7 @@ public class main {
 //					testCoupon = createCoupon();
 					testCoupon = new Coupon(123, "Medicare4U", "message1212", "image123123", dt, dt, 20, CouponType.HEALTH,
 							66.5);
-					((CompanyFacade) facade).createCoupon(testCoupon);
+					((CompanyClientFacade) facade).createCoupon(testCoupon);
 				} catch (CouponAlreadyExists | UnexpectedError | InvalidSession e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
@@ -224,7 +224,7 @@ public class main {
 				System.out.println("Enter anything to see the coupons you own.");
 				in.next();
 				try {
-					for (Coupon c : ((CompanyFacade) facade).getCoupons())
+					for (Coupon c : ((CompanyClientFacade) facade).getCoupons())
 						System.out.println(c);
 				} catch (EmptyFilteredList | UnexpectedError | InvalidSession e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
@@ -240,55 +240,55 @@ public class main {
 
 					testCoupon2 = new Coupon(123, "UPDATED Medicare4U", "message1212", "image123123", dt, dt, 20, CouponType.RESTAURANTS,
 							66.5);
-					((CompanyFacade) facade).updateCoupon(testCoupon2);
+					((CompanyClientFacade) facade).updateCoupon(testCoupon2);
 				} catch (CouponAlreadyExists | UnexpectedError | InvalidSession | CouponNotFound | CompanyDoesntOwnCoupon e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
 				System.out.println("Enter anything to see the coupons you own.");
 				in.next();
 				try {
-					for (Coupon c : ((CompanyFacade) facade).getCoupons())
+					for (Coupon c : ((CompanyClientFacade) facade).getCoupons())
 						System.out.println(c);
 				} catch (EmptyFilteredList | UnexpectedError | InvalidSession e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
 			}
-			if (facade instanceof CustomerFacade) {
+			if (facade instanceof CustomerClientFacade) {
 				System.out.println("CUSTOMER LOGGED IN");
 				
 			}
-			if (facade instanceof AdminFacade) {
+			if (facade instanceof AdminClientFacade) {
 				System.out.println("ADMIN LOGGED IN");
 				try {
 					try {
-						for (Company c : ((AdminFacade) facade).getAllCompanies())
+						for (Company c : ((AdminClientFacade) facade).getAllCompanies())
 							System.out.println(c);
 					} catch (UnexpectedError | InvalidSession | EmptyItemList  e) {
 						System.err.println(e.getMessage() + "\n" + e.getDetails());
 					}
 					
 					System.out.println("\n\n\n");
-//					((AdminFacade) facade).createCompany(testCompany);
+//					((AdminClientFacade) facade).createCompany(testCompany);
 //				} catch (UnexpectedError | InvalidSession | CompanyAlreadyExists e) {
 //					System.err.println(e.getMessage() + "\n" + e.getDetails());
 //				}
-					((AdminFacade) facade).removeCompany(testCompany);
+					((AdminClientFacade) facade).removeCompany(testCompany);
 				} catch (UnexpectedError | InvalidSession | CompanyNotFound e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
-//					((AdminFacade) facade).updateCompany(testCompany);
+//					((AdminClientFacade) facade).updateCompany(testCompany);
 //				} catch (UnexpectedError | InvalidSession | CompanyNotFound | CompanyAlreadyExists e) {
 //					System.err.println(e.getMessage() + "\n" + e.getDetails());
 //				}
 				try {
-					for (Company c : ((AdminFacade) facade).getAllCompanies())
+					for (Company c : ((AdminClientFacade) facade).getAllCompanies())
 						System.out.println(c);
 				} catch (UnexpectedError | InvalidSession | EmptyItemList  e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
 				
 				try {
-					for (Customer c : ((AdminFacade) facade).getAllCustomers())
+					for (Customer c : ((AdminClientFacade) facade).getAllCustomers())
 						System.out.println(c);
 				} catch (UnexpectedError | InvalidSession | EmptyItemList  e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
@@ -296,13 +296,13 @@ public class main {
 				
 				
 				try {
-					testCustomer1 = ((AdminFacade) facade).getCustomer(testCustomer1.getId());
+					testCustomer1 = ((AdminClientFacade) facade).getCustomer(testCustomer1.getId());
 				} catch (UnexpectedError | InvalidSession | CustomerNotFound  e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
 				
 				try {
-					for (Customer c : ((AdminFacade) facade).getAllCustomers())
+					for (Customer c : ((AdminClientFacade) facade).getAllCustomers())
 						System.out.println(c);
 				} catch (UnexpectedError | InvalidSession | EmptyItemList  e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
@@ -312,31 +312,31 @@ public class main {
 				System.out.println("\nenter new name for customer\n"+testCustomer1);
 				testCustomer1.setName(in.next());
 				try {
-					((AdminFacade) facade).updateCustomer(testCustomer1);
+					((AdminClientFacade) facade).updateCustomer(testCustomer1);
 				} catch (UnexpectedError | InvalidSession | CustomerAlreadyExists | CustomerNotFound e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
 				in.next();
 				try {
-					System.out.println(((AdminFacade) facade).getCustomer(11));
+					System.out.println(((AdminClientFacade) facade).getCustomer(11));
 				} catch (UnexpectedError | InvalidSession | CustomerNotFound  e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
 				in.next();
 				testCustomer2 = new Customer("Yoe12121", "hi_there", 3333);
 				try {
-					((AdminFacade) facade).removeCustomer(testCustomer2);
+					((AdminClientFacade) facade).removeCustomer(testCustomer2);
 				} catch (UnexpectedError | InvalidSession | CustomerNotFound  e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
 				try {
-					for (Customer c : ((AdminFacade) facade).getAllCustomers())
+					for (Customer c : ((AdminClientFacade) facade).getAllCustomers())
 						System.out.println(c);
 				} catch (UnexpectedError | InvalidSession | EmptyItemList  e) {
 					System.err.println(e.getMessage() + "\n" + e.getDetails());
 				}
 				
-//					System.out.println(((AdminFacade) facade).getCompany(12));
+//					System.out.println(((AdminClientFacade) facade).getCompany(12));
 //					} catch (UnexpectedError | InvalidSession | CompanyNotFound e) {
 //					System.err.println(e.getMessage() + "\n" + e.getDetails());
 //				}